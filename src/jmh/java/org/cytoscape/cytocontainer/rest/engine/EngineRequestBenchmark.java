@@ -0,0 +1,175 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.engine.util.CommandLineRunner;
+import org.cytoscape.cytocontainer.rest.engine.util.CytoContainerRequestValidatorImpl;
+import org.cytoscape.cytocontainer.rest.engine.util.DockerCytoContainerRunner;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
+import org.cytoscape.cytocontainer.rest.services.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link CytoContainerEngineImpl#request(java.lang.String, org.cytoscape.cytocontainer.rest.model.CytoContainerRequest) }
+ * end to end with a {@link CommandLineRunner} that writes a canned result
+ * instead of running docker. Tasks run on the calling thread so each
+ * operation covers validation, writing the input file, running the
+ * task, and saving the result to the task directory.
+ *
+ * @author churas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EngineRequestBenchmark {
+
+	/**
+	 * Name of algorithm requests are made for
+	 */
+	public static final String ALGORITHM = "benchmark";
+
+	@Param({"1024", "1048576"})
+	public int dataSize;
+
+	private File _baseDir;
+	private File _taskDir;
+	private CytoContainerEngineImpl _engine;
+	private CytoContainerRequest _request;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws Exception {
+		_baseDir = Files.createTempDirectory("enginerequestbenchmark").toFile();
+		File confFile = new File(_baseDir, "cytocontainer.conf");
+		try (FileWriter fw = new FileWriter(confFile)){
+			fw.write(Configuration.TASK_DIR + " = " + _baseDir.getAbsolutePath() + "\n");
+		}
+		Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+		Configuration.reloadConfiguration();
+
+		_request = new CytoContainerRequest();
+		Map<String, String> params = new HashMap<>();
+		_request.setParameters(params);
+		_request.setData(new TextNode("x".repeat(dataSize)));
+	}
+
+	@Setup(Level.Iteration)
+	public void setupIteration() throws Exception {
+		_taskDir = Files.createTempDirectory(_baseDir.toPath(), "tasks").toFile();
+		CytoContainerAlgorithm cda = new CytoContainerAlgorithm();
+		cda.setName(ALGORITHM);
+		cda.setDockerImage("coleslawndex/benchmark");
+		LinkedHashMap<String, CytoContainerAlgorithm> algoMap = new LinkedHashMap<>();
+		algoMap.put(ALGORITHM, cda);
+		CytoContainerAlgorithms algos = new CytoContainerAlgorithms();
+		algos.setAlgorithms(algoMap);
+		_engine = new StubEngine(_taskDir.getAbsolutePath(), algos);
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDownIteration() throws IOException {
+		_engine.shutdown();
+		FileUtils.deleteDirectory(_taskDir);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		FileUtils.deleteDirectory(_baseDir);
+	}
+
+	@Benchmark
+	public String request() throws Exception {
+		return _engine.request(ALGORITHM, _request);
+	}
+
+	/**
+	 * Engine that runs tasks on the calling thread with
+	 * {@link StubCommandLineRunner}
+	 */
+	static class StubEngine extends CytoContainerEngineImpl {
+
+		private final String _stubTaskDir;
+
+		StubEngine(final String taskDir, CytoContainerAlgorithms algos){
+			super(MoreExecutors.newDirectExecutorService(), taskDir, "docker", algos,
+					new CytoContainerRequestValidatorImpl(algos));
+			_stubTaskDir = taskDir;
+		}
+
+		@Override
+		protected DockerCytoContainerRunner createDockerCytoContainerRunner(final String id,
+				final String algorithm, CytoContainerRequest request, final long startTime,
+				final String dockerImage, Map<String, String> combinedParams) throws Exception {
+			return new StubDockerCytoContainerRunner(id, request, startTime,
+					_stubTaskDir, dockerImage, combinedParams);
+		}
+	}
+
+	/**
+	 * Runner that uses {@link StubCommandLineRunner}
+	 */
+	static class StubDockerCytoContainerRunner extends DockerCytoContainerRunner {
+
+		StubDockerCytoContainerRunner(final String id, CytoContainerRequest request,
+				final long startTime, final String taskDir, final String dockerImage,
+				Map<String, String> combinedParams) throws Exception {
+			super(id, request, startTime, taskDir, "docker", dockerImage, combinedParams,
+					180, TimeUnit.SECONDS, ":ro");
+			setAlternateCommandLineRunner(new StubCommandLineRunner());
+		}
+	}
+
+	/**
+	 * Writes a small JSON result to standard out and a couple
+	 * progress lines to standard error
+	 */
+	static class StubCommandLineRunner implements CommandLineRunner {
+
+		private String _lastCommand;
+
+		@Override
+		public void setWorkingDirectory(String workingDir) {
+		}
+
+		@Override
+		public void setEnvironmentVariables(Map<String, String> envVars) {
+		}
+
+		@Override
+		public String getLastCommand() {
+			return _lastCommand;
+		}
+
+		@Override
+		public int runCommandLineProcess(long timeOut, TimeUnit unit, File stdOutFile,
+				File stdErrFile, String... command) throws Exception {
+			_lastCommand = String.join(" ", command);
+			try (FileWriter fw = new FileWriter(stdOutFile)){
+				fw.write("{\"communityDetectionResult\": \"0,1,c-m;\"}\n");
+			}
+			try (FileWriter fw = new FileWriter(stdErrFile)){
+				fw.write("@@PROGRESS 50\n@@MESSAGE halfway\n@@PROGRESS 100\n");
+			}
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.engine.util.DockerCytoContainerRunner;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures queueing a {@link CytoContainerTask} wrapping a
+ * {@link DockerCytoContainerRunner} the way
+ * {@link CytoContainerEngineImpl#request(java.lang.String, org.cytoscape.cytocontainer.rest.model.CytoContainerRequest) }
+ * does, for request data of different sizes. Tasks are held in a queue
+ * of up to {@link #QUEUE_DEPTH} tasks, as they would be while waiting on a
+ * worker, and ids are reused so input files are overwritten.
+ * <p>
+ * The request data is created in setup so {@code gc.alloc.rate.norm},
+ * reported by the gc profiler, is what each queued task costs on top of
+ * the data. Since the data is written to disk when the runner is created
+ * this should stay at a few kilobytes regardless of {@code dataSize}.
+ *
+ * @author churas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueuedTaskBenchmark {
+
+	/**
+	 * Number of tasks held in queue before it is emptied
+	 */
+	public static final int QUEUE_DEPTH = 5000;
+
+	@Param({"1024", "65536", "1048576"})
+	public int dataSize;
+
+	private File _taskDir;
+	private Map<String, String> _params;
+	private TextNode _data;
+	private List<String> _ids;
+	private LinkedBlockingQueue<Runnable> _queue;
+	private int _counter;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException {
+		_taskDir = Files.createTempDirectory("queuedtaskbenchmark").toFile();
+		_params = new LinkedHashMap<>();
+		_params.put("--someflag", "somevalue");
+		_data = new TextNode("x".repeat(dataSize));
+		_ids = new ArrayList<>(QUEUE_DEPTH);
+		for (int i = 0; i < QUEUE_DEPTH; i++){
+			_ids.add(String.format("%08d-0000-0000-0000-000000000000", i));
+		}
+		_queue = new LinkedBlockingQueue<>();
+		_counter = 0;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		_queue.clear();
+		FileUtils.deleteDirectory(_taskDir);
+	}
+
+	@Benchmark
+	public CytoContainerTask queueTask() throws Exception {
+		if (_counter == QUEUE_DEPTH){
+			_queue.clear();
+			_counter = 0;
+		}
+		String id = _ids.get(_counter++);
+
+		// new request each time, like the REST endpoint does
+		CytoContainerRequest cdr = new CytoContainerRequest();
+		cdr.setParameters(_params);
+		cdr.setData(_data);
+		DockerCytoContainerRunner runner = new DockerCytoContainerRunner(id, cdr,
+				System.currentTimeMillis(), _taskDir.getAbsolutePath(),
+				"docker", "coolimage:0.1.0", _params, 180, TimeUnit.SECONDS,
+				":ro", false, null);
+		CytoContainerTask task = new CytoContainerTask(id, "benchmark", runner, null);
+		_queue.add(task);
+		return task;
+	}
+}
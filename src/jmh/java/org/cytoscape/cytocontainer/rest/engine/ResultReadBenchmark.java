@@ -0,0 +1,79 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link CytoContainerEngineImpl#getCytoContainerResultFromDbOrFilesystem(java.lang.String) }
+ * for a finished task with results of different sizes, both reading
+ * {@link CytoContainerEngineImpl#CDRESULT_JSON_FILE} every time and with a
+ * {@link CompletedResultCache} large enough to hold the result.
+ *
+ * @author churas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResultReadBenchmark {
+
+	/**
+	 * Id of task whose result is read
+	 */
+	public static final String TASK_ID = "00000000-0000-0000-0000-000000000000";
+
+	@Param({"1024", "1048576", "16777216"})
+	public int resultSize;
+
+	@Param({"false", "true"})
+	public boolean completedResultCache;
+
+	private File _taskDir;
+	private CytoContainerEngineImpl _engine;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException {
+		_taskDir = Files.createTempDirectory("resultreadbenchmark").toFile();
+		File idDir = new File(_taskDir, TASK_ID);
+		idDir.mkdirs();
+		CytoContainerResult cdr = new CytoContainerResult(System.currentTimeMillis());
+		cdr.setId(TASK_ID);
+		cdr.setStatus(CytoContainerResult.COMPLETE_STATUS);
+		cdr.setProgress(100);
+		cdr.setResult(new TextNode("x".repeat(resultSize)));
+		new ObjectMapper().writeValue(new File(idDir,
+				CytoContainerEngineImpl.CDRESULT_JSON_FILE), cdr);
+
+		_engine = new CytoContainerEngineImpl(null, _taskDir.getAbsolutePath(),
+				"docker", null, null);
+		if (completedResultCache){
+			_engine.setCompletedResultCache(new CompletedResultCache(4L * resultSize + 1048576L, 10000));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		_engine.shutdown();
+		FileUtils.deleteDirectory(_taskDir);
+	}
+
+	@Benchmark
+	public CytoContainerResult read(){
+		return _engine.getCytoContainerResultFromDbOrFilesystem(TASK_ID);
+	}
+}
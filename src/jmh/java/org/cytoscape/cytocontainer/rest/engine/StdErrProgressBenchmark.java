@@ -0,0 +1,114 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+import org.cytoscape.cytocontainer.rest.services.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link CytoContainerEngineImpl#getLastProgressAndMessage(java.lang.String) }
+ * over standard error files of different sizes. {@link #firstRead() } uses
+ * a new engine each time so the whole tail of the file, up to
+ * {@link Configuration#getNumberOfBytesToParseFromStdErrorFile() } bytes,
+ * is parsed. {@link #repeatRead() } reuses the engine so only the check
+ * for newly appended output is measured, which is what status polls of a
+ * running task cost.
+ *
+ * @author churas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StdErrProgressBenchmark {
+
+	@Param({"1024", "1048576", "10485760", "104857600"})
+	public long stderrSize;
+
+	private File _taskDir;
+	private String _stdErrPath;
+	private CytoContainerEngineImpl _engine;
+	private CytoContainerEngineImpl _warmEngine;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws Exception {
+		_taskDir = Files.createTempDirectory("stderrprogressbenchmark").toFile();
+		File confFile = new File(_taskDir, "cytocontainer.conf");
+		try (FileWriter fw = new FileWriter(confFile)){
+			fw.write(Configuration.TASK_DIR + " = " + _taskDir.getAbsolutePath() + "\n");
+		}
+		Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+		Configuration.reloadConfiguration();
+
+		File stdErrFile = new File(_taskDir, CytoContainerEngineImpl.STDERR_FILE);
+		writeStdErrFile(stdErrFile, stderrSize);
+		_stdErrPath = stdErrFile.getAbsolutePath();
+		_warmEngine = new CytoContainerEngineImpl(null, _taskDir.getAbsolutePath(),
+				"docker", null, null);
+		_warmEngine.getLastProgressAndMessage(_stdErrPath);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation(){
+		_engine = new CytoContainerEngineImpl(null, _taskDir.getAbsolutePath(),
+				"docker", null, null);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		_warmEngine.shutdown();
+		FileUtils.deleteDirectory(_taskDir);
+	}
+
+	@Benchmark
+	public CytoContainerResultStatus firstRead(){
+		return _engine.getLastProgressAndMessage(_stdErrPath);
+	}
+
+	@Benchmark
+	public CytoContainerResultStatus repeatRead(){
+		return _warmEngine.getLastProgressAndMessage(_stdErrPath);
+	}
+
+	/**
+	 * Writes {@code size} bytes of output that looks like a typical
+	 * algorithm, mostly log lines with progress and message lines
+	 * mixed in
+	 * @param stdErrFile file to write
+	 * @param size size of file in bytes
+	 * @throws IOException if there is an error writing the file
+	 */
+	private static void writeStdErrFile(File stdErrFile, long size) throws IOException {
+		long written = 0;
+		int lineNum = 0;
+		try (BufferedWriter bw = new BufferedWriter(new FileWriter(stdErrFile))){
+			while (written < size){
+				String line;
+				if (lineNum % 20 == 0){
+					line = "@@PROGRESS " + Integer.toString((int)(100 * written / size)) + "\n";
+				} else if (lineNum % 20 == 10){
+					line = "@@MESSAGE processing step " + Integer.toString(lineNum) + "\n";
+				} else {
+					line = "INFO some log output from algorithm on line " + Integer.toString(lineNum) + "\n";
+				}
+				bw.write(line);
+				written += line.length();
+				lineNum++;
+			}
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+import org.cytoscape.cytocontainer.rest.model.AlgorithmParameter;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerParameter;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
+import org.cytoscape.cytocontainer.rest.model.ErrorResponse;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures throughput of
+ * {@link CytoContainerRequestValidatorImpl#validateRequest(org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm, org.cytoscape.cytocontainer.rest.model.CytoContainerRequest) }
+ * for an algorithm with several regex and numeric parameters, with rules
+ * compiled on every request, as done when no algorithms are passed to the
+ * constructor, and with precompiled {@link ValidationPlan}s.
+ *
+ * @author churas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RequestValidatorBenchmark {
+
+	/**
+	 * Number of parameters of each kind in the algorithm
+	 */
+	public static final int PARAMS_PER_KIND = 4;
+
+	@Param({"false", "true"})
+	public boolean precompiled;
+
+	private CytoContainerAlgorithm _algorithm;
+	private CytoContainerRequest _request;
+	private CytoContainerRequestValidatorImpl _validator;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws CytoContainerException {
+		_algorithm = getAlgorithm();
+		_request = getRequest();
+		if (precompiled){
+			LinkedHashMap<String, CytoContainerAlgorithm> algoMap = new LinkedHashMap<>();
+			algoMap.put(_algorithm.getName(), _algorithm);
+			CytoContainerAlgorithms algos = new CytoContainerAlgorithms();
+			algos.setAlgorithms(algoMap);
+			_validator = new CytoContainerRequestValidatorImpl(algos);
+		} else {
+			_validator = new CytoContainerRequestValidatorImpl();
+		}
+	}
+
+	@Benchmark
+	public ErrorResponse validateRequest(){
+		ErrorResponse er = _validator.validateRequest(_algorithm, _request);
+		if (er != null){
+			throw new IllegalStateException(er.getDescription());
+		}
+		return er;
+	}
+
+	private static CytoContainerAlgorithm getAlgorithm() throws CytoContainerException {
+		CytoContainerAlgorithm cda = new CytoContainerAlgorithm();
+		cda.setName("benchmark");
+		LinkedHashSet<AlgorithmParameter> aParams = new LinkedHashSet<>();
+		for (int i = 0; i < PARAMS_PER_KIND; i++){
+			CytoContainerParameter cp = new CytoContainerParameter();
+			cp.setFlag("--str" + i);
+			cp.setDisplayName("str" + i);
+			cp.setType(AlgorithmParameter.TEXT_TYPE);
+			cp.setValidationType(AlgorithmParameter.STRING_VALIDATION);
+			cp.setValidationRegex("^[a-zA-Z][a-zA-Z0-9_\\-]{0,63}$");
+			aParams.add(cp);
+
+			cp = new CytoContainerParameter();
+			cp.setFlag("--digits" + i);
+			cp.setDisplayName("digits" + i);
+			cp.setType(AlgorithmParameter.TEXT_TYPE);
+			cp.setValidationType(AlgorithmParameter.DIGITS_VALIDATION);
+			cp.setMinValue(0);
+			cp.setMaxValue(1000);
+			aParams.add(cp);
+
+			cp = new CytoContainerParameter();
+			cp.setFlag("--number" + i);
+			cp.setDisplayName("number" + i);
+			cp.setType(AlgorithmParameter.TEXT_TYPE);
+			cp.setValidationType(AlgorithmParameter.NUMBER_VALIDATION);
+			cp.setMinValue(0.0);
+			cp.setMaxValue(1.0);
+			aParams.add(cp);
+		}
+		cda.setParameters(aParams);
+		return cda;
+	}
+
+	private static CytoContainerRequest getRequest(){
+		CytoContainerRequest cdr = new CytoContainerRequest();
+		HashMap<String, String> cParams = new HashMap<>();
+		for (int i = 0; i < PARAMS_PER_KIND; i++){
+			cParams.put("str" + i, "some_value" + i);
+			cParams.put("digits" + i, Integer.toString(i * 10));
+			cParams.put("number" + i, "0.5");
+		}
+		cdr.setParameters(cParams);
+		cdr.setData(new TextNode("hi"));
+		return cdr;
+	}
+}
@@ -0,0 +1,89 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link DockerCytoContainerRunner#writeInputFile(org.cytoscape.cytocontainer.rest.model.CytoContainerRequest) }
+ * for text and JSON request data of different sizes. The same input
+ * file is overwritten on every operation.
+ *
+ * @author churas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WriteInputFileBenchmark {
+
+	@Param({"1024", "1048576", "16777216"})
+	public int dataSize;
+
+	@Param({"text", "json"})
+	public String dataType;
+
+	private File _taskDir;
+	private DockerCytoContainerRunner _runner;
+	private CytoContainerRequest _request;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws Exception {
+		_taskDir = Files.createTempDirectory("writeinputfilebenchmark").toFile();
+		_request = new CytoContainerRequest();
+		if (dataType.equals("json")){
+			_request.setData(getJsonData(dataSize));
+		} else {
+			_request.setData(new TextNode("x".repeat(dataSize)));
+		}
+		_runner = new DockerCytoContainerRunner("00000000-0000-0000-0000-000000000000",
+				_request, System.currentTimeMillis(), _taskDir.getAbsolutePath(),
+				"docker", "coleslawndex/benchmark", null, 180, TimeUnit.SECONDS, ":ro");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		FileUtils.deleteDirectory(_taskDir);
+	}
+
+	@Benchmark
+	public String writeInputFile() throws Exception {
+		return _runner.writeInputFile(_request);
+	}
+
+	/**
+	 * Creates a JSON array of edges, like a network passed to an
+	 * algorithm, roughly {@code size} bytes when written out
+	 * @param size approximate size in bytes
+	 * @return JSON data
+	 */
+	private static ArrayNode getJsonData(int size){
+		ObjectMapper mapper = new ObjectMapper();
+		ArrayNode edges = mapper.createArrayNode();
+		// each edge is about 30 bytes when written
+		int numEdges = Math.max(1, size / 30);
+		for (int i = 0; i < numEdges; i++){
+			ObjectNode edge = edges.addObject();
+			edge.put("s", i);
+			edge.put("t", i + 1);
+			edge.put("v", "e" + Integer.toString(i));
+		}
+		return edges;
+	}
+}
@@ -10,8 +10,10 @@ import java.util.Properties;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -24,17 +26,22 @@ import java.util.Scanner;
 import joptsimple.OptionException;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
+import org.apache.commons.io.FileUtils;
 import org.cytoscape.cytocontainer.rest.engine.CytoContainerEngineFactory;
 import org.cytoscape.cytocontainer.rest.engine.CytoContainerEngineImpl;
 import org.cytoscape.cytocontainer.rest.engine.util.CommandLineRunnerImpl;
 import org.cytoscape.cytocontainer.rest.engine.util.CytoContainerRequestValidatorImpl;
 import org.cytoscape.cytocontainer.rest.engine.util.DockerCytoContainerRunner;
 import org.cytoscape.cytocontainer.rest.engine.util.StringMessageBodyWriter;
+import org.cytoscape.cytocontainer.rest.loadtest.FakeContainer;
+import org.cytoscape.cytocontainer.rest.loadtest.LoadGenerator;
+import org.cytoscape.cytocontainer.rest.loadtest.LoadTestReport;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.util.RolloverFileOutputStream;
 
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHolder;
 import org.eclipse.jetty.ee10.servlet.DefaultServlet;
@@ -109,6 +116,41 @@ public class App {
     public static final String RUNSERVER_DOSFILTER_MAX_REQS = "runserver.dosfilter.maxrequestspersec";
     
     public static final String RUNSERVER_DOSFILTER_DELAY = "runserver.dosfilter.delayms";
+
+    /**
+     * Number of concurrent clients used in load test mode
+     */
+    public static final String LOADTEST_CONCURRENCY = "loadtest.concurrency";
+
+    /**
+     * Total number of tasks run in load test mode
+     */
+    public static final String LOADTEST_TASKS = "loadtest.tasks";
+
+    /**
+     * Size in bytes of data sent with each task in load test mode
+     */
+    public static final String LOADTEST_DATA_SIZE = "loadtest.data.size";
+
+    /**
+     * Time in milliseconds between status polls in load test mode
+     */
+    public static final String LOADTEST_POLL_INTERVAL = "loadtest.poll.interval";
+
+    /**
+     * Time in milliseconds the stand in container runs in load test mode
+     */
+    public static final String LOADTEST_CONTAINER_SLEEP = "loadtest.container.sleep";
+
+    /**
+     * Size in bytes of result written by stand in container in load test mode
+     */
+    public static final String LOADTEST_CONTAINER_OUTPUT_SIZE = "loadtest.container.output.size";
+
+    /**
+     * Number of progress updates written by stand in container in load test mode
+     */
+    public static final String LOADTEST_CONTAINER_STEPS = "loadtest.container.steps";
     
     public static final String MODE = "mode";
     public static final String CONF = "conf";    
@@ -117,12 +159,14 @@ public class App {
     public static final String RUNSERVER_MODE = "runserver";
 	public static final String PRINT_ALGOS_MODE = "printalgorithms";
 	public static final String GENERATE_ALGO_MODE = "generatealgorithm";
+	public static final String LOADTEST_MODE = "loadtest";
     
     public static final String SUPPORTED_MODES = EXAMPLE_CONF_MODE + ", " +
                                                  EXAMPLE_ALGO_MODE +
                                                     ", " + RUNSERVER_MODE +
 			                                        ", " + PRINT_ALGOS_MODE +
-			                                        ", " + GENERATE_ALGO_MODE;
+			                                        ", " + GENERATE_ALGO_MODE +
+			                                        ", " + LOADTEST_MODE;
     
     public static void main(String[] args){
 
@@ -181,6 +225,15 @@ public class App {
 				System.out.println(generateAlgorithm());
 				return;
 			}
+			if (mode.equals(LOADTEST_MODE)){
+				Properties props = new Properties();
+				if (optionSet.has(CONF)){
+					props = getPropertiesFromConf(optionSet.valueOf(CONF).toString());
+				}
+				System.out.println(runLoadTest(props));
+				System.out.flush();
+				return;
+			}
       
             if (mode.equals(RUNSERVER_MODE)){
                 Configuration.setAlternateConfigurationFile(optionSet.valueOf(CONF).toString());
@@ -233,51 +286,7 @@ public class App {
 				System.setOut(logStream);
 				System.setErr(logStream);
 
-                final Server server = new Server(port);
-
-                final ServletContextHandler webappContext = new ServletContextHandler(Configuration.getInstance().getRunServerContextPath());
-              
-                
-                HashMap<String, String> initMap = new HashMap<>();
-                initMap.put("resteasy.servlet.mapping.prefix",
-                             applicationPath + "/");
-                initMap.put("jakarta.ws.rs.Application",
-                        "org.cytoscape.cytocontainer.rest.CytoContainerApplication");
-                final ServletHolder restEasyServlet = new ServletHolder(
-                     new CytoContainerHttpServletDispatcher());
-                
-                restEasyServlet.setInitOrder(1);
-                
-                webappContext.addServlet(restEasyServlet,
-                                          applicationPath + "/*");
-                
-				FilterHolder filterHolder = new FilterHolder(new CorsFilter());
-                webappContext.addFilter(filterHolder,
-                                        applicationPath + "/*", null);
-				
-				FilterHolder reqFilterHolder = new FilterHolder(new RequestLoggingFilter());
-				webappContext.addFilter(reqFilterHolder,
-                                        applicationPath + "/*", null);
-                webappContext.addFilter(FilterDispatcher.class, "/*", null);
-                
-
-				initMap.put("openApi.configuration.resourcePackages",
-						"org.cytoscape.cytocontainer.rest.services,org.cytoscape.cytocontainer.rest.model");
-				initMap.put("openApi.configuration.scannerClass", "org.cytoscape.cytocontainer.rest.swagger.SwaggerScanner");
-				initMap.put("openApi.configuration.filterClass", "org.cytoscape.cytocontainer.rest.swagger.SwaggerFilter");
-				initMap.put("openApi.configuration.prettyPrint", "true");
-
-
-                String resourceBasePath = App.class.getResource("/webapp").toExternalForm();
-                webappContext.setWelcomeFiles(new String[] { "index.html" });
-                webappContext.setBaseResourceAsString(resourceBasePath);
-                webappContext.addServlet(new ServletHolder(new DefaultServlet()), "/*");
-				
-				restEasyServlet.setInitParameters(initMap);
-                ContextHandlerCollection contexts = new ContextHandlerCollection();
-                contexts.setHandlers(new Handler[] { webappContext });
- 
-                server.setHandler(contexts);
+                final Server server = createServer(port, applicationPath);
                    
                 server.start();	    
                 System.out.println("Server started on: " + server.getURI().toString());
@@ -295,6 +304,140 @@ public class App {
 
     }
 	
+    /**
+     * Creates embedded Jetty server running this service
+     * @param port port to listen on, {@code 0} picks a free port
+     * @param applicationPath path to service under context path
+     * @return server ready to be started
+     * @throws CytoContainerException if configuration could not be loaded
+     */
+    public static Server createServer(final int port, final String applicationPath) throws CytoContainerException {
+        final Server server = new Server(port);
+
+        final ServletContextHandler webappContext = new ServletContextHandler(Configuration.getInstance().getRunServerContextPath());
+      
+        
+        HashMap<String, String> initMap = new HashMap<>();
+        initMap.put("resteasy.servlet.mapping.prefix",
+                     applicationPath + "/");
+        initMap.put("jakarta.ws.rs.Application",
+                "org.cytoscape.cytocontainer.rest.CytoContainerApplication");
+        final ServletHolder restEasyServlet = new ServletHolder(
+             new CytoContainerHttpServletDispatcher());
+        
+        restEasyServlet.setInitOrder(1);
+        // needed for server sent events
+        restEasyServlet.setAsyncSupported(true);
+        
+        webappContext.addServlet(restEasyServlet,
+                                  applicationPath + "/*");
+        
+		FilterHolder filterHolder = new FilterHolder(new CorsFilter());
+		filterHolder.setAsyncSupported(true);
+        webappContext.addFilter(filterHolder,
+                                applicationPath + "/*", null);
+		
+		FilterHolder reqFilterHolder = new FilterHolder(new RequestLoggingFilter());
+		reqFilterHolder.setAsyncSupported(true);
+		webappContext.addFilter(reqFilterHolder,
+                                applicationPath + "/*", null);
+        webappContext.addFilter(FilterDispatcher.class, "/*", null).setAsyncSupported(true);
+        
+
+		initMap.put("openApi.configuration.resourcePackages",
+				"org.cytoscape.cytocontainer.rest.services,org.cytoscape.cytocontainer.rest.model");
+		initMap.put("openApi.configuration.scannerClass", "org.cytoscape.cytocontainer.rest.swagger.SwaggerScanner");
+		initMap.put("openApi.configuration.filterClass", "org.cytoscape.cytocontainer.rest.swagger.SwaggerFilter");
+		initMap.put("openApi.configuration.prettyPrint", "true");
+
+
+        String resourceBasePath = App.class.getResource("/webapp").toExternalForm();
+        webappContext.setWelcomeFiles(new String[] { "index.html" });
+        webappContext.setBaseResourceAsString(resourceBasePath);
+        webappContext.addServlet(new ServletHolder(new DefaultServlet()), "/*");
+		
+		restEasyServlet.setInitParameters(initMap);
+        ContextHandlerCollection contexts = new ContextHandlerCollection();
+        contexts.setHandlers(new Handler[] { webappContext });
+ 
+        server.setHandler(contexts);
+        return server;
+    }
+
+	/**
+	 * Runs a load test of this service. An embedded server is started
+	 * with {@link Configuration#DOCKER_CMD} set to the
+	 * {@link FakeContainer} script so no containers are run, then
+	 * {@link LoadGenerator} submits tasks to it and polls and fetches
+	 * their results. Task and algorithm directories are created in a
+	 * temporary directory that is removed when the test finishes.
+	 * The load generator runs in this JVM so heap and garbage collection
+	 * statistics include both it and the server.
+	 * 
+	 * @param props load test settings along with any settings to pass
+	 *              on to the server, {@link Configuration#TASK_DIR},
+	 *              {@link Configuration#DOCKER_CMD},
+	 *              {@link Configuration#DOCKER_SOCKET} and
+	 *              {@link Configuration#ALGORITHM_CONF_DIR} are ignored
+	 * @return report of load test
+	 * @throws Exception if server could not be started or test could not be run
+	 */
+	public static LoadTestReport runLoadTest(Properties props) throws Exception {
+		ch.qos.logback.classic.Logger rootLog = 
+				(ch.qos.logback.classic.Logger) org.slf4j.LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+		rootLog.setLevel(Level.toLevel(props.getProperty(App.ROOT_LOGLEVEL, "WARN")));
+		setLogLevelForClassesInThisPackage(Level.toLevel(props.getProperty(App.RUNSERVER_LOGLEVEL, "WARN")));
+
+		File workDir = Files.createTempDirectory("cytocontainer-loadtest").toFile();
+		Server server = null;
+		try {
+			File script = FakeContainer.extractScript(workDir);
+			File taskDir = new File(workDir, "tasks");
+			File algoDir = new File(workDir, "algorithms");
+			if (taskDir.mkdirs() == false || algoDir.mkdirs() == false){
+				throw new IOException("Unable to create directories in " + workDir.getAbsolutePath());
+			}
+			FakeContainer.writeAlgorithm(algoDir,
+					Long.parseLong(props.getProperty(LOADTEST_CONTAINER_SLEEP, "500")),
+					Long.parseLong(props.getProperty(LOADTEST_CONTAINER_OUTPUT_SIZE, "1024")),
+					Integer.parseInt(props.getProperty(LOADTEST_CONTAINER_STEPS, "5")));
+			
+			Properties serverProps = new Properties();
+			serverProps.putAll(props);
+			serverProps.setProperty(Configuration.TASK_DIR, taskDir.getAbsolutePath());
+			serverProps.setProperty(Configuration.DOCKER_CMD, script.getAbsolutePath());
+			serverProps.remove(Configuration.DOCKER_SOCKET);
+			serverProps.setProperty(Configuration.ALGORITHM_CONF_DIR, algoDir.getAbsolutePath());
+			File confFile = new File(workDir, "loadtest.conf");
+			try (FileOutputStream fos = new FileOutputStream(confFile)){
+				serverProps.store(fos, "Generated for load test");
+			}
+			Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+			Configuration.reloadConfiguration();
+			
+			String applicationPath = App.getApplicationPath(serverProps);
+			server = createServer(Integer.parseInt(serverProps.getProperty(App.RUNSERVER_PORT, "0")),
+					applicationPath);
+			server.start();
+			int port = ((ServerConnector)server.getConnectors()[0]).getLocalPort();
+			String baseUrl = "http://localhost:" + Integer.toString(port)
+					+ Configuration.getInstance().getRunServerContextPath()
+					+ applicationPath + Configuration.V_ONE_PATH;
+			
+			LoadGenerator generator = new LoadGenerator(baseUrl, FakeContainer.ALGORITHM_NAME,
+					Integer.parseInt(props.getProperty(LOADTEST_CONCURRENCY, "8")),
+					Integer.parseInt(props.getProperty(LOADTEST_TASKS, "200")),
+					Integer.parseInt(props.getProperty(LOADTEST_DATA_SIZE, "1024")),
+					Long.parseLong(props.getProperty(LOADTEST_POLL_INTERVAL, "100")));
+			return generator.run();
+		} finally {
+			if (server != null){
+				server.stop();
+			}
+			FileUtils.deleteQuietly(workDir);
+		}
+	}
+
 	/**
 	 * Sets logging level for specific classes in this package
 	 * @param logLevel 
@@ -806,15 +949,107 @@ public class App {
         sb.append("# Sets number of workers to use to run tasks\n");
         sb.append(Configuration.NUM_WORKERS + " = 1\n\n");
         
+        sb.append("# Max number of tasks, across all algorithms, that can wait to run. Once\n");
+        sb.append("# reached new tasks are rejected with HTTP 429 (0 means unbounded)\n");
+        sb.append(Configuration.MAX_QUEUE_SIZE + " = 0\n\n");
+        
+        sb.append("# Max number of completed results kept so identical requests (same algorithm,\n");
+        sb.append("# version, parameters and data) are answered without running a container\n");
+        sb.append("# (0 disables the cache). Entries expire after ttl seconds\n");
+        sb.append(Configuration.RESULT_CACHE_SIZE + " = 0\n");
+        sb.append(Configuration.RESULT_CACHE_TTL + " = 3600\n\n");
+        
+        sb.append("# If true, identical requests received while a matching task is queued or\n");
+        sb.append("# running are attached to that task instead of running another container\n");
+        sb.append(Configuration.COALESCE_REQUESTS + " = false\n\n");
+        
+        sb.append("# Max total size, in bytes, of finished results kept in memory so polling\n");
+        sb.append("# does not reload them from disk, and max number of small status records\n");
+        sb.append("# of finished tasks kept in memory (0 disables)\n");
+        sb.append(Configuration.COMPLETED_RESULT_CACHE_BYTES + " = 67108864\n");
+        sb.append(Configuration.COMPLETED_STATUS_CACHE_SIZE + " = 10000\n\n");
+        
+        sb.append("# Milliseconds between status checks for clients subscribed to the\n");
+        sb.append("# /{algorithm}/{id}/events endpoint\n");
+        sb.append(Configuration.EVENTS_POLL_INTERVAL + " = 1000\n\n");
+        
+        sb.append("# Max milliseconds a request for result or status can be held\n");
+        sb.append("# waiting for a change via the waitMs parameter\n");
+        sb.append(Configuration.LONG_POLL_MAX_WAIT + " = 60000\n\n");
+        
+        sb.append("# Max milliseconds a request for result data is held waiting\n");
+        sb.append("# for the task to finish before 202 (Accepted) is returned\n");
+        sb.append(Configuration.RESULT_DATA_MAX_WAIT + " = 60000\n\n");
+        
+        sb.append("# If true, responses are gzip compressed for clients sending\n");
+        sb.append("# Accept-Encoding: gzip and gzip compressed requests are accepted\n");
+        sb.append(Configuration.COMPRESSION_ENABLED + " = true\n\n");
+        
+        sb.append("# Level used to compress responses and files of finished tasks\n");
+        sb.append("# from 1 (fastest) to 9 (smallest)\n");
+        sb.append(Configuration.COMPRESSION_LEVEL + " = 6\n\n");
+        
+        sb.append("# Responses smaller than this many bytes are not compressed\n");
+        sb.append(Configuration.COMPRESSION_MIN_SIZE + " = 1024\n\n");
+        
+        sb.append("# How to compress input, output, and result files of finished\n");
+        sb.append("# tasks to save disk space. Can be gzip or none\n");
+        sb.append(Configuration.TASK_COMPRESSION + " = none\n\n");
+        
+        sb.append("# Milliseconds after a task finishes to wait before compressing its files\n");
+        sb.append(Configuration.TASK_COMPRESSION_DELAY + " = 60000\n\n");
+        
         sb.append("# Docker command to run\n");
         sb.append(Configuration.DOCKER_CMD + " = docker\n\n");
         
+        sb.append("# Path to Docker or Podman Engine API socket. If set, containers are run\n");
+        sb.append("# through the API instead of invoking the docker command above\n");
+        sb.append("# " + Configuration.DOCKER_SOCKET + " = /var/run/docker.sock\n\n");
+        
+        sb.append("# Remove containers left behind by a previous run of this service on startup.\n");
+        sb.append("# Only containers with the instance id below in their name are removed\n");
+        sb.append(Configuration.REAP_ORPHANED_CONTAINERS + " = true\n\n");
+        
+        sb.append("# Id of this instance put in names of its containers so instances sharing\n");
+        sb.append("# a docker host only remove their own. Defaults to a digest of the task directory\n");
+        sb.append("# " + Configuration.INSTANCE_ID + " = cy1\n\n");
+        
+        sb.append("# Start a task only once the CPUs and memory declared in the resources field\n");
+        sb.append("# of its algorithm JSON file (1 CPU if not declared) are free. Defaults are the\n");
+        sb.append("# number of processors and physical memory of the host\n");
+        sb.append(Configuration.SCHEDULER_ENABLED + " = false\n");
+        sb.append("# " + Configuration.SCHEDULER_CPUS + " = 8\n");
+        sb.append("# " + Configuration.SCHEDULER_MEMORY + " = 32g\n\n");
+        
+        sb.append("# Pin containers of running tasks to their own cores, via --cpuset-cpus, out\n");
+        sb.append("# of the cores below (default all processors). Each task gets the cpus declared\n");
+        sb.append("# in its algorithm JSON file rounded up to whole cores (1 if not declared)\n");
+        sb.append(Configuration.CPUSET_ENABLED + " = false\n");
+        sb.append("# " + Configuration.CPUSET_CPUS + " = 0-7\n\n");
+        
         sb.append("# Algorithm/ docker command timeout in seconds. Anything taking longer will be killed\n");
         sb.append(Configuration.ALGORITHM_TIMEOUT + " = 180\n\n");
         
         sb.append("# Path to directory containing algorithm json files\n");
         sb.append(Configuration.ALGORITHM_CONF_DIR + " = ./algorithms\n\n");
         
+        sb.append("# Per algorithm worker settings. If number of workers is set, the algorithm\n");
+        sb.append("# gets its own pool of workers instead of sharing the pool above. Queue size\n");
+        sb.append("# limits number of tasks waiting to run for the algorithm, once reached new\n");
+        sb.append("# tasks are rejected with HTTP 429 (0 means unbounded)\n");
+        sb.append("# " + Configuration.ALGORITHM_PREFIX + "<algorithm name>" + Configuration.ALGORITHM_NUM_WORKERS_SUFFIX + " = 1\n");
+        sb.append("# " + Configuration.ALGORITHM_PREFIX + "<algorithm name>" + Configuration.ALGORITHM_QUEUE_SIZE_SUFFIX + " = 0\n\n");
+        
+        sb.append("# Set to false for algorithms that are not deterministic so their results are never cached\n");
+        sb.append("# or shared with identical requests in flight\n");
+        sb.append("# " + Configuration.ALGORITHM_PREFIX + "<algorithm name>" + Configuration.ALGORITHM_CACHE_ENABLED_SUFFIX + " = true\n");
+        sb.append("# " + Configuration.ALGORITHM_PREFIX + "<algorithm name>" + Configuration.ALGORITHM_COALESCE_ENABLED_SUFFIX + " = true\n\n");
+        
+        sb.append("# Per algorithm pool of pre-created containers, requires " + Configuration.DOCKER_SOCKET + "\n");
+        sb.append("# to be set. Once fewer than min containers are idle the pool is refilled to max\n");
+        sb.append("# " + Configuration.ALGORITHM_PREFIX + "<algorithm name>" + Configuration.ALGORITHM_WARM_POOL_MIN_SUFFIX + " = 0\n");
+        sb.append("# " + Configuration.ALGORITHM_PREFIX + "<algorithm name>" + Configuration.ALGORITHM_WARM_POOL_MAX_SUFFIX + " = 0\n\n");
+        
         sb.append("# Mount options, if unset :ro is used (podman may require :ro,z)\n");
         sb.append(Configuration.MOUNT_OPTIONS + " = :ro\n\n");
         
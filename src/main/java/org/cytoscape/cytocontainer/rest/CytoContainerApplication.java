@@ -12,6 +12,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.cytoscape.cytocontainer.rest.engine.util.StringMessageBodyWriter;
 import org.jboss.resteasy.plugins.interceptors.CorsFilter;
+import org.cytoscape.cytocontainer.rest.services.ContentEncodingInterceptor;
 import org.cytoscape.cytocontainer.rest.services.CytoContainer;
 import org.cytoscape.cytocontainer.rest.services.Status;
 import org.slf4j.Logger;
@@ -45,6 +46,7 @@ public class CytoContainerApplication extends Application {
 				         OpenApiResource.class, 
 						 AcceptHeaderOpenApiResource.class,
 						 StringMessageBodyWriter.class,
+						 ContentEncodingInterceptor.class,
                          Status.class).collect(Collectors.toSet());
     }
 }
\ No newline at end of file
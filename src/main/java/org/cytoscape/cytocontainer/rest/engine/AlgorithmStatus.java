@@ -0,0 +1,233 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+/**
+ * Task counts and worker settings for a single algorithm
+ * reported as part of {@link CytoContainerServerStatus}
+ *
+ * @author churas
+ */
+public class AlgorithmStatus {
+
+	private int _queuedTasks;
+	private int _runningTasks;
+	private int _completedTasks;
+	private int _canceledTasks;
+	private int _numberWorkers;
+	private int _queueSize;
+	private boolean _dedicatedWorkers;
+	private int _warmIdleContainers;
+	private long _warmHits;
+	private long _warmMisses;
+	private long _meanWarmStartMillis;
+	private long _meanColdStartMillis;
+	private long _startupMillisSaved;
+	private int _daemonContainers;
+	private int _daemonIdleContainers;
+	private long _daemonRecycledContainers;
+	private long _daemonFailedHealthChecks;
+
+	public AlgorithmStatus(){
+	}
+
+	/**
+	 * Creates status from counters in {@code pool}
+	 * @param pool worker pool for algorithm
+	 */
+	public AlgorithmStatus(AlgorithmWorkerPool pool){
+		if (pool == null){
+			return;
+		}
+		_queuedTasks = pool.getQueuedTasks();
+		_runningTasks = pool.getRunningTasks();
+		_completedTasks = pool.getCompletedTasks();
+		_canceledTasks = pool.getCanceledTasks();
+		_numberWorkers = pool.getNumberWorkers();
+		_queueSize = pool.getQueueSize();
+		_dedicatedWorkers = pool.isDedicated();
+	}
+
+	public int getQueuedTasks() {
+		return _queuedTasks;
+	}
+
+	public void setQueuedTasks(int queuedTasks) {
+		_queuedTasks = queuedTasks;
+	}
+
+	public int getRunningTasks() {
+		return _runningTasks;
+	}
+
+	public void setRunningTasks(int runningTasks) {
+		_runningTasks = runningTasks;
+	}
+
+	public int getCompletedTasks() {
+		return _completedTasks;
+	}
+
+	public void setCompletedTasks(int completedTasks) {
+		_completedTasks = completedTasks;
+	}
+
+	public int getCanceledTasks() {
+		return _canceledTasks;
+	}
+
+	public void setCanceledTasks(int canceledTasks) {
+		_canceledTasks = canceledTasks;
+	}
+
+	public int getNumberWorkers() {
+		return _numberWorkers;
+	}
+
+	public void setNumberWorkers(int numberWorkers) {
+		_numberWorkers = numberWorkers;
+	}
+
+	/**
+	 * Max tasks allowed to wait in queue
+	 * @return max queue size or {@code 0} if unbounded
+	 */
+	public int getQueueSize() {
+		return _queueSize;
+	}
+
+	public void setQueueSize(int queueSize) {
+		_queueSize = queueSize;
+	}
+
+	/**
+	 * Denotes if algorithm has its own workers or shares the common pool
+	 * @return {@code true} if algorithm has its own workers
+	 */
+	public boolean isDedicatedWorkers() {
+		return _dedicatedWorkers;
+	}
+
+	public void setDedicatedWorkers(boolean dedicatedWorkers) {
+		_dedicatedWorkers = dedicatedWorkers;
+	}
+
+	/**
+	 * Pre-created containers waiting for a task
+	 * @return count or {@code 0} if algorithm has no warm pool
+	 */
+	public int getWarmIdleContainers() {
+		return _warmIdleContainers;
+	}
+
+	public void setWarmIdleContainers(int warmIdleContainers) {
+		_warmIdleContainers = warmIdleContainers;
+	}
+
+	/**
+	 * Tasks that were run in a pre-created container
+	 * @return count
+	 */
+	public long getWarmHits() {
+		return _warmHits;
+	}
+
+	public void setWarmHits(long warmHits) {
+		_warmHits = warmHits;
+	}
+
+	/**
+	 * Tasks that found the warm pool empty and had to create a container
+	 * @return count
+	 */
+	public long getWarmMisses() {
+		return _warmMisses;
+	}
+
+	public void setWarmMisses(long warmMisses) {
+		_warmMisses = warmMisses;
+	}
+
+	/**
+	 * Mean time to start a pre-created container
+	 * @return milliseconds
+	 */
+	public long getMeanWarmStartMillis() {
+		return _meanWarmStartMillis;
+	}
+
+	public void setMeanWarmStartMillis(long meanWarmStartMillis) {
+		_meanWarmStartMillis = meanWarmStartMillis;
+	}
+
+	/**
+	 * Mean time to create and start a container when warm pool was empty
+	 * @return milliseconds
+	 */
+	public long getMeanColdStartMillis() {
+		return _meanColdStartMillis;
+	}
+
+	public void setMeanColdStartMillis(long meanColdStartMillis) {
+		_meanColdStartMillis = meanColdStartMillis;
+	}
+
+	/**
+	 * Estimated container startup time saved by the warm pool
+	 * @return milliseconds
+	 */
+	public long getStartupMillisSaved() {
+		return _startupMillisSaved;
+	}
+
+	public void setStartupMillisSaved(long startupMillisSaved) {
+		_startupMillisSaved = startupMillisSaved;
+	}
+
+	/**
+	 * Long running containers of an algorithm run in daemon mode
+	 * @return count or {@code 0} if algorithm is not run in daemon mode
+	 */
+	public int getDaemonContainers() {
+		return _daemonContainers;
+	}
+
+	public void setDaemonContainers(int daemonContainers) {
+		_daemonContainers = daemonContainers;
+	}
+
+	/**
+	 * Long running containers waiting for a task
+	 * @return count
+	 */
+	public int getDaemonIdleContainers() {
+		return _daemonIdleContainers;
+	}
+
+	public void setDaemonIdleContainers(int daemonIdleContainers) {
+		_daemonIdleContainers = daemonIdleContainers;
+	}
+
+	/**
+	 * Long running containers replaced after reaching max tasks, an
+	 * error, or a failed health check
+	 * @return count
+	 */
+	public long getDaemonRecycledContainers() {
+		return _daemonRecycledContainers;
+	}
+
+	public void setDaemonRecycledContainers(long daemonRecycledContainers) {
+		_daemonRecycledContainers = daemonRecycledContainers;
+	}
+
+	/**
+	 * Health checks long running containers failed
+	 * @return count
+	 */
+	public long getDaemonFailedHealthChecks() {
+		return _daemonFailedHealthChecks;
+	}
+
+	public void setDaemonFailedHealthChecks(long daemonFailedHealthChecks) {
+		_daemonFailedHealthChecks = daemonFailedHealthChecks;
+	}
+}
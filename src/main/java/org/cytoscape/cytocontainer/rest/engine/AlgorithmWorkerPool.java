@@ -0,0 +1,145 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the {@link java.util.concurrent.ExecutorService} used to run
+ * tasks for a given algorithm along with counters tracking tasks for
+ * that algorithm. Multiple algorithms can share the same
+ * {@link java.util.concurrent.ExecutorService}, but each algorithm
+ * always gets its own counters
+ *
+ * @author churas
+ */
+public class AlgorithmWorkerPool {
+
+	private final String _algorithm;
+	private final ExecutorService _executorService;
+	private final int _numberWorkers;
+	private final int _queueSize;
+	private final boolean _dedicated;
+
+	/**
+	 * Tasks that have been submitted and are not done, this
+	 * includes running tasks
+	 */
+	private final AtomicInteger _pendingTasks;
+	private final AtomicInteger _runningTasks;
+	private final AtomicInteger _completedTasks;
+	private final AtomicInteger _canceledTasks;
+	private final TaskDrainRate _drainRate;
+
+	/**
+	 * Constructor
+	 * @param algorithm name of algorithm
+	 * @param es Executor service to run tasks
+	 * @param numberWorkers number of workers in {@code es}
+	 * @param queueSize max number of tasks waiting to run, {@code 0} means unbounded
+	 * @param dedicated if {@code true} {@code es} is only used by this algorithm
+	 */
+	public AlgorithmWorkerPool(final String algorithm, ExecutorService es,
+			int numberWorkers, int queueSize, boolean dedicated){
+		_algorithm = algorithm;
+		_executorService = es;
+		_numberWorkers = numberWorkers;
+		_queueSize = queueSize;
+		_dedicated = dedicated;
+		_pendingTasks = new AtomicInteger(0);
+		_runningTasks = new AtomicInteger(0);
+		_completedTasks = new AtomicInteger(0);
+		_canceledTasks = new AtomicInteger(0);
+		_drainRate = new TaskDrainRate();
+	}
+
+	public String getAlgorithm() {
+		return _algorithm;
+	}
+
+	public ExecutorService getExecutorService() {
+		return _executorService;
+	}
+
+	public int getNumberWorkers() {
+		return _numberWorkers;
+	}
+
+	public int getQueueSize() {
+		return _queueSize;
+	}
+
+	/**
+	 * Denotes if executor service is only used by this algorithm
+	 * @return {@code true} if dedicated otherwise {@code false}
+	 */
+	public boolean isDedicated() {
+		return _dedicated;
+	}
+
+	/**
+	 * Gets number of tasks waiting to be run
+	 * @return number of tasks waiting to run
+	 */
+	public int getQueuedTasks(){
+		return Math.max(0, _pendingTasks.get() - _runningTasks.get());
+	}
+
+	/**
+	 * Gets number of tasks currently running
+	 * @return number of running tasks
+	 */
+	public int getRunningTasks(){
+		return _runningTasks.get();
+	}
+
+	public int getCompletedTasks(){
+		return _completedTasks.get();
+	}
+
+	public int getCanceledTasks(){
+		return _canceledTasks.get();
+	}
+
+	/**
+	 * Gets rate at which tasks for this algorithm are finishing
+	 * @return drain rate
+	 */
+	public TaskDrainRate getDrainRate(){
+		return _drainRate;
+	}
+
+	/**
+	 * Denotes if the queue for this algorithm is full
+	 * @return {@code true} if queue size is bounded and number of
+	 *         queued tasks is at or above it
+	 */
+	public boolean isQueueFull(){
+		return _queueSize > 0 && getQueuedTasks() >= _queueSize;
+	}
+
+	protected void taskSubmitted(){
+		_pendingTasks.incrementAndGet();
+	}
+
+	protected void taskRejected(){
+		_pendingTasks.decrementAndGet();
+	}
+
+	protected void taskStarted(){
+		_runningTasks.incrementAndGet();
+	}
+
+	protected void taskStopped(){
+		_runningTasks.decrementAndGet();
+	}
+
+	protected void taskDone(boolean canceled){
+		_pendingTasks.decrementAndGet();
+		_drainRate.taskFinished();
+		if (canceled){
+			_canceledTasks.incrementAndGet();
+		} else {
+			_completedTasks.incrementAndGet();
+		}
+	}
+}
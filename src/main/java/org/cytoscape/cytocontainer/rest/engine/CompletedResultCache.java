@@ -0,0 +1,166 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+
+/**
+ * Least recently used, in memory cache of results for tasks that have
+ * finished so repeated polling does not reparse the result file from disk.
+ * <p>
+ * Full results are bounded by the total size, in bytes, of their serialized
+ * JSON. Alongside each result a small status record, which omits the result
+ * data, is kept in a separate map bounded by number of entries. Status records
+ * outlive eviction of the full result so status polls never need the full
+ * result loaded.
+ * </p>
+ * @author churas
+ */
+public class CompletedResultCache {
+
+	/**
+	 * Cache entry
+	 */
+	private static class Entry {
+		final CytoContainerResult _result;
+		final long _sizeInBytes;
+
+		Entry(CytoContainerResult result, long sizeInBytes){
+			_result = result;
+			_sizeInBytes = sizeInBytes;
+		}
+	}
+
+	private final long _maxBytes;
+	private final int _maxStatusEntries;
+	private final LinkedHashMap<String, Entry> _results;
+	private final LinkedHashMap<String, CytoContainerResultStatus> _statuses;
+	private long _totalBytes;
+	private final AtomicLong _hits;
+	private final AtomicLong _misses;
+
+	/**
+	 * Constructor
+	 * @param maxBytes max total size in bytes of serialized results to keep,
+	 *                 {@code 0} or less disables caching of full results
+	 * @param maxStatusEntries max number of status records to keep,
+	 *                 {@code 0} or less disables caching of status records
+	 */
+	public CompletedResultCache(long maxBytes, int maxStatusEntries){
+		_maxBytes = maxBytes;
+		_maxStatusEntries = maxStatusEntries;
+		_results = new LinkedHashMap<>(16, 0.75f, true);
+		_statuses = new LinkedHashMap<String, CytoContainerResultStatus>(16, 0.75f, true){
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CytoContainerResultStatus> eldest) {
+				return size() > _maxStatusEntries;
+			}
+		};
+		_totalBytes = 0;
+		_hits = new AtomicLong(0);
+		_misses = new AtomicLong(0);
+	}
+
+	/**
+	 * Adds result of finished task to cache, evicting least recently used
+	 * results until the total size is within the limit. A result larger than
+	 * the limit is not cached, but its status record is.
+	 * @param result result of finished task
+	 * @param sizeInBytes size of result serialized as JSON
+	 */
+	public synchronized void put(CytoContainerResult result, long sizeInBytes){
+		if (result == null || result.getId() == null){
+			return;
+		}
+		if (_maxStatusEntries > 0){
+			_statuses.put(result.getId(), new CytoContainerResultStatus(result));
+		}
+		removeResult(result.getId());
+		if (_maxBytes <= 0 || sizeInBytes > _maxBytes){
+			return;
+		}
+		_results.put(result.getId(), new Entry(result, sizeInBytes));
+		_totalBytes += sizeInBytes;
+		Iterator<Entry> itr = _results.values().iterator();
+		while (_totalBytes > _maxBytes && itr.hasNext()){
+			_totalBytes -= itr.next()._sizeInBytes;
+			itr.remove();
+		}
+	}
+
+	/**
+	 * Gets result of finished task with {@code id}
+	 * @param id id of task
+	 * @return result or {@code null} if not in cache
+	 */
+	public synchronized CytoContainerResult get(final String id){
+		Entry entry = id == null ? null : _results.get(id);
+		if (entry == null){
+			_misses.incrementAndGet();
+			return null;
+		}
+		_hits.incrementAndGet();
+		return entry._result;
+	}
+
+	/**
+	 * Gets status record of finished task with {@code id}
+	 * @param id id of task
+	 * @return status or {@code null} if not in cache
+	 */
+	public synchronized CytoContainerResultStatus getStatus(final String id){
+		CytoContainerResultStatus status = id == null ? null : _statuses.get(id);
+		if (status == null){
+			_misses.incrementAndGet();
+			return null;
+		}
+		_hits.incrementAndGet();
+		return status;
+	}
+
+	/**
+	 * Removes result and status record of task with {@code id}
+	 * @param id id of task
+	 */
+	public synchronized void remove(final String id){
+		if (id == null){
+			return;
+		}
+		removeResult(id);
+		_statuses.remove(id);
+	}
+
+	private void removeResult(final String id){
+		Entry entry = _results.remove(id);
+		if (entry != null){
+			_totalBytes -= entry._sizeInBytes;
+		}
+	}
+
+	/**
+	 * Gets number of full results in cache
+	 * @return number of results
+	 */
+	public synchronized int size(){
+		return _results.size();
+	}
+
+	/**
+	 * Gets total size in bytes of full results in cache
+	 * @return size in bytes
+	 */
+	public synchronized long getSizeInBytes(){
+		return _totalBytes;
+	}
+
+	public long getHits(){
+		return _hits.get();
+	}
+
+	public long getMisses(){
+		return _misses.get();
+	}
+}
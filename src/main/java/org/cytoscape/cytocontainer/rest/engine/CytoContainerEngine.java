@@ -1,5 +1,6 @@
 package org.cytoscape.cytocontainer.rest.engine;
 
+import java.io.File;
 import java.io.InputStream;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
@@ -24,6 +25,37 @@ public interface CytoContainerEngine extends Runnable {
      * @return UUID as a string that is an identifier for query
      */
     public String request(final String algorithm, CytoContainerRequest request) throws CytoContainerException;
+    
+    /**
+     * Submits request for processing using a spot in the queue already
+     * reserved via {@link #reserve(java.lang.String) }. The reservation is
+     * consumed whether or not this call succeeds
+     * 
+     * @param algorithm name of algorithm
+     * @param request to process
+     * @param reserved if {@code true} a spot was reserved for this request
+     * @throws CytoContainerException if there is an error
+     * @return UUID as a string that is an identifier for query
+     */
+    public String request(final String algorithm, CytoContainerRequest request,
+            boolean reserved) throws CytoContainerException;
+    
+    /**
+     * Reserves a spot in the queue for a task of {@code algorithm} so
+     * a request can be rejected before its body is read. The reservation
+     * must be passed to {@link #request(java.lang.String, org.cytoscape.cytocontainer.rest.model.CytoContainerRequest, boolean) }
+     * or released via {@link #releaseReservation(java.lang.String) }
+     * @param algorithm name of algorithm
+     * @throws CytoContainerException if algorithm does not exist or the
+     *         queue is full
+     */
+    public void reserve(final String algorithm) throws CytoContainerException;
+    
+    /**
+     * Releases spot in queue reserved via {@link #reserve(java.lang.String) }
+     * @param algorithm name of algorithm
+     */
+    public void releaseReservation(final String algorithm);
      
     /**
      * Gets query results
@@ -36,15 +68,41 @@ public interface CytoContainerEngine extends Runnable {
     public CytoContainerResult getResult(final String algorithm, final String id) throws CytoContainerException;
 	
 	/**
-     * Gets query result data only as {@code InputStream}
+     * Gets file containing query result as JSON if the task has
+     * finished. Contents of file can be sent to caller as is
+	 * 
+	 * @param algorithm name of algorithm
+     * @param id id of task
+     * @return file containing result or {@code null} if task has not
+     *         finished in which case caller should use {@link #getResult(java.lang.String, java.lang.String) }
+     * @throws CytoContainerException  if there is an error
+     */
+    public File getResultFile(final String algorithm, final String id) throws CytoContainerException;
+	
+	/**
+     * Gets query result data only as {@code InputStream}. Does not
+     * wait for the task to finish
 	 * 
 	 * @param algorithm name of algorithm
      * @param id id of task
-     * @return data in result of task as {@code InputStream}
+     * @return data in result of task as {@code InputStream} or {@code null}
+     *         if task has not completed or has no data
      * @throws CytoContainerException  if there is an error
      */
     public InputStream getResultData(final String algorithm, final String id) throws CytoContainerException;
 	
+    /**
+     * Gets file containing query result data. Does not wait for the
+     * task to finish
+	 * 
+	 * @param algorithm name of algorithm
+     * @param id id of task
+     * @return file with data in result of task along with its media type
+     *         or {@code null} if task has not completed or has no data
+     * @throws CytoContainerException  if there is an error
+     */
+    public ResultDataFile getResultDataFile(final String algorithm, final String id) throws CytoContainerException;
+	
     /**
      * Gets query status
      * @param id id of task
@@ -82,6 +140,19 @@ public interface CytoContainerEngine extends Runnable {
     
 	public Algorithms getAllAlgorithms() throws CytoContainerException;
 	
+    /**
+     * Subscribes to status updates for a task. Current status is sent
+     * right away and {@code subscriber} is closed once task finishes
+     * or is deleted
+     * 
+     * @param algorithm name of algorithm
+     * @param id id of task
+     * @param subscriber receives status updates
+     * @throws CytoContainerException if task is not found or there is an error
+     */
+    public void subscribe(final String algorithm, final String id,
+            TaskStatusSubscriber subscriber) throws CytoContainerException;
+    
     /**
      * Tells implementing objects to shutdown
      */
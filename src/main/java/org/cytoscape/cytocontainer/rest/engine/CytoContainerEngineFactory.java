@@ -1,9 +1,27 @@
 package org.cytoscape.cytocontainer.rest.engine;
 
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.cytoscape.cytocontainer.rest.engine.util.CommandLineContainerReaper;
+import org.cytoscape.cytocontainer.rest.engine.util.ContainerReaper;
+import org.cytoscape.cytocontainer.rest.engine.util.CpuSetAllocator;
 import org.cytoscape.cytocontainer.rest.engine.util.CytoContainerRequestValidatorImpl;
+import org.cytoscape.cytocontainer.rest.engine.util.DaemonContainerPool;
+import org.cytoscape.cytocontainer.rest.engine.util.DaemonSettings;
+import org.cytoscape.cytocontainer.rest.engine.util.DockerCytoContainerRunner;
+import org.cytoscape.cytocontainer.rest.engine.util.DockerEngineClient;
+import org.cytoscape.cytocontainer.rest.engine.util.DockerEngineContainerReaper;
+import org.cytoscape.cytocontainer.rest.engine.util.OutputSettings;
+import org.cytoscape.cytocontainer.rest.engine.util.ResourceSettings;
+import org.cytoscape.cytocontainer.rest.engine.util.WarmContainerPool;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
 import org.cytoscape.cytocontainer.rest.services.Configuration;
@@ -21,10 +39,38 @@ public class CytoContainerEngineFactory {
     static Logger _logger = LoggerFactory.getLogger(CytoContainerEngineFactory.class);
 
     private final int _numWorkers;
+    private final int _maxQueueSize;
+    private final int _resultCacheSize;
+    private final long _resultCacheTTL;
+    private final Set<String> _resultCacheDisabledAlgorithms;
+    private final boolean _coalesceRequests;
+    private final long _completedResultCacheBytes;
+    private final int _completedStatusCacheSize;
+    private final long _eventsPollInterval;
+    private final String _taskCompression;
+    private final int _compressionLevel;
+    private final long _taskCompressionDelay;
+    private final Set<String> _coalesceDisabledAlgorithms;
     private final String _taskDir;
     private final String _dockerCmd;
+    private final String _dockerSocket;
+    private final boolean _reapOrphanedContainers;
+    private final String _instanceId;
+    private final String _mountOptions;
     private final CytoContainerAlgorithms _algorithms;
     private final CytoContainerRequestValidator _validator;
+    private final Map<String, Integer> _algorithmNumWorkers;
+    private final Map<String, Integer> _algorithmQueueSize;
+    private final Map<String, Integer> _algorithmWarmPoolMinIdle;
+    private final Map<String, Integer> _algorithmWarmPoolMaxIdle;
+    private final Map<String, DaemonSettings> _algorithmDaemonSettings;
+    private final Map<String, ResourceSettings> _algorithmResourceSettings;
+    private final Map<String, OutputSettings> _algorithmOutputSettings;
+    private final boolean _schedulerEnabled;
+    private final double _schedulerCpus;
+    private final long _schedulerMemory;
+    private final boolean _cpuSetEnabled;
+    private final String _cpuSetCpus;
     
     /**
      * Temp directory where query results will temporarily be stored.
@@ -34,15 +80,60 @@ public class CytoContainerEngineFactory {
     public CytoContainerEngineFactory(Configuration config){
         
         _numWorkers = config.getNumberWorkers();
+        _maxQueueSize = config.getMaxQueueSize();
+        _resultCacheSize = config.getResultCacheSize();
+        _resultCacheTTL = config.getResultCacheTTL();
+        _resultCacheDisabledAlgorithms = new HashSet<>();
+        _coalesceRequests = config.isCoalesceRequests();
+        _coalesceDisabledAlgorithms = new HashSet<>();
+        _completedResultCacheBytes = config.getCompletedResultCacheBytes();
+        _completedStatusCacheSize = config.getCompletedStatusCacheSize();
+        _eventsPollInterval = config.getEventsPollInterval();
+        _taskCompression = config.getTaskCompression();
+        _compressionLevel = config.getCompressionLevel();
+        _taskCompressionDelay = config.getTaskCompressionDelay();
         _taskDir = config.getTaskDirectory();
         _dockerCmd = config.getDockerCommand();
+        _dockerSocket = config.getDockerSocket();
+        _reapOrphanedContainers = config.isReapOrphanedContainers();
+        _instanceId = config.getInstanceId();
+        _mountOptions = config.getMountOptions();
         _algorithms = config.getAlgorithms();
-        _validator = new CytoContainerRequestValidatorImpl();
- 
+        _algorithmDaemonSettings = config.getAlgorithmDaemonSettings();
+        _algorithmResourceSettings = config.getAlgorithmResourceSettings();
+        _algorithmOutputSettings = config.getAlgorithmOutputSettings();
+        _schedulerEnabled = config.isSchedulerEnabled();
+        _schedulerCpus = config.getSchedulerCpus();
+        _schedulerMemory = config.getSchedulerMemory();
+        _cpuSetEnabled = config.isCpuSetEnabled();
+        _cpuSetCpus = config.getCpuSetCpus();
+        _validator = new CytoContainerRequestValidatorImpl(_algorithms);
+        _algorithmNumWorkers = new LinkedHashMap<>();
+        _algorithmQueueSize = new LinkedHashMap<>();
+        _algorithmWarmPoolMinIdle = new LinkedHashMap<>();
+        _algorithmWarmPoolMaxIdle = new LinkedHashMap<>();
+        if (_algorithms != null && _algorithms.getAlgorithms() != null){
+            for (String algoName : _algorithms.getAlgorithms().keySet()){
+                _algorithmNumWorkers.put(algoName, config.getAlgorithmNumberWorkers(algoName));
+                _algorithmQueueSize.put(algoName, config.getAlgorithmQueueSize(algoName));
+                _algorithmWarmPoolMinIdle.put(algoName, config.getAlgorithmWarmPoolMinIdle(algoName));
+                _algorithmWarmPoolMaxIdle.put(algoName, config.getAlgorithmWarmPoolMaxIdle(algoName));
+                if (config.isAlgorithmResultCacheEnabled(algoName) == false){
+                    _resultCacheDisabledAlgorithms.add(algoName);
+                }
+                if (_coalesceRequests && config.isAlgorithmCoalesceEnabled(algoName) == false){
+                    _coalesceDisabledAlgorithms.add(algoName);
+                }
+            }
+        }
     }
 
     /**
-     * Creates CytoContainerEngine with a fixed threadpool to process requests
+     * Creates CytoContainerEngine with a fixed threadpool to process requests.
+     * Any algorithm configured with its own number of workers gets a dedicated
+     * fixed threadpool so a slow algorithm cannot starve the others. The
+     * queue of a dedicated threadpool is unbounded, its queue size is
+     * enforced by the engine when tasks are submitted
      * @throws CytoContainerException if there is an error
      * @return {@link org.cytoscape.cytocontainer.rest.engine.CytoContainerEngine} object 
      *         ready to service requests
@@ -51,8 +142,179 @@ public class CytoContainerEngineFactory {
         _logger.debug("Creating executor service with: " + Integer.toString(_numWorkers) + " workers");
         ExecutorService es = Executors.newFixedThreadPool(_numWorkers);
 		
-        CytoContainerEngineImpl engine = new CytoContainerEngineImpl(es, _taskDir,
-                _dockerCmd, _algorithms, _validator);
+        Map<String, AlgorithmWorkerPool> workerPools = new LinkedHashMap<>();
+        for (String algoName : _algorithmNumWorkers.keySet()){
+            int numWorkers = _algorithmNumWorkers.get(algoName);
+            int queueSize = _algorithmQueueSize.get(algoName);
+            if (numWorkers <= 0){
+                continue;
+            }
+            _logger.debug("Creating dedicated executor service for " + algoName
+                    + " with: " + Integer.toString(numWorkers) + " workers and queue size of "
+                    + (queueSize > 0 ? Integer.toString(queueSize) : "unbounded"));
+            workerPools.put(algoName, new AlgorithmWorkerPool(algoName,
+                    Executors.newFixedThreadPool(numWorkers), numWorkers,
+                    queueSize, true));
+        }
+        CytoContainerEngineImpl engine = new CytoContainerEngineImpl(es, workerPools,
+                _taskDir, _dockerCmd, _algorithms, _validator);
+        engine.setMaxQueueSize(_maxQueueSize);
+        engine.setTaskStatusDispatcher(new TaskStatusDispatcher(engine, _eventsPollInterval));
+        if (_resultCacheSize > 0){
+            _logger.debug("Creating result cache with max of " + Integer.toString(_resultCacheSize)
+                    + " entries, ttl of " + Long.toString(_resultCacheTTL)
+                    + " seconds, and disabled for " + _resultCacheDisabledAlgorithms.toString());
+            engine.setResultCache(new ResultCache(_resultCacheSize,
+                    TimeUnit.SECONDS.toMillis(_resultCacheTTL), _resultCacheDisabledAlgorithms));
+        }
+        if (_coalesceRequests){
+            _logger.debug("Coalescing identical requests except for "
+                    + _coalesceDisabledAlgorithms.toString());
+            engine.setInFlightRequests(new InFlightRequests(_coalesceDisabledAlgorithms));
+        }
+        if (_completedResultCacheBytes > 0 || _completedStatusCacheSize > 0){
+            _logger.debug("Keeping up to " + Long.toString(_completedResultCacheBytes)
+                    + " bytes of finished results and " + Integer.toString(_completedStatusCacheSize)
+                    + " status records in memory");
+            engine.setCompletedResultCache(new CompletedResultCache(_completedResultCacheBytes,
+                    _completedStatusCacheSize));
+        }
+        engine.setResourceSettings(_algorithmResourceSettings);
+        engine.setOutputSettings(_algorithmOutputSettings);
+        if (_schedulerEnabled){
+            _logger.debug("Starting tasks once resources are free out of "
+                    + ResourceSettings.formatCpus(_schedulerCpus) + " CPUs and "
+                    + Long.toString(_schedulerMemory) + " bytes of memory");
+            engine.setResourceScheduler(new ResourceScheduler(_schedulerCpus, _schedulerMemory));
+        }
+        if (_cpuSetEnabled){
+            try {
+                CpuSetAllocator allocator = new CpuSetAllocator(CpuSetAllocator.parseCpuList(_cpuSetCpus));
+                _logger.debug("Pinning containers of running tasks to cores " + allocator.getCpus());
+                engine.setCpuSetAllocator(allocator);
+            } catch(IllegalArgumentException iae){
+                _logger.error(iae.getMessage() + " for " + Configuration.CPUSET_CPUS
+                        + ", containers will not be pinned");
+            }
+        }
+        DockerEngineClient client = null;
+        ContainerReaper reaper = null;
+        if (_dockerSocket != null && !_dockerSocket.isEmpty()){
+            client = new DockerEngineClient(_dockerSocket);
+            reaper = new DockerEngineContainerReaper(client);
+        } else {
+            reaper = new CommandLineContainerReaper(_dockerCmd);
+        }
+        engine.setInstanceId(_instanceId);
+        engine.setContainerReaper(reaper);
+        if (_reapOrphanedContainers){
+            // must happen before pools below start their containers
+            reapOrphanedContainers(reaper);
+        }
+        if (client != null){
+            _logger.debug("Running containers through Docker Engine API at " + _dockerSocket);
+            engine.setDockerEngineClient(client);
+            engine.setWarmContainerPools(createWarmContainerPools(client));
+        } else {
+            for (String algoName : _algorithmWarmPoolMinIdle.keySet()){
+                if (_algorithmWarmPoolMinIdle.get(algoName) > 0){
+                    _logger.error("Warm container pool for " + algoName
+                            + " requires " + Configuration.DOCKER_SOCKET
+                            + " to be set, containers will be created per task");
+                }
+            }
+        }
+        engine.setDaemonContainerPools(createDaemonContainerPools());
+        if (TaskFileCompressor.GZIP_ENCODING.equalsIgnoreCase(_taskCompression)){
+            _logger.debug("Compressing files of finished tasks with gzip level "
+                    + Integer.toString(_compressionLevel) + " after "
+                    + Long.toString(_taskCompressionDelay) + " milliseconds");
+            engine.setTaskFileCompressor(new TaskFileCompressor(Arrays.asList(
+                    DockerCytoContainerRunner.INPUT_FILE, CytoContainerEngineImpl.RESULT_DATA_FILE,
+                    CytoContainerEngineImpl.CDRESULT_JSON_FILE), _compressionLevel,
+                    _taskCompressionDelay));
+        } else if (_taskCompression != null && !_taskCompression.isEmpty()
+                && !"none".equalsIgnoreCase(_taskCompression)){
+            _logger.error("Unsupported task compression: " + _taskCompression
+                    + " files of finished tasks will not be compressed");
+        }
         return engine;
     }
+    
+    /**
+     * Removes containers left behind by a previous run of this service,
+     * such as those of tasks that were running when it was stopped. Only
+     * containers whose name has the id of this instance are removed. Errors
+     * are logged since they should not prevent the service from starting
+     * @param reaper used to list and remove containers
+     */
+    private void reapOrphanedContainers(ContainerReaper reaper){
+        try {
+            List<String> names = reaper.listContainers(ContainerReaper.getNamePrefix(_instanceId));
+            for (String name : names){
+                _logger.info("Removing orphaned container " + name);
+                reaper.removeContainer(name);
+            }
+        } catch(Exception ex){
+            _logger.error("Unable to remove orphaned containers", ex);
+        }
+    }
+    
+    /**
+     * Creates and starts filling a pool of pre-created containers for
+     * each algorithm with a minimum number of idle containers set
+     * @param client client used to talk to engine
+     * @return map of algorithm name => pool
+     */
+    private Map<String, WarmContainerPool> createWarmContainerPools(DockerEngineClient client){
+        Map<String, WarmContainerPool> warmPools = new LinkedHashMap<>();
+        for (String algoName : _algorithmWarmPoolMinIdle.keySet()){
+            int minIdle = _algorithmWarmPoolMinIdle.get(algoName);
+            int maxIdle = _algorithmWarmPoolMaxIdle.get(algoName);
+            if (minIdle <= 0){
+                continue;
+            }
+            _logger.debug("Creating warm container pool for " + algoName
+                    + " with min of " + Integer.toString(minIdle) + " and max of "
+                    + Integer.toString(maxIdle) + " idle containers");
+            WarmContainerPool warmPool = new WarmContainerPool(client, algoName,
+                    _algorithms.getAlgorithms().get(algoName).getDockerImage(),
+                    _taskDir, _mountOptions, minIdle, maxIdle);
+            warmPool.setInstanceId(_instanceId);
+            warmPool.start();
+            warmPools.put(algoName, warmPool);
+        }
+        return warmPools;
+    }
+    
+    /**
+     * Creates and starts a pool of long running containers for each
+     * algorithm run in daemon mode
+     * @return map of algorithm name => pool
+     */
+    private Map<String, DaemonContainerPool> createDaemonContainerPools(){
+        Map<String, DaemonContainerPool> daemonPools = new LinkedHashMap<>();
+        if (_algorithmDaemonSettings == null){
+            return daemonPools;
+        }
+        for (String algoName : _algorithmDaemonSettings.keySet()){
+            DaemonSettings settings = _algorithmDaemonSettings.get(algoName);
+            _logger.debug("Creating daemon container pool for " + algoName
+                    + " with " + Integer.toString(settings.getContainers())
+                    + " containers each running up to "
+                    + (settings.getMaxTasks() > 0 ? Integer.toString(settings.getMaxTasks()) : "unlimited")
+                    + " tasks");
+            DaemonContainerPool daemonPool = new DaemonContainerPool(algoName, _dockerCmd,
+                    _algorithms.getAlgorithms().get(algoName).getDockerImage(),
+                    _taskDir, _mountOptions, settings);
+            if (_algorithmResourceSettings != null){
+                daemonPool.setResourceSettings(_algorithmResourceSettings.get(algoName));
+            }
+            daemonPool.setInstanceId(_instanceId);
+            daemonPool.start();
+            daemonPools.put(algoName, daemonPool);
+        }
+        return daemonPools;
+    }
+    
 }
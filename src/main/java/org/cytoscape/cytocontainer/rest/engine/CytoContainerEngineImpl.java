@@ -1,29 +1,47 @@
 package org.cytoscape.cytocontainer.rest.engine;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.RandomAccessFile;
 import java.lang.management.ManagementFactory;
+import java.net.URI;
 import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.engine.util.ContainerReaper;
+import org.cytoscape.cytocontainer.rest.engine.util.CpuSetAllocator;
+import org.cytoscape.cytocontainer.rest.engine.util.CytoContainerRequestHasher;
+import org.cytoscape.cytocontainer.rest.engine.util.DaemonCommandLineRunner;
+import org.cytoscape.cytocontainer.rest.engine.util.DaemonContainerPool;
 import org.cytoscape.cytocontainer.rest.engine.util.DockerCytoContainerRunner;
+import org.cytoscape.cytocontainer.rest.engine.util.DockerEngineClient;
+import org.cytoscape.cytocontainer.rest.engine.util.DockerEngineCommandLineRunner;
+import org.cytoscape.cytocontainer.rest.engine.util.OutputSettings;
+import org.cytoscape.cytocontainer.rest.engine.util.ResourceSettings;
+import org.cytoscape.cytocontainer.rest.engine.util.SpooledCytoContainerRequest;
+import org.cytoscape.cytocontainer.rest.engine.util.WarmContainerPool;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
@@ -34,6 +52,8 @@ import org.cytoscape.cytocontainer.rest.model.ServerStatus;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerBadRequestException;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
 
+import org.cytoscape.cytocontainer.rest.services.CompressionStatistics;
+import org.cytoscape.cytocontainer.rest.services.ContentEncodingInterceptor;
 import org.cytoscape.cytocontainer.rest.services.CytoContainerHttpServletDispatcher;
 import org.cytoscape.cytocontainer.rest.services.Configuration;
 
@@ -50,7 +70,7 @@ import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerNotFoundEx
  * Runs CytoContainer tasks 
  * @author churas
  */
-public class CytoContainerEngineImpl implements CytoContainerEngine {
+public class CytoContainerEngineImpl implements CytoContainerEngine, CytoContainerTaskListener {
 
 	public static final long TEN_MB = 1024*1024*10;
 	
@@ -67,16 +87,140 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
 	public static final String RESULT_DATA_FILE = "stdout.txt";
 	
 	public static final String STDERR_FILE = "stderr.txt";
+	
+	/**
+	 * Media type of raw data if it cannot be determined
+	 */
+	public static final String RESULT_DATA_DEFAULT_CONTENT_TYPE = "application/octet-stream";
+	
+	/**
+	 * CPUs a task is assumed to need if its algorithm does not declare any
+	 */
+	public static final double DEFAULT_TASK_CPUS = 1;
+	
+	/**
+	 * Name of fields in JSON of {@link org.cytoscape.cytocontainer.rest.model.BinaryData}
+	 */
+	static final String BINARY_DATA_CONTENT_TYPE = "contentType";
+	static final String BINARY_DATA_DOWNLOAD_URL = "downloadUrl";
     
     static Logger _logger = LoggerFactory.getLogger(CytoContainerEngineImpl.class);
 
     private String _taskDir;
     private boolean _shutdown;
     private ExecutorService _executorService;
-    private ConcurrentHashMap<String, Future> _futureTaskMap;
+    private CountDownLatch _shutdownLatch;
+    private ConcurrentHashMap<String, CytoContainerTask> _futureTaskMap;
     private AtomicInteger _completedTasks;
     private AtomicInteger _queuedTasks;
     private AtomicInteger _canceledTasks;
+    private AtomicInteger _runningTasks;
+    
+    /**
+     * Map of algorithm name => worker pool used to run tasks for that algorithm
+     */
+    private ConcurrentHashMap<String, AlgorithmWorkerPool> _workerPools;
+    
+    /**
+     * Max number of tasks that can be waiting to run across all
+     * algorithms, {@code 0} or less means unbounded
+     */
+    private int _maxQueueSize;
+    private final TaskDrainRate _drainRate;
+    private final Object _admissionLock = new Object();
+    
+    /**
+     * Cache of completed results, {@code null} if disabled
+     */
+    private ResultCache _resultCache;
+    
+    /**
+     * Tasks in flight that identical requests can attach to,
+     * {@code null} if disabled
+     */
+    private InFlightRequests _inFlightRequests;
+    
+    /**
+     * Results of finished tasks kept in memory, {@code null} if disabled
+     */
+    private CompletedResultCache _completedResultCache;
+    
+    /**
+     * Compresses files of finished tasks, {@code null} if disabled
+     */
+    private TaskFileCompressor _taskFileCompressor;
+    
+    /**
+     * Client used to run containers through the Docker Engine API,
+     * {@code null} if containers are run by forking the docker command
+     */
+    private DockerEngineClient _dockerEngineClient;
+    
+    /**
+     * Pools of pre-created containers keyed by algorithm name, only
+     * used when running containers through the Docker Engine API
+     */
+    private Map<String, WarmContainerPool> _warmPools = new ConcurrentHashMap<>();
+    
+    /**
+     * Pools of long running containers keyed by name of algorithms
+     * run in daemon mode
+     */
+    private Map<String, DaemonContainerPool> _daemonPools = new ConcurrentHashMap<>();
+    
+    /**
+     * Admits tasks once the CPU and memory they need are free,
+     * {@code null} if tasks start as soon as a worker is free
+     */
+    private ResourceScheduler _resourceScheduler;
+    
+    /**
+     * Assigns cores to pin containers of running tasks to,
+     * {@code null} if containers are not pinned
+     */
+    private CpuSetAllocator _cpuSetAllocator;
+    
+    /**
+     * CPU and memory limits keyed by algorithm name
+     */
+    private Map<String, ResourceSettings> _resourceSettings = new ConcurrentHashMap<>();
+    
+    /**
+     * Output settings keyed by algorithm name
+     */
+    private Map<String, OutputSettings> _outputSettings = new ConcurrentHashMap<>();
+    
+    /**
+     * Kills containers of tasks that time out or are deleted,
+     * {@code null} if disabled
+     */
+    private ContainerReaper _containerReaper;
+    
+    /**
+     * Id of this instance of the service put in names of containers
+     */
+    private String _instanceId;
+    
+    /**
+     * Runs the blocking removal of containers of deleted tasks, its
+     * thread is only started once a container needs to be removed
+     */
+    private final ExecutorService _reaperExecutorService = Executors.newSingleThreadExecutor((r) -> {
+        Thread t = new Thread(r, "ContainerReaper");
+        t.setDaemon(true);
+        return t;
+    });
+    
+    /**
+     * Progress trackers keyed by path to standard error file of running
+     * tasks so each status poll only parses newly appended output
+     */
+    private final ConcurrentHashMap<String, StdErrProgressTracker> _progressTrackers = new ConcurrentHashMap<>();
+    
+    /**
+     * Pushes status updates to subscribers
+     */
+    private TaskStatusDispatcher _statusDispatcher;
     private CytoContainerAlgorithms _algorithms;
 	
     private CytoContainerRequestValidator _validator;
@@ -86,8 +230,6 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
      * This should be a map of <query UUID> => EnrichmentQueryResults object
      */
     private ConcurrentHashMap<String, CytoContainerResult> _results;
-
-    private long _threadSleep = 10;
 	
     /**
      * Constructor 
@@ -102,8 +244,33 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
             final String dockerCmd,
             final CytoContainerAlgorithms algorithms,
             final CytoContainerRequestValidator validator){
+        this(es, null, taskDir, dockerCmd, algorithms, validator);
+    }
+    
+    /**
+     * Constructor 
+     * @param es Executor Service to run tasks for algorithms without
+     *           an entry in {@code workerPools}
+     * @param workerPools Map of algorithm name to dedicated worker pool for
+     *                    that algorithm, can be {@code null}
+     * @param taskDir Base directory for tasks
+     * @param dockerCmd Docker command to run
+     * @param algorithms Algorithms that can be run by this object
+     * @param validator Validates requests
+     */
+    public CytoContainerEngineImpl(ExecutorService es,
+            final Map<String, AlgorithmWorkerPool> workerPools,
+            final String taskDir,
+            final String dockerCmd,
+            final CytoContainerAlgorithms algorithms,
+            final CytoContainerRequestValidator validator){
         _executorService = es;
+        _workerPools = new ConcurrentHashMap<>();
+        if (workerPools != null){
+            _workerPools.putAll(workerPools);
+        }
         _shutdown = false;
+        _shutdownLatch = new CountDownLatch(1);
         _futureTaskMap = new ConcurrentHashMap<>();
         _taskDir = taskDir;
         _dockerCmd = dockerCmd;
@@ -113,75 +280,307 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
         _completedTasks = new AtomicInteger(0);
         _queuedTasks = new AtomicInteger(0);
         _canceledTasks = new AtomicInteger(0);
+        _runningTasks = new AtomicInteger(0);
+        _maxQueueSize = 0;
+        _drainRate = new TaskDrainRate();
+        _statusDispatcher = new TaskStatusDispatcher(this,
+                TaskStatusDispatcher.DEFAULT_POLL_INTERVAL_MILLIS);
     }
     
     /**
-     * Sets milliseconds thread should sleep if no work needs to be done.
-     * @param sleepTime time in milliseconds
+     * Sets max number of tasks that can be waiting to run across all
+     * algorithms. Requests beyond this are rejected with
+     * {@link org.cytoscape.cytocontainer.rest.engine.CytoContainerQueueFullException}
+     * @param maxQueueSize max queued tasks, {@code 0} or less means unbounded
      */
-    public void updateThreadSleepTime(long sleepTime){
-        _threadSleep = sleepTime;
+    public void setMaxQueueSize(int maxQueueSize){
+        _maxQueueSize = maxQueueSize;
     }
-
-    protected void threadSleep(){
-        try {
-            Thread.sleep(_threadSleep);
+    
+    /**
+     * Sets cache used to reuse results of completed tasks for
+     * identical requests
+     * @param resultCache the cache or {@code null} to disable caching
+     */
+    public void setResultCache(ResultCache resultCache){
+        _resultCache = resultCache;
+    }
+    
+    /**
+     * Sets tracker used to attach identical requests to a task
+     * already in flight instead of running a duplicate
+     * @param inFlightRequests the tracker or {@code null} to disable
+     */
+    public void setInFlightRequests(InFlightRequests inFlightRequests){
+        _inFlightRequests = inFlightRequests;
+    }
+    
+    /**
+     * Sets cache holding results of finished tasks so polling does not
+     * reload them from the filesystem
+     * @param completedResultCache the cache or {@code null} to disable
+     */
+    public void setCompletedResultCache(CompletedResultCache completedResultCache){
+        _completedResultCache = completedResultCache;
+    }
+    
+    /**
+     * Sets compressor used to shrink files of finished tasks
+     * @param taskFileCompressor the compressor or {@code null} to disable
+     */
+    public void setTaskFileCompressor(TaskFileCompressor taskFileCompressor){
+        _taskFileCompressor = taskFileCompressor;
+    }
+    
+    /**
+     * Sets client used to run containers through the Docker Engine API
+     * instead of forking the docker command
+     * @param dockerEngineClient the client or {@code null} to fork the docker command
+     */
+    public void setDockerEngineClient(DockerEngineClient dockerEngineClient){
+        _dockerEngineClient = dockerEngineClient;
+    }
+    
+    /**
+     * Sets scheduler that holds tasks until the CPU and memory they
+     * need are free
+     * @param resourceScheduler scheduler or {@code null} to start tasks
+     *                          as soon as a worker is free
+     */
+    public void setResourceScheduler(ResourceScheduler resourceScheduler){
+        _resourceScheduler = resourceScheduler;
+    }
+    
+    /**
+     * Sets allocator that assigns disjoint sets of cores to running tasks
+     * whose containers are then pinned to them. Tasks of algorithms run
+     * in daemon mode are not pinned
+     * @param cpuSetAllocator allocator or {@code null} to not pin containers
+     */
+    public void setCpuSetAllocator(CpuSetAllocator cpuSetAllocator){
+        _cpuSetAllocator = cpuSetAllocator;
+    }
+    
+    /**
+     * Sets CPU and memory limits of algorithms, algorithms without
+     * limits are assumed to need {@link #DEFAULT_TASK_CPUS} when
+     * a {@link ResourceScheduler} is set
+     * @param resourceSettings map of algorithm name => limits or {@code null} for none
+     */
+    public void setResourceSettings(Map<String, ResourceSettings> resourceSettings){
+        _resourceSettings = new ConcurrentHashMap<>();
+        if (resourceSettings != null){
+            _resourceSettings.putAll(resourceSettings);
         }
-        catch(InterruptedException ie){
-
+    }
+    
+    /**
+     * Sets output settings of algorithms, output of algorithms without
+     * settings is assumed to be JSON or text
+     * @param outputSettings map of algorithm name => settings or {@code null} for none
+     */
+    public void setOutputSettings(Map<String, OutputSettings> outputSettings){
+        _outputSettings = new ConcurrentHashMap<>();
+        if (outputSettings != null){
+            _outputSettings.putAll(outputSettings);
+        }
+    }
+    
+    /**
+     * Sets reaper used to kill containers of tasks that time out or are
+     * deleted while running
+     * @param containerReaper the reaper or {@code null} to only stop the
+     *                        process running the container
+     */
+    public void setContainerReaper(ContainerReaper containerReaper){
+        _containerReaper = containerReaper;
+    }
+    
+    /**
+     * Sets id of this instance of the service put in names of containers
+     * so they can be told apart from those of other instances
+     * @param instanceId id of instance or {@code null} for none
+     */
+    public void setInstanceId(final String instanceId){
+        _instanceId = instanceId;
+    }
+    
+    /**
+     * Sets pools of pre-created containers, these are only used if
+     * {@link #setDockerEngineClient(org.cytoscape.cytocontainer.rest.engine.util.DockerEngineClient) }
+     * is also set
+     * @param warmPools map of algorithm name => pool or {@code null} for none
+     */
+    public void setWarmContainerPools(Map<String, WarmContainerPool> warmPools){
+        _warmPools = new ConcurrentHashMap<>();
+        if (warmPools != null){
+            _warmPools.putAll(warmPools);
+        }
+    }
+    
+    /**
+     * Sets pools of long running containers that run tasks of algorithms
+     * in daemon mode
+     * @param daemonPools map of algorithm name => pool or {@code null} for none
+     */
+    public void setDaemonContainerPools(Map<String, DaemonContainerPool> daemonPools){
+        _daemonPools = new ConcurrentHashMap<>();
+        if (daemonPools != null){
+            _daemonPools.putAll(daemonPools);
+        }
+    }
+    
+    /**
+     * Sets dispatcher that pushes status updates to subscribers
+     * @param statusDispatcher the dispatcher
+     */
+    public void setTaskStatusDispatcher(TaskStatusDispatcher statusDispatcher){
+        _statusDispatcher = statusDispatcher;
+    }
+    
+    /**
+     * Gets worker pool for {@code algorithm}, creating one that uses the
+     * shared executor service passed in via the constructor if the algorithm
+     * does not have a dedicated pool
+     * @param algorithm name of algorithm
+     * @return worker pool for algorithm
+     */
+    protected AlgorithmWorkerPool getWorkerPool(final String algorithm){
+        return _workerPools.computeIfAbsent(algorithm,
+                (name) -> new AlgorithmWorkerPool(name, _executorService,
+                        getSharedNumberWorkers(), 0, false));
+    }
+    
+    private int getSharedNumberWorkers(){
+        if (_executorService instanceof ThreadPoolExecutor){
+            return ((ThreadPoolExecutor)_executorService).getMaximumPoolSize();
         }
+        return 0;
     }
     
     /**
-     * Processes any query tasks, looping until {@link #shutdown()} is invoked
+     * Blocks until {@link #shutdown()} is invoked. Completed tasks are
+     * handled as they finish via {@link #taskDone(org.cytoscape.cytocontainer.rest.engine.CytoContainerTask) }
+     * so there is no longer any need to poll
      */
     @Override
     public void run() {
         while(_shutdown == false){
-            Future f;
-            String taskId;
-            int queuedCount = 0;
-            Iterator<String> idItr = _futureTaskMap.keySet().iterator();
-            while(idItr.hasNext()){
-                taskId = idItr.next();
-                
-                f = _futureTaskMap.get(taskId);
-                if (f == null){
-                    continue;
-                }
-                if (f.isCancelled()){
-                    _futureTaskMap.remove(taskId);
-                    _canceledTasks.incrementAndGet();
-                } else if (f.isDone()){
-                    _logger.debug("Found a completed or failed task");
-                    try {
-                        CytoContainerResult cdr = (CytoContainerResult) f.get();
-                        saveCytoContainerResultToFilesystem(cdr);
-                        _completedTasks.incrementAndGet();
-                    } catch (InterruptedException ex) {
-                        _logger.error("Got interrupted exception", ex);
-                    } catch (ExecutionException ex) {
-                        _logger.error("Got execution exception", ex);
-                    } catch (CancellationException ex){
-                        _logger.error("Got cancellation exception", ex);
-                    }
-                    _futureTaskMap.remove(taskId);
-                } else {
-                    queuedCount++;
-                }
-            }
-            if (_queuedTasks.get() != queuedCount){
-                _queuedTasks.set(queuedCount);
+            try {
+                _shutdownLatch.await();
+            } catch(InterruptedException ie){
+                _logger.debug("Interrupted while waiting for shutdown");
             }
-            threadSleep();
         }
         _logger.debug("Shutdown was invoked");
         logServerStatus(null);
+        shutdownExecutorServices();
+    }
+    
+    /**
+     * Shuts down the shared executor service and those of any dedicated
+     * worker pools so their threads do not keep the JVM running once
+     * the engine has stopped. Tasks already submitted are still run
+     */
+    private void shutdownExecutorServices(){
+        if (_executorService != null){
+            _executorService.shutdown();
+        }
+        for (AlgorithmWorkerPool pool : _workerPools.values()){
+            if (pool.getExecutorService() != null){
+                pool.getExecutorService().shutdown();
+            }
+        }
     }
 
     @Override
     public void shutdown() {
         _shutdown = true;
+        _statusDispatcher.shutdown();
+        if (_taskFileCompressor != null){
+            _taskFileCompressor.shutdown();
+        }
+        for (WarmContainerPool warmPool : _warmPools.values()){
+            warmPool.shutdown();
+        }
+        for (DaemonContainerPool daemonPool : _daemonPools.values()){
+            daemonPool.shutdown();
+        }
+        _reaperExecutorService.shutdown();
+        _shutdownLatch.countDown();
+    }
+    
+    @Override
+    public void taskStarted(final CytoContainerTask task) {
+        _runningTasks.incrementAndGet();
+        getWorkerPool(task.getAlgorithm()).taskStarted();
+    }
+
+    @Override
+    public void taskStopped(final CytoContainerTask task) {
+        _runningTasks.decrementAndGet();
+        getWorkerPool(task.getAlgorithm()).taskStopped();
+    }
+    
+    /**
+     * Invoked by {@link org.cytoscape.cytocontainer.rest.engine.CytoContainerTask}
+     * the moment a task completes, fails, or is canceled. Saves the result
+     * to the filesystem, updates the counters and removes the task from
+     * the task map
+     * @param task The task that is done
+     */
+    @Override
+    public void taskDone(final CytoContainerTask task) {
+        if (task == null){
+            return;
+        }
+        try {
+            _futureTaskMap.remove(task.getId());
+            _queuedTasks.decrementAndGet();
+            _drainRate.taskFinished();
+            getWorkerPool(task.getAlgorithm()).taskDone(task.isCancelled());
+            if (task.isCancelled()){
+                _canceledTasks.incrementAndGet();
+                finishInFlightRequests(task.getId(), null);
+                _statusDispatcher.taskChanged(task.getId());
+                return;
+            }
+            _logger.debug("Found a completed or failed task");
+            try {
+                CytoContainerResult cdr = task.get();
+                saveCytoContainerResultToFilesystem(cdr);
+                _completedTasks.incrementAndGet();
+                if (_resultCache != null && task.getRequestKey() != null && cdr != null
+                        && CytoContainerResult.COMPLETE_STATUS.equals(cdr.getStatus())){
+                    _resultCache.put(task.getRequestKey(), task.getId());
+                }
+                finishInFlightRequests(task.getId(), cdr);
+                _statusDispatcher.taskChanged(task.getId());
+            } catch (InterruptedException ex) {
+                _logger.error("Got interrupted exception", ex);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                _logger.error("Got execution exception", ex);
+                CytoContainerResult memoryRes = _results.get(task.getId());
+                CytoContainerResult failedRes = new CytoContainerResult(memoryRes == null ?
+                        System.currentTimeMillis() : memoryRes.getStartTime());
+                failedRes.setId(task.getId());
+                failedRes.setStatus(CytoContainerResult.FAILED_STATUS);
+                failedRes.setProgress(100);
+                failedRes.setMessage("Received error trying to run task: " + ex.getMessage());
+                failedRes.setWallTime(System.currentTimeMillis() - failedRes.getStartTime());
+                saveCytoContainerResultToFilesystem(failedRes);
+                _completedTasks.incrementAndGet();
+                finishInFlightRequests(task.getId(), failedRes);
+                _statusDispatcher.taskChanged(task.getId());
+            } catch (CancellationException ex){
+                _logger.error("Got cancellation exception", ex);
+            }
+        } finally {
+            // tracker is removed only after the result is saved and dropped
+            // from _results otherwise a status poll would recreate it
+            _progressTrackers.remove(getCytoContainerResultStdErrFilePath(task.getId()));
+        }
     }
     
     /**
@@ -225,9 +624,23 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
         }
         logResult(cdr);
         File destFile = new File(getCytoContainerResultFilePath(cdr.getId()));
+        // write to temp file and move into place so readers streaming
+        // the result file never see a partially written file
+        File tmpFile = new File(destFile.getAbsolutePath() + ".tmp");
         ObjectMapper mappy = new ObjectMapper();
-        try (FileOutputStream out = new FileOutputStream(destFile)){
-            mappy.writeValue(out, cdr);
+        try {
+            byte[] cdrBytes = mappy.writeValueAsBytes(cdr);
+            try (FileOutputStream out = new FileOutputStream(tmpFile)){
+                out.write(cdrBytes);
+            }
+            Files.move(tmpFile.toPath(), destFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (_completedResultCache != null){
+                _completedResultCache.put(cdr, cdrBytes.length);
+            }
+            if (_taskFileCompressor != null){
+                _taskFileCompressor.compressTask(destFile.getParentFile());
+            }
         } catch(IOException io){
             _logger.error("Caught exception writing " + destFile.getAbsolutePath(), io);
         }
@@ -265,74 +678,60 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
 	 * If all @@PROGRESS entries lack values then progress is set to 0.
 	 * 
 	 * NOTE: a line without a newline is NOT parsed. 
+	 * 
+	 * Parsing state is kept per file by a {@link StdErrProgressTracker}
+	 * so repeated calls only parse output appended since the last call.
 	 * </pre>
 	 * @param filePath Path to standard error file
 	 * @return Updated status or an empty status with {@code 0} for progress and {@code null} for
 	 *         message
 	 */
 	protected CytoContainerResultStatus getLastProgressAndMessage(final String filePath) {
-        CytoContainerResultStatus ccrs = new CytoContainerResultStatus();
 		File stderrFile = new File(filePath);
 		if (stderrFile.isFile() == false){
-			return ccrs;
-		}
-		
-		// limit how far back to parse the log file so we do not overwhelm the server
-		long numBytesToParse = 1024*1024*10;
-		try {
-			numBytesToParse = Configuration.getInstance().getNumberOfBytesToParseFromStdErrorFile();
-		} catch(CytoContainerException cce){
-			_logger.warn("Unable to get bytes to parse, using default: " + Long.toString(numBytesToParse), cce);
+			return new CytoContainerResultStatus();
 		}
-        try (RandomAccessFile reader = new RandomAccessFile(stderrFile, "r")) {
-            String line;
-			long fileLength = reader.length();
-			
-			// read only last numBytesToParse bytes of file
-			long startPosition = (fileLength > numBytesToParse) ? fileLength - numBytesToParse : 0;
-
-			_logger.debug("Seeking to byte position: " + startPosition);
-			reader.seek(startPosition);
-
-			// If we're not at the beginning, skip the first partial line
-			if (startPosition > 0) {
-				reader.readLine();
+		StdErrProgressTracker tracker = _progressTrackers.computeIfAbsent(filePath, (path) -> {
+			// limit how far back to parse the log file so we do not overwhelm the server
+			long numBytesToParse = 1024*1024*10;
+			try {
+				numBytesToParse = Configuration.getInstance().getNumberOfBytesToParseFromStdErrorFile();
+			} catch(CytoContainerException cce){
+				_logger.warn("Unable to get bytes to parse, using default: " + Long.toString(numBytesToParse), cce);
 			}
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith(PROGRESS_KEY)) {
-                    String[] parts = line.split("\\s+", 2);
-					
-                    if (parts.length == 2) {
-                        try {
-                            ccrs.setProgress(Integer.parseInt(parts[1].trim()));
-							_logger.debug("Progress set to: " + ccrs.getProgress());
-                        } catch (NumberFormatException e) {
-                            _logger.info("Invalid progress format: " + parts[1] + " setting to 0");
-							ccrs.setProgress(0);
-                        }
-                    }
-                } else if (line.startsWith(MESSAGE_KEY)) {
-                    String[] parts = line.split("\\s+", 2);
-                    if (parts.length == 2) {
-                        ccrs.setMessage(parts[1].trim());
-                    }
-                }
-            }
-
-        } catch (IOException e) {
+			return new StdErrProgressTracker(stderrFile, numBytesToParse);
+		});
+		try {
+			return tracker.update();
+		} catch (IOException e) {
 			_logger.info("Caught Exception: " + e.getMessage(), e);
+			CytoContainerResultStatus ccrs = new CytoContainerResultStatus();
 			ccrs.setProgress(0);
 			ccrs.setMessage("Unable to get current progress");
-        }
-		return ccrs;
+			return ccrs;
+		}
     }
 
     protected CytoContainerResult getCytoContainerResultFromDbOrFilesystem(final String id){
+        if (_completedResultCache != null){
+            CytoContainerResult cachedCCR = _completedResultCache.get(id);
+            if (cachedCCR != null){
+                return cachedCCR;
+            }
+        }
         ObjectMapper mappy = new ObjectMapper();
         File cdrFile = new File(getCytoContainerResultFilePath(id));
-        if (cdrFile.isFile() == true){
+        if (TaskFileCompressor.getExistingFile(cdrFile) != null){
 			try {
-				return mappy.readValue(cdrFile, CytoContainerResult.class);
+				byte[] cdrBytes;
+				try (InputStream in = TaskFileCompressor.open(cdrFile)){
+					cdrBytes = in.readAllBytes();
+				}
+				CytoContainerResult fileCCR = mappy.readValue(cdrBytes, CytoContainerResult.class);
+				if (_completedResultCache != null){
+					_completedResultCache.put(fileCCR, cdrBytes.length);
+				}
+				return fileCCR;
 			}catch(IOException io){
 				_logger.error("Caught exception trying to load " + cdrFile.getAbsolutePath(), io);
 			}
@@ -341,7 +740,11 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
 		+ "Will attempt to retreive from in memory store");
 		CytoContainerResult memoryCCR = _results.get(id);
 		if (memoryCCR == null){
-			return memoryCCR;
+			return getInFlightAliasResult(id);
+		}
+		InFlightRequests.Group group = getInFlightGroup(id);
+		if (group != null && group.isPrimaryDeleted()){
+			return null;
 		}
 		
 		CytoContainerResultStatus ccrs = getLastProgressAndMessage(getCytoContainerResultStdErrFilePath(id));
@@ -364,30 +767,77 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
     @Override
     public String request(final String algorithm, CytoContainerRequest request) throws CytoContainerException,
             CytoContainerBadRequestException {
+        return request(algorithm, request, false);
+    }
+    
+    /**
+     * Request a algorithm be run
+     * @param algorithm name of algorithm
+     * @param request The request
+     * @param reserved if {@code true} a spot in the queue was reserved via
+     *                 {@link #reserve(java.lang.String) } and is released
+     *                 if no task is created
+     * @return UUID as string
+     * @throws CytoContainerBadRequestException if request is invalid
+     * @throws CytoContainerException If there is a server side error
+     */
+    @Override
+    public String request(final String algorithm, CytoContainerRequest request,
+            boolean reserved) throws CytoContainerException, CytoContainerBadRequestException {
+        CytoContainerAlgorithm cda;
+        Map<String, String> combinedParams;
+        String requestKey;
+        try {
+            if (algorithm == null){
+                throw new CytoContainerBadRequestException("No algorithm specified");
+            }
+            if (request == null){ 
+                throw new CytoContainerBadRequestException("Request is null");
+            }
+            checkAlgorithm(algorithm);
 
-		if (algorithm == null){
-			throw new CytoContainerBadRequestException("No algorithm specified");
-		}
-        if (request == null){ 
-            throw new CytoContainerBadRequestException("Request is null");
+            cda = _algorithms.getAlgorithms().get(algorithm);
+            ErrorResponse er = this._validator.validateRequest(cda, request);
+            if (er != null){
+                throw new CytoContainerBadRequestException("Validation failed", er);
+            }
+
+            combinedParams = getParametersCombinedWithHiddenParameters(cda, request.getParameters());
+            requestKey = getRequestKey(algorithm, cda, combinedParams, request);
+            if (requestKey != null && _resultCache != null && _resultCache.isEnabled(algorithm)){
+                String cachedId = getCachedResult(algorithm, requestKey);
+                if (cachedId != null){
+                    if (reserved){
+                        releaseReservation(algorithm);
+                    }
+                    return cachedId;
+                }
+            }
+        } catch(CytoContainerException | RuntimeException ex){
+            if (reserved){
+                releaseReservation(algorithm);
+            }
+            throw ex;
         }
         
-        if (_algorithms == null || _algorithms.getAlgorithms() == null){
-            throw new CytoContainerException("No algorithms are available to run in service");
+        AlgorithmWorkerPool pool = getWorkerPool(algorithm);
+        if (reserved == false){
+            reserveQueueSlot(algorithm, pool);
         }
         
-        if (_algorithms.getAlgorithms().containsKey(algorithm) == false){
-            throw new CytoContainerBadRequestException(algorithm 
-                    + " is not a valid algorithm");
-        }
+        String id = UUID.randomUUID().toString();
         
-        CytoContainerAlgorithm cda = _algorithms.getAlgorithms().get(algorithm);
-        ErrorResponse er = this._validator.validateRequest(cda, request);
-        if (er != null){
-            throw new CytoContainerBadRequestException("Validation failed", er);
+        InFlightRequests.Group group = null;
+        if (requestKey != null && _inFlightRequests != null && _inFlightRequests.isEnabled(algorithm)){
+            group = _inFlightRequests.join(requestKey, id, algorithm);
+            if (id.equals(group.getPrimaryId()) == false){
+                releaseQueueSlot(pool);
+                logRequest(request, algorithm, id);
+                _logger.info("Request id: " + id + " attached to in flight task id: "
+                        + group.getPrimaryId());
+                return id;
+            }
         }
-        
-        String id = UUID.randomUUID().toString();
 
         CytoContainerResult cdr = new CytoContainerResult(System.currentTimeMillis());
         cdr.setStatus(CytoContainerResult.SUBMITTED_STATUS);
@@ -395,20 +845,462 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
         _results.put(id, cdr);
         logRequest(request, algorithm, id);
         String dockerImage = cda.getDockerImage();
-		Map<String, String> combinedParams = getParametersCombinedWithHiddenParameters(cda, request.getParameters());
         try {
-            DockerCytoContainerRunner task = new DockerCytoContainerRunner(id, request, cdr.getStartTime(),
-            _taskDir, _dockerCmd, dockerImage, combinedParams,
-                    Configuration.getInstance().getAlgorithmTimeOut(),
-            TimeUnit.SECONDS,
-            Configuration.getInstance().getMountOptions(),
-					false, null);
-            _futureTaskMap.put(id, _executorService.submit(task));
+            DockerCytoContainerRunner task = createDockerCytoContainerRunner(id, algorithm,
+                    request, cdr.getStartTime(), dockerImage, combinedParams);
+            task.setDownloadUrl(getResultDataDownloadUrl(algorithm, id));
+            CytoContainerTask ccTask = new CytoContainerTask(id, algorithm, task, this);
+            ccTask.setRequestKey(requestKey);
+            if (_resourceScheduler != null){
+                ResourceSettings resources = _resourceSettings.get(algorithm);
+                // pinned tasks hold whole cores
+                ccTask.setResources(_resourceScheduler,
+                        getTaskCpus(algorithm, _cpuSetAllocator != null),
+                        resources != null ? ResourceSettings.parseMemory(resources.getMemory()) : 0);
+            }
+            _futureTaskMap.put(id, ccTask);
+            ccTask.submit(pool.getExecutorService(), pool.getNumberWorkers());
             return id;
         } catch(Exception ex){
+            _futureTaskMap.remove(id);
+            releaseQueueSlot(pool);
+            if (group != null){
+                CytoContainerResult failedRes = new CytoContainerResult(cdr.getStartTime());
+                failedRes.setId(id);
+                failedRes.setStatus(CytoContainerResult.FAILED_STATUS);
+                failedRes.setProgress(100);
+                failedRes.setMessage("Received error trying to run task: " + ex.getMessage());
+                finishInFlightRequests(id, failedRes);
+            }
+            _results.remove(id);
             throw new CytoContainerException(ex.getMessage());
         }
     }
+    
+    /**
+     * Reserves a spot in the queue for a task of {@code algorithm}
+     * @param algorithm name of algorithm
+     * @throws CytoContainerBadRequestException if algorithm does not exist
+     * @throws CytoContainerQueueFullException if queue is full
+     * @throws CytoContainerException if no algorithms are available
+     */
+    @Override
+    public void reserve(final String algorithm) throws CytoContainerException {
+        checkAlgorithm(algorithm);
+        reserveQueueSlot(algorithm, getWorkerPool(algorithm));
+    }
+    
+    /**
+     * Releases spot in queue reserved via {@link #reserve(java.lang.String) }
+     * @param algorithm name of algorithm
+     */
+    @Override
+    public void releaseReservation(final String algorithm){
+        releaseQueueSlot(getWorkerPool(algorithm));
+    }
+    
+    /**
+     * Checks {@code algorithm} is one this service runs
+     * @param algorithm name of algorithm
+     * @throws CytoContainerBadRequestException if algorithm is {@code null}
+     *         or does not exist
+     * @throws CytoContainerException if no algorithms are available
+     */
+    private void checkAlgorithm(final String algorithm) throws CytoContainerException {
+		if (algorithm == null){
+			throw new CytoContainerBadRequestException("No algorithm specified");
+		}
+        if (_algorithms == null || _algorithms.getAlgorithms() == null){
+            throw new CytoContainerException("No algorithms are available to run in service");
+        }
+        if (_algorithms.getAlgorithms().containsKey(algorithm) == false){
+            throw new CytoContainerBadRequestException(algorithm 
+                    + " is not a valid algorithm");
+        }
+    }
+    
+    /**
+     * Creates the object that runs the container for a task, writing
+     * the request data to the task directory. Subclasses can override
+     * this to run tasks with an alternate
+     * {@link org.cytoscape.cytocontainer.rest.engine.util.CommandLineRunner}
+     * @param id id of task
+     * @param algorithm name of algorithm
+     * @param request the request
+     * @param startTime time task was submitted in milliseconds since epoch
+     * @param dockerImage docker image to run
+     * @param combinedParams parameters, including hidden ones, passed to algorithm
+     * @return runner for task
+     * @throws Exception if there was an error writing the request data
+     */
+    protected DockerCytoContainerRunner createDockerCytoContainerRunner(final String id,
+            final String algorithm, CytoContainerRequest request, final long startTime,
+            final String dockerImage,
+            Map<String, String> combinedParams) throws Exception {
+        OutputSettings output = _outputSettings.get(algorithm);
+        DockerCytoContainerRunner runner = new DockerCytoContainerRunner(id, request, startTime,
+                _taskDir, _dockerCmd, dockerImage, combinedParams,
+                Configuration.getInstance().getAlgorithmTimeOut(),
+                TimeUnit.SECONDS,
+                Configuration.getInstance().getMountOptions(),
+                output != null && output.isBinary(),
+                output != null ? output.getContentType() : null);
+        DaemonContainerPool daemonPool = _daemonPools.get(algorithm);
+        if (daemonPool != null){
+            runner.setAlternateCommandLineRunner(new DaemonCommandLineRunner(daemonPool, id,
+                    new File(new File(_taskDir, id), DockerCytoContainerRunner.INPUT_FILE).getAbsolutePath(),
+                    combinedParams));
+        } else if (_dockerEngineClient != null){
+            DockerEngineCommandLineRunner engineRunner = new DockerEngineCommandLineRunner(_dockerEngineClient);
+            engineRunner.setWarmContainerPool(_warmPools.get(algorithm));
+            runner.setAlternateCommandLineRunner(engineRunner);
+        }
+        runner.setInstanceId(_instanceId);
+        if (daemonPool == null){
+            runner.setContainerReaper(_containerReaper);
+            runner.setResourceSettings(_resourceSettings.get(algorithm));
+            if (_cpuSetAllocator != null){
+                runner.setCpuSetAllocator(_cpuSetAllocator, (int)getTaskCpus(algorithm, true));
+            }
+        }
+        return runner;
+    }
+    
+    /**
+     * Gets CPUs a task of {@code algorithm} needs
+     * @param algorithm name of algorithm
+     * @param wholeCores if {@code true} value is rounded up to whole cores
+     * @return CPUs declared by algorithm or {@link #DEFAULT_TASK_CPUS}
+     */
+    private double getTaskCpus(final String algorithm, boolean wholeCores){
+        ResourceSettings resources = _resourceSettings.get(algorithm);
+        double cpus = resources != null && resources.getCpus() > 0 ? resources.getCpus() : DEFAULT_TASK_CPUS;
+        return wholeCores ? Math.ceil(cpus) : cpus;
+    }
+    
+    /**
+     * Generates digest identifying this request if results for {@code algorithm}
+     * can be cached or requests for {@code algorithm} can be coalesced
+     * @param algorithm name of algorithm
+     * @param cda the algorithm
+     * @param combinedParams parameters, including hidden ones, passed to algorithm
+     * @param request the request
+     * @return digest or {@code null} if results for algorithm are neither
+     *         cached nor coalesced
+     * @throws CytoContainerException if digest could not be created
+     */
+    private String getRequestKey(final String algorithm, CytoContainerAlgorithm cda,
+            Map<String, String> combinedParams, CytoContainerRequest request) throws CytoContainerException {
+        boolean cacheable = _resultCache != null && _resultCache.isEnabled(algorithm);
+        boolean coalescable = _inFlightRequests != null && _inFlightRequests.isEnabled(algorithm);
+        if (!cacheable && !coalescable){
+            return null;
+        }
+        CytoContainerRequestHasher hasher = new CytoContainerRequestHasher();
+        if (request instanceof SpooledCytoContainerRequest){
+            return hasher.getStreamedDigest(algorithm, cda.getVersion(), combinedParams,
+                    ((SpooledCytoContainerRequest)request).getDataDigest());
+        }
+        return hasher.getDigest(algorithm, cda.getVersion(), combinedParams, request.getData());
+    }
+    
+    /**
+     * Looks for a completed task matching {@code requestKey} in the result cache
+     * and if found creates a new task whose result is a copy of that task
+     * @param algorithm name of algorithm
+     * @param requestKey digest of request
+     * @return id of new completed task or {@code null} if not found in cache
+     */
+    private String getCachedResult(final String algorithm, final String requestKey){
+        String sourceId = _resultCache.get(requestKey);
+        if (sourceId == null){
+            return null;
+        }
+        String id = copyCompletedTask(algorithm, sourceId);
+        if (id == null){
+            _resultCache.invalidate(requestKey);
+            return null;
+        }
+        _logger.info("Result cache hit for " + algorithm + " task id: " + id
+                + " reuses result of task id: " + sourceId);
+        return id;
+    }
+    
+    /**
+     * Creates a new task directory containing the files from completed
+     * task {@code sourceId}. Files are hard linked if possible otherwise
+     * they are copied. The result is updated with the new id and written
+     * last so the new task never appears partially complete
+     * @param algorithm name of algorithm
+     * @param sourceId id of completed task
+     * @return id of new task or {@code null} if {@code sourceId} is not
+     *         a completed task or there was an error
+     */
+    protected String copyCompletedTask(final String algorithm, final String sourceId){
+        File srcResultFile = new File(getCytoContainerResultFilePath(sourceId));
+        if (TaskFileCompressor.getExistingFile(srcResultFile) == null){
+            return null;
+        }
+        ObjectMapper mappy = new ObjectMapper();
+        String id = UUID.randomUUID().toString();
+        try (InputStream in = TaskFileCompressor.open(srcResultFile)){
+            CytoContainerResult cdr = mappy.readValue(in, CytoContainerResult.class);
+            if (!CytoContainerResult.COMPLETE_STATUS.equals(cdr.getStatus())){
+                return null;
+            }
+            cdr.setStartTime(System.currentTimeMillis());
+            cdr.setWallTime(0);
+            cdr.setResult(getResultForTask(cdr.getResult(), algorithm, id));
+            if (copyTask(sourceId, id, cdr) == false){
+                return null;
+            }
+            return id;
+        } catch(IOException io){
+            _logger.error("Unable to read result of task " + sourceId, io);
+        }
+        return null;
+    }
+    
+    /**
+     * Creates task directory for {@code destId} containing the files from
+     * task {@code sourceId}, if that directory exists, and writes {@code result}
+     * with its id set to {@code destId} as the result. Files are hard linked
+     * if possible otherwise they are copied. The result is written last so the
+     * new task never appears partially complete. Files of the new task are
+     * then compressed like those of any finished task
+     * @param sourceId id of task to copy files from
+     * @param destId id of new task
+     * @param result result for new task
+     * @return {@code true} upon success otherwise {@code false}
+     */
+    protected boolean copyTask(final String sourceId, final String destId,
+            CytoContainerResult result){
+        File srcDir = new File(this._taskDir + File.separator + sourceId);
+        File destDir = new File(this._taskDir + File.separator + destId);
+        ObjectMapper mappy = new ObjectMapper();
+        try {
+            if (destDir.isDirectory() == false && destDir.mkdirs() == false){
+                _logger.error("Unable to create directory: " + destDir.getAbsolutePath());
+                return false;
+            }
+            File[] srcFiles = srcDir.listFiles();
+            if (srcFiles != null){
+                for (File srcFile : srcFiles){
+                    if (!srcFile.isFile() || srcFile.getName().startsWith(CDRESULT_JSON_FILE)){
+                        continue;
+                    }
+                    linkOrCopyFile(srcFile.toPath(), destDir.toPath().resolve(srcFile.getName()));
+                }
+            }
+            result.setId(destId);
+            File tmpResultFile = new File(destDir, CDRESULT_JSON_FILE + ".tmp");
+            mappy.writeValue(tmpResultFile, result);
+            Files.move(tmpResultFile.toPath(), new File(getCytoContainerResultFilePath(destId)).toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+            if (_taskFileCompressor != null){
+                _taskFileCompressor.compressTask(destDir);
+            }
+            return true;
+        } catch(IOException io){
+            _logger.error("Unable to copy task " + sourceId + " to " + destId, io);
+            FileUtils.deleteQuietly(destDir);
+        }
+        return false;
+    }
+    
+    /**
+     * Creates a copy of {@code cdr}
+     * @param cdr result to copy
+     * @param algorithm name of algorithm
+     * @param id id to set in copy
+     * @return copy of result
+     */
+    private CytoContainerResult copyResult(CytoContainerResult cdr, final String algorithm,
+            final String id){
+        CytoContainerResult copy = new CytoContainerResult(cdr.getStartTime());
+        copy.setId(id);
+        copy.setStatus(cdr.getStatus());
+        copy.setMessage(cdr.getMessage());
+        copy.setProgress(cdr.getProgress());
+        copy.setWallTime(cdr.getWallTime());
+        copy.setResult(getResultForTask(cdr.getResult(), algorithm, id));
+        return copy;
+    }
+    
+    /**
+     * If {@code result} is a {@link org.cytoscape.cytocontainer.rest.model.BinaryData}
+     * returns a copy with its download URL pointing at the data of task
+     * {@code id}, otherwise returns {@code result} as is
+     * @param result result copied from another task
+     * @param algorithm name of algorithm
+     * @param id id of task result is for
+     * @return result for task
+     */
+    private JsonNode getResultForTask(JsonNode result, final String algorithm, final String id){
+        if (result == null || result.isObject() == false
+                || result.has(BINARY_DATA_DOWNLOAD_URL) == false){
+            return result;
+        }
+        ObjectNode copy = ((ObjectNode)result).deepCopy();
+        copy.put(BINARY_DATA_DOWNLOAD_URL, getResultDataDownloadUrl(algorithm, id));
+        return copy;
+    }
+    
+    private InFlightRequests.Group getInFlightGroup(final String id){
+        if (_inFlightRequests == null){
+            return null;
+        }
+        return _inFlightRequests.getGroup(id);
+    }
+    
+    /**
+     * Gets result for {@code id} if it is an alias attached to a task
+     * in flight
+     * @param id id of alias
+     * @return copy of primary task result with id set to {@code id} or
+     *         {@code null} if {@code id} is not an alias in flight
+     */
+    private CytoContainerResult getInFlightAliasResult(final String id){
+        InFlightRequests.Group group = getInFlightGroup(id);
+        if (group == null || id.equals(group.getPrimaryId())){
+            return null;
+        }
+        String primaryId = group.getPrimaryId();
+        CytoContainerResult primaryRes = _results.get(primaryId);
+        if (primaryRes == null){
+            File cdrFile = new File(getCytoContainerResultFilePath(primaryId));
+            if (TaskFileCompressor.getExistingFile(cdrFile) == null){
+                return null;
+            }
+            try (InputStream in = TaskFileCompressor.open(cdrFile)){
+                primaryRes = new ObjectMapper().readValue(in, CytoContainerResult.class);
+            } catch(IOException io){
+                _logger.error("Caught exception trying to load " + cdrFile.getAbsolutePath(), io);
+                return null;
+            }
+            return copyResult(primaryRes, group.getAlgorithm(), id);
+        }
+        CytoContainerResult aliasRes = copyResult(primaryRes, group.getAlgorithm(), id);
+        CytoContainerResultStatus ccrs = getLastProgressAndMessage(getCytoContainerResultStdErrFilePath(primaryId));
+        aliasRes.setProgress(ccrs.getProgress());
+        aliasRes.setMessage(ccrs.getMessage());
+        if (ccrs.getProgress() > 0){
+            aliasRes.setStatus(RequestStatus.PROCESSING_STATUS);
+        }
+        return aliasRes;
+    }
+    
+    /**
+     * If task with {@code primaryId} has requests attached to it, writes
+     * the result out for each alias, and if the primary was deleted while
+     * aliases were attached, finishes deleting the primary
+     * @param primaryId id of task that finished
+     * @param cdr result of task or {@code null} if canceled
+     */
+    private void finishInFlightRequests(final String primaryId, CytoContainerResult cdr){
+        InFlightRequests.Group group = getInFlightGroup(primaryId);
+        if (group == null || !primaryId.equals(group.getPrimaryId())){
+            return;
+        }
+        synchronized(group){
+            if (group.isDone()){
+                return;
+            }
+            _inFlightRequests.done(group);
+            for (String aliasId : group.getAliases()){
+                CytoContainerResult aliasRes;
+                if (cdr == null){
+                    aliasRes = new CytoContainerResult(System.currentTimeMillis());
+                    aliasRes.setStatus(CytoContainerResult.FAILED_STATUS);
+                    aliasRes.setProgress(100);
+                    aliasRes.setMessage("Task was canceled");
+                } else {
+                    aliasRes = copyResult(cdr, group.getAlgorithm(), aliasId);
+                }
+                if (copyTask(primaryId, aliasId, aliasRes)){
+                    _logger.info("Wrote result for task id: " + aliasId
+                            + " from in flight task id: " + primaryId);
+                }
+                _inFlightRequests.removeAlias(group, aliasId);
+                _statusDispatcher.taskChanged(aliasId);
+            }
+            if (group.isPrimaryDeleted()){
+                _results.remove(primaryId);
+                if (_completedResultCache != null){
+                    _completedResultCache.remove(primaryId);
+                }
+                if (_resultCache != null){
+                    _resultCache.removeTask(primaryId);
+                }
+                renameTaskDirectory(primaryId);
+            }
+        }
+    }
+    
+    private void linkOrCopyFile(Path src, Path dest) throws IOException {
+        try {
+            Files.createLink(dest, src);
+        } catch(IOException | UnsupportedOperationException ex){
+            _logger.debug("Unable to link " + src + " copying instead: " + ex.getMessage());
+            Files.copy(src, dest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Gives back a spot in the queue reserved by
+     * {@link #reserveQueueSlot(java.lang.String, AlgorithmWorkerPool) }
+     * for a task that was never submitted
+     * @param pool worker pool for algorithm
+     */
+    private void releaseQueueSlot(AlgorithmWorkerPool pool){
+        _queuedTasks.decrementAndGet();
+        pool.taskRejected();
+    }
+
+    /**
+     * Reserves a spot in the queue for a new task for {@code algorithm}
+     * checking both the global and per algorithm queue limits
+     * @param algorithm name of algorithm
+     * @param pool worker pool for algorithm
+     * @throws CytoContainerQueueFullException if either queue is full
+     */
+    private void reserveQueueSlot(final String algorithm, AlgorithmWorkerPool pool) throws CytoContainerQueueFullException {
+        synchronized(_admissionLock){
+            int globalQueued = Math.max(0, _queuedTasks.get() - _runningTasks.get());
+            if (_maxQueueSize > 0 && globalQueued >= _maxQueueSize){
+                throw new CytoContainerQueueFullException("Server queue is full with "
+                        + Integer.toString(globalQueued) + " tasks waiting",
+                        getRetryAfter(_drainRate, globalQueued - _maxQueueSize + 1));
+            }
+            if (pool.isQueueFull()){
+                throw new CytoContainerQueueFullException("Queue for " + algorithm
+                        + " is full with " + Integer.toString(pool.getQueuedTasks())
+                        + " tasks waiting",
+                        getRetryAfter(pool.getDrainRate(), pool.getQueuedTasks() - pool.getQueueSize() + 1));
+            }
+            _queuedTasks.incrementAndGet();
+            pool.taskSubmitted();
+        }
+    }
+    
+    /**
+     * Estimates seconds until {@code numTasks} tasks will have drained from
+     * the queue. Since tasks are killed once they exceed the algorithm timeout,
+     * that timeout is used as the estimate if no tasks have finished yet and
+     * as an upper bound
+     * @param drainRate rate tasks are finishing
+     * @param numTasks number of tasks that need to finish
+     * @return seconds
+     */
+    private long getRetryAfter(TaskDrainRate drainRate, int numTasks){
+        long timeOut = 180;
+        try {
+            timeOut = Configuration.getInstance().getAlgorithmTimeOut();
+        } catch(CytoContainerException cce){
+            _logger.warn("Unable to get algorithm timeout, using default: " + Long.toString(timeOut), cce);
+        }
+        return drainRate.estimateSecondsToDrain(numTasks, timeOut, timeOut);
+    }
 	
 	/**
 	 * Add parameter to pMap unless datatype is checkbox which is a special case
@@ -466,7 +1358,16 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
 	
         sb.append(" ) ");
 	
-	if (request.getData() == null){
+	if (request instanceof SpooledCytoContainerRequest){
+	    SpooledCytoContainerRequest spooled = (SpooledCytoContainerRequest)request;
+	    if (spooled.hasData() == false){
+		sb.append(" with NO data");
+	    } else {
+		sb.append(" with data of type ");
+		sb.append(spooled.getDataType().toString());
+	    }
+	}
+	else if (request.getData() == null){
 	    sb.append(" with NO data");
 	}
 	else {
@@ -507,37 +1408,128 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
         return cdr;
     }
 
+	/**
+	 * Gets file containing JSON of {@link org.cytoscape.cytocontainer.rest.model.CytoContainerResult}
+	 * for task with given {@code id}. This file is only written once the
+	 * task finishes and is never modified after that so it can be
+	 * streamed to the caller as is. If the file was compressed by
+	 * {@link TaskFileCompressor} the compressed file is returned, use
+	 * {@link TaskFileCompressor#isCompressed(java.io.File) } to check
+	 * @param algorithm name of algorithm
+	 * @param id Id of task
+	 * @return file or {@code null} if task has not finished or is unknown
+	 * @throws CytoContainerException If id is {@code null}
+	 */
+	@Override
+	public File getResultFile(final String algorithm, final String id) throws CytoContainerException {
+		if (id == null){
+			throw new CytoContainerBadRequestException("Id is null");
+		}
+		return TaskFileCompressor.getExistingFile(new File(getCytoContainerResultFilePath(id)));
+	}
+	
+	/**
+	 * Gets data of result with given {@code id} without waiting for
+	 * task to finish. Callers wanting to wait should use
+	 * {@link #subscribe(java.lang.String, java.lang.String, org.cytoscape.cytocontainer.rest.engine.TaskStatusSubscriber) }
+	 * to be told when the task finishes
+	 * @param algorithm name of algorithm
+	 * @param id Id of task
+	 * @return data of result or {@code null} if task has not completed,
+	 *         failed, or has no data
+	 * @throws CytoContainerException If id is {@code null} or no task is found
+	 */
 	@Override
 	public InputStream getResultData(final String algorithm, String id) throws CytoContainerException {
-		File dataFile = new File(this.getCytoContainerResultDataFilePath(id));
-		CytoContainerResult cdr = getCytoContainerResultFromDbOrFilesystem(id);
-        if (cdr == null){
-            throw new CytoContainerBadRequestException("No task with id of " + id + " found");
-        }
-		
-
-		while (cdr.getProgress() < 100){
-			try {
-				Thread.sleep(300L);
-			} catch(InterruptedException ie){
-				
-			}
-			
-			cdr = getCytoContainerResultFromDbOrFilesystem(id);
+		ResultDataFile dataFile = getResultDataFile(algorithm, id);
+		if (dataFile == null){
+			return null;
 		}
-		
-		if (cdr.getStatus().equals(CytoContainerResult.COMPLETE_STATUS)){
-
-			try {
-				if (dataFile.exists() || dataFile.length() > 0){
-					return new FileInputStream(dataFile);
-				}
-			} catch(FileNotFoundException fe){
-				_logger.error("File not found", fe);
+		try {
+			if (dataFile.getContentEncoding() != null){
+				return TaskFileCompressor.open(new File(getCytoContainerResultDataFilePath(id)));
 			}
+			return new FileInputStream(dataFile.getFile());
+		} catch(IOException io){
+			_logger.error("Unable to open " + dataFile.getFile().getAbsolutePath(), io);
 		}
 		return null;
 	}
+	
+	/**
+	 * Gets file containing data of result with given {@code id} without
+	 * waiting for task to finish. The media type is taken from
+	 * {@link org.cytoscape.cytocontainer.rest.model.BinaryData} if the
+	 * algorithm output binary data, otherwise it is {@code text/plain} if
+	 * the output was stored as text and {@code application/json} if not.
+	 * If the file was compressed by {@link TaskFileCompressor} the compressed
+	 * file is returned with its content encoding set
+	 * @param algorithm name of algorithm
+	 * @param id Id of task
+	 * @return file with data of result or {@code null} if task has not completed,
+	 *         failed, or has no data
+	 * @throws CytoContainerException If id is {@code null} or no task is found
+	 */
+	@Override
+	public ResultDataFile getResultDataFile(final String algorithm, String id) throws CytoContainerException {
+		if (id == null){
+			throw new CytoContainerBadRequestException("Id is null");
+		}
+		CytoContainerResult cdr = getCytoContainerResultFromDbOrFilesystem(id);
+		if (cdr == null){
+			throw new CytoContainerBadRequestException("No task with id of " + id + " found");
+		}
+		if (CytoContainerResult.COMPLETE_STATUS.equals(cdr.getStatus()) == false){
+			return null;
+		}
+		File dataFile = TaskFileCompressor.getExistingFile(new File(this.getCytoContainerResultDataFilePath(id)));
+		if (dataFile == null || dataFile.length() == 0){
+			return null;
+		}
+		if (TaskFileCompressor.isCompressed(dataFile)){
+			return new ResultDataFile(dataFile, getResultDataContentType(cdr.getResult()),
+					TaskFileCompressor.GZIP_ENCODING);
+		}
+		return new ResultDataFile(dataFile, getResultDataContentType(cdr.getResult()));
+	}
+	
+	/**
+	 * Gets media type of raw data for task given the result
+	 * stored in {@link org.cytoscape.cytocontainer.rest.model.CytoContainerResult}
+	 * @param result result of task
+	 * @return media type
+	 */
+	protected String getResultDataContentType(JsonNode result){
+		if (result == null || result.isNull()){
+			return RESULT_DATA_DEFAULT_CONTENT_TYPE;
+		}
+		if (result.isTextual()){
+			return "text/plain";
+		}
+		if (result.isObject() && result.has(BINARY_DATA_DOWNLOAD_URL)
+				&& result.path(BINARY_DATA_CONTENT_TYPE).isTextual()){
+			return result.get(BINARY_DATA_CONTENT_TYPE).asText();
+		}
+		return "application/json";
+	}
+	
+	/**
+	 * Gets URL, prefixed with {@link Configuration#getHostURL() }, where
+	 * raw data of task can be downloaded
+	 * @param algorithm name of algorithm
+	 * @param id id of task
+	 * @return URL
+	 */
+	protected String getResultDataDownloadUrl(final String algorithm, final String id){
+		String hostURL = "";
+		try {
+			hostURL = Configuration.getInstance().getHostURL();
+		} catch(CytoContainerException ce){
+			_logger.debug("Unable to get host url: " + ce.getMessage());
+		}
+		return URI.create(hostURL + Configuration.V_ONE_PATH + "/" + algorithm
+				+ "/" + id + "/data").normalize().toString();
+	}
 
     /**
      * Gets status of task with given {@code id}
@@ -551,6 +1543,12 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
             throw new CytoContainerBadRequestException("Id is null");
         }
         
+        if (_completedResultCache != null){
+            CytoContainerResultStatus cachedStatus = _completedResultCache.getStatus(id);
+            if (cachedStatus != null){
+                return new CytoContainerResultStatus(cachedStatus);
+            }
+        }
         CytoContainerResult cdr = getCytoContainerResultFromDbOrFilesystem(id);
         if (cdr == null){
             throw new CytoContainerBadRequestException("No task with id of " + id + " found");
@@ -558,6 +1556,27 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
         return new CytoContainerResultStatus(cdr);
     }
 
+    /**
+     * Subscribes to status updates for task with {@code id} via a single
+     * {@link TaskStatusDispatcher} shared by all subscribers
+     * @param algorithm name of algorithm
+     * @param id id of task
+     * @param subscriber receives status updates
+     * @throws CytoContainerException if id or subscriber is {@code null} or
+     *         no task is found
+     */
+    @Override
+    public void subscribe(final String algorithm, final String id,
+            TaskStatusSubscriber subscriber) throws CytoContainerException {
+        if (id == null){
+            throw new CytoContainerBadRequestException("Id is null");
+        }
+        if (subscriber == null){
+            throw new CytoContainerException("Subscriber is null");
+        }
+        _statusDispatcher.subscribe(algorithm, id, subscriber);
+    }
+
     /**
      * Deletes task with {@code id} from internally memory and from filesystem
      * if found there
@@ -571,15 +1590,97 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
             throw new CytoContainerBadRequestException("id is null");
         }
         _logger.debug("Deleting task " + id);
+        String taskId = id;
+        InFlightRequests.Group group = getInFlightGroup(id);
+        if (group != null){
+            synchronized(group){
+                if (group.isDone() == false){
+                    boolean noneAttached = _inFlightRequests.leave(group, id);
+                    if (noneAttached == false){
+                        _logger.info("Delete invoked on task " + id + ", but "
+                                + Integer.toString(group.getMemberCount())
+                                + " request(s) still attached to in flight task id: "
+                                + group.getPrimaryId() + " so it will not be canceled");
+                        return;
+                    }
+                    // nothing else needs the in flight task so delete it
+                    taskId = group.getPrimaryId();
+                    deleteTask(taskId);
+                    return;
+                }
+            }
+        }
+        deleteTask(taskId);
+    }
+    
+    /**
+     * Removes task with {@code id} from memory, cancels it if running, and
+     * renames its directory in the filesystem
+     * @param id id of task
+     */
+    private void deleteTask(final String id){
         if (_results.containsKey(id) == true){
             _results.remove(id);
         }
-        Future f = _futureTaskMap.get(id);
+        if (_completedResultCache != null){
+            _completedResultCache.remove(id);
+        }
+        if (_resultCache != null){
+            _resultCache.removeTask(id);
+        }
+        _progressTrackers.remove(getCytoContainerResultStdErrFilePath(id));
+        CytoContainerTask f = _futureTaskMap.get(id);
         if (f != null){
+            boolean canceled = f.cancel(true);
             _logger.info("Delete invoked, canceling task: " + id +
 		    " result of cancel(): " +
-                    Boolean.toString(f.cancel(true)));
+                    Boolean.toString(canceled));
+            // tasks still queued never ran a container
+            if (canceled && f.isStarted()){
+                killContainer(id, f.getAlgorithm());
+            }
+        }
+        renameTaskDirectory(id);
+        _statusDispatcher.taskChanged(id);
+    }
+    
+    /**
+     * Interrupting the thread of a canceled task does not stop its
+     * container so this kills the container, if any, running task
+     * with {@code id}. This is done on a dedicated thread, for algorithms
+     * run in daemon mode too, since stopping a container can take seconds
+     * @param id id of task
+     * @param algorithm name of algorithm
+     */
+    private void killContainer(final String id, final String algorithm){
+        DaemonContainerPool daemonPool = algorithm == null ? null : _daemonPools.get(algorithm);
+        if (daemonPool == null && _containerReaper == null){
+            return;
         }
+        final String name = DockerCytoContainerRunner.getContainerName(_instanceId, id);
+        try {
+            _reaperExecutorService.execute(() -> {
+                try {
+                    if (daemonPool != null){
+                        daemonPool.cancelTask(id);
+                    } else if (_containerReaper.removeContainer(name)){
+                        _logger.info("Removed container " + name + " of deleted task");
+                    }
+                } catch(Exception ex){
+                    _logger.error("Unable to remove container of task " + id, ex);
+                }
+            });
+        } catch(RejectedExecutionException ree){
+            _logger.warn("Not removing container of task " + id + " since engine is shut down");
+        }
+    }
+    
+    /**
+     * Renames directory for task with {@code id} by adding {@code .deleted}
+     * suffix
+     * @param id id of task
+     */
+    private void renameTaskDirectory(final String id){
         File thisTaskDir = new File(this._taskDir + File.separator + id);
         if (thisTaskDir.exists() == false){
             return;
@@ -642,7 +1743,7 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
     public ServerStatus getServerStatus(final String algorithm) throws CytoContainerException {
         try {
             String version = "unknown";
-            ServerStatus sObj = new ServerStatus();
+            CytoContainerServerStatus sObj = new CytoContainerServerStatus();
             sObj.setStatus(ServerStatus.OK_STATUS);
 			if (algorithm == null || algorithm.isBlank()){
 	            sObj.setVersion(CytoContainerHttpServletDispatcher.getVersion());
@@ -664,6 +1765,41 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
             sObj.setQueuedTasks(_queuedTasks.get());
             sObj.setCompletedTasks(_completedTasks.get());
             sObj.setCanceledTasks(_canceledTasks.get());
+            sObj.setRunningTasks(_runningTasks.get());
+            if (_resourceScheduler != null){
+                sObj.setSchedulerCpus(_resourceScheduler.getTotalCpus());
+                sObj.setSchedulerUsedCpus(_resourceScheduler.getUsedCpus());
+                sObj.setSchedulerMemory(_resourceScheduler.getTotalMemory());
+                sObj.setSchedulerUsedMemory(_resourceScheduler.getUsedMemory());
+                sObj.setSchedulerWaitingTasks(_resourceScheduler.getWaitingTasks());
+            }
+            if (_cpuSetAllocator != null){
+                sObj.setCpuSetCpus(_cpuSetAllocator.getCpus());
+                sObj.setCpuSetAssignments(_cpuSetAllocator.getAssignments());
+            }
+            sObj.setAlgorithms(getAlgorithmStatus(algorithm));
+            if (_resultCache != null){
+                sObj.setResultCacheHits(_resultCache.getHits());
+                sObj.setResultCacheMisses(_resultCache.getMisses());
+                sObj.setResultCacheEntries(_resultCache.size());
+            }
+            if (_inFlightRequests != null){
+                sObj.setCoalescedRequests(_inFlightRequests.getCoalescedRequests());
+            }
+            if (_completedResultCache != null){
+                sObj.setCompletedResultCacheEntries(_completedResultCache.size());
+                sObj.setCompletedResultCacheBytes(_completedResultCache.getSizeInBytes());
+            }
+            if (_taskFileCompressor != null){
+                sObj.setCompressedTaskFiles(_taskFileCompressor.getCompressedFiles());
+                sObj.setTaskFileBytesSaved(_taskFileCompressor.getBytesSaved());
+            }
+            CompressionStatistics compressionStats = ContentEncodingInterceptor.getStatistics();
+            sObj.setCompressedResponses(compressionStats.getCompressedResponses());
+            sObj.setCompressionBytesIn(compressionStats.getBytesIn());
+            sObj.setCompressionBytesOut(compressionStats.getBytesOut());
+            sObj.setCompressionBytesSaved(compressionStats.getBytesSaved());
+            sObj.setDecompressedRequests(compressionStats.getDecompressedRequests());
             logServerStatus(sObj);
             return sObj;
 		} catch(CytoContainerNotFoundException notFoundEx){
@@ -675,4 +1811,57 @@ public class CytoContainerEngineImpl implements CytoContainerEngine {
             throw new CytoContainerException("Exception raised when getting ServerStatus: " + ex.getMessage());
         }
     }
+    
+    /**
+     * Gets status of tasks for {@code algorithm} or for all algorithms
+     * if {@code algorithm} is {@code null} or blank
+     * @param algorithm name of algorithm
+     * @return map of algorithm name => status
+     */
+    private Map<String, AlgorithmStatus> getAlgorithmStatus(final String algorithm){
+        Map<String, AlgorithmStatus> statusMap = new LinkedHashMap<>();
+        if (algorithm != null && !algorithm.isBlank()){
+            statusMap.put(algorithm, getAlgorithmStatus(algorithm, getWorkerPool(algorithm)));
+            return statusMap;
+        }
+        if (_algorithms != null && _algorithms.getAlgorithms() != null){
+            for (String algoName : _algorithms.getAlgorithms().keySet()){
+                statusMap.put(algoName, getAlgorithmStatus(algoName, getWorkerPool(algoName)));
+            }
+        }
+        for (String algoName : _workerPools.keySet()){
+            if (!statusMap.containsKey(algoName)){
+                statusMap.put(algoName, getAlgorithmStatus(algoName, _workerPools.get(algoName)));
+            }
+        }
+        return statusMap;
+    }
+    
+    /**
+     * Creates status for {@code algorithm} from counters in {@code pool}
+     * and those of its warm or daemon container pool, if any
+     * @param algorithm name of algorithm
+     * @param pool worker pool for algorithm
+     * @return status
+     */
+    private AlgorithmStatus getAlgorithmStatus(final String algorithm, AlgorithmWorkerPool pool){
+        AlgorithmStatus aStatus = new AlgorithmStatus(pool);
+        WarmContainerPool warmPool = _warmPools.get(algorithm);
+        if (warmPool != null){
+            aStatus.setWarmIdleContainers(warmPool.getIdleContainers());
+            aStatus.setWarmHits(warmPool.getHits());
+            aStatus.setWarmMisses(warmPool.getMisses());
+            aStatus.setMeanWarmStartMillis(warmPool.getMeanWarmStartMillis());
+            aStatus.setMeanColdStartMillis(warmPool.getMeanColdStartMillis());
+            aStatus.setStartupMillisSaved(warmPool.getStartupMillisSaved());
+        }
+        DaemonContainerPool daemonPool = _daemonPools.get(algorithm);
+        if (daemonPool != null){
+            aStatus.setDaemonContainers(daemonPool.getContainers());
+            aStatus.setDaemonIdleContainers(daemonPool.getIdleContainers());
+            aStatus.setDaemonRecycledContainers(daemonPool.getRecycledContainers());
+            aStatus.setDaemonFailedHealthChecks(daemonPool.getFailedHealthChecks());
+        }
+        return aStatus;
+    }
 }
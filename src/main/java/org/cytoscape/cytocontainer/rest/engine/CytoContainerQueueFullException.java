@@ -0,0 +1,33 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+
+/**
+ * Raised when a task cannot be accepted because the queue
+ * of tasks waiting to run is full
+ *
+ * @author churas
+ */
+public class CytoContainerQueueFullException extends CytoContainerException {
+
+	private final long _retryAfter;
+
+	/**
+	 * Constructor
+	 * @param message description of the error
+	 * @param retryAfter estimated seconds caller should wait before resubmitting
+	 */
+	public CytoContainerQueueFullException(final String message, long retryAfter){
+		super(message);
+		_retryAfter = retryAfter;
+	}
+
+	/**
+	 * Gets estimated number of seconds caller should wait before
+	 * resubmitting the task
+	 * @return seconds
+	 */
+	public long getRetryAfter(){
+		return _retryAfter;
+	}
+}
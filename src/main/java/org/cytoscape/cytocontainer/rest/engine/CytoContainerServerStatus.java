@@ -0,0 +1,313 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.cytoscape.cytocontainer.rest.model.ServerStatus;
+
+/**
+ * {@link org.cytoscape.cytocontainer.rest.model.ServerStatus} that also
+ * reports number of running tasks, task counts for each algorithm,
+ * result cache statistics, number of coalesced requests, size of
+ * the in memory cache of finished results, bytes saved by
+ * compressing requests, responses, and files of finished tasks,
+ * CPU and memory handed out by the resource scheduler, and cores
+ * running tasks are pinned to
+ *
+ * @author churas
+ */
+public class CytoContainerServerStatus extends ServerStatus {
+
+	private int _runningTasks;
+	private Map<String, AlgorithmStatus> _algorithms;
+	private long _resultCacheHits;
+	private long _resultCacheMisses;
+	private int _resultCacheEntries;
+	private long _coalescedRequests;
+	private int _completedResultCacheEntries;
+	private long _completedResultCacheBytes;
+	private long _compressedResponses;
+	private long _compressionBytesIn;
+	private long _compressionBytesOut;
+	private long _compressionBytesSaved;
+	private long _decompressedRequests;
+	private long _compressedTaskFiles;
+	private long _taskFileBytesSaved;
+	private double _schedulerCpus;
+	private double _schedulerUsedCpus;
+	private long _schedulerMemory;
+	private long _schedulerUsedMemory;
+	private int _schedulerWaitingTasks;
+	private String _cpuSetCpus;
+	private Map<String, String> _cpuSetAssignments;
+
+	public CytoContainerServerStatus(){
+		super();
+		_algorithms = new LinkedHashMap<>();
+		_cpuSetAssignments = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Gets number of tasks currently running
+	 * @return number of running tasks
+	 */
+	public int getRunningTasks() {
+		return _runningTasks;
+	}
+
+	public void setRunningTasks(int runningTasks) {
+		_runningTasks = runningTasks;
+	}
+
+	/**
+	 * Gets map of algorithm name to status of tasks for that algorithm
+	 * @return map of status by algorithm name
+	 */
+	public Map<String, AlgorithmStatus> getAlgorithms() {
+		return _algorithms;
+	}
+
+	public void setAlgorithms(Map<String, AlgorithmStatus> algorithms) {
+		_algorithms = algorithms;
+	}
+
+	/**
+	 * Gets number of requests answered from the result cache
+	 * @return number of cache hits
+	 */
+	public long getResultCacheHits() {
+		return _resultCacheHits;
+	}
+
+	public void setResultCacheHits(long resultCacheHits) {
+		_resultCacheHits = resultCacheHits;
+	}
+
+	/**
+	 * Gets number of cacheable requests not found in the result cache
+	 * @return number of cache misses
+	 */
+	public long getResultCacheMisses() {
+		return _resultCacheMisses;
+	}
+
+	public void setResultCacheMisses(long resultCacheMisses) {
+		_resultCacheMisses = resultCacheMisses;
+	}
+
+	/**
+	 * Gets number of entries in the result cache
+	 * @return number of entries
+	 */
+	public int getResultCacheEntries() {
+		return _resultCacheEntries;
+	}
+
+	public void setResultCacheEntries(int resultCacheEntries) {
+		_resultCacheEntries = resultCacheEntries;
+	}
+
+	/**
+	 * Gets number of requests attached to an identical task already
+	 * in flight instead of running their own
+	 * @return number of coalesced requests
+	 */
+	public long getCoalescedRequests() {
+		return _coalescedRequests;
+	}
+
+	public void setCoalescedRequests(long coalescedRequests) {
+		_coalescedRequests = coalescedRequests;
+	}
+
+	/**
+	 * Gets number of finished results held in memory
+	 * @return number of entries
+	 */
+	public int getCompletedResultCacheEntries() {
+		return _completedResultCacheEntries;
+	}
+
+	public void setCompletedResultCacheEntries(int completedResultCacheEntries) {
+		_completedResultCacheEntries = completedResultCacheEntries;
+	}
+
+	/**
+	 * Gets size in bytes of finished results held in memory
+	 * @return size in bytes
+	 */
+	public long getCompletedResultCacheBytes() {
+		return _completedResultCacheBytes;
+	}
+
+	public void setCompletedResultCacheBytes(long completedResultCacheBytes) {
+		_completedResultCacheBytes = completedResultCacheBytes;
+	}
+
+	/**
+	 * Gets number of responses sent gzip compressed
+	 * @return number of responses
+	 */
+	public long getCompressedResponses() {
+		return _compressedResponses;
+	}
+
+	public void setCompressedResponses(long compressedResponses) {
+		_compressedResponses = compressedResponses;
+	}
+
+	/**
+	 * Gets size of compressed responses before compression
+	 * @return size in bytes
+	 */
+	public long getCompressionBytesIn() {
+		return _compressionBytesIn;
+	}
+
+	public void setCompressionBytesIn(long compressionBytesIn) {
+		_compressionBytesIn = compressionBytesIn;
+	}
+
+	/**
+	 * Gets size of compressed responses after compression
+	 * @return size in bytes
+	 */
+	public long getCompressionBytesOut() {
+		return _compressionBytesOut;
+	}
+
+	public void setCompressionBytesOut(long compressionBytesOut) {
+		_compressionBytesOut = compressionBytesOut;
+	}
+
+	/**
+	 * Gets bytes not sent due to compressing responses
+	 * @return size in bytes
+	 */
+	public long getCompressionBytesSaved() {
+		return _compressionBytesSaved;
+	}
+
+	public void setCompressionBytesSaved(long compressionBytesSaved) {
+		_compressionBytesSaved = compressionBytesSaved;
+	}
+
+	/**
+	 * Gets number of gzip compressed requests received
+	 * @return number of requests
+	 */
+	public long getDecompressedRequests() {
+		return _decompressedRequests;
+	}
+
+	public void setDecompressedRequests(long decompressedRequests) {
+		_decompressedRequests = decompressedRequests;
+	}
+
+	/**
+	 * Gets number of files of finished tasks compressed
+	 * @return number of files
+	 */
+	public long getCompressedTaskFiles() {
+		return _compressedTaskFiles;
+	}
+
+	public void setCompressedTaskFiles(long compressedTaskFiles) {
+		_compressedTaskFiles = compressedTaskFiles;
+	}
+
+	/**
+	 * Gets disk space saved by compressing files of finished tasks
+	 * @return size in bytes
+	 */
+	public long getTaskFileBytesSaved() {
+		return _taskFileBytesSaved;
+	}
+
+	public void setTaskFileBytesSaved(long taskFileBytesSaved) {
+		_taskFileBytesSaved = taskFileBytesSaved;
+	}
+
+	/**
+	 * Gets CPUs the resource scheduler hands out to tasks
+	 * @return CPUs or {@code 0} if scheduler is disabled
+	 */
+	public double getSchedulerCpus() {
+		return _schedulerCpus;
+	}
+
+	public void setSchedulerCpus(double schedulerCpus) {
+		_schedulerCpus = schedulerCpus;
+	}
+
+	/**
+	 * Gets CPUs held by running tasks
+	 * @return CPUs in use
+	 */
+	public double getSchedulerUsedCpus() {
+		return _schedulerUsedCpus;
+	}
+
+	public void setSchedulerUsedCpus(double schedulerUsedCpus) {
+		_schedulerUsedCpus = schedulerUsedCpus;
+	}
+
+	/**
+	 * Gets memory in bytes the resource scheduler hands out to tasks
+	 * @return memory or {@code 0} if scheduler is disabled or ignores memory
+	 */
+	public long getSchedulerMemory() {
+		return _schedulerMemory;
+	}
+
+	public void setSchedulerMemory(long schedulerMemory) {
+		_schedulerMemory = schedulerMemory;
+	}
+
+	/**
+	 * Gets memory in bytes held by running tasks
+	 * @return memory in use
+	 */
+	public long getSchedulerUsedMemory() {
+		return _schedulerUsedMemory;
+	}
+
+	public void setSchedulerUsedMemory(long schedulerUsedMemory) {
+		_schedulerUsedMemory = schedulerUsedMemory;
+	}
+
+	/**
+	 * Gets number of tasks waiting for CPU or memory to free up
+	 * @return number of waiting tasks
+	 */
+	public int getSchedulerWaitingTasks() {
+		return _schedulerWaitingTasks;
+	}
+
+	public void setSchedulerWaitingTasks(int schedulerWaitingTasks) {
+		_schedulerWaitingTasks = schedulerWaitingTasks;
+	}
+
+	/**
+	 * Gets cores containers of running tasks can be pinned to
+	 * @return cores ie {@code 0-15} or {@code null} if containers are not pinned
+	 */
+	public String getCpuSetCpus() {
+		return _cpuSetCpus;
+	}
+
+	public void setCpuSetCpus(final String cpuSetCpus) {
+		_cpuSetCpus = cpuSetCpus;
+	}
+
+	/**
+	 * Gets cores containers of running tasks are pinned to
+	 * @return map of task id => cores ie {@code 2-3}
+	 */
+	public Map<String, String> getCpuSetAssignments() {
+		return _cpuSetAssignments;
+	}
+
+	public void setCpuSetAssignments(Map<String, String> cpuSetAssignments) {
+		_cpuSetAssignments = cpuSetAssignments;
+	}
+}
@@ -0,0 +1,142 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
+
+/**
+ * {@link java.util.concurrent.FutureTask} wrapper around a task that
+ * notifies the {@link CytoContainerTaskListener} passed in via the constructor
+ * when the task starts and stops running and the moment the task completes,
+ * fails, or is canceled. This lets the engine persist results as soon as
+ * they are available instead of polling
+ *
+ * @author churas
+ */
+public class CytoContainerTask extends FutureTask<CytoContainerResult> {
+
+	private final String _id;
+	private final String _algorithm;
+	private final CytoContainerTaskListener _listener;
+	private String _requestKey;
+	private ResourceScheduler _scheduler;
+	private ResourceScheduler.Allocation _allocation;
+	private volatile boolean _started;
+
+	/**
+	 * Constructor
+	 * @param id Id of task
+	 * @param algorithm Name of algorithm this task runs
+	 * @param callable The task to run
+	 * @param listener Notified when task is done, can be {@code null}
+	 */
+	public CytoContainerTask(final String id, final String algorithm,
+			Callable<CytoContainerResult> callable,
+			CytoContainerTaskListener listener) {
+		super(callable);
+		_id = id;
+		_algorithm = algorithm;
+		_listener = listener;
+	}
+
+	public String getId() {
+		return _id;
+	}
+
+	public String getAlgorithm() {
+		return _algorithm;
+	}
+
+	/**
+	 * Gets digest identifying the request that created this task
+	 * @return request digest or {@code null} if not set
+	 */
+	public String getRequestKey() {
+		return _requestKey;
+	}
+
+	public void setRequestKey(final String requestKey) {
+		_requestKey = requestKey;
+	}
+
+	/**
+	 * Denotes if a worker picked up task and handed it to the listener
+	 * as started, in which case it may have a container running
+	 * @return {@code true} if task started
+	 */
+	public boolean isStarted() {
+		return _started;
+	}
+
+	/**
+	 * Sets scheduler that must admit this task before it is run
+	 * @param scheduler scheduler or {@code null} to run as soon as a worker is free
+	 * @param cpus CPUs task needs
+	 * @param memory memory in bytes task needs
+	 */
+	public void setResources(ResourceScheduler scheduler, double cpus, long memory) {
+		_scheduler = scheduler;
+		_allocation = scheduler == null ? null : new ResourceScheduler.Allocation(cpus, memory);
+	}
+
+	/**
+	 * Hands this task to {@code executor}, if a scheduler is set this
+	 * happens once the scheduler admits it so no worker of
+	 * {@code executor} waits on resources
+	 * @param executor runs task
+	 * @param workers number of workers of {@code executor}, {@code 0} or
+	 *                less if unknown
+	 */
+	public void submit(Executor executor, int workers) {
+		if (_scheduler == null){
+			executor.execute(this);
+			return;
+		}
+		_scheduler.submit(_algorithm, this, _allocation, executor, workers);
+	}
+
+	/**
+	 * Notifies listener before and after running the task so the number
+	 * of running tasks can be tracked exactly, then frees resources given
+	 * to task by the scheduler
+	 */
+	@Override
+	public void run() {
+		try {
+			if (isDone()){
+				return;
+			}
+			_started = true;
+			if (_listener != null){
+				_listener.taskStarted(this);
+			}
+			try {
+				super.run();
+			} finally {
+				if (_listener != null){
+					_listener.taskStopped(this);
+				}
+			}
+		} finally {
+			if (_scheduler != null){
+				_scheduler.release(_allocation);
+			}
+		}
+	}
+
+	/**
+	 * Invoked by {@link java.util.concurrent.FutureTask} once the task
+	 * transitions to done, canceled or failed
+	 */
+	@Override
+	protected void done() {
+		if (_scheduler != null && _started == false){
+			// canceled while waiting to be admitted or to run
+			_scheduler.release(_allocation);
+		}
+		if (_listener != null){
+			_listener.taskDone(this);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+/**
+ * Receives notification when a {@link CytoContainerTask} starts, stops
+ * running, and is done
+ *
+ * @author churas
+ */
+public interface CytoContainerTaskListener {
+
+	/**
+	 * Called from the worker thread right before the task starts running
+	 * @param task The task about to run
+	 */
+	public void taskStarted(CytoContainerTask task);
+
+	/**
+	 * Called from the worker thread once the task has stopped running,
+	 * this is always paired with a call to {@link #taskStarted(org.cytoscape.cytocontainer.rest.engine.CytoContainerTask) }
+	 * @param task The task that stopped running
+	 */
+	public void taskStopped(CytoContainerTask task);
+
+	/**
+	 * Called from the thread that completed or canceled the task, which
+	 * is the worker thread unless the task was canceled, in which case it
+	 * is the thread that called {@code cancel()}, such as one handling a
+	 * delete request. Implementations may do file I/O, such as saving the
+	 * result, but should not wait on other tasks
+	 * @param task The task that is done
+	 */
+	public void taskDone(CytoContainerTask task);
+}
@@ -0,0 +1,217 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks tasks that are queued or running keyed by request digest so
+ * identical requests can be attached to the task already in flight
+ * instead of launching a duplicate container. The first request becomes
+ * the primary and later requests become aliases that share its run.
+ * <p>
+ * Callers must synchronize on a {@link Group} when reading or changing
+ * its membership or done state.
+ * </p>
+ * @author churas
+ */
+public class InFlightRequests {
+
+	/**
+	 * A task in flight along with the ids of every request attached to it
+	 */
+	public static class Group {
+		private final String _key;
+		private final String _primaryId;
+		private final String _algorithm;
+		private final Set<String> _members;
+		private boolean _done;
+		private boolean _primaryDeleted;
+
+		Group(final String key, final String primaryId, final String algorithm){
+			_key = key;
+			_primaryId = primaryId;
+			_algorithm = algorithm;
+			_members = new LinkedHashSet<>();
+			_members.add(primaryId);
+			_done = false;
+			_primaryDeleted = false;
+		}
+
+		public String getKey() {
+			return _key;
+		}
+
+		public String getPrimaryId() {
+			return _primaryId;
+		}
+
+		public String getAlgorithm() {
+			return _algorithm;
+		}
+
+		/**
+		 * Denotes if task finished and aliases have been written out
+		 * @return {@code true} if done
+		 */
+		public boolean isDone() {
+			return _done;
+		}
+
+		/**
+		 * Denotes if caller that submitted the primary task deleted it
+		 * while other requests were still attached
+		 * @return {@code true} if primary was deleted
+		 */
+		public boolean isPrimaryDeleted() {
+			return _primaryDeleted;
+		}
+
+		/**
+		 * Gets ids of aliases still attached to this group
+		 * @return alias ids
+		 */
+		public List<String> getAliases(){
+			List<String> aliases = new ArrayList<>(_members);
+			aliases.remove(_primaryId);
+			return aliases;
+		}
+
+		/**
+		 * Gets number of requests, including primary, still attached
+		 * @return number of members
+		 */
+		public int getMemberCount(){
+			return _members.size();
+		}
+	}
+
+	private final Set<String> _disabledAlgorithms;
+	private final ConcurrentHashMap<String, Group> _groupsByKey;
+	private final ConcurrentHashMap<String, Group> _groupsByMember;
+	private final AtomicLong _coalescedRequests;
+
+	/**
+	 * Constructor
+	 * @param disabledAlgorithms names of algorithms whose requests should
+	 *                           never be coalesced, can be {@code null}
+	 */
+	public InFlightRequests(Set<String> disabledAlgorithms){
+		if (disabledAlgorithms == null){
+			_disabledAlgorithms = Collections.emptySet();
+		} else {
+			_disabledAlgorithms = new HashSet<>(disabledAlgorithms);
+		}
+		_groupsByKey = new ConcurrentHashMap<>();
+		_groupsByMember = new ConcurrentHashMap<>();
+		_coalescedRequests = new AtomicLong(0);
+	}
+
+	/**
+	 * Denotes if requests for {@code algorithm} can be coalesced
+	 * @param algorithm name of algorithm
+	 * @return {@code true} unless algorithm has opted out
+	 */
+	public boolean isEnabled(final String algorithm){
+		return !_disabledAlgorithms.contains(algorithm);
+	}
+
+	/**
+	 * Attaches request with {@code id} to the group in flight for {@code key}
+	 * or, if there is none, creates a new group with {@code id} as the primary.
+	 * @param key request digest
+	 * @param id id of request
+	 * @param algorithm name of algorithm
+	 * @return group the request belongs to. If {@link Group#getPrimaryId()}
+	 *         equals {@code id} caller must run the task
+	 */
+	public synchronized Group join(final String key, final String id, final String algorithm){
+		Group group = _groupsByKey.get(key);
+		if (group != null){
+			synchronized(group){
+				if (group.isDone() == false){
+					group._members.add(id);
+					_groupsByMember.put(id, group);
+					_coalescedRequests.incrementAndGet();
+					return group;
+				}
+			}
+		}
+		group = new Group(key, id, algorithm);
+		_groupsByKey.put(key, group);
+		_groupsByMember.put(id, group);
+		return group;
+	}
+
+	/**
+	 * Gets group request with {@code id} is attached to
+	 * @param id id of primary or alias
+	 * @return group or {@code null} if not in flight
+	 */
+	public Group getGroup(final String id){
+		if (id == null){
+			return null;
+		}
+		return _groupsByMember.get(id);
+	}
+
+	/**
+	 * Detaches request with {@code id} from {@code group}. If {@code id} is the
+	 * primary, the group is flagged so the primary is deleted once the task
+	 * finishes. Caller must hold lock on {@code group}
+	 * @param group group request is attached to
+	 * @param id id of request
+	 * @return {@code true} if no requests remain attached to the group
+	 */
+	public boolean leave(Group group, final String id){
+		group._members.remove(id);
+		if (id.equals(group.getPrimaryId())){
+			group._primaryDeleted = true;
+		} else {
+			_groupsByMember.remove(id, group);
+		}
+		return group._members.isEmpty();
+	}
+
+	/**
+	 * Marks {@code group} as done so no further requests can attach to it.
+	 * Caller must hold lock on {@code group}
+	 * @param group group to mark done
+	 */
+	public void done(Group group){
+		group._done = true;
+		_groupsByKey.remove(group.getKey(), group);
+		_groupsByMember.remove(group.getPrimaryId(), group);
+	}
+
+	/**
+	 * Removes mapping for alias {@code id} once its result has been written
+	 * @param group group alias belonged to
+	 * @param id id of alias
+	 */
+	public void removeAlias(Group group, final String id){
+		_groupsByMember.remove(id, group);
+	}
+
+	/**
+	 * Gets number of groups in flight
+	 * @return number of in flight tasks that can be attached to
+	 */
+	public int size(){
+		return _groupsByKey.size();
+	}
+
+	/**
+	 * Gets number of requests that were attached to a task already
+	 * in flight instead of running their own
+	 * @return number of coalesced requests
+	 */
+	public long getCoalescedRequests(){
+		return _coalescedRequests.get();
+	}
+}
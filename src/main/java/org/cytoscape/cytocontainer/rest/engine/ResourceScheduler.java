@@ -0,0 +1,299 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admits tasks only when enough CPU and memory of the host are free
+ * for the resources they request, so heavy algorithms cannot
+ * oversubscribe the host no matter how many workers there are.
+ * <p>
+ * Tasks wait here, not on a worker, and are only handed to the
+ * {@link java.util.concurrent.Executor} of their algorithm once admitted
+ * and a worker of that executor is free. Each algorithm has its own line
+ * so a task needing many CPUs only holds back later tasks of its own
+ * algorithm. Tasks of other algorithms that fit may go ahead of it, but
+ * once it has been passed {@code maxBypasses} times nothing may go ahead
+ * of it so it is not starved by a stream of smaller ones.
+ *
+ * @author churas
+ */
+public class ResourceScheduler {
+
+	static Logger _logger = LoggerFactory.getLogger(ResourceScheduler.class);
+
+	/**
+	 * Default number of times the oldest waiting task can be passed by
+	 * tasks of other algorithms
+	 */
+	public static final int DEFAULT_MAX_BYPASSES = 8;
+
+	private final double _totalCpus;
+	private final long _totalMemory;
+	private final int _maxBypasses;
+	private final Map<String, ArrayDeque<Allocation>> _lines;
+	private final Map<Executor, Integer> _admittedPerExecutor;
+	private double _usedCpus;
+	private long _usedMemory;
+	private int _runningTasks;
+	private int _waitingTasks;
+	private long _nextTicket;
+
+	/**
+	 * Resources requested by a task, passed to
+	 * {@link ResourceScheduler#submit(java.lang.String, java.lang.Runnable, org.cytoscape.cytocontainer.rest.engine.ResourceScheduler.Allocation, java.util.concurrent.Executor, int) }
+	 * and then to
+	 * {@link ResourceScheduler#release(org.cytoscape.cytocontainer.rest.engine.ResourceScheduler.Allocation) }
+	 * once task finishes or is canceled
+	 */
+	public static class Allocation {
+		private double _cpus;
+		private long _memory;
+		private String _line;
+		private Runnable _task;
+		private Executor _executor;
+		private int _workers;
+		private long _ticket;
+		private int _bypasses;
+		private boolean _waiting;
+		private boolean _admitted;
+
+		/**
+		 * Constructor
+		 * @param cpus CPUs needed
+		 * @param memory memory needed in bytes
+		 */
+		public Allocation(double cpus, long memory){
+			_cpus = cpus;
+			_memory = memory;
+		}
+
+		public double getCpus() {
+			return _cpus;
+		}
+
+		public long getMemory() {
+			return _memory;
+		}
+	}
+
+	/**
+	 * Constructor that lets the oldest waiting task be passed
+	 * {@link #DEFAULT_MAX_BYPASSES} times
+	 * @param totalCpus CPUs of host available to tasks
+	 * @param totalMemory memory in bytes of host available to tasks,
+	 *                    {@code 0} or less to ignore memory
+	 */
+	public ResourceScheduler(double totalCpus, long totalMemory){
+		this(totalCpus, totalMemory, DEFAULT_MAX_BYPASSES);
+	}
+
+	/**
+	 * Constructor
+	 * @param totalCpus CPUs of host available to tasks
+	 * @param totalMemory memory in bytes of host available to tasks,
+	 *                    {@code 0} or less to ignore memory
+	 * @param maxBypasses number of times the oldest waiting task can be
+	 *                    passed by tasks of other algorithms, {@code 0}
+	 *                    admits tasks strictly in order
+	 */
+	public ResourceScheduler(double totalCpus, long totalMemory, int maxBypasses){
+		_totalCpus = totalCpus;
+		_totalMemory = totalMemory;
+		_maxBypasses = Math.max(0, maxBypasses);
+		_lines = new LinkedHashMap<>();
+		_admittedPerExecutor = new HashMap<>();
+	}
+
+	/**
+	 * Puts {@code task} in the line for {@code line} and hands it to
+	 * {@code executor} once its resources are free and {@code executor}
+	 * has a free worker, which can be right away. Requests larger than
+	 * the host are reduced to what the host has so the task can still run
+	 * by itself. If {@code executor} rejects the task its resources are
+	 * freed and, if it is a {@link java.util.concurrent.Future}, it is canceled
+	 * @param line name of line, typically the algorithm, task waits in
+	 * @param task task to run
+	 * @param allocation resources task needs, must not have been submitted before
+	 * @param executor runs task once admitted
+	 * @param workers number of workers of {@code executor}, {@code 0} or
+	 *                less if unknown
+	 */
+	public void submit(final String line, Runnable task, Allocation allocation,
+			Executor executor, int workers){
+		List<Allocation> admitted;
+		synchronized(this){
+			allocation._cpus = Math.min(Math.max(allocation._cpus, 0), _totalCpus);
+			allocation._memory = _totalMemory > 0 ? Math.min(Math.max(allocation._memory, 0), _totalMemory) : 0;
+			allocation._line = line;
+			allocation._task = task;
+			allocation._executor = executor;
+			allocation._workers = workers;
+			allocation._ticket = _nextTicket++;
+			allocation._waiting = true;
+			_lines.computeIfAbsent(line, (name) -> new ArrayDeque<>()).add(allocation);
+			_waitingTasks++;
+			admitted = admit();
+		}
+		execute(admitted);
+	}
+
+	/**
+	 * Frees resources held by {@code allocation} or, if it is still
+	 * waiting, removes it from its line. Calling this more than once
+	 * for the same allocation has no effect
+	 * @param allocation allocation passed to {@code submit()}, can be {@code null}
+	 */
+	public void release(Allocation allocation){
+		if (allocation == null){
+			return;
+		}
+		List<Allocation> admitted;
+		synchronized(this){
+			if (allocation._waiting){
+				allocation._waiting = false;
+				ArrayDeque<Allocation> queue = _lines.get(allocation._line);
+				queue.remove(allocation);
+				if (queue.isEmpty()){
+					_lines.remove(allocation._line);
+				}
+				_waitingTasks--;
+			} else if (allocation._admitted){
+				allocation._admitted = false;
+				_usedCpus = Math.max(0, _usedCpus - allocation._cpus);
+				_usedMemory = Math.max(0, _usedMemory - allocation._memory);
+				_runningTasks--;
+				_admittedPerExecutor.merge(allocation._executor, -1, Integer::sum);
+			} else {
+				return;
+			}
+			admitted = admit();
+		}
+		execute(admitted);
+	}
+
+	/**
+	 * Admits tasks at the head of each line, oldest first, for as long
+	 * as any fit and have a free worker. A head that fits may go ahead of
+	 * older heads whose resources are not free, unless one of those has
+	 * been passed {@code _maxBypasses} times
+	 * @return admitted tasks, to be handed to their executors once
+	 *         lock on this object is released
+	 */
+	private List<Allocation> admit(){
+		List<Allocation> admitted = new ArrayList<>();
+		boolean admittedOne = true;
+		while (admittedOne){
+			admittedOne = false;
+			List<Allocation> heads = new ArrayList<>();
+			for (ArrayDeque<Allocation> queue : _lines.values()){
+				heads.add(queue.peek());
+			}
+			heads.sort((a, b) -> Long.compare(a._ticket, b._ticket));
+			List<Allocation> passed = new ArrayList<>();
+			for (Allocation head : heads){
+				if (hasFreeWorker(head) == false){
+					// waiting on its own workers, not on resources
+					continue;
+				}
+				if (fits(head)){
+					for (Allocation older : passed){
+						older._bypasses++;
+					}
+					ArrayDeque<Allocation> queue = _lines.get(head._line);
+					queue.poll();
+					if (queue.isEmpty()){
+						_lines.remove(head._line);
+					}
+					_waitingTasks--;
+					head._waiting = false;
+					head._admitted = true;
+					_usedCpus += head._cpus;
+					_usedMemory += head._memory;
+					_runningTasks++;
+					_admittedPerExecutor.merge(head._executor, 1, Integer::sum);
+					admitted.add(head);
+					admittedOne = true;
+					break;
+				}
+				if (head._bypasses >= _maxBypasses){
+					// waited long enough, nothing may go ahead of it
+					break;
+				}
+				passed.add(head);
+			}
+		}
+		return admitted;
+	}
+
+	/**
+	 * Hands admitted tasks to their executors
+	 * @param admitted tasks returned by {@link #admit()}
+	 */
+	private void execute(List<Allocation> admitted){
+		for (Allocation allocation : admitted){
+			Runnable task = allocation._task;
+			try {
+				allocation._executor.execute(task);
+			} catch(RejectedExecutionException ree){
+				_logger.error("Unable to run admitted task: " + ree.getMessage());
+				release(allocation);
+				if (task instanceof Future){
+					((Future<?>)task).cancel(false);
+				}
+			}
+		}
+	}
+
+	private boolean hasFreeWorker(Allocation allocation){
+		return allocation._workers <= 0
+				|| _admittedPerExecutor.getOrDefault(allocation._executor, 0) < allocation._workers;
+	}
+
+	private boolean fits(Allocation allocation){
+		// small tolerance since fractional cpus are summed
+		return _usedCpus + allocation._cpus <= _totalCpus + 1e-9
+				&& (_totalMemory <= 0 || _usedMemory + allocation._memory <= _totalMemory);
+	}
+
+	public double getTotalCpus() {
+		return _totalCpus;
+	}
+
+	public long getTotalMemory() {
+		return _totalMemory;
+	}
+
+	public synchronized double getUsedCpus() {
+		return _usedCpus;
+	}
+
+	public synchronized long getUsedMemory() {
+		return _usedMemory;
+	}
+
+	/**
+	 * Gets number of tasks holding resources
+	 * @return number of tasks
+	 */
+	public synchronized int getRunningTasks() {
+		return _runningTasks;
+	}
+
+	/**
+	 * Gets number of tasks waiting for resources
+	 * @return number of tasks
+	 */
+	public synchronized int getWaitingTasks() {
+		return _waitingTasks;
+	}
+}
@@ -0,0 +1,153 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, least recently used cache that maps a request digest,
+ * generated by {@link org.cytoscape.cytocontainer.rest.engine.util.CytoContainerRequestHasher},
+ * to the id of a completed task whose result can be reused for
+ * identical requests. Entries older than the time to live are
+ * treated as misses and removed
+ *
+ * @author churas
+ */
+public class ResultCache {
+
+	private final int _maxEntries;
+	private final long _ttlMillis;
+	private final Set<String> _disabledAlgorithms;
+	private final LinkedHashMap<String, Entry> _cache;
+	private final AtomicLong _hits;
+	private final AtomicLong _misses;
+
+	/**
+	 * Cache entry
+	 */
+	private static class Entry {
+		final String _taskId;
+		final long _createTime;
+
+		Entry(final String taskId, long createTime){
+			_taskId = taskId;
+			_createTime = createTime;
+		}
+	}
+
+	/**
+	 * Constructor
+	 * @param maxEntries max number of entries, once exceeded the least
+	 *                   recently used entry is evicted. {@code 0} or less
+	 *                   disables the cache
+	 * @param ttlMillis time in milliseconds an entry is valid for, {@code 0} or less
+	 *                  means entries never expire
+	 * @param disabledAlgorithms names of algorithms whose results should
+	 *                           never be cached, can be {@code null}
+	 */
+	public ResultCache(int maxEntries, long ttlMillis, Set<String> disabledAlgorithms){
+		_maxEntries = maxEntries;
+		_ttlMillis = ttlMillis;
+		if (disabledAlgorithms == null){
+			_disabledAlgorithms = Collections.emptySet();
+		} else {
+			_disabledAlgorithms = new HashSet<>(disabledAlgorithms);
+		}
+		_cache = new LinkedHashMap<String, Entry>(16, 0.75f, true){
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > _maxEntries;
+			}
+		};
+		_hits = new AtomicLong(0);
+		_misses = new AtomicLong(0);
+	}
+
+	/**
+	 * Denotes if results for {@code algorithm} can be cached
+	 * @param algorithm name of algorithm
+	 * @return {@code true} if cache is enabled and algorithm has not opted out
+	 */
+	public boolean isEnabled(final String algorithm){
+		return _maxEntries > 0 && !_disabledAlgorithms.contains(algorithm);
+	}
+
+	/**
+	 * Gets id of completed task for {@code key} updating hit and miss counters
+	 * @param key request digest
+	 * @return task id or {@code null} if not found or expired
+	 */
+	public String get(final String key){
+		return get(key, System.currentTimeMillis());
+	}
+
+	protected synchronized String get(final String key, long nowMillis){
+		Entry entry = _cache.get(key);
+		if (entry == null){
+			_misses.incrementAndGet();
+			return null;
+		}
+		if (_ttlMillis > 0 && nowMillis - entry._createTime > _ttlMillis){
+			_cache.remove(key);
+			_misses.incrementAndGet();
+			return null;
+		}
+		_hits.incrementAndGet();
+		return entry._taskId;
+	}
+
+	/**
+	 * Adds completed task with {@code taskId} to cache
+	 * @param key request digest
+	 * @param taskId id of completed task
+	 */
+	public void put(final String key, final String taskId){
+		put(key, taskId, System.currentTimeMillis());
+	}
+
+	protected synchronized void put(final String key, final String taskId, long nowMillis){
+		if (_maxEntries <= 0 || key == null || taskId == null){
+			return;
+		}
+		_cache.put(key, new Entry(taskId, nowMillis));
+	}
+
+	/**
+	 * Removes entry for {@code key}, used if the task referenced is
+	 * no longer usable. The miss recorded by the earlier {@link #get(java.lang.String) }
+	 * call replaces its hit.
+	 * @param key request digest
+	 */
+	public synchronized void invalidate(final String key){
+		if (_cache.remove(key) != null){
+			_hits.decrementAndGet();
+			_misses.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Removes any entry referencing task with {@code taskId}
+	 * @param taskId id of task
+	 */
+	public synchronized void removeTask(final String taskId){
+		if (taskId == null){
+			return;
+		}
+		_cache.values().removeIf((entry) -> taskId.equals(entry._taskId));
+	}
+
+	public synchronized int size(){
+		return _cache.size();
+	}
+
+	public long getHits(){
+		return _hits.get();
+	}
+
+	public long getMisses(){
+		return _misses.get();
+	}
+}
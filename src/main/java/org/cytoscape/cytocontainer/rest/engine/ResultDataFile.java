@@ -0,0 +1,64 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.io.File;
+
+/**
+ * Raw data output by an algorithm for a completed task along with
+ * the media type of that data and how the file is encoded
+ *
+ * @author churas
+ */
+public class ResultDataFile {
+
+	private final File _file;
+	private final String _contentType;
+	private final String _contentEncoding;
+
+	/**
+	 * Constructor for data stored as is
+	 * @param file file containing raw data
+	 * @param contentType media type of data
+	 */
+	public ResultDataFile(final File file, final String contentType){
+		this(file, contentType, null);
+	}
+
+	/**
+	 * Constructor
+	 * @param file file containing raw data
+	 * @param contentType media type of data
+	 * @param contentEncoding encoding of file ie {@code gzip} or
+	 *                        {@code null} if data is stored as is
+	 */
+	public ResultDataFile(final File file, final String contentType,
+			final String contentEncoding){
+		_file = file;
+		_contentType = contentType;
+		_contentEncoding = contentEncoding;
+	}
+
+	/**
+	 * Gets file containing raw data
+	 * @return file
+	 */
+	public File getFile(){
+		return _file;
+	}
+
+	/**
+	 * Gets media type of raw data
+	 * @return media type, ie {@code application/json}
+	 */
+	public String getContentType(){
+		return _contentType;
+	}
+
+	/**
+	 * Gets encoding of file
+	 * @return encoding ie {@code gzip} or {@code null} if data is
+	 *         stored as is
+	 */
+	public String getContentEncoding(){
+		return _contentEncoding;
+	}
+}
@@ -0,0 +1,182 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks progress and message written by an algorithm to its standard
+ * error file. Remembers the byte offset already parsed along with the
+ * last {@code @@PROGRESS} and {@code @@MESSAGE} values seen so each
+ * call to {@link #update()} only parses bytes appended since the
+ * previous call.
+ *
+ * @author churas
+ */
+public class StdErrProgressTracker {
+
+	static Logger _logger = LoggerFactory.getLogger(StdErrProgressTracker.class);
+
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	private final File _stdErrFile;
+	private final long _bytesToParse;
+	private long _offset;
+
+	/**
+	 * Last progress and message parsed from complete lines
+	 */
+	private final CytoContainerResultStatus _parsed;
+
+	/**
+	 * Holds trailing bytes of a line that has not yet been terminated
+	 * by a newline
+	 */
+	private final ByteArrayOutputStream _partialLine;
+
+	/**
+	 * Set when the start of the current line was skipped so the rest
+	 * of it must be ignored
+	 */
+	private boolean _skipToNextLine;
+
+	/**
+	 * Constructor
+	 * @param stdErrFile standard error file to parse
+	 * @param bytesToParse on first read only this many bytes from the end of the
+	 *                     file are parsed
+	 */
+	public StdErrProgressTracker(File stdErrFile, long bytesToParse){
+		_stdErrFile = stdErrFile;
+		_bytesToParse = bytesToParse;
+		_offset = 0;
+		_parsed = new CytoContainerResultStatus();
+		_partialLine = new ByteArrayOutputStream();
+		_skipToNextLine = false;
+	}
+
+	/**
+	 * Gets byte offset in standard error file parsed so far
+	 * @return offset in bytes
+	 */
+	public synchronized long getOffset(){
+		return _offset;
+	}
+
+	/**
+	 * Parses any bytes appended to the standard error file since last
+	 * invocation and returns the latest progress and message. If the file
+	 * shrinks, it is assumed to have been replaced and is parsed again
+	 * @return status with progress and message set
+	 * @throws IOException if there is an error reading the file
+	 */
+	public synchronized CytoContainerResultStatus update() throws IOException {
+		if (_stdErrFile.isFile() == false){
+			return getStatus();
+		}
+		try (RandomAccessFile reader = new RandomAccessFile(_stdErrFile, "r")) {
+			long fileLength = reader.length();
+			if (fileLength < _offset){
+				_logger.debug(_stdErrFile.getAbsolutePath() + " shrank, parsing again");
+				reset();
+			}
+			if (fileLength == _offset){
+				return getStatus();
+			}
+			if (_offset == 0 && fileLength > _bytesToParse){
+				// limit how far back to parse the log file so we do not overwhelm the server
+				_offset = fileLength - _bytesToParse;
+				_skipToNextLine = true;
+				_logger.debug("Seeking to byte position: " + _offset);
+			}
+			reader.seek(_offset);
+			byte[] buffer = new byte[READ_BUFFER_SIZE];
+			long remaining = fileLength - _offset;
+			while (remaining > 0){
+				int numRead = reader.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+				if (numRead <= 0){
+					break;
+				}
+				parseBytes(buffer, numRead);
+				remaining -= numRead;
+				_offset += numRead;
+			}
+		}
+		return getStatus();
+	}
+
+	private void reset(){
+		_offset = 0;
+		_parsed.setProgress(0);
+		_parsed.setMessage(null);
+		_partialLine.reset();
+		_skipToNextLine = false;
+	}
+
+	private void parseBytes(byte[] buffer, int len){
+		int lineStart = 0;
+		for (int i = 0; i < len; i++){
+			if (buffer[i] != '\n'){
+				continue;
+			}
+			if (_skipToNextLine == false){
+				_partialLine.write(buffer, lineStart, i - lineStart);
+				parseLine(_partialLine.toString(StandardCharsets.UTF_8), _parsed);
+			}
+			_partialLine.reset();
+			_skipToNextLine = false;
+			lineStart = i + 1;
+		}
+		if (_skipToNextLine == false && lineStart < len){
+			_partialLine.write(buffer, lineStart, len - lineStart);
+			if (_partialLine.size() > _bytesToParse){
+				// line is too long to be progress or message so ignore the rest of it
+				_partialLine.reset();
+				_skipToNextLine = true;
+			}
+		}
+	}
+
+	/**
+	 * Updates progress and message in {@code ccrs} if {@code line} contains
+	 * either. Invalid progress values set progress to {@code 0}
+	 * @param line line from standard error file
+	 * @param ccrs status to update
+	 */
+	private void parseLine(final String line, CytoContainerResultStatus ccrs){
+		if (line.startsWith(CytoContainerEngineImpl.PROGRESS_KEY)) {
+			String[] parts = line.split("\\s+", 2);
+			if (parts.length == 2) {
+				try {
+					ccrs.setProgress(Integer.parseInt(parts[1].trim()));
+					_logger.debug("Progress set to: " + ccrs.getProgress());
+				} catch (NumberFormatException e) {
+					_logger.info("Invalid progress format: " + parts[1] + " setting to 0");
+					ccrs.setProgress(0);
+				}
+			}
+		} else if (line.startsWith(CytoContainerEngineImpl.MESSAGE_KEY)) {
+			String[] parts = line.split("\\s+", 2);
+			if (parts.length == 2) {
+				ccrs.setMessage(parts[1].trim());
+			}
+		}
+	}
+
+	/**
+	 * Builds status from values parsed so far. A trailing line not yet
+	 * terminated by a newline is not included
+	 * @return status
+	 */
+	private CytoContainerResultStatus getStatus(){
+		CytoContainerResultStatus ccrs = new CytoContainerResultStatus();
+		ccrs.setProgress(_parsed.getProgress());
+		ccrs.setMessage(_parsed.getMessage());
+		return ccrs;
+	}
+}
@@ -0,0 +1,91 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+/**
+ * Tracks the times of the most recently finished tasks so the rate at which
+ * a queue is being drained can be estimated. The rate is the number of
+ * tracked completions divided by the time elapsed since the oldest of them,
+ * so the estimate decays on its own if tasks stop finishing
+ *
+ * @author churas
+ */
+public class TaskDrainRate {
+
+	/**
+	 * Default number of completions to track
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 64;
+
+	private final long[] _completionTimes;
+	private int _nextIndex;
+	private int _count;
+
+	/**
+	 * Constructor that tracks {@link #DEFAULT_WINDOW_SIZE} completions
+	 */
+	public TaskDrainRate(){
+		this(DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * @param windowSize number of most recent completions to track
+	 */
+	public TaskDrainRate(int windowSize){
+		_completionTimes = new long[Math.max(1, windowSize)];
+		_nextIndex = 0;
+		_count = 0;
+	}
+
+	/**
+	 * Records a task finishing now
+	 */
+	public void taskFinished(){
+		taskFinished(System.currentTimeMillis());
+	}
+
+	/**
+	 * Records a task finishing at {@code timeMillis}
+	 * @param timeMillis time in milliseconds task finished
+	 */
+	public synchronized void taskFinished(long timeMillis){
+		_completionTimes[_nextIndex] = timeMillis;
+		_nextIndex = (_nextIndex + 1) % _completionTimes.length;
+		if (_count < _completionTimes.length){
+			_count++;
+		}
+	}
+
+	/**
+	 * Gets number of tasks finished per second as of {@code nowMillis}
+	 * @param nowMillis current time in milliseconds
+	 * @return tasks per second or {@code 0} if no tasks have finished
+	 */
+	public synchronized double getTasksPerSecond(long nowMillis){
+		if (_count == 0){
+			return 0;
+		}
+		int oldestIndex = _count < _completionTimes.length ? 0 : _nextIndex;
+		long elapsed = Math.max(1L, nowMillis - _completionTimes[oldestIndex]);
+		return ((double)_count * 1000.0) / (double)elapsed;
+	}
+
+	/**
+	 * Estimates how many seconds it will take for {@code numTasks} to
+	 * finish given the current drain rate
+	 * @param numTasks number of tasks that need to finish
+	 * @param defaultSeconds value to return if no rate is known
+	 * @param maxSeconds cap on the value returned
+	 * @return estimated seconds which is at least {@code 1} and at most {@code maxSeconds}
+	 */
+	public long estimateSecondsToDrain(int numTasks, long defaultSeconds, long maxSeconds){
+		double rate = getTasksPerSecond(System.currentTimeMillis());
+		long seconds = defaultSeconds;
+		if (rate > 0){
+			seconds = (long)Math.ceil((double)Math.max(1, numTasks) / rate);
+		}
+		if (maxSeconds > 0 && seconds > maxSeconds){
+			seconds = maxSeconds;
+		}
+		return Math.max(1L, seconds);
+	}
+}
@@ -0,0 +1,226 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Gzip compresses files of finished tasks on a single background thread
+ * so the disk used by each task shrinks without slowing down the
+ * completion of tasks. A file {@code X} is compressed to {@code X.gz}, which
+ * is written to a temp file and moved into place before {@code X} is removed
+ * so at any moment one of the two is complete. Readers should use
+ * {@link #getExistingFile(java.io.File) } or {@link #open(java.io.File) }
+ * which look for either.
+ *
+ * @author churas
+ */
+public class TaskFileCompressor {
+
+	static Logger _logger = LoggerFactory.getLogger(TaskFileCompressor.class);
+
+	/**
+	 * Suffix added to name of compressed files
+	 */
+	public static final String GZIP_SUFFIX = ".gz";
+
+	/**
+	 * Value of {@code Content-Encoding} for compressed files
+	 */
+	public static final String GZIP_ENCODING = "gzip";
+
+	/**
+	 * Size in bytes of buffer used when compressing
+	 */
+	public static final int BUFFER_SIZE = 65536;
+
+	private final List<String> _fileNames;
+	private final int _level;
+	private final long _delayMillis;
+	private final AtomicLong _compressedFiles;
+	private final AtomicLong _bytesSaved;
+	private final ScheduledExecutorService _scheduler;
+
+	/**
+	 * Constructor
+	 * @param fileNames names of files in a task directory to compress
+	 * @param level gzip compression level 1-9
+	 * @param delayMillis time in milliseconds after a task finishes to wait
+	 *                    before compressing its files, since finished
+	 *                    tasks are typically read right away
+	 */
+	public TaskFileCompressor(List<String> fileNames, int level, long delayMillis){
+		_fileNames = new ArrayList<>(fileNames);
+		_level = level;
+		_delayMillis = Math.max(0, delayMillis);
+		_compressedFiles = new AtomicLong(0);
+		_bytesSaved = new AtomicLong(0);
+		_scheduler = Executors.newSingleThreadScheduledExecutor((r) -> {
+			Thread t = new Thread(r, "TaskFileCompressor");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Schedules compression of files in {@code taskDir}
+	 * @param taskDir directory of finished task
+	 */
+	public void compressTask(final File taskDir){
+		try {
+			_scheduler.schedule(() -> compressFiles(taskDir), _delayMillis,
+					TimeUnit.MILLISECONDS);
+		} catch(RejectedExecutionException ree){
+			_logger.debug("Not compressing " + taskDir.getAbsolutePath()
+					+ " since compressor is shut down");
+		}
+	}
+
+	/**
+	 * Compresses files in {@code taskDir} now
+	 * @param taskDir directory of finished task
+	 */
+	protected void compressFiles(final File taskDir){
+		for (String fileName : _fileNames){
+			compressFile(new File(taskDir, fileName));
+		}
+	}
+
+	/**
+	 * Compresses {@code file} to {@code file.gz} and removes {@code file}.
+	 * Missing and empty files are skipped
+	 * @param file file to compress
+	 * @return {@code true} if file was compressed otherwise {@code false}
+	 */
+	protected boolean compressFile(final File file){
+		if (file.isFile() == false || file.length() == 0){
+			return false;
+		}
+		File gzFile = getCompressedFile(file);
+		File tmpFile = new File(gzFile.getAbsolutePath() + ".tmp");
+		try {
+			try (InputStream in = new FileInputStream(file);
+					OutputStream out = new GZIPOutputStream(new FileOutputStream(tmpFile), BUFFER_SIZE){
+						{
+							def.setLevel(_level);
+						}
+					}){
+				in.transferTo(out);
+			}
+			Files.move(tmpFile.toPath(), gzFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			long origLength = file.length();
+			if (file.delete() == false){
+				_logger.warn("Unable to remove " + file.getAbsolutePath() + " after compressing");
+			}
+			_compressedFiles.incrementAndGet();
+			_bytesSaved.addAndGet(origLength - gzFile.length());
+			return true;
+		} catch(IOException io){
+			_logger.error("Unable to compress " + file.getAbsolutePath(), io);
+			tmpFile.delete();
+		}
+		return false;
+	}
+
+	/**
+	 * Gets number of files compressed
+	 * @return number of files
+	 */
+	public long getCompressedFiles(){
+		return _compressedFiles.get();
+	}
+
+	/**
+	 * Gets disk space saved by compressing files
+	 * @return size in bytes
+	 */
+	public long getBytesSaved(){
+		return _bytesSaved.get();
+	}
+
+	/**
+	 * Stops compressing files, any files not yet compressed are
+	 * left as is
+	 */
+	public void shutdown(){
+		_scheduler.shutdownNow();
+	}
+
+	/**
+	 * Gets compressed version of {@code file}
+	 * @param file file
+	 * @return file with {@link #GZIP_SUFFIX} appended to name
+	 */
+	public static File getCompressedFile(final File file){
+		return new File(file.getPath() + GZIP_SUFFIX);
+	}
+
+	/**
+	 * Denotes if {@code file} is compressed
+	 * @param file file
+	 * @return {@code true} if name of file ends with {@link #GZIP_SUFFIX}
+	 */
+	public static boolean isCompressed(final File file){
+		return file != null && file.getName().endsWith(GZIP_SUFFIX);
+	}
+
+	/**
+	 * Gets {@code file} if it exists, otherwise its compressed version
+	 * if that exists
+	 * @param file file
+	 * @return {@code file}, the compressed version of {@code file}, or
+	 *         {@code null} if neither exist
+	 */
+	public static File getExistingFile(final File file){
+		if (file.isFile()){
+			return file;
+		}
+		File gzFile = getCompressedFile(file);
+		if (gzFile.isFile()){
+			return gzFile;
+		}
+		return null;
+	}
+
+	/**
+	 * Opens {@code file}, or its compressed version, for reading.
+	 * Compressed data is decompressed as it is read
+	 * @param file file
+	 * @return stream of uncompressed contents of file
+	 * @throws FileNotFoundException if neither file exists
+	 * @throws IOException if there was an error opening the file
+	 */
+	public static InputStream open(final File file) throws IOException {
+		File existingFile = getExistingFile(file);
+		if (existingFile == null){
+			throw new FileNotFoundException(file.getAbsolutePath() + " not found");
+		}
+		if (isCompressed(existingFile)){
+			return new GZIPInputStream(new FileInputStream(existingFile), BUFFER_SIZE);
+		}
+		try {
+			return new FileInputStream(existingFile);
+		} catch(FileNotFoundException fne){
+			// file was compressed after we checked for it
+			return new GZIPInputStream(new FileInputStream(getCompressedFile(file)), BUFFER_SIZE);
+		}
+	}
+}
@@ -0,0 +1,286 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pushes status updates for tasks to any number of
+ * {@link TaskStatusSubscriber} objects. A single shared thread checks
+ * the status of each task with subscribers once per poll interval, no matter
+ * how many subscribers that task has, and sends the status to every subscriber
+ * only when progress, message, or status changes. Subscribers are closed once
+ * the task finishes or is deleted. The engine can also call {@link #taskChanged(java.lang.String) }
+ * to push an update right away, for example when a task completes.
+ *
+ * @author churas
+ */
+public class TaskStatusDispatcher {
+
+	static Logger _logger = LoggerFactory.getLogger(TaskStatusDispatcher.class);
+
+	/**
+	 * Default time in milliseconds between status checks
+	 */
+	public static final long DEFAULT_POLL_INTERVAL_MILLIS = 1000L;
+
+	/**
+	 * Subscribers to a single task
+	 */
+	private static class Channel {
+		final String _algorithm;
+		final List<TaskStatusSubscriber> _subscribers;
+		CytoContainerResultStatus _lastStatus;
+		boolean _closed;
+
+		Channel(final String algorithm){
+			_algorithm = algorithm;
+			_subscribers = new ArrayList<>();
+			_closed = false;
+		}
+	}
+
+	private final CytoContainerEngine _engine;
+	private final long _pollIntervalMillis;
+	private final ConcurrentHashMap<String, Channel> _channels;
+	private ScheduledExecutorService _scheduler;
+	private boolean _shutdown;
+
+	/**
+	 * Constructor
+	 * @param engine engine to get status of tasks from
+	 * @param pollIntervalMillis time in milliseconds between status checks
+	 */
+	public TaskStatusDispatcher(CytoContainerEngine engine, long pollIntervalMillis){
+		_engine = engine;
+		_pollIntervalMillis = pollIntervalMillis > 0 ? pollIntervalMillis : DEFAULT_POLL_INTERVAL_MILLIS;
+		_channels = new ConcurrentHashMap<>();
+		_shutdown = false;
+	}
+
+	/**
+	 * Subscribes to status updates for task with {@code id}. The current
+	 * status is sent right away and if the task is already finished
+	 * the subscriber is closed.
+	 * @param algorithm name of algorithm
+	 * @param id id of task
+	 * @param subscriber receives updates
+	 * @throws CytoContainerException if task is not found or there
+	 *         is an error getting its status
+	 */
+	public void subscribe(final String algorithm, final String id,
+			TaskStatusSubscriber subscriber) throws CytoContainerException {
+		CytoContainerResultStatus status = _engine.getStatus(algorithm, id);
+		if (subscriber.statusUpdated(status) == false){
+			subscriber.close();
+			return;
+		}
+		if (isFinished(status)){
+			subscriber.close();
+			return;
+		}
+		while (true){
+			Channel channel = _channels.computeIfAbsent(id, (key) -> new Channel(algorithm));
+			synchronized(channel){
+				if (channel._closed){
+					// channel was closed after lookup so try again
+					continue;
+				}
+				channel._subscribers.add(subscriber);
+				if (channel._lastStatus == null){
+					channel._lastStatus = status;
+				}
+				break;
+			}
+		}
+		startScheduler();
+	}
+
+	/**
+	 * Tells dispatcher status of task with {@code id} may have changed so
+	 * subscribers are updated without waiting for the next poll
+	 * @param id id of task
+	 */
+	public void taskChanged(final String id){
+		if (id == null || _channels.containsKey(id) == false){
+			return;
+		}
+		ScheduledExecutorService scheduler = getScheduler();
+		if (scheduler == null){
+			return;
+		}
+		try {
+			scheduler.execute(() -> refresh(id));
+		} catch(RejectedExecutionException ree){
+			_logger.debug("Unable to refresh status of task " + id + " : " + ree.getMessage());
+		}
+	}
+
+	/**
+	 * Gets number of tasks with subscribers
+	 * @return number of tasks
+	 */
+	public int getTaskCount(){
+		return _channels.size();
+	}
+
+	/**
+	 * Gets number of subscribers across all tasks
+	 * @return number of subscribers
+	 */
+	public int getSubscriberCount(){
+		int count = 0;
+		for (Channel channel : _channels.values()){
+			synchronized(channel){
+				count += channel._subscribers.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Stops the dispatcher closing all subscribers
+	 */
+	public void shutdown(){
+		synchronized(this){
+			_shutdown = true;
+			if (_scheduler != null){
+				_scheduler.shutdownNow();
+			}
+		}
+		for (String id : _channels.keySet()){
+			Channel channel = _channels.get(id);
+			if (channel == null){
+				continue;
+			}
+			synchronized(channel){
+				closeChannel(id, channel);
+			}
+		}
+	}
+
+	/**
+	 * Checks status of every task with subscribers
+	 */
+	protected void refreshAll(){
+		for (String id : _channels.keySet()){
+			try {
+				refresh(id);
+			} catch(Exception ex){
+				_logger.error("Error refreshing status of task " + id, ex);
+			}
+		}
+	}
+
+	/**
+	 * Checks status of task with {@code id} and sends it to subscribers
+	 * if it changed. Closes subscribers if task finished or is not found
+	 * @param id id of task
+	 */
+	protected void refresh(final String id){
+		Channel channel = _channels.get(id);
+		if (channel == null){
+			return;
+		}
+		synchronized(channel){
+			if (channel._closed){
+				return;
+			}
+			channel._subscribers.removeIf((sub) -> sub.isOpen() == false);
+			if (channel._subscribers.isEmpty()){
+				closeChannel(id, channel);
+				return;
+			}
+			final CytoContainerResultStatus status = getStatus(channel._algorithm, id);
+			if (status == null){
+				closeChannel(id, channel);
+				return;
+			}
+			if (isSameStatus(channel._lastStatus, status) == false){
+				channel._lastStatus = status;
+				channel._subscribers.removeIf((sub) -> {
+					if (sub.statusUpdated(status) == false){
+						sub.close();
+						return true;
+					}
+					return false;
+				});
+			}
+			if (isFinished(status)){
+				closeChannel(id, channel);
+			}
+		}
+	}
+
+	private CytoContainerResultStatus getStatus(final String algorithm, final String id){
+		try {
+			return _engine.getStatus(algorithm, id);
+		} catch(CytoContainerException cce){
+			_logger.debug("Unable to get status of task " + id + " : " + cce.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Closes all subscribers of {@code channel} and removes it. Caller
+	 * must hold lock on {@code channel}
+	 */
+	private void closeChannel(final String id, Channel channel){
+		channel._closed = true;
+		_channels.remove(id, channel);
+		for (TaskStatusSubscriber sub : channel._subscribers){
+			try {
+				sub.close();
+			} catch(Exception ex){
+				_logger.debug("Error closing subscriber for task " + id + " : " + ex.getMessage());
+			}
+		}
+		channel._subscribers.clear();
+	}
+
+	private synchronized ScheduledExecutorService getScheduler(){
+		return _scheduler;
+	}
+
+	private synchronized void startScheduler(){
+		if (_scheduler != null || _shutdown){
+			return;
+		}
+		_scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread t = new Thread(runnable, "task-status-dispatcher");
+			t.setDaemon(true);
+			return t;
+		});
+		_scheduler.scheduleWithFixedDelay(this::refreshAll, _pollIntervalMillis,
+				_pollIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private boolean isSameStatus(CytoContainerResultStatus a, CytoContainerResultStatus b){
+		if (a == null || b == null){
+			return a == b;
+		}
+		return a.getProgress() == b.getProgress()
+				&& Objects.equals(a.getStatus(), b.getStatus())
+				&& Objects.equals(a.getMessage(), b.getMessage());
+	}
+
+	/**
+	 * Denotes if {@code status} is for a task that will not change further
+	 * @param status status of task
+	 * @return {@code true} if complete or failed
+	 */
+	protected static boolean isFinished(CytoContainerResultStatus status){
+		return CytoContainerResult.COMPLETE_STATUS.equals(status.getStatus())
+				|| CytoContainerResult.FAILED_STATUS.equals(status.getStatus());
+	}
+}
@@ -0,0 +1,32 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+
+/**
+ * Receives status updates for a task from {@link TaskStatusDispatcher}
+ *
+ * @author churas
+ */
+public interface TaskStatusSubscriber {
+
+	/**
+	 * Denotes if this subscriber still wants updates
+	 * @return {@code false} if subscriber is closed, for example if
+	 *         client disconnected
+	 */
+	public boolean isOpen();
+
+	/**
+	 * Invoked when status of task changes
+	 * @param status latest status of task
+	 * @return {@code false} if update could not be delivered and
+	 *         subscriber should be dropped
+	 */
+	public boolean statusUpdated(CytoContainerResultStatus status);
+
+	/**
+	 * Invoked once no further updates will be sent, either because the
+	 * task finished, was deleted, or the dispatcher shut down
+	 */
+	public void close();
+}
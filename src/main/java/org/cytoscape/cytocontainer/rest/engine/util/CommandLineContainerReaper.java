@@ -0,0 +1,97 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ContainerReaper} that runs {@code docker ps} and {@code docker rm -f}
+ *
+ * @author churas
+ */
+public class CommandLineContainerReaper implements ContainerReaper {
+
+	static Logger _logger = LoggerFactory.getLogger(CommandLineContainerReaper.class);
+
+	/**
+	 * Default seconds to wait for docker command to finish
+	 */
+	public static final long TIMEOUT = 60;
+
+	private final String _dockerCmd;
+	private final long _timeOut;
+
+	/**
+	 * Constructor that waits {@link #TIMEOUT} seconds for docker commands
+	 * @param dockerCmd docker command
+	 */
+	public CommandLineContainerReaper(final String dockerCmd){
+		this(dockerCmd, TIMEOUT);
+	}
+
+	/**
+	 * Constructor
+	 * @param dockerCmd docker command
+	 * @param timeOut seconds to wait for docker command to finish
+	 */
+	public CommandLineContainerReaper(final String dockerCmd, long timeOut){
+		_dockerCmd = dockerCmd;
+		_timeOut = timeOut;
+	}
+
+	@Override
+	public List<String> listContainers(final String namePrefix) throws Exception {
+		// output goes to a file so a hung docker ps still times out
+		File outFile = File.createTempFile("dockerps", ".txt");
+		String output;
+		try {
+			Process proc = new ProcessBuilder(_dockerCmd, "ps", "-a", "--filter",
+					"name=" + namePrefix, "--format", "{{.Names}}")
+					.redirectOutput(outFile)
+					.redirectError(ProcessBuilder.Redirect.DISCARD).start();
+			int exitCode = waitFor(proc);
+			if (exitCode != 0){
+				throw new CytoContainerException(_dockerCmd + " ps exited with "
+						+ Integer.toString(exitCode));
+			}
+			output = Files.readString(outFile.toPath(), StandardCharsets.UTF_8);
+		} finally {
+			outFile.delete();
+		}
+		List<String> names = new ArrayList<>();
+		for (String name : output.split("\n")){
+			// filter matches anywhere in name
+			if (name.trim().startsWith(namePrefix)){
+				names.add(name.trim());
+			}
+		}
+		return names;
+	}
+
+	@Override
+	public boolean removeContainer(final String name) throws Exception {
+		Process proc = new ProcessBuilder(_dockerCmd, "rm", "-f", name)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.redirectError(ProcessBuilder.Redirect.DISCARD).start();
+		int exitCode = waitFor(proc);
+		_logger.debug(_dockerCmd + " rm -f " + name + " exited with " + Integer.toString(exitCode));
+		// rm exits non zero if container does not exist
+		return exitCode == 0;
+	}
+
+	private int waitFor(Process proc) throws IOException, InterruptedException {
+		if (proc.waitFor(_timeOut, TimeUnit.SECONDS) == false){
+			proc.destroyForcibly();
+			throw new IOException(_dockerCmd + " did not finish within "
+					+ Long.toString(_timeOut) + " seconds");
+		}
+		return proc.exitValue();
+	}
+}
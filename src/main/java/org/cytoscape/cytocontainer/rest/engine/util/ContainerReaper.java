@@ -0,0 +1,54 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.util.List;
+
+/**
+ * Kills and removes containers by name. Stopping the process that ran
+ * {@code docker run} does not stop the container, so this is used when a
+ * task times out or is deleted and, on startup, to clean up containers
+ * left behind by a previous run of the service.
+ *
+ * @author churas
+ */
+public interface ContainerReaper {
+
+	/**
+	 * Prefix of names of all containers created by this service
+	 */
+	public static final String CONTAINER_NAME_PREFIX = "cytocontainer-";
+
+	/**
+	 * Gets prefix of names of containers created by the instance of this
+	 * service with {@code instanceId}, so an instance only removes its own
+	 * containers when several share a docker host
+	 * @param instanceId id of instance, characters other than letters,
+	 *                   digits, {@code _} and {@code .} are replaced with {@code _}
+	 * @return {@link #CONTAINER_NAME_PREFIX} followed by {@code instanceId}
+	 *         and {@code -} or just {@link #CONTAINER_NAME_PREFIX} if
+	 *         {@code instanceId} is {@code null} or empty
+	 */
+	public static String getNamePrefix(final String instanceId){
+		if (instanceId == null || instanceId.isEmpty()){
+			return CONTAINER_NAME_PREFIX;
+		}
+		return CONTAINER_NAME_PREFIX + instanceId.replaceAll("[^a-zA-Z0-9_.]", "_") + "-";
+	}
+
+	/**
+	 * Lists names of containers, running or not, whose name starts
+	 * with {@code namePrefix}
+	 * @param namePrefix prefix of names
+	 * @return names of containers
+	 * @throws Exception if containers could not be listed
+	 */
+	public List<String> listContainers(final String namePrefix) throws Exception;
+
+	/**
+	 * Kills container, if running, and removes it
+	 * @param name name of container
+	 * @return {@code true} if container was removed, {@code false} if it
+	 *         does not exist
+	 * @throws Exception if there was an error removing container
+	 */
+	public boolean removeContainer(final String name) throws Exception;
+}
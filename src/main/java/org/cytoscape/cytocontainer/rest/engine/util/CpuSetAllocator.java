@@ -0,0 +1,176 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Hands out disjoint sets of cores to running tasks so their containers
+ * can be pinned via {@code docker run --cpuset-cpus} instead of having
+ * the kernel move their threads across all cores. A contiguous range of
+ * cores is preferred, if none is free any free cores are used.
+ *
+ * @author churas
+ */
+public class CpuSetAllocator {
+
+	private final List<Integer> _cpus;
+	private final TreeSet<Integer> _free;
+	private final Map<String, List<Integer>> _assignments;
+
+	/**
+	 * Constructor
+	 * @param cpus ids of cores that can be handed out
+	 */
+	public CpuSetAllocator(List<Integer> cpus){
+		_cpus = new ArrayList<>(new TreeSet<>(cpus));
+		_free = new TreeSet<>(_cpus);
+		_assignments = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Assigns {@code count} free cores to task with {@code id}
+	 * @param id id of task
+	 * @param count number of cores needed
+	 * @return cores in format accepted by {@code --cpuset-cpus} ie {@code 2-3}
+	 *         or {@code null} if not enough cores are free, in which case
+	 *         the task should not be pinned
+	 */
+	public synchronized String allocate(final String id, int count){
+		if (count <= 0 || count > _free.size() || _assignments.containsKey(id)){
+			return null;
+		}
+		List<Integer> cores = findRange(count);
+		if (cores == null){
+			cores = new ArrayList<>();
+			for (Integer core : _free){
+				cores.add(core);
+				if (cores.size() == count){
+					break;
+				}
+			}
+		}
+		_free.removeAll(cores);
+		_assignments.put(id, cores);
+		return formatCpuList(cores);
+	}
+
+	/**
+	 * Frees cores assigned to task with {@code id}
+	 * @param id id of task
+	 */
+	public synchronized void release(final String id){
+		List<Integer> cores = _assignments.remove(id);
+		if (cores != null){
+			_free.addAll(cores);
+		}
+	}
+
+	/**
+	 * Finds first run of {@code count} free cores with consecutive ids
+	 * @param count number of cores
+	 * @return cores or {@code null} if there is no such run
+	 */
+	private List<Integer> findRange(int count){
+		List<Integer> run = new ArrayList<>();
+		for (Integer core : _free){
+			if (!run.isEmpty() && run.get(run.size() - 1) + 1 != core){
+				run.clear();
+			}
+			run.add(core);
+			if (run.size() == count){
+				return run;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets cores that can be handed out
+	 * @return cores in format accepted by {@code --cpuset-cpus}
+	 */
+	public String getCpus(){
+		return formatCpuList(_cpus);
+	}
+
+	/**
+	 * Gets number of cores not assigned to any task
+	 * @return number of free cores
+	 */
+	public synchronized int getFreeCpus(){
+		return _free.size();
+	}
+
+	/**
+	 * Gets cores assigned to running tasks
+	 * @return map of task id => cores in format accepted by {@code --cpuset-cpus}
+	 */
+	public synchronized Map<String, String> getAssignments(){
+		Map<String, String> res = new LinkedHashMap<>();
+		for (Map.Entry<String, List<Integer>> entry : _assignments.entrySet()){
+			res.put(entry.getKey(), formatCpuList(entry.getValue()));
+		}
+		return res;
+	}
+
+	/**
+	 * Parses list of cores in format accepted by {@code --cpuset-cpus}
+	 * ie {@code 0-3,8,10-11}
+	 * @param cpuList list to parse
+	 * @return ids of cores
+	 * @throws IllegalArgumentException if {@code cpuList} is invalid
+	 */
+	public static List<Integer> parseCpuList(final String cpuList){
+		TreeSet<Integer> cores = new TreeSet<>();
+		if (cpuList == null || cpuList.isBlank()){
+			return new ArrayList<>(cores);
+		}
+		try {
+			for (String part : cpuList.split(",")){
+				String[] range = part.trim().split("-");
+				if (range.length > 2){
+					throw new IllegalArgumentException("Invalid cpu list: " + cpuList);
+				}
+				int start = Integer.parseInt(range[0].trim());
+				int end = range.length == 2 ? Integer.parseInt(range[1].trim()) : start;
+				if (start < 0 || end < start){
+					throw new IllegalArgumentException("Invalid cpu list: " + cpuList);
+				}
+				for (int i = start; i <= end; i++){
+					cores.add(i);
+				}
+			}
+		} catch(NumberFormatException nfe){
+			throw new IllegalArgumentException("Invalid cpu list: " + cpuList);
+		}
+		return new ArrayList<>(cores);
+	}
+
+	/**
+	 * Formats ids of cores, which must be sorted, into format accepted by
+	 * {@code --cpuset-cpus} collapsing consecutive ids into ranges
+	 * @param cores sorted ids of cores
+	 * @return formatted list ie {@code 0-3,8}
+	 */
+	public static String formatCpuList(List<Integer> cores){
+		StringBuilder sb = new StringBuilder();
+		int i = 0;
+		while (i < cores.size()){
+			int j = i;
+			while (j + 1 < cores.size() && cores.get(j + 1) == cores.get(j) + 1){
+				j++;
+			}
+			if (sb.length() > 0){
+				sb.append(",");
+			}
+			sb.append(cores.get(i));
+			if (j > i){
+				sb.append("-").append(cores.get(j));
+			}
+			i = j + 1;
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,291 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+
+/**
+ * Generates a SHA-256 hex digest that uniquely identifies a request
+ * by the algorithm name, algorithm version, parameters, and data.
+ * <p>
+ * Parameters are hashed in sorted key order and JSON object fields in the
+ * data are hashed in sorted field name order so two requests that differ
+ * only in ordering generate the same digest. Every value is prefixed with
+ * a type marker and its length so different inputs cannot collide by
+ * concatenation.
+ * </p>
+ * <p>
+ * Data received via {@link CytoContainerRequestSpooler} is never held in
+ * memory so it is hashed token by token, in the order received, via
+ * {@link #updateToken(com.fasterxml.jackson.core.JsonParser) } and
+ * combined with the rest of the request via
+ * {@link #getStreamedDigest(java.lang.String, java.lang.String, java.util.Map, java.lang.String) }.
+ * </p>
+ * @author churas
+ */
+public class CytoContainerRequestHasher {
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private static final int BUFFER_SIZE = 65536;
+
+	private final MessageDigest _digest;
+
+	/**
+	 * Constructor
+	 * @throws CytoContainerException if SHA-256 is not available
+	 */
+	public CytoContainerRequestHasher() throws CytoContainerException {
+		try {
+			_digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch(NoSuchAlgorithmException nse){
+			throw new CytoContainerException("Unable to create " + DIGEST_ALGORITHM
+					+ " digest: " + nse.getMessage());
+		}
+	}
+
+	/**
+	 * Generates digest for a request
+	 * @param algorithm name of algorithm
+	 * @param version version of algorithm, can be {@code null}
+	 * @param parameters parameters passed to algorithm, can be {@code null}
+	 * @param data data for request, can be {@code null}
+	 * @return lowercase hex SHA-256 digest
+	 */
+	public String getDigest(final String algorithm, final String version,
+			final Map<String, String> parameters, final JsonNode data){
+		updateString('A', algorithm);
+		updateString('V', version);
+		updateParameters(parameters);
+		updateNode(data);
+		return toHex(_digest.digest());
+	}
+
+	/**
+	 * Generates digest for a request whose data was already hashed
+	 * via {@link #updateToken(com.fasterxml.jackson.core.JsonParser) }
+	 * @param algorithm name of algorithm
+	 * @param version version of algorithm, can be {@code null}
+	 * @param parameters parameters passed to algorithm, can be {@code null}
+	 * @param dataDigest digest of data, can be {@code null}
+	 * @return lowercase hex SHA-256 digest
+	 */
+	public String getStreamedDigest(final String algorithm, final String version,
+			final Map<String, String> parameters, final String dataDigest){
+		updateString('A', algorithm);
+		updateString('V', version);
+		updateParameters(parameters);
+		updateString('D', dataDigest);
+		return toHex(_digest.digest());
+	}
+
+	/**
+	 * Adds {@code parameters} to digest in sorted key order
+	 * @param parameters
+	 */
+	public void updateParameters(final Map<String, String> parameters){
+		if (parameters == null){
+			updateMarker('n');
+			return;
+		}
+		List<String> keys = new ArrayList<>(parameters.keySet());
+		Collections.sort(keys);
+		updateMarker('P');
+		updateLength(keys.size());
+		for (String key : keys){
+			updateString('K', key);
+			updateString('S', parameters.get(key));
+		}
+	}
+
+	/**
+	 * Recursively adds {@code node} to the digest, sorting fields of
+	 * JSON objects by name
+	 * @param node
+	 */
+	public void updateNode(final JsonNode node){
+		if (node == null || node.isNull() || node.isMissingNode()){
+			updateMarker('n');
+			return;
+		}
+		if (node.isObject()){
+			List<String> fieldNames = new ArrayList<>(node.size());
+			Iterator<String> nameItr = node.fieldNames();
+			while (nameItr.hasNext()){
+				fieldNames.add(nameItr.next());
+			}
+			Collections.sort(fieldNames);
+			updateMarker('O');
+			updateLength(fieldNames.size());
+			for (String name : fieldNames){
+				updateString('K', name);
+				updateNode(node.get(name));
+			}
+			return;
+		}
+		if (node.isArray()){
+			updateMarker('L');
+			updateLength(node.size());
+			for (JsonNode child : node){
+				updateNode(child);
+			}
+			return;
+		}
+		if (node.isTextual()){
+			updateString('S', node.textValue());
+			return;
+		}
+		if (node.isBoolean()){
+			updateMarker(node.booleanValue() ? 't' : 'f');
+			return;
+		}
+		if (node.isNumber()){
+			updateString('#', node.numberValue().toString());
+			return;
+		}
+		updateString('?', node.toString());
+	}
+
+	/**
+	 * Adds current token of {@code parser} to digest. Unlike
+	 * {@link #updateNode(com.fasterxml.jackson.databind.JsonNode) } fields
+	 * of JSON objects are hashed in the order they are received and the
+	 * ends of objects and arrays are marked since their sizes are not known
+	 * up front
+	 * @param parser parser positioned at token to add
+	 * @throws IOException if there is an error getting value of token
+	 */
+	public void updateToken(final JsonParser parser) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token == null){
+			return;
+		}
+		switch (token){
+			case START_OBJECT:
+				updateMarker('O');
+				break;
+			case END_OBJECT:
+				updateMarker('o');
+				break;
+			case START_ARRAY:
+				updateMarker('L');
+				break;
+			case END_ARRAY:
+				updateMarker('l');
+				break;
+			case FIELD_NAME:
+				updateString('K', parser.currentName());
+				break;
+			case VALUE_STRING:
+				updateString('S', parser.getText());
+				break;
+			case VALUE_NUMBER_INT:
+			case VALUE_NUMBER_FLOAT:
+				updateString('#', parser.getText());
+				break;
+			case VALUE_TRUE:
+				updateMarker('t');
+				break;
+			case VALUE_FALSE:
+				updateMarker('f');
+				break;
+			case VALUE_NULL:
+				updateMarker('n');
+				break;
+			default:
+				updateString('?', parser.getText());
+		}
+	}
+
+	/**
+	 * Adds raw {@code bytes} to digest
+	 * @param bytes bytes to add
+	 * @param offset offset in {@code bytes}
+	 * @param len number of bytes to add
+	 */
+	public void update(byte[] bytes, int offset, int len){
+		_digest.update(bytes, offset, len);
+	}
+
+	/**
+	 * Adds {@code val} to digest prefixed by {@code marker} and its length
+	 * @param marker type marker
+	 * @param val value to add, can be {@code null}
+	 */
+	public void updateString(char marker, final String val){
+		if (val == null){
+			updateMarker('n');
+			return;
+		}
+		byte[] bytes = val.getBytes(StandardCharsets.UTF_8);
+		updateMarker(marker);
+		updateLength(bytes.length);
+		_digest.update(bytes);
+	}
+
+	/**
+	 * Adds contents of {@code file} to digest prefixed by {@code marker} and
+	 * its length. This gives the same digest as
+	 * {@link #updateString(char, java.lang.String) } would for the contents
+	 * of the file read as UTF-8 without holding them in memory
+	 * @param marker type marker
+	 * @param file file to add
+	 * @throws IOException if there is an error reading {@code file}
+	 */
+	public void updateFile(char marker, final File file) throws IOException {
+		long len = file.length();
+		if (len > Integer.MAX_VALUE){
+			throw new IOException(file.getAbsolutePath() + " is too large to hash");
+		}
+		updateMarker(marker);
+		updateLength((int)len);
+		byte[] buf = new byte[BUFFER_SIZE];
+		try (InputStream in = new FileInputStream(file)){
+			int numRead;
+			while ((numRead = in.read(buf)) != -1){
+				_digest.update(buf, 0, numRead);
+			}
+		}
+	}
+
+	/**
+	 * Finishes the digest and resets it so this object can be reused
+	 * @return lowercase hex SHA-256 digest
+	 */
+	public String digest(){
+		return toHex(_digest.digest());
+	}
+
+	private void updateMarker(char marker){
+		_digest.update((byte)marker);
+	}
+
+	private void updateLength(int len){
+		_digest.update((byte)(len >>> 24));
+		_digest.update((byte)(len >>> 16));
+		_digest.update((byte)(len >>> 8));
+		_digest.update((byte)len);
+	}
+
+	private static String toHex(byte[] bytes){
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes){
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,215 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerBadRequestException;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a {@link org.cytoscape.cytocontainer.rest.model.CytoContainerRequest}
+ * in JSON format using a streaming {@link com.fasterxml.jackson.core.JsonParser}.
+ * The {@code parameters} are read into memory, but the {@code data} is copied
+ * token by token to a file in the spool directory through a fixed size buffer
+ * and hashed along the way. This way memory used per request does not grow with
+ * the size of the data.
+ * <p>
+ * The exception is {@code data} that is a single JSON string, such as text
+ * data. Jackson buffers a string token in full before it can be read so
+ * the whole string is still held in memory once, in the parser's buffer,
+ * while it is written to the file. No additional {@link String} copy is made.
+ * </p>
+ *
+ * @author churas
+ */
+public class CytoContainerRequestSpooler {
+
+	static Logger _logger = LoggerFactory.getLogger(CytoContainerRequestSpooler.class);
+
+	/**
+	 * Name of JSON field containing data
+	 */
+	public static final String DATA_FIELD = "data";
+
+	/**
+	 * Name of JSON field containing parameters
+	 */
+	public static final String PARAMETERS_FIELD = "parameters";
+
+	/**
+	 * Prefix of files data is spooled to
+	 */
+	public static final String SPOOL_FILE_PREFIX = "spool-";
+
+	/**
+	 * Suffix of files data is spooled to
+	 */
+	public static final String SPOOL_FILE_SUFFIX = ".tmp";
+
+	/**
+	 * Size in bytes of buffer used when writing data
+	 */
+	public static final int BUFFER_SIZE = 65536;
+
+	private static final TypeReference<Map<String, String>> PARAMETERS_TYPE = new TypeReference<Map<String, String>>(){};
+
+	private final File _spoolDir;
+	private final ObjectMapper _mapper;
+
+	/**
+	 * Constructor
+	 * @param spoolDir directory to write data to. This should be on the
+	 *                 same filesystem as the task directories so
+	 *                 data can be moved into place with a rename
+	 */
+	public CytoContainerRequestSpooler(final File spoolDir){
+		_spoolDir = spoolDir;
+		_mapper = new ObjectMapper();
+	}
+
+	/**
+	 * Reads request from {@code in}. Caller must invoke
+	 * {@link SpooledCytoContainerRequest#deleteSpooledData() } once done
+	 * with the request
+	 * @param in request in JSON format
+	 * @return request with data written to file
+	 * @throws CytoContainerBadRequestException if request is not valid JSON
+	 *         or is not a JSON object
+	 * @throws CytoContainerException if there was an error writing the data
+	 */
+	public SpooledCytoContainerRequest spool(InputStream in) throws CytoContainerException {
+		if (in == null){
+			throw new CytoContainerBadRequestException("Request is null");
+		}
+		SpooledCytoContainerRequest request = new SpooledCytoContainerRequest();
+		try (JsonParser parser = _mapper.createParser(in)){
+			JsonToken token = parser.nextToken();
+			if (token == null){
+				throw new CytoContainerBadRequestException("Request is empty");
+			}
+			if (token != JsonToken.START_OBJECT){
+				throw new CytoContainerBadRequestException("Request must be a JSON object");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME){
+				String fieldName = parser.currentName();
+				token = parser.nextToken();
+				if (PARAMETERS_FIELD.equals(fieldName)){
+					if (token != JsonToken.VALUE_NULL){
+						request.setParameters(parser.readValueAs(PARAMETERS_TYPE));
+					}
+				} else if (DATA_FIELD.equals(fieldName)){
+					spoolData(parser, request);
+				} else {
+					parser.skipChildren();
+				}
+			}
+			return request;
+		} catch(JsonProcessingException jpe){
+			request.deleteSpooledData();
+			throw new CytoContainerBadRequestException("Unable to parse request: "
+					+ jpe.getOriginalMessage());
+		} catch(CytoContainerException cce){
+			request.deleteSpooledData();
+			throw cce;
+		} catch(IOException io){
+			request.deleteSpooledData();
+			_logger.error("Unable to spool request", io);
+			throw new CytoContainerException("Unable to spool request: " + io.getMessage());
+		}
+	}
+
+	/**
+	 * Writes data, which {@code parser} is positioned at the start of, to
+	 * a new file in the spool directory and updates {@code request} with
+	 * the file, type, and digest of data
+	 * @param parser parser positioned at start of data
+	 * @param request request to update
+	 * @throws CytoContainerException if data is set more than once
+	 * @throws IOException if there was an error reading or writing data
+	 */
+	private void spoolData(JsonParser parser, SpooledCytoContainerRequest request) throws CytoContainerException, IOException {
+		JsonToken token = parser.currentToken();
+		if (token == JsonToken.VALUE_NULL){
+			return;
+		}
+		if (request.getDataFile() != null){
+			throw new CytoContainerBadRequestException("Request has more than one "
+					+ DATA_FIELD + " field");
+		}
+		JsonNodeType dataType = getDataType(token);
+		File dataFile = File.createTempFile(SPOOL_FILE_PREFIX, SPOOL_FILE_SUFFIX, _spoolDir);
+		request.setDataFile(dataFile);
+		CytoContainerRequestHasher hasher = new CytoContainerRequestHasher();
+		if (token == JsonToken.VALUE_STRING){
+			// text data is written as is, not as a JSON string, straight
+			// from the parser's buffer so no String copy is made. It is
+			// then hashed from the file the same way updateToken() would
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(dataFile),
+					StandardCharsets.UTF_8), BUFFER_SIZE)){
+				parser.getText(writer);
+			}
+			hasher.updateFile('S', dataFile);
+		} else {
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(dataFile), BUFFER_SIZE);
+					JsonGenerator generator = _mapper.createGenerator(out)){
+				int depth = 0;
+				do {
+					hasher.updateToken(parser);
+					generator.copyCurrentEvent(parser);
+					if (token.isStructStart()){
+						depth++;
+					} else if (token.isStructEnd()){
+						depth--;
+					}
+					if (depth == 0){
+						break;
+					}
+					token = parser.nextToken();
+				} while (token != null);
+			}
+		}
+		request.setDataType(dataType);
+		request.setDataDigest(hasher.digest());
+	}
+
+	/**
+	 * Gets type of data given its first token
+	 * @param token first token of data
+	 * @return type
+	 */
+	private JsonNodeType getDataType(JsonToken token){
+		switch (token){
+			case START_OBJECT:
+				return JsonNodeType.OBJECT;
+			case START_ARRAY:
+				return JsonNodeType.ARRAY;
+			case VALUE_STRING:
+				return JsonNodeType.STRING;
+			case VALUE_NUMBER_INT:
+			case VALUE_NUMBER_FLOAT:
+				return JsonNodeType.NUMBER;
+			case VALUE_TRUE:
+			case VALUE_FALSE:
+				return JsonNodeType.BOOLEAN;
+			default:
+				return JsonNodeType.POJO;
+		}
+	}
+}
@@ -1,7 +1,10 @@
 package org.cytoscape.cytocontainer.rest.engine.util;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
 import org.cytoscape.cytocontainer.rest.model.AlgorithmParameter;
 import org.cytoscape.cytocontainer.rest.model.ErrorResponse;
@@ -9,13 +12,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
-import org.cytoscape.cytocontainer.rest.model.CytoContainerParameter;
+import org.cytoscape.cytocontainer.rest.engine.util.ValidationPlan.ParameterRule;
 
 /**
  * Performs validation of the {@link org.ndexbio.communitydetection.rest.model.CommunityDetectionRequest}
  * via the {@link #validateRequest(org.ndexbio.communitydetection.rest.model.CommunityDetectionAlgorithm, org.ndexbio.communitydetection.rest.model.CommunityDetectionRequest) } method
  * 
+ * Rules for each algorithm passed to the constructor are compiled once
+ * into a {@link ValidationPlan} so regular expressions are not recompiled
+ * on every request.
  * 
  * @author churas
  */
@@ -24,6 +29,53 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
     private static final Logger _log
             = LoggerFactory.getLogger(CytoContainerRequestValidatorImpl.class.getName());
     
+    /**
+     * Pattern a value of a {@value org.cytoscape.cytocontainer.rest.model.AlgorithmParameter#DIGITS_VALIDATION}
+     * parameter must match
+     */
+    public static final Pattern DIGITS_PATTERN = Pattern.compile("-?\\d+$");
+    
+    private final Map<String, ValidationPlan> _plans;
+    
+    /**
+     * Constructor with no precompiled plans, rules are compiled
+     * for every request
+     */
+    public CytoContainerRequestValidatorImpl(){
+        this(null);
+    }
+    
+    /**
+     * Constructor that compiles a {@link ValidationPlan} for every
+     * algorithm in {@code algorithms}. Any malformed regular expressions
+     * are logged as errors here
+     * @param algorithms algorithms to compile plans for, can be {@code null}
+     */
+    public CytoContainerRequestValidatorImpl(final CytoContainerAlgorithms algorithms){
+        Map<String, ValidationPlan> plans = new HashMap<>();
+        if (algorithms != null && algorithms.getAlgorithms() != null){
+            for (Map.Entry<String, CytoContainerAlgorithm> entry : algorithms.getAlgorithms().entrySet()){
+                if (entry.getValue() == null){
+                    continue;
+                }
+                plans.put(entry.getKey(), new ValidationPlan(entry.getValue()));
+            }
+        }
+        _plans = Collections.unmodifiableMap(plans);
+    }
+    
+    /**
+     * Gets precompiled plan for algorithm
+     * @param algoName name of algorithm
+     * @return plan or {@code null} if none was compiled for algorithm
+     */
+    public ValidationPlan getValidationPlan(final String algoName){
+        if (algoName == null){
+            return null;
+        }
+        return _plans.get(algoName);
+    }
+    
     /**
      * Verifies custom parameters in the request 'cdr' match those in the algorithm 'cda'
      * by first checking for a match by name, then utilizing the validation methods to verify
@@ -56,7 +108,7 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
             return er;
             
         }
-        if (cdr.getData() == null){
+        if (hasData(cdr) == false){
             ErrorResponse er = new ErrorResponse();
             er.setMessage("No data passed in with request");
             er.setDescription("All requests require some data to be set in the data field");
@@ -70,7 +122,7 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
         }
         
         //validate the custom parameters
-        Map<String,AlgorithmParameter> params = cda.getParameterMap();
+        Map<String, ParameterRule> params = getPlan(cda).getRules();
         for (String pName : cdr.getParameters().keySet()){
             if (params == null || params.containsKey(pName) == false){
                 ErrorResponse er = new ErrorResponse();
@@ -89,35 +141,57 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
         return null;  
     }
     
+    /**
+     * Gets precompiled plan for {@code cda} falling back to
+     * compiling one if {@code cda} is not the algorithm the
+     * plan was compiled from
+     * @param cda algorithm
+     * @return plan
+     */
+    private ValidationPlan getPlan(final CytoContainerAlgorithm cda){
+        ValidationPlan plan = _plans.get(cda.getName());
+        if (plan != null && plan.getAlgorithm() == cda){
+            return plan;
+        }
+        return new ValidationPlan(cda);
+    }
+    
+    /**
+     * Denotes if {@code cdr} has data, which for {@link SpooledCytoContainerRequest}
+     * is stored in a file
+     * @param cdr request to check
+     * @return {@code true} if request has data
+     */
+    private boolean hasData(final CytoContainerRequest cdr){
+        if (cdr instanceof SpooledCytoContainerRequest){
+            return ((SpooledCytoContainerRequest)cdr).hasData();
+        }
+        return cdr.getData() != null;
+    }
+    
     /**
      * Validate the parameter
-     * @param algoParam {@link org.ndexbio.communitydetection.rest.model.CustomParameter} containing rules
+     * @param rule {@link ValidationPlan.ParameterRule} containing rules
      *                  the {@code userParamValue} should adhere to
      * @param userParamValue 
      * @return {@code null} if its a valid parameter otherwise {@link org.ndexbio.communitydetection.rest.model.ErrorResponse} denoting the problem
      */
-    private ErrorResponse validateParameter(final AlgorithmParameter algoParam,
+    private ErrorResponse validateParameter(final ParameterRule rule,
             final String userParamValue){
-
-		if (algoParam.getType() == null){
-			return null;
-		}
-        //for string parameter
-        if (AlgorithmParameter.STRING_VALIDATION.equalsIgnoreCase(algoParam.getValidationType())){
-            return validateStringParameter(algoParam, userParamValue);
-        }
-        
-		// for checkbox types
-		if (AlgorithmParameter.CHECKBOX_TYPE.equalsIgnoreCase(algoParam.getType())){
-            return validateCheckBoxParameter(algoParam, userParamValue);
-        }
-
-        //for digits and number parameter
-        if (AlgorithmParameter.DIGITS_VALIDATION.equalsIgnoreCase(algoParam.getValidationType()) ||
-            AlgorithmParameter.NUMBER_VALIDATION.equalsIgnoreCase(algoParam.getValidationType())){
-            return validateNumericParameter(algoParam, userParamValue);
+        AlgorithmParameter algoParam = rule.getParameter();
+        switch (rule.getKind()){
+            case NONE:
+                return null;
+            case STRING:
+                return validateStringParameter(rule, userParamValue);
+            case CHECKBOX:
+                return validateCheckBoxParameter(algoParam, userParamValue);
+            case DIGITS:
+            case NUMBER:
+                return validateNumericParameter(rule, userParamValue);
+            default:
+                break;
         }
-        
         ErrorResponse er = new ErrorResponse();
         er.setMessage("Unknown parameter type");
         er.setDescription("For parameter: '" + algoParam.getDisplayName() + "' " + algoParam.getValidationType() + " is not a valid type");
@@ -151,8 +225,9 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
         return null;
     }
     
-    private ErrorResponse validateStringParameter(final AlgorithmParameter algoParam,
+    private ErrorResponse validateStringParameter(final ParameterRule rule,
             final String userParamValue){
+        AlgorithmParameter algoParam = rule.getParameter();
         if (userParamValue == null || userParamValue.trim().length() == 0){
                 ErrorResponse er = new ErrorResponse();
                 er.setMessage("Parameter missing value");
@@ -160,31 +235,28 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
                         + "but no value was passed in");
                 return er;
         }
-        if (algoParam.getValidationRegex() == null){
-            return null;
-        }
-        try {
-            boolean res = Pattern.matches(algoParam.getValidationRegex(), userParamValue);
-            if (res == true){
-                return null;
-            }
-            ErrorResponse er = new ErrorResponse();
-            setValidationHelpInErrorResponse(algoParam, er);
-            er.setDescription(userParamValue + " did not match regular expression ");
-            return er;
-        } catch(PatternSyntaxException pse){
-            
+        if (rule.isMalformedRegex()){
             ErrorResponse er = new ErrorResponse();
             er.setMessage("Malformed validation expression");
             er.setDescription(algoParam.getValidationRegex() + " is not a valid regular expression."
                     + "Cannot validate");
-            _log.error(er.getDescription(), pse);
             return er;
         }
+        if (rule.getPattern() == null){
+            return null;
+        }
+        if (rule.getPattern().matcher(userParamValue).matches()){
+            return null;
+        }
+        ErrorResponse er = new ErrorResponse();
+        setValidationHelpInErrorResponse(algoParam, er);
+        er.setDescription(userParamValue + " did not match regular expression ");
+        return er;
     }
     
-    private ErrorResponse validateNumericParameter(final AlgorithmParameter algoParam,
+    private ErrorResponse validateNumericParameter(final ParameterRule rule,
             final String userParamValue){
+        AlgorithmParameter algoParam = rule.getParameter();
         if (userParamValue == null || userParamValue.trim().length() == 0){
                 ErrorResponse er = new ErrorResponse();
                 er.setMessage("Parameter missing value");
@@ -193,10 +265,10 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
                 return er;
         }
         try {
-            if (algoParam.getValidationType().equalsIgnoreCase(AlgorithmParameter.DIGITS_VALIDATION)){
-                return checkIfParamIsDigitsAndWithinRange(algoParam, userParamValue);
+            if (rule.getKind() == ValidationPlan.Kind.DIGITS){
+                return checkIfParamIsDigitsAndWithinRange(rule, userParamValue);
             }
-            return checkIfParamIsNumberAndWithinRange(algoParam, userParamValue); 
+            return checkIfParamIsNumberAndWithinRange(rule, userParamValue); 
         } catch(NumberFormatException nfe){
             ErrorResponse er = new ErrorResponse();
             setValidationHelpInErrorResponse(algoParam, er);
@@ -206,10 +278,10 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
         }
     }
     
-    private ErrorResponse checkIfParamIsDigitsAndWithinRange(final AlgorithmParameter algoParam,
+    private ErrorResponse checkIfParamIsDigitsAndWithinRange(final ParameterRule rule,
             final String userParamValue){
-        
-        if (Pattern.matches("-?\\d+$", userParamValue) == false){
+        AlgorithmParameter algoParam = rule.getParameter();
+        if (DIGITS_PATTERN.matcher(userParamValue).matches() == false){
             ErrorResponse er = new ErrorResponse();
                 setValidationHelpInErrorResponse(algoParam, er);
                 er.setDescription(userParamValue + " does not appear to be a whole"
@@ -217,9 +289,9 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
                 return er;
         }
         int val = Integer.parseInt(userParamValue);
-        if (algoParam.getMinValue() != null){
+        if (rule.getMinInt() != null){
 
-            if (val < algoParam.getMinValue().intValue()){
+            if (val < rule.getMinInt()){
                 ErrorResponse er = new ErrorResponse();
                 setValidationHelpInErrorResponse(algoParam, er);
                 er.setDescription(userParamValue + " is less then minimum value: " + 
@@ -227,8 +299,8 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
                 return er;
             }
         }
-        if (algoParam.getMaxValue() != null){
-            if (val > algoParam.getMaxValue().intValue()){
+        if (rule.getMaxInt() != null){
+            if (val > rule.getMaxInt()){
                 ErrorResponse er = new ErrorResponse();
                 setValidationHelpInErrorResponse(algoParam, er);
                 er.setDescription(userParamValue + " is greater then maximum value: " + 
@@ -239,12 +311,13 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
         return null;
     }
     
-    private ErrorResponse checkIfParamIsNumberAndWithinRange(final AlgorithmParameter algoParam,
+    private ErrorResponse checkIfParamIsNumberAndWithinRange(final ParameterRule rule,
             final String userParamValue){
+        AlgorithmParameter algoParam = rule.getParameter();
         double val = Double.parseDouble(userParamValue);
-        if (algoParam.getMinValue() != null){
+        if (rule.getMinDouble() != null){
 
-            if (val < algoParam.getMinValue().doubleValue()){
+            if (val < rule.getMinDouble()){
                 ErrorResponse er = new ErrorResponse();
                 setValidationHelpInErrorResponse(algoParam, er);
                 er.setDescription(userParamValue + " is less then minimum value: " + 
@@ -252,8 +325,8 @@ public class CytoContainerRequestValidatorImpl implements CytoContainerRequestVa
                 return er;
             }
         }
-        if (algoParam.getMaxValue() != null){
-            if (val > algoParam.getMaxValue().doubleValue()){
+        if (rule.getMaxDouble() != null){
+            if (val > rule.getMaxDouble()){
                 ErrorResponse er = new ErrorResponse();
                 setValidationHelpInErrorResponse(algoParam, er);
                 er.setDescription(userParamValue + " is greater then maximum value: " + 
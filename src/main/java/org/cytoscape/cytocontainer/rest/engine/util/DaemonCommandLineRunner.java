@@ -0,0 +1,85 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CommandLineRunner} that hands a task to a running container of
+ * a {@link DaemonContainerPool} instead of starting a container for it.
+ * The command passed to
+ * {@link #runCommandLineProcess(long, java.util.concurrent.TimeUnit, java.io.File, java.io.File, java.lang.String...) }
+ * is ignored; the task is sent as an envelope holding the input file and
+ * parameters given to the constructor.
+ *
+ * @author churas
+ */
+public class DaemonCommandLineRunner implements CommandLineRunner {
+
+	private final DaemonContainerPool _pool;
+	private final String _id;
+	private final String _envelope;
+	private String _workingDirectory;
+	private Map<String, String> _environVars;
+	private String _lastCommand;
+
+	/**
+	 * Constructor
+	 * @param pool pool of containers to run task in
+	 * @param id id of task
+	 * @param inputFile path to input file of task
+	 * @param parameters parameters, including hidden ones, passed to algorithm
+	 */
+	public DaemonCommandLineRunner(DaemonContainerPool pool, final String id,
+			final String inputFile, Map<String, String> parameters){
+		_pool = pool;
+		_id = id;
+		_envelope = DaemonContainer.getTaskEnvelope(id, inputFile, parameters);
+	}
+
+	/**
+	 * Sets working directory, this has no effect on the container
+	 * @param workingDir path to directory
+	 */
+	@Override
+	public void setWorkingDirectory(final String workingDir) {
+		_workingDirectory = workingDir;
+	}
+
+	/**
+	 * Sets environment variables, these have no effect on the container
+	 * @param envVars ignored
+	 */
+	@Override
+	public void setEnvironmentVariables(Map<String, String> envVars) {
+		_environVars = envVars;
+	}
+
+	/**
+	 * Gets envelope sent to container by last call to
+	 * {@link #runCommandLineProcess(long, java.util.concurrent.TimeUnit, java.io.File, java.io.File, java.lang.String...) }
+	 * @return envelope or {@code null} if no task has been run
+	 */
+	@Override
+	public String getLastCommand() {
+		return _lastCommand;
+	}
+
+	/**
+	 * Runs task in container from pool
+	 * @param timeOut timeout value
+	 * @param unit unit for timeout value
+	 * @param stdOutFile File to write result to
+	 * @param stdErrFile File to write progress to
+	 * @param command ignored
+	 * @return exit code returned by container (if timeout exceeded, 500 is returned)
+	 * @throws Exception if no container became available or container
+	 *         failed to return a result
+	 */
+	@Override
+	public int runCommandLineProcess(long timeOut, TimeUnit unit, File stdOutFile,
+			File stdErrFile, String... command) throws Exception {
+		_lastCommand = _envelope;
+		return _pool.runTask(_id, _envelope, timeOut, unit, stdOutFile, stdErrFile);
+	}
+}
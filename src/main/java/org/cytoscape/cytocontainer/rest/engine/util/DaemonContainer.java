@@ -0,0 +1,321 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long running container that is fed tasks one at a time over its
+ * standard input. Each task is sent as a single line of JSON:
+ *
+ * <pre>
+ * {"type": "task", "id": "&lt;task id&gt;", "input": "&lt;path to input file&gt;",
+ *  "parameters": {"--flag": "value"}}
+ * </pre>
+ *
+ * While running a task the container writes {@code @@PROGRESS} and
+ * {@code @@MESSAGE} lines to standard out, which are written to the
+ * standard error file of the task so progress is read the same way as
+ * for other algorithms. The task ends with a
+ * {@code @@RESULT <exit code> <number of bytes>} line followed by exactly
+ * that many bytes of result. A {@code {"type": "ping"}} line must be
+ * answered with a {@code @@PONG} line. Standard error of the container
+ * is logged.
+ *
+ * @author churas
+ */
+public class DaemonContainer {
+
+	static Logger _logger = LoggerFactory.getLogger(DaemonContainer.class);
+
+	/**
+	 * Line ending output of a task
+	 */
+	public static final String RESULT_KEY = "@@RESULT";
+
+	/**
+	 * Line answering a health check
+	 */
+	public static final String PONG_KEY = "@@PONG";
+
+	/**
+	 * Type of envelope holding a task
+	 */
+	public static final String TASK_TYPE = "task";
+
+	/**
+	 * Type of envelope holding a health check
+	 */
+	public static final String PING_TYPE = "ping";
+
+	private static final ObjectMapper _mapper = new ObjectMapper();
+
+	private final String _name;
+	private final String _dockerCmd;
+	private final List<String> _command;
+	private Process _process;
+	private OutputStream _stdin;
+	private InputStream _stdout;
+	private int _tasksRun;
+	private volatile boolean _stopped;
+
+	/**
+	 * Constructor
+	 * @param name name given to container
+	 * @param dockerCmd docker command, used to remove container when stopped
+	 * @param command command that runs container attached to standard input
+	 */
+	public DaemonContainer(final String name, final String dockerCmd, List<String> command){
+		_name = name;
+		_dockerCmd = dockerCmd;
+		_command = command;
+		_tasksRun = 0;
+		_stopped = false;
+	}
+
+	/**
+	 * Creates envelope holding a task
+	 * @param id id of task
+	 * @param inputFile path to input file of task
+	 * @param parameters parameters, including hidden ones, passed to algorithm
+	 * @return envelope as single line of JSON
+	 */
+	public static String getTaskEnvelope(final String id, final String inputFile,
+			Map<String, String> parameters){
+		ObjectNode envelope = _mapper.createObjectNode();
+		envelope.put("type", TASK_TYPE);
+		envelope.put("id", id);
+		envelope.put("input", inputFile);
+		ObjectNode params = envelope.putObject("parameters");
+		if (parameters != null){
+			for (Map.Entry<String, String> entry : parameters.entrySet()){
+				params.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return envelope.toString();
+	}
+
+	public String getName(){
+		return _name;
+	}
+
+	/**
+	 * Gets number of tasks this container returned a result for
+	 * @return count
+	 */
+	public int getTasksRun(){
+		return _tasksRun;
+	}
+
+	/**
+	 * Denotes if container is running and can be given tasks
+	 * @return {@code true} if running
+	 */
+	public boolean isAlive(){
+		return _stopped == false && _process != null && _process.isAlive();
+	}
+
+	/**
+	 * Starts container
+	 * @throws IOException if command could not be run
+	 */
+	public void start() throws IOException {
+		_logger.debug("Starting daemon container: " + String.join(" ", _command));
+		_process = new ProcessBuilder(_command).start();
+		_stdin = new BufferedOutputStream(_process.getOutputStream());
+		_stdout = new BufferedInputStream(_process.getInputStream());
+		Thread t = new Thread(() -> {
+			try (BufferedReader br = new BufferedReader(new InputStreamReader(
+					_process.getErrorStream(), StandardCharsets.UTF_8))){
+				String line = br.readLine();
+				while (line != null){
+					_logger.debug(_name + ": " + line);
+					line = br.readLine();
+				}
+			} catch(IOException io){
+				// container was stopped
+			}
+		}, _name + "-stderr");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	/**
+	 * Sends task to container and waits for the result. Container is
+	 * stopped if it fails to return a result within {@code timeOut}
+	 * @param envelope task created by {@link #getTaskEnvelope(java.lang.String, java.lang.String, java.util.Map) }
+	 * @param timeOut timeout value
+	 * @param unit unit for timeout value
+	 * @param stdOutFile file to write result to
+	 * @param stdErrFile file to write progress and other lines to
+	 * @return exit code returned by container (if timeout exceeded, 500 is returned)
+	 * @throws IOException if container exited or did not follow protocol,
+	 *         the container is stopped in this case
+	 */
+	public synchronized int runTask(final String envelope, long timeOut, TimeUnit unit,
+			File stdOutFile, File stdErrFile) throws IOException {
+		AtomicBoolean timedOut = new AtomicBoolean(false);
+		CompletableFuture<Void> killer = scheduleStop(timedOut, timeOut, unit);
+		try (OutputStream stdOut = new BufferedOutputStream(new FileOutputStream(stdOutFile));
+				OutputStream stdErr = new FileOutputStream(stdErrFile)){
+			send(envelope);
+			String line = readLine(_stdout);
+			while (line != null){
+				if (line.startsWith(RESULT_KEY)){
+					int exitCode = readResult(line, stdOut);
+					_tasksRun++;
+					return exitCode;
+				}
+				// flushed per line so progress can be read as task runs
+				stdErr.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+				stdErr.flush();
+				line = readLine(_stdout);
+			}
+			throw new EOFException("Container " + _name + " exited before returning a result");
+		} catch(IOException io){
+			stop();
+			if (timedOut.get()){
+				return 500;
+			}
+			throw io;
+		} finally {
+			killer.cancel(false);
+		}
+	}
+
+	/**
+	 * Checks container answers a ping within {@code timeOut}, stopping
+	 * it if not
+	 * @param timeOut timeout value
+	 * @param unit unit for timeout value
+	 * @return {@code true} if container answered
+	 */
+	public synchronized boolean ping(long timeOut, TimeUnit unit){
+		AtomicBoolean timedOut = new AtomicBoolean(false);
+		CompletableFuture<Void> killer = scheduleStop(timedOut, timeOut, unit);
+		try {
+			ObjectNode envelope = _mapper.createObjectNode();
+			envelope.put("type", PING_TYPE);
+			send(envelope.toString());
+			String line = readLine(_stdout);
+			while (line != null){
+				if (line.startsWith(PONG_KEY)){
+					return true;
+				}
+				_logger.debug(_name + " sent unexpected line while idle: " + line);
+				line = readLine(_stdout);
+			}
+		} catch(IOException io){
+			_logger.debug("Health check of " + _name + " failed: " + io.getMessage());
+		} finally {
+			killer.cancel(false);
+		}
+		stop();
+		return false;
+	}
+
+	/**
+	 * Stops and removes container
+	 */
+	public void stop(){
+		if (_stopped){
+			return;
+		}
+		_stopped = true;
+		// killing docker run does not stop the container so remove it first
+		try {
+			Process rm = new ProcessBuilder(_dockerCmd, "rm", "-f", _name)
+					.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+					.redirectError(ProcessBuilder.Redirect.DISCARD).start();
+			if (rm.waitFor(30, TimeUnit.SECONDS) == false){
+				rm.destroyForcibly();
+			}
+		} catch(IOException io){
+			_logger.error("Unable to remove container " + _name, io);
+		} catch(InterruptedException ie){
+			Thread.currentThread().interrupt();
+		}
+		if (_process != null){
+			_process.destroyForcibly();
+		}
+	}
+
+	private CompletableFuture<Void> scheduleStop(AtomicBoolean timedOut, long timeOut, TimeUnit unit){
+		return CompletableFuture.runAsync(() -> {
+			timedOut.set(true);
+			_logger.info("Stopping container " + _name + " that exceeded timeout");
+			stop();
+		}, CompletableFuture.delayedExecutor(timeOut, unit));
+	}
+
+	private void send(final String envelope) throws IOException {
+		if (isAlive() == false){
+			throw new IOException("Container " + _name + " is not running");
+		}
+		_stdin.write((envelope + "\n").getBytes(StandardCharsets.UTF_8));
+		_stdin.flush();
+	}
+
+	/**
+	 * Copies result announced by {@code resultLine} to {@code out}
+	 * @return exit code
+	 */
+	private int readResult(final String resultLine, OutputStream out) throws IOException {
+		String[] parts = resultLine.trim().split("\\s+");
+		if (parts.length != 3){
+			throw new IOException("Invalid result line: " + resultLine);
+		}
+		int exitCode;
+		long numBytes;
+		try {
+			exitCode = Integer.parseInt(parts[1]);
+			numBytes = Long.parseLong(parts[2]);
+		} catch(NumberFormatException nfe){
+			throw new IOException("Invalid result line: " + resultLine);
+		}
+		if (IOUtils.copyLarge(_stdout, out, 0, numBytes) != numBytes){
+			throw new EOFException("Truncated result from container " + _name);
+		}
+		return exitCode;
+	}
+
+	/**
+	 * Reads line from {@code in} without reading past it
+	 * @return line without line ending or {@code null} if end of stream
+	 */
+	static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		int b = in.read();
+		if (b < 0){
+			return null;
+		}
+		while (b >= 0 && b != '\n'){
+			bos.write(b);
+			b = in.read();
+		}
+		String line = bos.toString(StandardCharsets.UTF_8);
+		if (line.endsWith("\r")){
+			return line.substring(0, line.length() - 1);
+		}
+		return line;
+	}
+}
@@ -0,0 +1,324 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps {@link DaemonSettings#getContainers() } {@link DaemonContainer}s
+ * of an algorithm running and hands tasks to whichever is idle, so the
+ * cost of starting the algorithm, such as importing libraries, is paid
+ * once per container instead of once per task.
+ *
+ * Containers are started with the base task directory bound in so they
+ * can read the input file of any task. A container is replaced once it
+ * has run {@link DaemonSettings#getMaxTasks() } tasks, after any task that
+ * fails or times out, and if it does not answer a periodic health check.
+ *
+ * @author churas
+ */
+public class DaemonContainerPool {
+
+	static Logger _logger = LoggerFactory.getLogger(DaemonContainerPool.class);
+
+	/**
+	 * Prefix of names given to daemon containers if no instance id is set
+	 */
+	public static final String CONTAINER_NAME_PREFIX = ContainerReaper.CONTAINER_NAME_PREFIX + "daemon-";
+
+	private final String _algorithm;
+	private final String _dockerCmd;
+	private final String _image;
+	private final String _taskDir;
+	private final String _mountOptions;
+	private final DaemonSettings _settings;
+	private final LinkedBlockingQueue<DaemonContainer> _idle;
+	private final ConcurrentHashMap<String, DaemonContainer> _busy;
+	private final AtomicInteger _containers;
+	private final AtomicLong _tasksRun;
+	private final AtomicLong _recycledContainers;
+	private final AtomicLong _failedHealthChecks;
+	private final ScheduledExecutorService _healthChecker;
+	private volatile boolean _shutdown;
+	private ResourceSettings _resourceSettings;
+	private String _instanceId;
+
+	/**
+	 * Constructor
+	 * @param algorithm name of algorithm
+	 * @param dockerCmd docker command
+	 * @param image docker image of algorithm
+	 * @param taskDir base directory for tasks
+	 * @param mountOptions options appended to bind mount ie {@code :ro}
+	 * @param settings daemon settings of algorithm
+	 */
+	public DaemonContainerPool(final String algorithm, final String dockerCmd,
+			final String image, final String taskDir, final String mountOptions,
+			DaemonSettings settings){
+		_algorithm = algorithm;
+		_dockerCmd = dockerCmd;
+		_image = image;
+		_taskDir = new File(taskDir).getAbsolutePath();
+		_mountOptions = mountOptions == null ? "" : mountOptions;
+		_settings = settings;
+		_idle = new LinkedBlockingQueue<>();
+		_busy = new ConcurrentHashMap<>();
+		_containers = new AtomicInteger(0);
+		_tasksRun = new AtomicLong(0);
+		_recycledContainers = new AtomicLong(0);
+		_failedHealthChecks = new AtomicLong(0);
+		_healthChecker = Executors.newSingleThreadScheduledExecutor((r) -> {
+			Thread t = new Thread(r, "DaemonContainerPool-" + algorithm);
+			t.setDaemon(true);
+			return t;
+		});
+		_shutdown = false;
+	}
+
+	public String getAlgorithm(){
+		return _algorithm;
+	}
+
+	public DaemonSettings getSettings(){
+		return _settings;
+	}
+
+	/**
+	 * Sets CPU and memory limits of containers, must be called before
+	 * {@link #start() }
+	 * @param resourceSettings limits or {@code null} for none
+	 */
+	public void setResourceSettings(ResourceSettings resourceSettings){
+		_resourceSettings = resourceSettings;
+	}
+
+	/**
+	 * Sets id of instance of this service put in names of containers,
+	 * must be called before {@link #start() }
+	 * @param instanceId id of instance or {@code null} for none
+	 */
+	public void setInstanceId(final String instanceId){
+		_instanceId = instanceId;
+	}
+
+	/**
+	 * Starts containers and schedules health checks
+	 */
+	public void start(){
+		fill();
+		long interval = Math.max(1, _settings.getHealthCheckInterval());
+		_healthChecker.scheduleWithFixedDelay(this::checkHealth, interval,
+				interval, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Runs task in the next idle container, waiting for one if all are busy
+	 * @param id id of task
+	 * @param envelope task created by {@link DaemonContainer#getTaskEnvelope(java.lang.String, java.lang.String, java.util.Map) }
+	 * @param timeOut time allowed to wait for a container and run the task
+	 * @param unit unit for timeout value
+	 * @param stdOutFile file to write result to
+	 * @param stdErrFile file to write progress and other lines to
+	 * @return exit code returned by container (if timeout exceeded, 500 is returned)
+	 * @throws CytoContainerException if no container became idle within timeout
+	 * @throws IOException if container failed to return a result
+	 * @throws InterruptedException if interrupted waiting for a container
+	 */
+	public int runTask(final String id, final String envelope, long timeOut, TimeUnit unit,
+			File stdOutFile, File stdErrFile) throws CytoContainerException, IOException, InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeOut);
+		DaemonContainer dc = _idle.poll(timeOut, unit);
+		if (dc == null){
+			throw new CytoContainerException("No " + _algorithm
+					+ " container became available within timeout");
+		}
+		boolean recycle = true;
+		int tasksRun = dc.getTasksRun();
+		_busy.put(id, dc);
+		try {
+			int exitCode = dc.runTask(envelope, Math.max(0, deadline - System.nanoTime()),
+					TimeUnit.NANOSECONDS, stdOutFile, stdErrFile);
+			_tasksRun.addAndGet(dc.getTasksRun() - tasksRun);
+			recycle = exitCode != 0 || (_settings.getMaxTasks() > 0
+					&& dc.getTasksRun() >= _settings.getMaxTasks());
+			return exitCode;
+		} finally {
+			_busy.remove(id);
+			if (recycle || dc.isAlive() == false || _shutdown){
+				recycle(dc);
+				scheduleFill();
+			} else {
+				_idle.add(dc);
+			}
+		}
+	}
+
+	/**
+	 * Stops container running task with {@code id}, the container is
+	 * replaced once {@link #runTask(java.lang.String, java.lang.String, long, java.util.concurrent.TimeUnit, java.io.File, java.io.File) }
+	 * returns
+	 * @param id id of task
+	 * @return {@code true} if task was running
+	 */
+	public boolean cancelTask(final String id){
+		DaemonContainer dc = _busy.get(id);
+		if (dc == null){
+			return false;
+		}
+		_logger.info("Stopping container " + dc.getName() + " running task " + id);
+		dc.stop();
+		return true;
+	}
+
+	/**
+	 * Gets number of containers, idle or busy
+	 * @return count
+	 */
+	public int getContainers(){
+		return _containers.get();
+	}
+
+	/**
+	 * Gets number of containers waiting for a task
+	 * @return count
+	 */
+	public int getIdleContainers(){
+		return _idle.size();
+	}
+
+	/**
+	 * Gets number of tasks containers returned a result for
+	 * @return count
+	 */
+	public long getTasksRun(){
+		return _tasksRun.get();
+	}
+
+	/**
+	 * Gets number of containers replaced after reaching max tasks,
+	 * an error, or a failed health check
+	 * @return count
+	 */
+	public long getRecycledContainers(){
+		return _recycledContainers.get();
+	}
+
+	/**
+	 * Gets number of health checks containers failed
+	 * @return count
+	 */
+	public long getFailedHealthChecks(){
+		return _failedHealthChecks.get();
+	}
+
+	/**
+	 * Stops health checks and idle containers, busy containers are
+	 * stopped once their task is done
+	 */
+	public void shutdown(){
+		_shutdown = true;
+		_healthChecker.shutdownNow();
+		List<DaemonContainer> idle = new ArrayList<>();
+		_idle.drainTo(idle);
+		for (DaemonContainer dc : idle){
+			dc.stop();
+			_containers.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Pings each idle container replacing any that do not answer, then
+	 * starts containers until there are {@link DaemonSettings#getContainers() }
+	 */
+	protected void checkHealth(){
+		int numIdle = _idle.size();
+		for (int i = 0; i < numIdle && _shutdown == false; i++){
+			DaemonContainer dc = _idle.poll();
+			if (dc == null){
+				break;
+			}
+			if (dc.isAlive() && dc.ping(_settings.getHealthCheckTimeout(), TimeUnit.SECONDS)){
+				_idle.add(dc);
+				continue;
+			}
+			_failedHealthChecks.incrementAndGet();
+			_logger.warn("Container " + dc.getName() + " failed health check, replacing it");
+			recycle(dc);
+		}
+		fill();
+	}
+
+	/**
+	 * Creates container that runs algorithm attached to standard input
+	 * @return container, not yet started
+	 */
+	protected DaemonContainer createContainer(){
+		String name = ContainerReaper.getNamePrefix(_instanceId) + "daemon-" + _algorithm.replaceAll("[^a-zA-Z0-9_.-]", "_")
+				+ "-" + UUID.randomUUID().toString();
+		List<String> cmd = new ArrayList<>();
+		cmd.add(_dockerCmd);
+		cmd.add("run");
+		cmd.add("-i");
+		cmd.add("--rm");
+		cmd.add("--name");
+		cmd.add(name);
+		if (_resourceSettings != null){
+			cmd.addAll(_resourceSettings.getDockerOptions());
+		}
+		cmd.add("-v");
+		cmd.add(_taskDir + ":" + _taskDir + _mountOptions);
+		cmd.add(_image);
+		cmd.addAll(_settings.getArguments());
+		return new DaemonContainer(name, _dockerCmd, cmd);
+	}
+
+	private void recycle(DaemonContainer dc){
+		dc.stop();
+		_containers.decrementAndGet();
+		if (_shutdown == false){
+			_recycledContainers.incrementAndGet();
+		}
+	}
+
+	private void scheduleFill(){
+		if (_shutdown){
+			return;
+		}
+		try {
+			_healthChecker.execute(this::fill);
+		} catch(RejectedExecutionException ree){
+			_logger.debug("Pool is shut down, not starting container");
+		}
+	}
+
+	/**
+	 * Starts containers until there are {@link DaemonSettings#getContainers() },
+	 * giving up on first error, the next health check will try again
+	 */
+	private synchronized void fill(){
+		while (_shutdown == false && _containers.get() < _settings.getContainers()){
+			DaemonContainer dc = createContainer();
+			try {
+				dc.start();
+			} catch(IOException io){
+				_logger.error("Unable to start " + _algorithm + " container: " + io.getMessage());
+				return;
+			}
+			_containers.incrementAndGet();
+			_idle.add(dc);
+		}
+	}
+}
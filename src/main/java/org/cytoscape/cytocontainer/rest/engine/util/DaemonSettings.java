@@ -0,0 +1,95 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of an algorithm run in daemon mode, declared in the
+ * {@link #ALGORITHM_JSON_FIELD} field of the algorithm JSON file:
+ *
+ * <pre>
+ * "daemon": {
+ *     "containers": 2,
+ *     "maxTasks": 100,
+ *     "healthCheckInterval": 30,
+ *     "healthCheckTimeout": 10,
+ *     "arguments": ["--daemon"]
+ * }
+ * </pre>
+ *
+ * @see DaemonContainerPool
+ * @author churas
+ */
+public class DaemonSettings {
+
+	/**
+	 * Name of field in algorithm JSON file holding these settings
+	 */
+	public static final String ALGORITHM_JSON_FIELD = "daemon";
+
+	private int _containers = 1;
+	private int _maxTasks = 0;
+	private long _healthCheckInterval = 30;
+	private long _healthCheckTimeout = 10;
+	private List<String> _arguments = new ArrayList<>();
+
+	/**
+	 * Number of containers kept running
+	 * @return number of containers
+	 */
+	public int getContainers() {
+		return _containers;
+	}
+
+	public void setContainers(int containers) {
+		_containers = containers;
+	}
+
+	/**
+	 * Tasks a container runs before it is replaced
+	 * @return number of tasks or {@code 0} or less for no limit
+	 */
+	public int getMaxTasks() {
+		return _maxTasks;
+	}
+
+	public void setMaxTasks(int maxTasks) {
+		_maxTasks = maxTasks;
+	}
+
+	/**
+	 * Seconds between health checks of idle containers
+	 * @return seconds
+	 */
+	public long getHealthCheckInterval() {
+		return _healthCheckInterval;
+	}
+
+	public void setHealthCheckInterval(long healthCheckInterval) {
+		_healthCheckInterval = healthCheckInterval;
+	}
+
+	/**
+	 * Seconds a container has to answer a health check
+	 * @return seconds
+	 */
+	public long getHealthCheckTimeout() {
+		return _healthCheckTimeout;
+	}
+
+	public void setHealthCheckTimeout(long healthCheckTimeout) {
+		_healthCheckTimeout = healthCheckTimeout;
+	}
+
+	/**
+	 * Arguments passed to container to start it in daemon mode
+	 * @return arguments
+	 */
+	public List<String> getArguments() {
+		return _arguments;
+	}
+
+	public void setArguments(List<String> arguments) {
+		_arguments = arguments == null ? new ArrayList<>() : arguments;
+	}
+}
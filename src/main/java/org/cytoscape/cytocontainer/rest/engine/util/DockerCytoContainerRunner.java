@@ -34,8 +34,13 @@ public class DockerCytoContainerRunner implements Callable {
     public static final String STD_ERR_FILE = "stderr.txt";
     public static final String CMD_RUN_FILE = "cmdrun.sh";
     
+    /**
+     * Prefix of container names if no instance id is set, the rest of the
+     * name is the task id
+     */
+    public static final String CONTAINER_NAME_PREFIX = ContainerReaper.CONTAINER_NAME_PREFIX + "task-";
+    
     private String _id;
-    private CytoContainerRequest _cdr;
     private String _dockerCmd;
     private String _dockerImage;
     private Map<String, String> _customParameters;
@@ -48,8 +53,14 @@ public class DockerCytoContainerRunner implements Callable {
     private String _inputFilePath;
 	private boolean _outputIsBinary;
 	private String _rawResultContentType;
+	private String _downloadUrl;
  
     private CommandLineRunner _runner;
+    private ContainerReaper _containerReaper;
+    private String _instanceId;
+    private ResourceSettings _resourceSettings;
+    private CpuSetAllocator _cpuSetAllocator;
+    private int _cpuSetSize;
     
     /**
      * Constructor 
@@ -77,7 +88,6 @@ public class DockerCytoContainerRunner implements Callable {
 			final boolean outputIsBinary,
 			final String rawResultContentType) throws Exception{
         _id = id;
-        _cdr = cdr;
         _dockerCmd = dockerCmd;
         _dockerImage = dockerImage;
         _customParameters = customParameters;
@@ -96,7 +106,9 @@ public class DockerCytoContainerRunner implements Callable {
 		_outputIsBinary = outputIsBinary;
 		_rawResultContentType = rawResultContentType;
 
-        _inputFilePath = writeInputFile();
+        // request is not kept past this point so queued tasks do
+        // not hold the data in memory
+        _inputFilePath = writeInputFile(cdr);
        
         _runner = new CommandLineRunnerImpl();
         
@@ -128,23 +140,84 @@ public class DockerCytoContainerRunner implements Callable {
     }
     
     /**
-     * For testing, lets one set alternate command line runner
+     * Lets one set alternate command line runner, such as
+     * {@link DockerEngineCommandLineRunner}, or a mock for testing
      * @param clr alternate command line runner
      */
-    protected void setAlternateCommandLineRunner(CommandLineRunner clr){
+    public void setAlternateCommandLineRunner(CommandLineRunner clr){
         _runner = clr;
     }
     
     /**
-     * Writes contents {@link org.ndexbio.communitydetection.rest.model.CytoContainerRequest#getData()}
-     * set via constructor 
+     * Sets reaper used to kill and remove container of task if it times
+     * out or running it fails, since stopping the process that ran the
+     * container does not stop the container
+     * @param containerReaper the reaper or {@code null} to not remove containers
+     */
+    public void setContainerReaper(ContainerReaper containerReaper){
+        _containerReaper = containerReaper;
+    }
+    
+    /**
+     * Sets CPU and memory limits of container
+     * @param resourceSettings limits or {@code null} for none
+     */
+    public void setResourceSettings(ResourceSettings resourceSettings){
+        _resourceSettings = resourceSettings;
+    }
+    
+    /**
+     * Sets allocator that assigns cores to pin container of this task to
+     * while it runs
+     * @param cpuSetAllocator allocator or {@code null} to not pin container
+     * @param cores number of cores to ask for
+     */
+    public void setCpuSetAllocator(CpuSetAllocator cpuSetAllocator, int cores){
+        _cpuSetAllocator = cpuSetAllocator;
+        _cpuSetSize = cores;
+    }
+    
+    /**
+     * Sets id of instance of this service put in name of container so
+     * it can be told apart from containers of other instances
+     * @param instanceId id of instance or {@code null} for none
+     */
+    public void setInstanceId(final String instanceId){
+        _instanceId = instanceId;
+    }
+    
+    /**
+     * Gets name given to container that runs task with {@code id}
+     * when no instance id is set
+     * @param id id of task
+     * @return name of container
+     */
+    public static String getContainerName(final String id){
+        return getContainerName(null, id);
+    }
+    
+    /**
+     * Gets name given to container that runs task with {@code id}
+     * @param instanceId id of instance of this service or {@code null} for none
+     * @param id id of task
+     * @return name of container
+     */
+    public static String getContainerName(final String instanceId, final String id){
+        return ContainerReaper.getNamePrefix(instanceId) + "task-" + id;
+    }
+    
+    /**
+     * Writes contents {@link org.cytoscape.cytocontainer.rest.model.CytoContainerRequest#getData()}
      * to file which is assumed to be either a {@link com.fasterxml.jackson.databind.node.TextNode}
-     * which is written as text or JSON which is mapped back via ObjectMapper
+     * which is written as text or JSON which is mapped back via ObjectMapper.
+     * If request is a {@link SpooledCytoContainerRequest} the spooled data file
+     * is moved into place instead
+     * @param cdr request whose data should be written
      * @return full path to input file as String
      * @throws CytoContainerException If there was an issue creating task directories
      * @throws IOException If there was IO error writing the data to a file
      */
-    protected String writeInputFile() throws CytoContainerException, IOException {
+    protected String writeInputFile(final CytoContainerRequest cdr) throws CytoContainerException, IOException {
         File workDir = new File(_workDir);
         
         if (workDir.isDirectory() == false){
@@ -153,14 +226,19 @@ public class DockerCytoContainerRunner implements Callable {
             }
         }
         File destFile = getInputFile();
-        if (_cdr.getData()instanceof TextNode){
+        if (cdr instanceof SpooledCytoContainerRequest
+                && ((SpooledCytoContainerRequest)cdr).hasData()){
+            // data was already written to disk as it was received so just move it
+            ((SpooledCytoContainerRequest)cdr).moveDataTo(destFile);
+        }
+        else if (cdr.getData()instanceof TextNode){
             try (BufferedWriter bw = new BufferedWriter(new FileWriter(destFile))){
-                bw.write(_cdr.getData().asText());
+                bw.write(cdr.getData().asText());
             }
         }
         else {
             ObjectMapper mapper = new ObjectMapper();
-            mapper.writeValue(destFile, _cdr.getData()); 
+            mapper.writeValue(destFile, cdr.getData()); 
         }
         return destFile.getAbsolutePath();
     }
@@ -187,7 +265,7 @@ public class DockerCytoContainerRunner implements Callable {
     
     /**
      * This method generates a {@link java.io.File} object pointing to input 
-     * file generated by {@link #writeInputFile() ()}
+     * file generated by {@link #writeInputFile(org.cytoscape.cytocontainer.rest.model.CytoContainerRequest) }
      * which may or may not exist yet.
      * @return input file
      */
@@ -206,6 +284,16 @@ public class DockerCytoContainerRunner implements Callable {
         return new File(_workDir + File.separator + CMD_RUN_FILE);
     }
     
+    /**
+     * Sets URL where raw result data can be downloaded. This is set
+     * in {@link org.cytoscape.cytocontainer.rest.model.BinaryData} when
+     * the output is binary
+     * @param downloadUrl URL of raw result data
+     */
+    public void setDownloadUrl(final String downloadUrl){
+        _downloadUrl = downloadUrl;
+    }
+    
     /**
      * Creates a {@link org.ndexbio.communitydetection.rest.model.CytoContainerResult}
      * object with id, status, and start time set.
@@ -241,15 +329,14 @@ public class DockerCytoContainerRunner implements Callable {
 
 		// if job succeeded and output is binary 
 		// then dont load the contents of stdout.txt into
-		// json, instead add the data type and size of result for now
-		// at some point we might also want a URL so caller can just grab that
-		// to get the result from the server
+		// json, instead add the data type, size, and URL caller
+		// can use to get the result from the server
 		
 		if (_outputIsBinary && cdr.getStatus().equals(CytoContainerResult.COMPLETE_STATUS)){
 			BinaryData bData = new BinaryData();
 			bData.setContentType(_rawResultContentType);
 			bData.setSizeInBytes(outFile.length());
-			bData.setDownloadUrl("Filled in by REST endpoint");
+			bData.setDownloadUrl(_downloadUrl);
 			cdr.setResult(mapper.valueToTree(bData));
 			return;
 		}
@@ -313,6 +400,23 @@ public class DockerCytoContainerRunner implements Callable {
         }
     }
     
+    /**
+     * Kills and removes container of this task via reaper, if set
+     */
+    protected void removeContainer(){
+        if (_containerReaper == null){
+            return;
+        }
+        String name = getContainerName(_instanceId, _id);
+        try {
+            if (_containerReaper.removeContainer(name)){
+                _logger.info("Removed container " + name);
+            }
+        } catch(Exception ex){
+            _logger.error("Unable to remove container " + name, ex);
+        }
+    }
+    
     /**
      * Runs the command line process set via the constructor storing output, error, and
      * command run by this process to the file system. 
@@ -340,6 +444,20 @@ public class DockerCytoContainerRunner implements Callable {
             mCmd.add(_dockerCmd);
             mCmd.add("run");
             mCmd.add("--rm");
+            mCmd.add("--name");
+            mCmd.add(getContainerName(_instanceId, _id));
+            if (_resourceSettings != null){
+                mCmd.addAll(_resourceSettings.getDockerOptions());
+            }
+            if (_cpuSetAllocator != null){
+                String cpuSet = _cpuSetAllocator.allocate(_id, _cpuSetSize);
+                if (cpuSet != null){
+                    mCmd.add("--cpuset-cpus");
+                    mCmd.add(cpuSet);
+                } else {
+                    _logger.info("Not enough free cores to pin task " + _id);
+                }
+            }
             mCmd.add("-v");
             mCmd.add(mapDir);
             mCmd.add(_dockerImage);
@@ -357,8 +475,18 @@ public class DockerCytoContainerRunner implements Callable {
             } else {
                 _logger.debug("Custom Parameters is null");
             }
-            int  exitValue = _runner.runCommandLineProcess(_timeOut, _timeUnit,
-                    stdOutFile, stdErrFile, mCmd.toArray(new String[0]));
+            int exitValue;
+            try {
+                exitValue = _runner.runCommandLineProcess(_timeOut, _timeUnit,
+                        stdOutFile, stdErrFile, mCmd.toArray(new String[0]));
+            } catch(Exception ex){
+                // ie interrupted by cancel, container may still be running
+                removeContainer();
+                throw ex;
+            }
+            if (exitValue == 500){
+                removeContainer();
+            }
             writeCommandRunToFile();
             updateCytoContainerResult(exitValue, stdOutFile, stdErrFile, cdr);
             
@@ -366,6 +494,10 @@ public class DockerCytoContainerRunner implements Callable {
             cdr.setStatus(CytoContainerResult.FAILED_STATUS);
             cdr.setMessage("Received error trying to run task: " + ex.getMessage());
             _logger.error("Received error trying to run algorithm for task in " + _workDir, ex);
+        } finally {
+            if (_cpuSetAllocator != null){
+                _cpuSetAllocator.release(_id);
+            }
         }
         cdr.setProgress(100);
         cdr.setWallTime(System.currentTimeMillis() - cdr.getStartTime());
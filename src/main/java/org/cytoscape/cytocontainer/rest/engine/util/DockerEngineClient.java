@@ -0,0 +1,628 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.URLEncoder;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Minimal client for the Docker Engine API, which Podman also serves,
+ * over a Unix domain socket. Only the calls needed to run a task in
+ * a container are supported: create, start, wait, logs, kill, inspect,
+ * and remove, along with pulling missing images.
+ *
+ * Each call is made on its own connection with {@code Connection: close}
+ * so calls can safely be made from multiple threads.
+ *
+ * @author churas
+ */
+public class DockerEngineClient {
+
+	static Logger _logger = LoggerFactory.getLogger(DockerEngineClient.class);
+
+	/**
+	 * Version of Engine API used, Docker 20.10+ and Podman 3+ support this
+	 */
+	public static final String DEFAULT_API_VERSION = "v1.41";
+
+	/**
+	 * Stream type in multiplexed log output denoting standard out
+	 */
+	public static final int STDOUT_STREAM = 1;
+
+	/**
+	 * Stream type in multiplexed log output denoting standard error
+	 */
+	public static final int STDERR_STREAM = 2;
+
+	/**
+	 * Tag pulled when image has no tag or digest
+	 */
+	public static final String DEFAULT_TAG = "latest";
+
+	private static final String CRLF = "\r\n";
+
+	private final Path _socketPath;
+	private final String _apiVersion;
+	private final ObjectMapper _mapper;
+
+	/**
+	 * Constructor using {@link #DEFAULT_API_VERSION}
+	 * @param socketPath path to Unix socket of Engine API ie
+	 *                   {@code /var/run/docker.sock}
+	 */
+	public DockerEngineClient(final String socketPath){
+		this(socketPath, DEFAULT_API_VERSION);
+	}
+
+	/**
+	 * Constructor
+	 * @param socketPath path to Unix socket of Engine API ie
+	 *                   {@code /var/run/docker.sock}
+	 * @param apiVersion version of API to use ie {@code v1.41}
+	 */
+	public DockerEngineClient(final String socketPath, final String apiVersion){
+		_socketPath = Path.of(socketPath);
+		_apiVersion = apiVersion;
+		_mapper = new ObjectMapper();
+	}
+
+	/**
+	 * Gets path to socket
+	 * @return path to socket
+	 */
+	public Path getSocketPath(){
+		return _socketPath;
+	}
+
+	/**
+	 * Creates container from {@code spec}
+	 * @param name name to give container, if {@code null} the engine picks one
+	 * @param spec container configuration as described by the
+	 *             {@code /containers/create} call of the Engine API
+	 * @return id of container
+	 * @throws DockerEngineException if the engine returned an error, status
+	 *         code is {@code 404} if the image does not exist locally
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public String createContainer(final String name, ObjectNode spec) throws DockerEngineException, IOException {
+		String path = "/containers/create";
+		if (name != null){
+			path += "?name=" + encode(name);
+		}
+		JsonNode res = callForJson("POST", path, _mapper.writeValueAsBytes(spec));
+		return res.get("Id").asText();
+	}
+
+	/**
+	 * Pulls {@code image} waiting for pull to finish. If {@code image} has
+	 * no tag or digest {@code latest} is pulled, as {@code docker pull} does,
+	 * instead of every tag of the image
+	 * @param image image to pull with optional tag ie {@code hello-world:latest}
+	 * @throws DockerEngineException if the engine returned an error
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public void pullImage(final String image) throws DockerEngineException, IOException {
+		String path = "/images/create?fromImage=" + encode(image);
+		if (hasTagOrDigest(image) == false){
+			path += "&tag=" + DEFAULT_TAG;
+		}
+		try (Response res = send("POST", path, null)){
+			checkStatus(res);
+			// progress is streamed as JSON objects, errors during
+			// the pull show up as an object with an error field
+			String progress = new String(res.getBody().readAllBytes(), StandardCharsets.UTF_8);
+			int errIndex = progress.lastIndexOf("\"error\"");
+			if (errIndex >= 0){
+				throw new DockerEngineException(500, "Unable to pull " + image + ": "
+						+ progress.substring(errIndex).trim());
+			}
+		}
+	}
+
+	/**
+	 * Checks if {@code image} reference has a tag ie {@code foo:1.0} or
+	 * a digest ie {@code foo@sha256:...}. A colon before the last {@code /}
+	 * is the port of a registry ie {@code host:5000/foo} and not a tag
+	 * @param image image reference
+	 * @return {@code true} if {@code image} has a tag or digest
+	 */
+	public static boolean hasTagOrDigest(final String image){
+		if (image.contains("@")){
+			return true;
+		}
+		return image.indexOf(':', image.lastIndexOf('/') + 1) >= 0;
+	}
+
+	/**
+	 * Starts container
+	 * @param id id or name of container
+	 * @throws DockerEngineException if the engine returned an error
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public void startContainer(final String id) throws DockerEngineException, IOException {
+		call("POST", "/containers/" + encode(id) + "/start", null);
+	}
+
+	/**
+	 * Blocks until container exits
+	 * @param id id or name of container
+	 * @return exit code of container
+	 * @throws DockerEngineException if the engine returned an error
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public int waitContainer(final String id) throws DockerEngineException, IOException {
+		JsonNode res = callForJson("POST", "/containers/" + encode(id) + "/wait", null);
+		return res.get("StatusCode").asInt();
+	}
+
+	/**
+	 * Writes standard out and standard error of container to {@code stdOut}
+	 * and {@code stdErr}. Output is flushed as it arrives so it can be read
+	 * while the container runs. Assumes container was created without a TTY
+	 * @param id id or name of container
+	 * @param follow if {@code true} block until container exits, otherwise
+	 *               return after output so far has been written
+	 * @param stdOut destination of standard out
+	 * @param stdErr destination of standard error
+	 * @throws DockerEngineException if the engine returned an error
+	 * @throws IOException if there was an error talking to engine or writing output
+	 */
+	public void streamLogs(final String id, boolean follow, OutputStream stdOut,
+			OutputStream stdErr) throws DockerEngineException, IOException {
+		try (Response res = send("GET", "/containers/" + encode(id) + "/logs?stdout=1&stderr=1&follow="
+				+ (follow ? "1" : "0"), null)){
+			checkStatus(res);
+			demultiplex(res.getBody(), stdOut, stdErr);
+		}
+	}
+
+	/**
+	 * Sends {@code SIGKILL} to container
+	 * @param id id or name of container
+	 * @return {@code true} if container was killed or {@code false} if it
+	 *         does not exist or is not running
+	 * @throws DockerEngineException if the engine returned any other error
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public boolean killContainer(final String id) throws DockerEngineException, IOException {
+		try {
+			call("POST", "/containers/" + encode(id) + "/kill", null);
+			return true;
+		} catch(DockerEngineException dee){
+			if (dee.getStatusCode() == 404 || dee.getStatusCode() == 409){
+				_logger.debug("Container " + id + " not killed: " + dee.getMessage());
+				return false;
+			}
+			throw dee;
+		}
+	}
+
+	/**
+	 * Gets low level information about container
+	 * @param id id or name of container
+	 * @return information about container, the {@code State} field holds
+	 *         its status and exit code, or {@code null} if it does not exist
+	 * @throws DockerEngineException if the engine returned any other error
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public JsonNode inspectContainer(final String id) throws DockerEngineException, IOException {
+		try {
+			return callForJson("GET", "/containers/" + encode(id) + "/json", null);
+		} catch(DockerEngineException dee){
+			if (dee.getStatusCode() == 404){
+				return null;
+			}
+			throw dee;
+		}
+	}
+
+	/**
+	 * Gets low level information about image
+	 * @param image name of image with optional tag
+	 * @return information about image, the {@code Config} field holds its
+	 *         entrypoint and command, or {@code null} if it does not exist
+	 * @throws DockerEngineException if the engine returned any other error
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public JsonNode inspectImage(final String image) throws DockerEngineException, IOException {
+		try {
+			return callForJson("GET", "/images/" + encodeImagePath(image) + "/json", null);
+		} catch(DockerEngineException dee){
+			if (dee.getStatusCode() == 404){
+				return null;
+			}
+			throw dee;
+		}
+	}
+
+	/**
+	 * Removes container, killing it first if it is running
+	 * @param id id or name of container
+	 * @return {@code true} if removed or {@code false} if it does not exist
+	 * @throws DockerEngineException if the engine returned any other error
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public boolean removeContainer(final String id) throws DockerEngineException, IOException {
+		try {
+			call("DELETE", "/containers/" + encode(id) + "?force=1", null);
+			return true;
+		} catch(DockerEngineException dee){
+			if (dee.getStatusCode() == 404){
+				return false;
+			}
+			throw dee;
+		}
+	}
+
+	/**
+	 * Renames container
+	 * @param id id or name of container
+	 * @param name new name
+	 * @throws DockerEngineException if the engine returned an error, ie
+	 *         409 if name is in use
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public void renameContainer(final String id, final String name) throws DockerEngineException, IOException {
+		call("POST", "/containers/" + encode(id) + "/rename?name=" + encode(name), null);
+	}
+
+	/**
+	 * Updates resource limits, such as {@code NanoCpus} and {@code Memory},
+	 * of container
+	 * @param id id or name of container
+	 * @param resources limits to set
+	 * @throws DockerEngineException if the engine returned an error
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public void updateContainer(final String id, ObjectNode resources) throws DockerEngineException, IOException {
+		call("POST", "/containers/" + encode(id) + "/update", _mapper.writeValueAsBytes(resources));
+	}
+
+	/**
+	 * Lists names of containers, running or not, whose name starts
+	 * with {@code namePrefix}
+	 * @param namePrefix prefix of names
+	 * @return names without leading {@code /}
+	 * @throws DockerEngineException if the engine returned an error
+	 * @throws IOException if there was an error talking to engine
+	 */
+	public List<String> listContainerNames(final String namePrefix) throws DockerEngineException, IOException {
+		ObjectNode filters = _mapper.createObjectNode();
+		filters.putArray("name").add(namePrefix);
+		JsonNode containers = callForJson("GET", "/containers/json?all=1&filters="
+				+ encode(filters.toString()), null);
+		List<String> names = new ArrayList<>();
+		if (containers == null || containers.isArray() == false){
+			return names;
+		}
+		for (JsonNode container : containers){
+			JsonNode cNames = container.get("Names");
+			if (cNames == null){
+				continue;
+			}
+			for (JsonNode cName : cNames){
+				String name = cName.asText();
+				if (name.startsWith("/")){
+					name = name.substring(1);
+				}
+				// engine filter matches anywhere in name
+				if (name.startsWith(namePrefix)){
+					names.add(name);
+				}
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Splits multiplexed output of a container created without a TTY into
+	 * standard out and standard error. Each frame is an 8 byte header whose
+	 * first byte is the stream type and last four bytes are the big endian
+	 * size of the payload that follows
+	 * @param in multiplexed output
+	 * @param stdOut destination of standard out
+	 * @param stdErr destination of standard error
+	 * @throws IOException if stream is truncated or there was an error writing
+	 */
+	protected static void demultiplex(InputStream in, OutputStream stdOut, OutputStream stdErr) throws IOException {
+		byte[] header = new byte[8];
+		byte[] buffer = new byte[8192];
+		while (true){
+			int read = IOUtils.read(in, header);
+			if (read == 0){
+				return;
+			}
+			if (read < header.length){
+				throw new EOFException("Truncated log frame header");
+			}
+			OutputStream out = header[0] == STDERR_STREAM ? stdErr : stdOut;
+			long remaining = ByteBuffer.wrap(header, 4, 4).getInt() & 0xFFFFFFFFL;
+			while (remaining > 0){
+				int len = in.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+				if (len < 0){
+					throw new EOFException("Truncated log frame");
+				}
+				out.write(buffer, 0, len);
+				remaining -= len;
+			}
+			out.flush();
+		}
+	}
+
+	private static String encode(final String val){
+		return URLEncoder.encode(val, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Encodes image name for use in a path, leaving the {@code /} of
+	 * repositories and {@code :} of tags as is
+	 */
+	private static String encodeImagePath(final String image){
+		return encode(image).replace("%2F", "/").replace("%3A", ":");
+	}
+
+	private void call(final String method, final String path, byte[] body) throws DockerEngineException, IOException {
+		try (Response res = send(method, path, body)){
+			checkStatus(res);
+		}
+	}
+
+	private JsonNode callForJson(final String method, final String path, byte[] body) throws DockerEngineException, IOException {
+		try (Response res = send(method, path, body)){
+			checkStatus(res);
+			return _mapper.readTree(res.getBody());
+		}
+	}
+
+	/**
+	 * Throws {@link DockerEngineException} with message from engine if
+	 * status code of {@code res} is not 2xx
+	 */
+	private void checkStatus(Response res) throws DockerEngineException, IOException {
+		if (res.getStatusCode() >= 200 && res.getStatusCode() < 300){
+			return;
+		}
+		byte[] body = res.getBody().readAllBytes();
+		String message = new String(body, StandardCharsets.UTF_8).trim();
+		try {
+			JsonNode node = _mapper.readTree(body);
+			if (node != null && node.has("message")){
+				message = node.get("message").asText();
+			}
+		} catch(IOException io){
+			_logger.debug("Error body is not JSON: " + message);
+		}
+		throw new DockerEngineException(res.getStatusCode(), message);
+	}
+
+	/**
+	 * Sends HTTP/1.1 request to engine
+	 * @param method HTTP method
+	 * @param path path after API version, including any query
+	 * @param body JSON body to send or {@code null}
+	 * @return response whose body must be closed by caller
+	 * @throws IOException if there was an error talking to engine
+	 */
+	protected Response send(final String method, final String path, byte[] body) throws IOException {
+		SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+		try {
+			channel.connect(UnixDomainSocketAddress.of(_socketPath));
+			StringBuilder sb = new StringBuilder();
+			sb.append(method).append(" /").append(_apiVersion).append(path).append(" HTTP/1.1").append(CRLF);
+			sb.append("Host: docker").append(CRLF);
+			sb.append("Connection: close").append(CRLF);
+			if (body != null){
+				sb.append("Content-Type: application/json").append(CRLF);
+			}
+			sb.append("Content-Length: ").append(body == null ? 0 : body.length).append(CRLF);
+			sb.append(CRLF);
+			_logger.debug(method + " " + path);
+			OutputStream out = Channels.newOutputStream(channel);
+			out.write(sb.toString().getBytes(StandardCharsets.US_ASCII));
+			if (body != null){
+				out.write(body);
+			}
+			out.flush();
+			return readResponse(channel, new BufferedInputStream(Channels.newInputStream(channel)));
+		} catch(IOException io){
+			channel.close();
+			throw io;
+		}
+	}
+
+	private Response readResponse(SocketChannel channel, InputStream in) throws IOException {
+		String statusLine = readLine(in);
+		if (statusLine == null){
+			throw new EOFException("No response from " + _socketPath.toString());
+		}
+		String[] parts = statusLine.split(" ", 3);
+		if (parts.length < 2 || parts[0].startsWith("HTTP/") == false){
+			throw new IOException("Invalid status line: " + statusLine);
+		}
+		int statusCode;
+		try {
+			statusCode = Integer.parseInt(parts[1]);
+		} catch(NumberFormatException nfe){
+			throw new IOException("Invalid status line: " + statusLine);
+		}
+		Map<String, String> headers = new LinkedHashMap<>();
+		String line = readLine(in);
+		while (line != null && line.isEmpty() == false){
+			int colon = line.indexOf(':');
+			if (colon > 0){
+				headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+						line.substring(colon + 1).trim());
+			}
+			line = readLine(in);
+		}
+		InputStream body = in;
+		if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))){
+			body = new ChunkedInputStream(in);
+		} else if (headers.containsKey("content-length")){
+			body = BoundedInputStream.builder().setInputStream(in)
+					.setMaxCount(Long.parseLong(headers.get("content-length")))
+					.setPropagateClose(false).get();
+		}
+		return new Response(statusCode, headers, body, channel);
+	}
+
+	/**
+	 * Reads line terminated by {@code \n} stripping any trailing {@code \r}
+	 * @return line or {@code null} if end of stream was reached first
+	 */
+	static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		int b = in.read();
+		if (b < 0){
+			return null;
+		}
+		while (b >= 0 && b != '\n'){
+			bos.write(b);
+			b = in.read();
+		}
+		String line = bos.toString(StandardCharsets.US_ASCII);
+		if (line.endsWith("\r")){
+			return line.substring(0, line.length() - 1);
+		}
+		return line;
+	}
+
+	/**
+	 * Response from engine. Closing it closes the connection
+	 */
+	protected static class Response implements Closeable {
+		private final int _statusCode;
+		private final Map<String, String> _headers;
+		private final InputStream _body;
+		private final SocketChannel _channel;
+
+		Response(int statusCode, Map<String, String> headers, InputStream body,
+				SocketChannel channel){
+			_statusCode = statusCode;
+			_headers = headers;
+			_body = body;
+			_channel = channel;
+		}
+
+		public int getStatusCode(){
+			return _statusCode;
+		}
+
+		/**
+		 * Gets header
+		 * @param name name of header, case does not matter
+		 * @return value or {@code null} if not set
+		 */
+		public String getHeader(final String name){
+			return _headers.get(name.toLowerCase(Locale.ROOT));
+		}
+
+		public InputStream getBody(){
+			return _body;
+		}
+
+		@Override
+		public void close() throws IOException {
+			_channel.close();
+		}
+	}
+
+	/**
+	 * Decodes body sent with {@code Transfer-Encoding: chunked}
+	 */
+	static class ChunkedInputStream extends InputStream {
+		private final InputStream _in;
+		private long _chunkRemaining;
+		private boolean _eof;
+
+		ChunkedInputStream(InputStream in){
+			_in = in;
+			_chunkRemaining = 0;
+			_eof = false;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			int len = read(b, 0, 1);
+			return len < 0 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0){
+				return 0;
+			}
+			if (_chunkRemaining == 0 && nextChunk() == false){
+				return -1;
+			}
+			int read = _in.read(b, off, (int)Math.min(len, _chunkRemaining));
+			if (read < 0){
+				throw new EOFException("Truncated chunk");
+			}
+			_chunkRemaining -= read;
+			if (_chunkRemaining == 0){
+				// each chunk is followed by CRLF
+				readLine(_in);
+			}
+			return read;
+		}
+
+		/**
+		 * Reads size of next chunk
+		 * @return {@code false} if last chunk was reached
+		 */
+		private boolean nextChunk() throws IOException {
+			if (_eof){
+				return false;
+			}
+			String sizeLine = readLine(_in);
+			if (sizeLine == null){
+				throw new EOFException("Missing chunk size");
+			}
+			int ext = sizeLine.indexOf(';');
+			if (ext >= 0){
+				sizeLine = sizeLine.substring(0, ext);
+			}
+			try {
+				_chunkRemaining = Long.parseLong(sizeLine.trim(), 16);
+			} catch(NumberFormatException nfe){
+				throw new IOException("Invalid chunk size: " + sizeLine);
+			}
+			if (_chunkRemaining == 0){
+				// skip any trailers
+				String line = readLine(_in);
+				while (line != null && line.isEmpty() == false){
+					line = readLine(_in);
+				}
+				_eof = true;
+				return false;
+			}
+			return true;
+		}
+	}
+}
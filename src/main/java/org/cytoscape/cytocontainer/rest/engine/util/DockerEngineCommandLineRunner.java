@@ -0,0 +1,414 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link CommandLineRunner} that runs {@code docker run} commands through
+ * the Docker Engine API via {@link DockerEngineClient} instead of forking
+ * the docker command line tool. The command passed to
+ * {@link #runCommandLineProcess(long, java.util.concurrent.TimeUnit, java.io.File, java.io.File, java.lang.String...) }
+ * is parsed into the equivalent container configuration, the container
+ * is created, started, and its output is streamed to the standard out and
+ * standard error files as it runs, so progress can be read the same way.
+ *
+ * Only the subset of {@code docker run} used by this service is
+ * supported: {@code --rm}, {@code -v/--volume} and {@code --name}.
+ *
+ * If a {@link WarmContainerPool} for the image is set, a pre-created
+ * container is taken from it when one is idle instead of creating one.
+ *
+ * @author churas
+ */
+public class DockerEngineCommandLineRunner implements CommandLineRunner {
+
+	static Logger _logger = LoggerFactory.getLogger(DockerEngineCommandLineRunner.class);
+
+	private final DockerEngineClient _client;
+	private final ObjectMapper _mapper;
+	private String _workingDirectory;
+	private Map<String, String> _environVars;
+	private String _lastCommand;
+	private volatile String _containerId;
+	private WarmContainerPool _warmPool;
+
+	/**
+	 * Constructor
+	 * @param client client used to talk to engine
+	 */
+	public DockerEngineCommandLineRunner(DockerEngineClient client){
+		_client = client;
+		_mapper = new ObjectMapper();
+	}
+
+	/**
+	 * Sets working directory. Since no process is forked this has no
+	 * effect on the container and is kept to satisfy the interface
+	 * @param workingDir path to directory
+	 */
+	@Override
+	public void setWorkingDirectory(final String workingDir) {
+		_workingDirectory = workingDir;
+	}
+
+	/**
+	 * Sets environment variables. These would be set on the docker command
+	 * line tool, not the container, so they have no effect here
+	 * @param envVars ignored
+	 */
+	@Override
+	public void setEnvironmentVariables(Map<String, String> envVars) {
+		_environVars = envVars;
+	}
+
+	/**
+	 * Gets the last command as a space delimited string
+	 * @return Last command as string or null if no commands have been run
+	 */
+	@Override
+	public String getLastCommand() {
+		return _lastCommand;
+	}
+
+	/**
+	 * Sets pool to take pre-created containers from for commands
+	 * that run the pool's image
+	 * @param pool pool or {@code null} to always create containers
+	 */
+	public void setWarmContainerPool(WarmContainerPool pool){
+		_warmPool = pool;
+	}
+
+	/**
+	 * Gets id of container most recently created by this object
+	 * @return id or {@code null} if no container has been created
+	 */
+	public String getContainerId(){
+		return _containerId;
+	}
+
+	/**
+	 * Runs {@code docker run} command in {@code command} via Engine API
+	 * @param timeOut timeout value
+	 * @param unit unit for timeout value
+	 * @param stdOutFile File to write any standard output
+	 * @param stdErrFile File to write any standard error
+	 * @param command docker command followed by {@code run}, its options,
+	 *                image, and arguments to pass to the container
+	 * @return exit code of container (if timeout exceeded, 500 is returned)
+	 * @throws Exception if command could not be parsed or there was an
+	 *         error talking to the engine
+	 */
+	@Override
+	public int runCommandLineProcess(long timeOut, TimeUnit unit, File stdOutFile,
+			File stdErrFile, String... command) throws Exception {
+		_lastCommand = null;
+		_containerId = null;
+		List<String> mCmd = new ArrayList<>();
+		for (String c : command){
+			if (c.equals("")){
+				continue;
+			}
+			mCmd.add(c);
+		}
+		_lastCommand = String.join(" ", mCmd);
+		_logger.debug("Running via engine API: " + _lastCommand);
+
+		ContainerRun run = parseCommand(mCmd);
+		long startNanos = System.nanoTime();
+		WarmContainerPool.WarmContainer warm = takeWarmContainer(run);
+		_containerId = warm == null ? createContainer(run) : warm.getId();
+		AtomicBoolean timedOut = new AtomicBoolean(false);
+		final String containerId = _containerId;
+		CompletableFuture<Void> killer = null;
+		try {
+			_client.startContainer(containerId);
+			if (_warmPool != null && run.getImage().equals(_warmPool.getImage())){
+				long startupNanos = System.nanoTime() - startNanos;
+				_warmPool.recordStartup(warm != null, startupNanos);
+				_logger.info((warm == null ? "Cold" : "Warm") + " start of container "
+						+ containerId + " took "
+						+ TimeUnit.NANOSECONDS.toMillis(startupNanos) + " ms");
+			}
+			killer = CompletableFuture.runAsync(() -> {
+				timedOut.set(true);
+				try {
+					_client.killContainer(containerId);
+				} catch(Exception ex){
+					_logger.error("Unable to kill container " + containerId
+							+ " that exceeded timeout", ex);
+				}
+			}, CompletableFuture.delayedExecutor(timeOut, unit));
+			try (OutputStream stdOut = new BufferedOutputStream(new FileOutputStream(stdOutFile));
+					OutputStream stdErr = new BufferedOutputStream(new FileOutputStream(stdErrFile))){
+				// returns once container exits
+				_client.streamLogs(containerId, true, stdOut, stdErr);
+			}
+			int exitCode = _client.waitContainer(containerId);
+			if (timedOut.get()){
+				return 500;
+			}
+			return exitCode;
+		} finally {
+			if (killer != null){
+				killer.cancel(false);
+			}
+			// pre-created containers are only used once
+			if (run.isRemove() || warm != null){
+				try {
+					_client.removeContainer(containerId);
+				} catch(Exception ex){
+					_logger.error("Unable to remove container " + containerId, ex);
+				}
+			}
+			if (warm != null){
+				_warmPool.release(warm);
+			}
+		}
+	}
+
+	/**
+	 * Takes container from pool and readies it to run {@code run}
+	 * @return container or {@code null} if there is no pool for image,
+	 *         the pool is empty, or the container could not be readied
+	 */
+	private WarmContainerPool.WarmContainer takeWarmContainer(ContainerRun run){
+		if (_warmPool == null || run.getImage().equals(_warmPool.getImage()) == false){
+			return null;
+		}
+		WarmContainerPool.WarmContainer warm = _warmPool.take();
+		if (warm == null){
+			return null;
+		}
+		try {
+			_warmPool.prepare(warm, run.getBinds(), run.getArgs());
+			ObjectNode resources = _mapper.createObjectNode();
+			if (addResources(resources, run)){
+				// pre-created containers have no limits
+				_client.updateContainer(warm.getId(), resources);
+			}
+			if (run.getName() != null){
+				// so container can be found by the name of the task
+				_client.renameContainer(warm.getId(), run.getName());
+			}
+			return warm;
+		} catch(Exception ex){
+			_logger.warn("Unable to use warm container " + warm.getName()
+					+ ", creating one instead: " + ex.getMessage());
+			try {
+				_client.removeContainer(warm.getId());
+			} catch(Exception rex){
+				_logger.error("Unable to remove container " + warm.getId(), rex);
+			}
+			_warmPool.release(warm);
+			return null;
+		}
+	}
+
+	/**
+	 * Creates container, pulling image first if engine does not have it
+	 * @return id of container
+	 */
+	private String createContainer(ContainerRun run) throws Exception {
+		ObjectNode spec = getContainerSpec(run);
+		try {
+			return _client.createContainer(run.getName(), spec);
+		} catch(DockerEngineException dee){
+			if (dee.getStatusCode() != 404){
+				throw dee;
+			}
+			_logger.info("Pulling image " + run.getImage() + ": " + dee.getMessage());
+			_client.pullImage(run.getImage());
+			return _client.createContainer(run.getName(), spec);
+		}
+	}
+
+	/**
+	 * Builds body of {@code /containers/create} call
+	 * @param run parsed command
+	 * @return container configuration
+	 */
+	protected ObjectNode getContainerSpec(ContainerRun run){
+		ObjectNode spec = _mapper.createObjectNode();
+		spec.put("Image", run.getImage());
+		ArrayNode cmd = spec.putArray("Cmd");
+		for (String arg : run.getArgs()){
+			cmd.add(arg);
+		}
+		spec.put("AttachStdout", true);
+		spec.put("AttachStderr", true);
+		spec.put("Tty", false);
+		ObjectNode hostConfig = spec.putObject("HostConfig");
+		ArrayNode binds = hostConfig.putArray("Binds");
+		for (String bind : run.getBinds()){
+			binds.add(bind);
+		}
+		addResources(hostConfig, run);
+		return spec;
+	}
+
+	/**
+	 * Adds CPU and memory limits and pinned cores of {@code run}, if any,
+	 * to {@code hostConfig}
+	 * @param hostConfig {@code HostConfig} of container create or update call
+	 * @param run parsed command
+	 * @return {@code true} if any limits were added
+	 */
+	private boolean addResources(ObjectNode hostConfig, ContainerRun run){
+		boolean added = false;
+		if (run.getNanoCpus() > 0){
+			hostConfig.put("NanoCpus", run.getNanoCpus());
+			added = true;
+		}
+		if (run.getMemory() > 0){
+			hostConfig.put("Memory", run.getMemory());
+			added = true;
+		}
+		if (run.getCpusetCpus() != null){
+			hostConfig.put("CpusetCpus", run.getCpusetCpus());
+			added = true;
+		}
+		return added;
+	}
+
+	/**
+	 * Parses {@code docker run} command
+	 * @param command docker command, {@code run}, options, image, and arguments
+	 * @return parsed command
+	 * @throws CytoContainerException if command is not a supported
+	 *         {@code docker run} command
+	 */
+	protected ContainerRun parseCommand(List<String> command) throws CytoContainerException {
+		if (command.size() < 2 || command.get(1).equals("run") == false){
+			throw new CytoContainerException("Only docker run is supported: " + _lastCommand);
+		}
+		ContainerRun run = new ContainerRun();
+		int i = 2;
+		while (i < command.size() && command.get(i).startsWith("-")){
+			String opt = command.get(i);
+			switch (opt) {
+				case "--rm":
+					run._remove = true;
+					i++;
+					break;
+				case "-v":
+				case "--volume":
+					run._binds.add(getOptionValue(command, i));
+					i += 2;
+					break;
+				case "--name":
+					run._name = getOptionValue(command, i);
+					i += 2;
+					break;
+				case "--cpus":
+					run._nanoCpus = Math.round(Double.parseDouble(getOptionValue(command, i)) * 1e9);
+					i += 2;
+					break;
+				case "--memory":
+					run._memory = ResourceSettings.parseMemory(getOptionValue(command, i));
+					i += 2;
+					break;
+				case "--cpuset-cpus":
+					run._cpusetCpus = getOptionValue(command, i);
+					i += 2;
+					break;
+				default:
+					throw new CytoContainerException("Unsupported docker run option: " + opt);
+			}
+		}
+		if (i >= command.size()){
+			throw new CytoContainerException("No image in command: " + _lastCommand);
+		}
+		run._image = command.get(i++);
+		run._args.addAll(command.subList(i, command.size()));
+		return run;
+	}
+
+	private String getOptionValue(List<String> command, int optIndex) throws CytoContainerException {
+		if (optIndex + 1 >= command.size()){
+			throw new CytoContainerException("No value for " + command.get(optIndex));
+		}
+		return command.get(optIndex + 1);
+	}
+
+	/**
+	 * {@code docker run} command parsed into its parts
+	 */
+	protected static class ContainerRun {
+		private String _image;
+		private String _name;
+		private boolean _remove;
+		private long _nanoCpus;
+		private long _memory;
+		private String _cpusetCpus;
+		private final List<String> _binds = new ArrayList<>();
+		private final List<String> _args = new ArrayList<>();
+
+		public String getImage(){
+			return _image;
+		}
+
+		/**
+		 * @return name of container or {@code null} if not set
+		 */
+		public String getName(){
+			return _name;
+		}
+
+		/**
+		 * @return {@code true} if container should be removed when done
+		 */
+		public boolean isRemove(){
+			return _remove;
+		}
+
+		/**
+		 * @return CPU limit in units of 10<sup>-9</sup> CPUs or {@code 0} if not limited
+		 */
+		public long getNanoCpus(){
+			return _nanoCpus;
+		}
+
+		/**
+		 * @return memory limit in bytes or {@code 0} if not limited
+		 */
+		public long getMemory(){
+			return _memory;
+		}
+
+		/**
+		 * @return cores to pin container to or {@code null} if not pinned
+		 */
+		public String getCpusetCpus(){
+			return _cpusetCpus;
+		}
+
+		/**
+		 * @return volumes to mount in form {@code <src>:<dest>[:<options>]}
+		 */
+		public List<String> getBinds(){
+			return _binds;
+		}
+
+		/**
+		 * @return arguments passed to container
+		 */
+		public List<String> getArgs(){
+			return _args;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.util.List;
+
+/**
+ * {@link ContainerReaper} that talks to the Docker Engine API via
+ * {@link DockerEngineClient}
+ *
+ * @author churas
+ */
+public class DockerEngineContainerReaper implements ContainerReaper {
+
+	private final DockerEngineClient _client;
+
+	/**
+	 * Constructor
+	 * @param client client used to talk to engine
+	 */
+	public DockerEngineContainerReaper(DockerEngineClient client){
+		_client = client;
+	}
+
+	@Override
+	public List<String> listContainers(final String namePrefix) throws Exception {
+		return _client.listContainerNames(namePrefix);
+	}
+
+	@Override
+	public boolean removeContainer(final String name) throws Exception {
+		return _client.removeContainer(name);
+	}
+}
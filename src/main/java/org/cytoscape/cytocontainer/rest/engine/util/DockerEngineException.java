@@ -0,0 +1,33 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+
+/**
+ * Raised when the Docker Engine API returns an error
+ *
+ * @author churas
+ */
+public class DockerEngineException extends CytoContainerException {
+
+	private final int _statusCode;
+
+	/**
+	 * Constructor
+	 * @param statusCode HTTP status code returned by engine
+	 * @param message description of the error from engine
+	 */
+	public DockerEngineException(int statusCode, final String message){
+		super(message);
+		_statusCode = statusCode;
+	}
+
+	/**
+	 * Gets HTTP status code returned by engine, {@code 404} means
+	 * the container or image does not exist and {@code 409} means
+	 * the container is not in a state that allows the call
+	 * @return status code
+	 */
+	public int getStatusCode(){
+		return _statusCode;
+	}
+}
@@ -0,0 +1,58 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+/**
+ * Describes output written by the container of an algorithm, declared in
+ * the {@link #ALGORITHM_JSON_FIELD} field of the algorithm JSON file:
+ *
+ * <pre>
+ * "output": {
+ *     "binary": true,
+ *     "contentType": "image/png"
+ * }
+ * </pre>
+ *
+ * Binary output is not loaded into the result JSON, instead the result
+ * is a {@link org.cytoscape.cytocontainer.rest.model.BinaryData} with the
+ * URL the data can be downloaded from.
+ *
+ * @author churas
+ */
+public class OutputSettings {
+
+	/**
+	 * Name of field in algorithm JSON file holding these settings
+	 */
+	public static final String ALGORITHM_JSON_FIELD = "output";
+
+	/**
+	 * Content type of binary output if none is set
+	 */
+	public static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+	private boolean _binary = false;
+	private String _contentType = DEFAULT_CONTENT_TYPE;
+
+	/**
+	 * Whether output of container is binary
+	 * @return {@code true} if output is binary
+	 */
+	public boolean isBinary() {
+		return _binary;
+	}
+
+	public void setBinary(boolean binary) {
+		_binary = binary;
+	}
+
+	/**
+	 * Media type of binary output ie {@code image/png}
+	 * @return media type
+	 */
+	public String getContentType() {
+		return _contentType;
+	}
+
+	public void setContentType(final String contentType) {
+		_contentType = contentType;
+	}
+}
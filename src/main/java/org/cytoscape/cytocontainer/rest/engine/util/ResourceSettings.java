@@ -0,0 +1,134 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CPU and memory a container of an algorithm needs, declared in the
+ * {@link #ALGORITHM_JSON_FIELD} field of the algorithm JSON file:
+ *
+ * <pre>
+ * "resources": {
+ *     "cpus": 2,
+ *     "memory": "4g"
+ * }
+ * </pre>
+ *
+ * These are passed to {@code docker run} as {@code --cpus} and
+ * {@code --memory} and used by the engine to decide when a task
+ * can be started.
+ *
+ * @author churas
+ */
+public class ResourceSettings {
+
+	/**
+	 * Name of field in algorithm JSON file holding these settings
+	 */
+	public static final String ALGORITHM_JSON_FIELD = "resources";
+
+	private double _cpus = 0;
+	private String _memory;
+
+	/**
+	 * Number of CPUs container can use, can be fractional
+	 * @return CPUs or {@code 0} or less if not limited
+	 */
+	public double getCpus() {
+		return _cpus;
+	}
+
+	public void setCpus(double cpus) {
+		_cpus = cpus;
+	}
+
+	/**
+	 * Memory container can use in format accepted by {@code docker run --memory}
+	 * ie {@code 512m} or {@code 4g}
+	 * @return memory or {@code null} if not limited
+	 */
+	public String getMemory() {
+		return _memory;
+	}
+
+	public void setMemory(final String memory) {
+		_memory = memory;
+	}
+
+	/**
+	 * Gets {@code docker run} options limiting container to these
+	 * resources
+	 * @return options, empty if no limits are set
+	 * @throws IllegalArgumentException if memory is invalid
+	 */
+	public List<String> getDockerOptions() {
+		List<String> opts = new ArrayList<>();
+		if (_cpus > 0){
+			opts.add("--cpus");
+			opts.add(formatCpus(_cpus));
+		}
+		if (parseMemory(_memory) > 0){
+			opts.add("--memory");
+			opts.add(Long.toString(parseMemory(_memory)));
+		}
+		return opts;
+	}
+
+	/**
+	 * Formats {@code cpus} dropping trailing zeros so {@code 2.0} becomes
+	 * {@code 2}
+	 * @param cpus number of CPUs
+	 * @return formatted value
+	 */
+	public static String formatCpus(double cpus){
+		if (cpus == Math.rint(cpus)){
+			return Long.toString((long)cpus);
+		}
+		return Double.toString(cpus);
+	}
+
+	/**
+	 * Parses memory in format accepted by {@code docker run --memory} which
+	 * is a number with an optional {@code b}, {@code k}, {@code m}, or
+	 * {@code g} suffix
+	 * @param memory value to parse
+	 * @return memory in bytes or {@code 0} if {@code memory} is {@code null}
+	 *         or empty
+	 * @throws IllegalArgumentException if {@code memory} is invalid
+	 */
+	public static long parseMemory(final String memory){
+		if (memory == null || memory.isBlank()){
+			return 0;
+		}
+		String val = memory.trim().toLowerCase(Locale.ROOT);
+		long multiplier = 1;
+		char unit = val.charAt(val.length() - 1);
+		switch (unit) {
+			case 'b':
+				break;
+			case 'k':
+				multiplier = 1024L;
+				break;
+			case 'm':
+				multiplier = 1024L * 1024L;
+				break;
+			case 'g':
+				multiplier = 1024L * 1024L * 1024L;
+				break;
+			default:
+				if (Character.isDigit(unit) == false){
+					throw new IllegalArgumentException("Invalid memory: " + memory);
+				}
+				unit = 0;
+		}
+		if (unit != 0){
+			val = val.substring(0, val.length() - 1);
+		}
+		try {
+			return Long.parseLong(val) * multiplier;
+		} catch(NumberFormatException nfe){
+			throw new IllegalArgumentException("Invalid memory: " + memory);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
+
+/**
+ * {@link org.cytoscape.cytocontainer.rest.model.CytoContainerRequest} whose
+ * data was written to a file by {@link CytoContainerRequestSpooler} as it
+ * was received instead of being held in memory. {@link #getData()} always
+ * returns {@code null}, use {@link #hasData()} and {@link #getDataFile()}
+ * instead.
+ *
+ * @author churas
+ */
+public class SpooledCytoContainerRequest extends CytoContainerRequest {
+
+	private File _dataFile;
+	private JsonNodeType _dataType;
+	private String _dataDigest;
+	private boolean _moved;
+
+	/**
+	 * Denotes if request had data
+	 * @return {@code true} if data was written to {@link #getDataFile()}
+	 */
+	public boolean hasData(){
+		return _dataType != null;
+	}
+
+	/**
+	 * Gets file data was written to. If data was text, the text is written
+	 * as is otherwise the JSON is written
+	 * @return file or {@code null} if there was no data
+	 */
+	public File getDataFile(){
+		return _dataFile;
+	}
+
+	/**
+	 * Sets file data was written to
+	 * @param dataFile file
+	 */
+	public void setDataFile(File dataFile){
+		_dataFile = dataFile;
+	}
+
+	/**
+	 * Gets type of data
+	 * @return type or {@code null} if there was no data
+	 */
+	public JsonNodeType getDataType(){
+		return _dataType;
+	}
+
+	/**
+	 * Sets type of data
+	 * @param dataType type
+	 */
+	public void setDataType(JsonNodeType dataType){
+		_dataType = dataType;
+	}
+
+	/**
+	 * Gets digest of data generated by {@link CytoContainerRequestHasher#updateToken(com.fasterxml.jackson.core.JsonParser) }
+	 * as the data was received
+	 * @return lowercase hex digest or {@code null} if there was no data
+	 */
+	public String getDataDigest(){
+		return _dataDigest;
+	}
+
+	/**
+	 * Sets digest of data
+	 * @param dataDigest lowercase hex digest
+	 */
+	public void setDataDigest(final String dataDigest){
+		_dataDigest = dataDigest;
+	}
+
+	/**
+	 * Moves file containing data to {@code destFile}
+	 * @param destFile destination
+	 * @throws IOException if there was no data or the move failed
+	 */
+	public synchronized void moveDataTo(File destFile) throws IOException {
+		if (_dataFile == null || hasData() == false){
+			throw new IOException("Request has no data");
+		}
+		if (_moved){
+			throw new IOException("Data already moved to " + _dataFile.getAbsolutePath());
+		}
+		Files.move(_dataFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		_dataFile = destFile;
+		_moved = true;
+	}
+
+	/**
+	 * Removes file containing data unless it was moved via {@link #moveDataTo(java.io.File) }
+	 */
+	public synchronized void deleteSpooledData(){
+		if (_dataFile == null || _moved){
+			return;
+		}
+		_dataFile.delete();
+	}
+}
@@ -0,0 +1,241 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.cytoscape.cytocontainer.rest.model.AlgorithmParameter;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable set of rules used by {@link CytoContainerRequestValidatorImpl}
+ * to validate parameters of requests for a single algorithm. Everything
+ * that does not depend on the request, such as the kind of validation,
+ * compiled regular expressions, and min/max bounds, is worked out once
+ * when the plan is created instead of on every request.
+ *
+ * @author churas
+ */
+public class ValidationPlan {
+
+	static Logger _logger = LoggerFactory.getLogger(ValidationPlan.class);
+
+	/**
+	 * Kind of validation performed on a parameter
+	 */
+	public enum Kind {
+		/**
+		 * Parameter has no type so any value is accepted
+		 */
+		NONE,
+		/**
+		 * Value must be non empty and match regular expression if set
+		 */
+		STRING,
+		/**
+		 * Value must be true, false, or empty
+		 */
+		CHECKBOX,
+		/**
+		 * Value must be a whole number within bounds
+		 */
+		DIGITS,
+		/**
+		 * Value must be a number within bounds
+		 */
+		NUMBER,
+		/**
+		 * Validation type is not known so every value is rejected
+		 */
+		UNKNOWN
+	}
+
+	/**
+	 * Rules for a single parameter
+	 */
+	public static class ParameterRule {
+		private final AlgorithmParameter _parameter;
+		private final Kind _kind;
+		private final Pattern _pattern;
+		private final boolean _malformedRegex;
+		private final Integer _minInt;
+		private final Integer _maxInt;
+		private final Double _minDouble;
+		private final Double _maxDouble;
+
+		ParameterRule(final AlgorithmParameter parameter){
+			_parameter = parameter;
+			_kind = getKind(parameter);
+			Pattern pattern = null;
+			boolean malformedRegex = false;
+			if (_kind == Kind.STRING && parameter.getValidationRegex() != null){
+				try {
+					pattern = Pattern.compile(parameter.getValidationRegex());
+				} catch(PatternSyntaxException pse){
+					malformedRegex = true;
+				}
+			}
+			_pattern = pattern;
+			_malformedRegex = malformedRegex;
+			Number minVal = parameter.getMinValue();
+			Number maxVal = parameter.getMaxValue();
+			_minInt = minVal == null ? null : minVal.intValue();
+			_maxInt = maxVal == null ? null : maxVal.intValue();
+			_minDouble = minVal == null ? null : minVal.doubleValue();
+			_maxDouble = maxVal == null ? null : maxVal.doubleValue();
+		}
+
+		/**
+		 * Gets parameter these rules were created from
+		 * @return parameter
+		 */
+		public AlgorithmParameter getParameter(){
+			return _parameter;
+		}
+
+		/**
+		 * Gets kind of validation to perform
+		 * @return kind
+		 */
+		public Kind getKind(){
+			return _kind;
+		}
+
+		/**
+		 * Gets compiled validation regular expression
+		 * @return pattern or {@code null} if there is no regular expression
+		 *         or it is malformed
+		 */
+		public Pattern getPattern(){
+			return _pattern;
+		}
+
+		/**
+		 * Denotes if validation regular expression could not be compiled
+		 * @return {@code true} if malformed
+		 */
+		public boolean isMalformedRegex(){
+			return _malformedRegex;
+		}
+
+		/**
+		 * Gets minimum for {@link Kind#DIGITS} validation
+		 * @return min or {@code null} if not set
+		 */
+		public Integer getMinInt(){
+			return _minInt;
+		}
+
+		/**
+		 * Gets maximum for {@link Kind#DIGITS} validation
+		 * @return max or {@code null} if not set
+		 */
+		public Integer getMaxInt(){
+			return _maxInt;
+		}
+
+		/**
+		 * Gets minimum for {@link Kind#NUMBER} validation
+		 * @return min or {@code null} if not set
+		 */
+		public Double getMinDouble(){
+			return _minDouble;
+		}
+
+		/**
+		 * Gets maximum for {@link Kind#NUMBER} validation
+		 * @return max or {@code null} if not set
+		 */
+		public Double getMaxDouble(){
+			return _maxDouble;
+		}
+
+		/**
+		 * Works out kind of validation in the same order
+		 * the checks were always done
+		 * @param parameter the parameter
+		 * @return kind of validation
+		 */
+		private static Kind getKind(final AlgorithmParameter parameter){
+			if (parameter.getType() == null){
+				return Kind.NONE;
+			}
+			String validationType = parameter.getValidationType();
+			if (AlgorithmParameter.STRING_VALIDATION.equalsIgnoreCase(validationType)){
+				return Kind.STRING;
+			}
+			if (AlgorithmParameter.CHECKBOX_TYPE.equalsIgnoreCase(parameter.getType())){
+				return Kind.CHECKBOX;
+			}
+			if (AlgorithmParameter.DIGITS_VALIDATION.equalsIgnoreCase(validationType)){
+				return Kind.DIGITS;
+			}
+			if (AlgorithmParameter.NUMBER_VALIDATION.equalsIgnoreCase(validationType)){
+				return Kind.NUMBER;
+			}
+			return Kind.UNKNOWN;
+		}
+	}
+
+	private final CytoContainerAlgorithm _algorithm;
+	private final Map<String, ParameterRule> _rules;
+	private final List<String> _malformedRegexes;
+
+	/**
+	 * Constructor, any malformed regular expressions are logged
+	 * @param algorithm algorithm to create plan for
+	 */
+	public ValidationPlan(final CytoContainerAlgorithm algorithm){
+		_algorithm = algorithm;
+		Map<String, AlgorithmParameter> params = algorithm.getParameterMap();
+		List<String> malformedRegexes = new ArrayList<>();
+		if (params == null){
+			_rules = null;
+		} else {
+			Map<String, ParameterRule> rules = new LinkedHashMap<>();
+			for (Map.Entry<String, AlgorithmParameter> entry : params.entrySet()){
+				ParameterRule rule = new ParameterRule(entry.getValue());
+				if (rule.isMalformedRegex()){
+					malformedRegexes.add(entry.getValue().getValidationRegex());
+					_logger.error("Parameter '" + entry.getKey() + "' of algorithm "
+							+ algorithm.getName() + " has malformed validation expression: "
+							+ entry.getValue().getValidationRegex()
+							+ " requests setting this parameter will be rejected");
+				}
+				rules.put(entry.getKey(), rule);
+			}
+			_rules = Collections.unmodifiableMap(rules);
+		}
+		_malformedRegexes = Collections.unmodifiableList(malformedRegexes);
+	}
+
+	/**
+	 * Gets algorithm this plan was created from
+	 * @return algorithm
+	 */
+	public CytoContainerAlgorithm getAlgorithm(){
+		return _algorithm;
+	}
+
+	/**
+	 * Gets rules for parameters keyed the same as
+	 * {@link CytoContainerAlgorithm#getParameterMap() }
+	 * @return unmodifiable map or {@code null} if algorithm has no parameters
+	 */
+	public Map<String, ParameterRule> getRules(){
+		return _rules;
+	}
+
+	/**
+	 * Gets validation regular expressions that could not be compiled
+	 * @return unmodifiable list, empty if all were valid
+	 */
+	public List<String> getMalformedRegexes(){
+		return _malformedRegexes;
+	}
+}
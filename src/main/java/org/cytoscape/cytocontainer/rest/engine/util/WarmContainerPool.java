@@ -0,0 +1,500 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of containers for an algorithm that are created ahead of time
+ * so a task only has to start one. Once the number of idle containers
+ * drops below the minimum, the pool is refilled to the maximum in the
+ * background.
+ *
+ * The command and bind mounts of a container are fixed when it is
+ * created, before the task it will run is known. So each container is
+ * created with its own directory under {@link #WARM_DIR} bound in and
+ * {@link #START_SCRIPT} from that directory as its entrypoint. When a
+ * task takes a container, files in the task directory are linked into
+ * the container's directory and the command, the image's entrypoint
+ * followed by the task arguments, is written to {@link #ARGS_FILE}
+ * which the script runs. This requires {@code /bin/sh} in the image.
+ * Containers are used once and removed.
+ *
+ * @author churas
+ */
+public class WarmContainerPool {
+
+	static Logger _logger = LoggerFactory.getLogger(WarmContainerPool.class);
+
+	/**
+	 * Directory under task directory holding directories of
+	 * pre-created containers
+	 */
+	public static final String WARM_DIR = ".warm";
+
+	/**
+	 * Prefix of names given to pre-created containers if no instance id is set
+	 */
+	public static final String CONTAINER_NAME_PREFIX = ContainerReaper.CONTAINER_NAME_PREFIX + "warm-";
+
+	/**
+	 * Script run by pre-created containers
+	 */
+	public static final String START_SCRIPT = "warmstart.sh";
+
+	/**
+	 * File holding command to run, one argument per line
+	 */
+	public static final String ARGS_FILE = "args";
+
+	/**
+	 * Contents of {@link #START_SCRIPT}
+	 */
+	public static final String START_SCRIPT_CONTENTS = "#!/bin/sh\n"
+			+ "# Runs command in " + ARGS_FILE + " file, one argument per line,\n"
+			+ "# which is written when a task is assigned to this container\n"
+			+ "set --\n"
+			+ "while IFS= read -r arg ; do\n"
+			+ "  set -- \"$@\" \"$arg\"\n"
+			+ "done < \"${0%/*}/" + ARGS_FILE + "\"\n"
+			+ "exec \"$@\"\n";
+
+	/**
+	 * Pre-created container
+	 */
+	public static class WarmContainer {
+		private final String _id;
+		private final String _name;
+		private final File _dir;
+
+		public WarmContainer(final String id, final String name, final File dir){
+			_id = id;
+			_name = name;
+			_dir = dir;
+		}
+
+		public String getId(){
+			return _id;
+		}
+
+		public String getName(){
+			return _name;
+		}
+
+		/**
+		 * Directory bound into container
+		 * @return directory
+		 */
+		public File getDirectory(){
+			return _dir;
+		}
+	}
+
+	private final DockerEngineClient _client;
+	private final String _algorithm;
+	private final String _image;
+	private final File _warmDir;
+	private final String _mountOptions;
+	private final int _minIdle;
+	private final int _maxIdle;
+	private final ObjectMapper _mapper;
+	private final ConcurrentLinkedDeque<WarmContainer> _idle;
+	private final AtomicBoolean _filling;
+	private final ExecutorService _filler;
+	private final AtomicLong _hits;
+	private final AtomicLong _misses;
+	private final AtomicLong _createdContainers;
+	private final AtomicLong _createNanos;
+	private final AtomicLong _warmStarts;
+	private final AtomicLong _warmStartNanos;
+	private final AtomicLong _coldStarts;
+	private final AtomicLong _coldStartNanos;
+	private final AtomicInteger _createErrors;
+	private volatile List<String> _entrypoint;
+	private volatile boolean _shutdown;
+	private String _instanceId;
+
+	/**
+	 * Constructor
+	 * @param client client used to talk to engine
+	 * @param algorithm name of algorithm
+	 * @param image docker image of algorithm
+	 * @param taskDir base directory for tasks, containers get directories
+	 *                under {@link #WARM_DIR} in this directory
+	 * @param mountOptions options appended to bind mount ie {@code :ro}
+	 * @param minIdle refill pool when fewer than this many containers are idle
+	 * @param maxIdle number of idle containers pool is filled to
+	 */
+	public WarmContainerPool(DockerEngineClient client, final String algorithm,
+			final String image, final String taskDir, final String mountOptions,
+			int minIdle, int maxIdle){
+		_client = client;
+		_algorithm = algorithm;
+		_image = image;
+		_warmDir = new File(taskDir, WARM_DIR);
+		_mountOptions = mountOptions == null ? "" : mountOptions;
+		_minIdle = Math.max(0, minIdle);
+		_maxIdle = Math.max(_minIdle, maxIdle);
+		_mapper = new ObjectMapper();
+		_idle = new ConcurrentLinkedDeque<>();
+		_filling = new AtomicBoolean(false);
+		_filler = Executors.newSingleThreadExecutor((r) -> {
+			Thread t = new Thread(r, "WarmContainerPool-" + algorithm);
+			t.setDaemon(true);
+			return t;
+		});
+		_hits = new AtomicLong(0);
+		_misses = new AtomicLong(0);
+		_createdContainers = new AtomicLong(0);
+		_createNanos = new AtomicLong(0);
+		_warmStarts = new AtomicLong(0);
+		_warmStartNanos = new AtomicLong(0);
+		_coldStarts = new AtomicLong(0);
+		_coldStartNanos = new AtomicLong(0);
+		_createErrors = new AtomicInteger(0);
+		_shutdown = false;
+	}
+
+	public String getAlgorithm(){
+		return _algorithm;
+	}
+
+	public String getImage(){
+		return _image;
+	}
+
+	public int getMinIdle(){
+		return _minIdle;
+	}
+
+	public int getMaxIdle(){
+		return _maxIdle;
+	}
+
+	/**
+	 * Sets id of instance of this service put in names of containers,
+	 * must be called before {@link #start() }
+	 * @param instanceId id of instance or {@code null} for none
+	 */
+	public void setInstanceId(final String instanceId){
+		_instanceId = instanceId;
+	}
+
+	/**
+	 * Fills pool in the background
+	 */
+	public void start(){
+		scheduleFill();
+	}
+
+	/**
+	 * Takes an idle container, refilling pool in the background if
+	 * it drops below minimum
+	 * @return container or {@code null} if none are idle
+	 */
+	public WarmContainer take(){
+		WarmContainer wc = _shutdown ? null : _idle.pollFirst();
+		if (wc == null){
+			_misses.incrementAndGet();
+		} else {
+			_hits.incrementAndGet();
+		}
+		if (_idle.size() < _minIdle){
+			scheduleFill();
+		}
+		return wc;
+	}
+
+	/**
+	 * Readies {@code wc} to run a task: files in the source directory of
+	 * each of {@code binds} are linked into the container's directory and
+	 * the command to run is written to {@link #ARGS_FILE}. Any argument
+	 * under the destination of a bind is rewritten to point to the
+	 * container's directory
+	 * @param wc container taken via {@link #take() }
+	 * @param binds bind mounts of task in form {@code <src>:<dest>[:<options>]}
+	 * @param args arguments passed to container
+	 * @throws IOException if files could not be linked or written, or
+	 *         an argument contains a newline
+	 */
+	public void prepare(WarmContainer wc, List<String> binds, List<String> args) throws IOException {
+		List<String> cmd = new ArrayList<>(_entrypoint == null ? Collections.emptyList() : _entrypoint);
+		List<String[]> rewrites = new ArrayList<>();
+		for (String bind : binds){
+			String[] parts = bind.split(":");
+			if (parts.length < 2){
+				throw new IOException("Invalid bind: " + bind);
+			}
+			File srcDir = new File(parts[0]);
+			File[] srcFiles = srcDir.listFiles();
+			if (srcFiles != null){
+				for (File srcFile : srcFiles){
+					if (srcFile.isFile()){
+						linkOrCopy(srcFile, new File(wc.getDirectory(), srcFile.getName()));
+					}
+				}
+			}
+			rewrites.add(new String[] {parts[1], wc.getDirectory().getAbsolutePath()});
+		}
+		for (String arg : args){
+			if (arg.indexOf('\n') >= 0){
+				throw new IOException("Argument contains a newline: " + arg);
+			}
+			String rewritten = arg;
+			for (String[] rewrite : rewrites){
+				if (arg.equals(rewrite[0]) || arg.startsWith(rewrite[0] + File.separator)){
+					rewritten = rewrite[1] + arg.substring(rewrite[0].length());
+					break;
+				}
+			}
+			cmd.add(rewritten);
+		}
+		FileUtils.writeLines(new File(wc.getDirectory(), ARGS_FILE),
+				StandardCharsets.UTF_8.name(), cmd, "\n");
+	}
+
+	/**
+	 * Removes container directory once task is done. The container itself
+	 * should be removed by the caller
+	 * @param wc container taken via {@link #take() }
+	 */
+	public void release(WarmContainer wc){
+		FileUtils.deleteQuietly(wc.getDirectory());
+	}
+
+	/**
+	 * Records time taken to get container for a task running
+	 * @param warm {@code true} if a pre-created container was used
+	 * @param nanos time in nanoseconds from start of task until container started
+	 */
+	public void recordStartup(boolean warm, long nanos){
+		if (warm){
+			_warmStarts.incrementAndGet();
+			_warmStartNanos.addAndGet(nanos);
+		} else {
+			_coldStarts.incrementAndGet();
+			_coldStartNanos.addAndGet(nanos);
+		}
+	}
+
+	/**
+	 * Gets number of idle containers
+	 * @return count
+	 */
+	public int getIdleContainers(){
+		return _idle.size();
+	}
+
+	/**
+	 * Gets number of tasks that got a pre-created container
+	 * @return count
+	 */
+	public long getHits(){
+		return _hits.get();
+	}
+
+	/**
+	 * Gets number of tasks that found the pool empty
+	 * @return count
+	 */
+	public long getMisses(){
+		return _misses.get();
+	}
+
+	/**
+	 * Gets mean time taken to create a container while filling pool, which
+	 * is time each task that gets a pre-created container saves
+	 * @return milliseconds or {@code 0} if no containers have been created
+	 */
+	public long getMeanCreateMillis(){
+		return meanMillis(_createNanos, _createdContainers);
+	}
+
+	/**
+	 * Gets mean time tasks using a pre-created container took to start it
+	 * @return milliseconds
+	 */
+	public long getMeanWarmStartMillis(){
+		return meanMillis(_warmStartNanos, _warmStarts);
+	}
+
+	/**
+	 * Gets mean time tasks that found the pool empty took to create and
+	 * start a container
+	 * @return milliseconds
+	 */
+	public long getMeanColdStartMillis(){
+		return meanMillis(_coldStartNanos, _coldStarts);
+	}
+
+	/**
+	 * Estimates total startup time saved by pre-creating containers
+	 * @return milliseconds
+	 */
+	public long getStartupMillisSaved(){
+		return _warmStarts.get() * getMeanCreateMillis();
+	}
+
+	private static long meanMillis(AtomicLong nanos, AtomicLong count){
+		long c = count.get();
+		if (c == 0){
+			return 0;
+		}
+		return nanos.get() / c / 1000000L;
+	}
+
+	/**
+	 * Stops filling pool and removes idle containers
+	 */
+	public void shutdown(){
+		_shutdown = true;
+		_filler.shutdownNow();
+		WarmContainer wc = _idle.pollFirst();
+		while (wc != null){
+			removeContainer(wc);
+			wc = _idle.pollFirst();
+		}
+	}
+
+	private void scheduleFill(){
+		if (_shutdown || _filling.compareAndSet(false, true) == false){
+			return;
+		}
+		try {
+			_filler.execute(() -> {
+				try {
+					fill();
+				} finally {
+					_filling.set(false);
+				}
+			});
+		} catch(RejectedExecutionException ree){
+			_filling.set(false);
+		}
+	}
+
+	/**
+	 * Creates containers until {@link #getMaxIdle() } are idle, giving up
+	 * on first error so a broken engine is not hammered, the next
+	 * {@link #take() } will try again
+	 */
+	protected void fill(){
+		while (_shutdown == false && _idle.size() < _maxIdle){
+			try {
+				WarmContainer wc = createContainer();
+				if (_shutdown){
+					removeContainer(wc);
+					return;
+				}
+				_idle.addLast(wc);
+			} catch(Exception ex){
+				_createErrors.incrementAndGet();
+				_logger.error("Unable to create container for " + _algorithm
+						+ " warm pool: " + ex.getMessage());
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Creates container with its own directory bound in that runs
+	 * {@link #START_SCRIPT}
+	 * @return container
+	 * @throws Exception if container could not be created
+	 */
+	protected WarmContainer createContainer() throws Exception {
+		long start = System.nanoTime();
+		if (_entrypoint == null){
+			_entrypoint = getImageEntrypoint();
+		}
+		String name = ContainerReaper.getNamePrefix(_instanceId) + "warm-" + _algorithm.replaceAll("[^a-zA-Z0-9_.-]", "_")
+				+ "-" + UUID.randomUUID().toString();
+		File dir = new File(_warmDir, name);
+		if (dir.mkdirs() == false){
+			throw new IOException("Unable to create directory: " + dir.getAbsolutePath());
+		}
+		File script = new File(dir, START_SCRIPT);
+		try {
+			FileUtils.writeStringToFile(script, START_SCRIPT_CONTENTS, StandardCharsets.UTF_8);
+			ObjectNode spec = _mapper.createObjectNode();
+			spec.put("Image", _image);
+			ArrayNode entrypoint = spec.putArray("Entrypoint");
+			entrypoint.add("/bin/sh");
+			entrypoint.add(script.getAbsolutePath());
+			spec.putArray("Cmd");
+			spec.put("AttachStdout", true);
+			spec.put("AttachStderr", true);
+			spec.put("Tty", false);
+			spec.putObject("HostConfig").putArray("Binds").add(dir.getAbsolutePath()
+					+ ":" + dir.getAbsolutePath() + _mountOptions);
+			String id = _client.createContainer(name, spec);
+			_createdContainers.incrementAndGet();
+			_createNanos.addAndGet(System.nanoTime() - start);
+			return new WarmContainer(id, name, dir);
+		} catch(Exception ex){
+			FileUtils.deleteQuietly(dir);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Gets entrypoint of image, pulling image if engine does not have it
+	 * @return entrypoint, empty if image has none
+	 */
+	private List<String> getImageEntrypoint() throws Exception {
+		JsonNode info = _client.inspectImage(_image);
+		if (info == null){
+			_logger.info("Pulling image " + _image + " for " + _algorithm + " warm pool");
+			_client.pullImage(_image);
+			info = _client.inspectImage(_image);
+			if (info == null){
+				throw new IOException("Image " + _image + " not found after pull");
+			}
+		}
+		List<String> entrypoint = new ArrayList<>();
+		JsonNode config = info.get("Config");
+		if (config != null && config.get("Entrypoint") != null && config.get("Entrypoint").isArray()){
+			for (JsonNode arg : config.get("Entrypoint")){
+				entrypoint.add(arg.asText());
+			}
+		}
+		return entrypoint;
+	}
+
+	private void removeContainer(WarmContainer wc){
+		try {
+			_client.removeContainer(wc.getId());
+		} catch(Exception ex){
+			_logger.error("Unable to remove warm container " + wc.getName(), ex);
+		}
+		release(wc);
+	}
+
+	private static void linkOrCopy(final File src, final File dest) throws IOException {
+		try {
+			Files.createLink(dest.toPath(), src.toPath());
+		} catch(IOException | UnsupportedOperationException ex){
+			Files.copy(src.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package org.cytoscape.cytocontainer.rest.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
+
+/**
+ * Sets up {@code fakecontainer.sh}, a script bundled with this service that
+ * is invoked like docker but imitates a container without running one:
+ * it reads the input file, writes {@code @@PROGRESS} lines to standard
+ * error while sleeping, and writes a result of a set size to standard out.
+ * Pointing {@code cytocontainer.docker.cmd} at the script lets the
+ * throughput of the server itself be measured.
+ *
+ * @author churas
+ */
+public class FakeContainer {
+
+	/**
+	 * Location of script on classpath
+	 */
+	public static final String SCRIPT_RESOURCE = "/loadtest/fakecontainer.sh";
+
+	/**
+	 * Name of script once extracted
+	 */
+	public static final String SCRIPT_NAME = "fakecontainer.sh";
+
+	/**
+	 * Name of algorithm that runs the script
+	 */
+	public static final String ALGORITHM_NAME = "loadtest";
+
+	/**
+	 * Flag setting time in milliseconds script runs
+	 */
+	public static final String SLEEP_FLAG = "--sleep=";
+
+	/**
+	 * Flag setting approximate size in bytes of result written by script
+	 */
+	public static final String OUTPUT_SIZE_FLAG = "--outputsize=";
+
+	/**
+	 * Flag setting number of progress updates written by script
+	 */
+	public static final String STEPS_FLAG = "--steps=";
+
+	/**
+	 * Copies script from classpath to {@code destDir} and makes it executable
+	 * @param destDir directory to write script to
+	 * @return the script
+	 * @throws IOException if script could not be found or written
+	 */
+	public static File extractScript(final File destDir) throws IOException {
+		File script = new File(destDir, SCRIPT_NAME);
+		try (InputStream in = FakeContainer.class.getResourceAsStream(SCRIPT_RESOURCE)){
+			if (in == null){
+				throw new FileNotFoundException(SCRIPT_RESOURCE + " not found on classpath");
+			}
+			Files.copy(in, script.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		if (script.setExecutable(true) == false){
+			throw new IOException("Unable to make " + script.getAbsolutePath() + " executable");
+		}
+		return script;
+	}
+
+	/**
+	 * Creates algorithm that runs the script. Settings are passed as
+	 * hidden parameters so requests need only contain data
+	 * @param sleepMillis time in milliseconds each task should run
+	 * @param outputSize approximate size in bytes of result of each task
+	 * @param steps number of progress updates each task writes
+	 * @return algorithm
+	 */
+	public static CytoContainerAlgorithm getAlgorithm(long sleepMillis, long outputSize, int steps){
+		CytoContainerAlgorithm cda = new CytoContainerAlgorithm();
+		cda.setName(ALGORITHM_NAME);
+		cda.setDockerImage(ALGORITHM_NAME);
+		cda.setVersion("1.0.0");
+		cda.setDescription("Stand in for a container used for load testing");
+		cda.setHiddenParameters(Arrays.asList(SLEEP_FLAG + Long.toString(sleepMillis),
+				OUTPUT_SIZE_FLAG + Long.toString(outputSize),
+				STEPS_FLAG + Integer.toString(steps)));
+		return cda;
+	}
+
+	/**
+	 * Writes algorithm from {@link #getAlgorithm(long, long, int) } as
+	 * {@link #ALGORITHM_NAME}{@code .json} in {@code algoDir}
+	 * @param algoDir algorithms configuration directory
+	 * @param sleepMillis time in milliseconds each task should run
+	 * @param outputSize approximate size in bytes of result of each task
+	 * @param steps number of progress updates each task writes
+	 * @return algorithm file
+	 * @throws IOException if there was an error writing the file
+	 */
+	public static File writeAlgorithm(final File algoDir, long sleepMillis, long outputSize,
+			int steps) throws IOException {
+		File algoFile = new File(algoDir, ALGORITHM_NAME + ".json");
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.writerWithDefaultPrettyPrinter().writeValue(algoFile,
+				getAlgorithm(sleepMillis, outputSize, steps));
+		return algoFile;
+	}
+}
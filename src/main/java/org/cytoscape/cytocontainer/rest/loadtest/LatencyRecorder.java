@@ -0,0 +1,102 @@
+package org.cytoscape.cytocontainer.rest.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records latencies of calls to an endpoint so percentiles can be
+ * computed. All samples are kept, which is fine for the tens of
+ * thousands of calls made in a load test
+ *
+ * @author churas
+ */
+public class LatencyRecorder {
+
+	private long[] _samples;
+	private int _count;
+	private long _errors;
+
+	/**
+	 * Constructor
+	 */
+	public LatencyRecorder(){
+		_samples = new long[1024];
+		_count = 0;
+		_errors = 0;
+	}
+
+	/**
+	 * Records latency of a call
+	 * @param nanos latency in nanoseconds
+	 */
+	public synchronized void record(long nanos){
+		if (_count == _samples.length){
+			_samples = Arrays.copyOf(_samples, _samples.length * 2);
+		}
+		_samples[_count++] = nanos;
+	}
+
+	/**
+	 * Records a call that failed
+	 */
+	public synchronized void recordError(){
+		_errors++;
+	}
+
+	/**
+	 * Gets number of latencies recorded
+	 * @return count
+	 */
+	public synchronized int getCount(){
+		return _count;
+	}
+
+	/**
+	 * Gets number of failed calls
+	 * @return count
+	 */
+	public synchronized long getErrors(){
+		return _errors;
+	}
+
+	/**
+	 * Gets latency at {@code percentile} using nearest rank
+	 * @param percentile value between 0 and 100
+	 * @return latency in nanoseconds or {@code 0} if nothing was recorded
+	 */
+	public synchronized long getPercentile(double percentile){
+		if (_count == 0){
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(_samples, _count);
+		Arrays.sort(sorted);
+		int rank = (int)Math.ceil(percentile / 100.0 * _count);
+		return sorted[Math.min(_count, Math.max(1, rank)) - 1];
+	}
+
+	/**
+	 * Gets largest latency
+	 * @return latency in nanoseconds or {@code 0} if nothing was recorded
+	 */
+	public synchronized long getMax(){
+		long max = 0;
+		for (int i = 0; i < _count; i++){
+			max = Math.max(max, _samples[i]);
+		}
+		return max;
+	}
+
+	/**
+	 * Gets mean latency
+	 * @return latency in nanoseconds or {@code 0} if nothing was recorded
+	 */
+	public synchronized long getMean(){
+		if (_count == 0){
+			return 0;
+		}
+		long sum = 0;
+		for (int i = 0; i < _count; i++){
+			sum += _samples[i];
+		}
+		return sum / _count;
+	}
+}
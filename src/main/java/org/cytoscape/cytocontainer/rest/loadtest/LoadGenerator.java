@@ -0,0 +1,234 @@
+package org.cytoscape.cytocontainer.rest.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives submit, poll, and fetch cycles against a running Cytoscape
+ * Container REST service from a set number of concurrent clients. Each
+ * client submits a task, polls its status until it finishes, then
+ * fetches the result, and repeats until the requested number of tasks
+ * have been run. Latencies of each call, along with tasks per second
+ * and heap and garbage collection statistics, are returned in a
+ * {@link LoadTestReport}
+ *
+ * @author churas
+ */
+public class LoadGenerator {
+
+	static Logger _logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+	/**
+	 * Name of endpoint that submits tasks
+	 */
+	public static final String SUBMIT = "submit";
+
+	/**
+	 * Name of endpoint that gets status of tasks
+	 */
+	public static final String STATUS = "status";
+
+	/**
+	 * Name of endpoint that gets result of tasks
+	 */
+	public static final String RESULT = "result";
+
+	/**
+	 * Longest time in milliseconds to wait before resubmitting
+	 * a task rejected because the queue was full
+	 */
+	public static final long MAX_RETRY_WAIT_MILLIS = 5000;
+
+	private final String _baseUrl;
+	private final String _algorithm;
+	private final int _concurrency;
+	private final int _numTasks;
+	private final long _pollInterval;
+	private final byte[] _requestBody;
+	private final HttpClient _client;
+	private final ObjectMapper _mapper;
+
+	/**
+	 * Constructor
+	 * @param baseUrl URL of service up to and including version
+	 *                ie {@code http://localhost:8081/cy/cytocontainer/v1}
+	 * @param algorithm name of algorithm to run
+	 * @param concurrency number of concurrent clients
+	 * @param numTasks total number of tasks to run
+	 * @param dataSize size in bytes of data sent with each task
+	 * @param pollInterval time in milliseconds to wait between status polls
+	 * @throws IOException if request body could not be created
+	 */
+	public LoadGenerator(final String baseUrl, final String algorithm, int concurrency,
+			int numTasks, int dataSize, long pollInterval) throws IOException {
+		_baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+		_algorithm = algorithm;
+		_concurrency = Math.max(1, concurrency);
+		_numTasks = numTasks;
+		_pollInterval = Math.max(0, pollInterval);
+		_mapper = new ObjectMapper();
+		ObjectNode body = _mapper.createObjectNode();
+		body.put("data", "x".repeat(Math.max(0, dataSize)));
+		body.putObject("parameters");
+		_requestBody = _mapper.writeValueAsBytes(body);
+		_client = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+	}
+
+	/**
+	 * Runs the load test
+	 * @return report of results
+	 * @throws InterruptedException if interrupted while waiting for clients
+	 */
+	public LoadTestReport run() throws InterruptedException {
+		LoadTestReport report = new LoadTestReport(_algorithm, _concurrency, _numTasks,
+				Arrays.asList(SUBMIT, STATUS, RESULT));
+		AtomicInteger nextTask = new AtomicInteger(0);
+		ExecutorService es = Executors.newFixedThreadPool(_concurrency);
+		report.start();
+		for (int i = 0; i < _concurrency; i++){
+			es.execute(() -> {
+				while (Thread.currentThread().isInterrupted() == false
+						&& nextTask.getAndIncrement() < _numTasks){
+					runTask(report);
+				}
+			});
+		}
+		es.shutdown();
+		es.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		report.finish();
+		return report;
+	}
+
+	/**
+	 * Submits a task, polls until it finishes and fetches its result
+	 * @param report where results are recorded
+	 */
+	protected void runTask(LoadTestReport report){
+		try {
+			String id = submit(report);
+			if (id == null){
+				report.taskFailed();
+				return;
+			}
+			String status = waitForTask(id, report);
+			if (CytoContainerResult.COMPLETE_STATUS.equals(status) == false){
+				report.taskFailed();
+				return;
+			}
+			if (fetchResult(id, report) == false){
+				report.taskFailed();
+				return;
+			}
+			report.taskCompleted();
+		} catch(InterruptedException ie){
+			Thread.currentThread().interrupt();
+		} catch(IOException io){
+			_logger.error("Error running task", io);
+			report.taskFailed();
+		}
+	}
+
+	/**
+	 * Submits a task, resubmitting after the time set in
+	 * {@code Retry-After} if the queue is full
+	 * @param report where latency is recorded
+	 * @return id of task or {@code null} if submit failed
+	 */
+	private String submit(LoadTestReport report) throws IOException, InterruptedException {
+		LatencyRecorder latencies = report.getLatencies(SUBMIT);
+		HttpRequest request = HttpRequest.newBuilder(URI.create(_baseUrl + "/" + _algorithm))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(_requestBody))
+				.build();
+		while (true){
+			long start = System.nanoTime();
+			HttpResponse<byte[]> res = _client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+			latencies.record(System.nanoTime() - start);
+			if (res.statusCode() == 202){
+				return _mapper.readTree(res.body()).get("id").asText();
+			}
+			if (res.statusCode() != 429){
+				_logger.error("Submit returned " + res.statusCode() + ": " + new String(res.body()));
+				latencies.recordError();
+				return null;
+			}
+			report.submitRejected();
+			long retryAfter = res.headers().firstValueAsLong("Retry-After").orElse(1);
+			Thread.sleep(Math.min(MAX_RETRY_WAIT_MILLIS, Math.max(100, retryAfter * 1000)));
+		}
+	}
+
+	/**
+	 * Polls status of task until it is complete or failed
+	 * @param id id of task
+	 * @param report where latency is recorded
+	 * @return last status of task or {@code null} if polling failed
+	 */
+	private String waitForTask(final String id, LoadTestReport report) throws IOException, InterruptedException {
+		LatencyRecorder latencies = report.getLatencies(STATUS);
+		HttpRequest request = HttpRequest.newBuilder(URI.create(_baseUrl + "/" + _algorithm
+				+ "/" + id + "/status")).GET().build();
+		while (true){
+			long start = System.nanoTime();
+			HttpResponse<byte[]> res = _client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+			latencies.record(System.nanoTime() - start);
+			if (res.statusCode() != 200){
+				_logger.error("Status of " + id + " returned " + res.statusCode());
+				latencies.recordError();
+				return null;
+			}
+			JsonNode status = _mapper.readTree(res.body()).get("status");
+			String statusStr = status == null ? null : status.asText();
+			if (CytoContainerResult.COMPLETE_STATUS.equals(statusStr)
+					|| CytoContainerResult.FAILED_STATUS.equals(statusStr)){
+				return statusStr;
+			}
+			if (_pollInterval > 0){
+				Thread.sleep(_pollInterval);
+			}
+		}
+	}
+
+	/**
+	 * Fetches result of task, reading but discarding the body
+	 * @param id id of task
+	 * @param report where latency is recorded
+	 * @return {@code true} if result was fetched
+	 */
+	private boolean fetchResult(final String id, LoadTestReport report) throws IOException, InterruptedException {
+		LatencyRecorder latencies = report.getLatencies(RESULT);
+		HttpRequest request = HttpRequest.newBuilder(URI.create(_baseUrl + "/" + _algorithm
+				+ "/" + id)).GET().build();
+		long start = System.nanoTime();
+		HttpResponse<InputStream> res = _client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+		try (InputStream in = res.body()){
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+		latencies.record(System.nanoTime() - start);
+		if (res.statusCode() != 200){
+			_logger.error("Result of " + id + " returned " + res.statusCode());
+			latencies.recordError();
+			return false;
+		}
+		return true;
+	}
+}
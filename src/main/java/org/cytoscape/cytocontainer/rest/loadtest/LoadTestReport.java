@@ -0,0 +1,210 @@
+package org.cytoscape.cytocontainer.rest.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Results of a load test run by {@link LoadGenerator}: latencies of each
+ * endpoint, tasks per second, and heap and garbage collection statistics
+ * of this JVM over the course of the test
+ *
+ * @author churas
+ */
+public class LoadTestReport {
+
+	private static final double NANOS_PER_MILLI = 1000000.0;
+	private static final long BYTES_PER_MB = 1024L * 1024L;
+
+	private final String _algorithm;
+	private final int _concurrency;
+	private final int _numTasks;
+	private final Map<String, LatencyRecorder> _endpoints;
+	private final AtomicLong _completedTasks;
+	private final AtomicLong _failedTasks;
+	private final AtomicLong _rejectedSubmits;
+	private final Map<String, long[]> _gcStart;
+	private final Map<String, long[]> _gcDelta;
+	private long _startNanos;
+	private long _elapsedNanos;
+	private MemoryUsage _heapUsage;
+	private long _peakHeapUsed;
+
+	/**
+	 * Constructor
+	 * @param algorithm name of algorithm tasks were run with
+	 * @param concurrency number of concurrent clients
+	 * @param numTasks number of tasks to run
+	 * @param endpoints names of endpoints whose latencies are recorded,
+	 *                  in the order they should be reported
+	 */
+	public LoadTestReport(final String algorithm, int concurrency, int numTasks,
+			List<String> endpoints){
+		_algorithm = algorithm;
+		_concurrency = concurrency;
+		_numTasks = numTasks;
+		_endpoints = new LinkedHashMap<>();
+		for (String endpoint : endpoints){
+			_endpoints.put(endpoint, new LatencyRecorder());
+		}
+		_completedTasks = new AtomicLong(0);
+		_failedTasks = new AtomicLong(0);
+		_rejectedSubmits = new AtomicLong(0);
+		_gcStart = new LinkedHashMap<>();
+		_gcDelta = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Marks start of test, resetting peak heap usage and noting
+	 * garbage collection counts so far
+	 */
+	public void start(){
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+			if (pool.getType() == MemoryType.HEAP){
+				pool.resetPeakUsage();
+			}
+		}
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()){
+			_gcStart.put(gc.getName(), new long[] {gc.getCollectionCount(), gc.getCollectionTime()});
+		}
+		_startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Marks end of test, recording elapsed time, heap usage and
+	 * garbage collections since {@link #start() }
+	 */
+	public void finish(){
+		_elapsedNanos = System.nanoTime() - _startNanos;
+		_heapUsage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		_peakHeapUsed = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+			if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null){
+				_peakHeapUsed += pool.getPeakUsage().getUsed();
+			}
+		}
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()){
+			long[] start = _gcStart.getOrDefault(gc.getName(), new long[] {0, 0});
+			_gcDelta.put(gc.getName(), new long[] {gc.getCollectionCount() - start[0],
+				gc.getCollectionTime() - start[1]});
+		}
+	}
+
+	/**
+	 * Gets latencies of {@code endpoint}
+	 * @param endpoint name of endpoint
+	 * @return recorder or {@code null} if endpoint is unknown
+	 */
+	public LatencyRecorder getLatencies(final String endpoint){
+		return _endpoints.get(endpoint);
+	}
+
+	/**
+	 * Records a task that completed
+	 */
+	public void taskCompleted(){
+		_completedTasks.incrementAndGet();
+	}
+
+	/**
+	 * Records a task that failed or could not be submitted or polled
+	 */
+	public void taskFailed(){
+		_failedTasks.incrementAndGet();
+	}
+
+	/**
+	 * Records a submit rejected because the queue was full
+	 */
+	public void submitRejected(){
+		_rejectedSubmits.incrementAndGet();
+	}
+
+	/**
+	 * Gets number of tasks that completed
+	 * @return count
+	 */
+	public long getCompletedTasks(){
+		return _completedTasks.get();
+	}
+
+	/**
+	 * Gets number of tasks that failed
+	 * @return count
+	 */
+	public long getFailedTasks(){
+		return _failedTasks.get();
+	}
+
+	/**
+	 * Gets number of submits rejected because the queue was full
+	 * @return count
+	 */
+	public long getRejectedSubmits(){
+		return _rejectedSubmits.get();
+	}
+
+	/**
+	 * Gets duration of test
+	 * @return time in nanoseconds between {@link #start() } and {@link #finish() }
+	 */
+	public long getElapsedNanos(){
+		return _elapsedNanos;
+	}
+
+	/**
+	 * Gets tasks completed per second
+	 * @return tasks per second
+	 */
+	public double getTasksPerSecond(){
+		if (_elapsedNanos <= 0){
+			return 0.0;
+		}
+		return (double)_completedTasks.get() / ((double)_elapsedNanos / 1.0e9);
+	}
+
+	/**
+	 * Formats report as text
+	 * @return report
+	 */
+	@Override
+	public String toString(){
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Load test of %s: %d tasks, concurrency %d%n",
+				_algorithm, _numTasks, _concurrency));
+		sb.append(String.format("  Completed tasks:   %d%n", _completedTasks.get()));
+		sb.append(String.format("  Failed tasks:      %d%n", _failedTasks.get()));
+		sb.append(String.format("  Rejected submits:  %d%n", _rejectedSubmits.get()));
+		sb.append(String.format("  Elapsed:           %.3f s%n", (double)_elapsedNanos / 1.0e9));
+		sb.append(String.format("  Tasks/second:      %.2f%n%n", getTasksPerSecond()));
+		sb.append(String.format("  %-10s %8s %7s %10s %10s %10s %10s%n", "Endpoint",
+				"Calls", "Errors", "p50 ms", "p99 ms", "Max ms", "Mean ms"));
+		for (Map.Entry<String, LatencyRecorder> entry : _endpoints.entrySet()){
+			LatencyRecorder lr = entry.getValue();
+			sb.append(String.format("  %-10s %8d %7d %10.2f %10.2f %10.2f %10.2f%n",
+					entry.getKey(), lr.getCount(), lr.getErrors(),
+					lr.getPercentile(50) / NANOS_PER_MILLI,
+					lr.getPercentile(99) / NANOS_PER_MILLI,
+					lr.getMax() / NANOS_PER_MILLI,
+					lr.getMean() / NANOS_PER_MILLI));
+		}
+		sb.append("\n");
+		if (_heapUsage != null){
+			sb.append(String.format("  Heap used:         %d MB (peak %d MB, committed %d MB, max %d MB)%n",
+					_heapUsage.getUsed() / BYTES_PER_MB, _peakHeapUsed / BYTES_PER_MB,
+					_heapUsage.getCommitted() / BYTES_PER_MB,
+					_heapUsage.getMax() / BYTES_PER_MB));
+		}
+		for (Map.Entry<String, long[]> entry : _gcDelta.entrySet()){
+			sb.append(String.format("  GC %-15s %d collections, %d ms%n", entry.getKey() + ":",
+					entry.getValue()[0], entry.getValue()[1]));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,121 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+/**
+ * Single range of bytes requested via the HTTP {@code Range} header. Only
+ * one range in the {@code bytes} unit is supported, any other value is
+ * ignored so the whole resource is returned, as permitted by RFC 9110.
+ *
+ * @author churas
+ */
+public class ByteRange {
+
+	/**
+	 * Unit of ranges supported
+	 */
+	public static final String BYTES_UNIT = "bytes";
+
+	private final long _start;
+	private final long _end;
+	private final long _length;
+
+	/**
+	 * Constructor
+	 * @param start first byte of range, inclusive
+	 * @param end last byte of range, inclusive
+	 * @param length length in bytes of resource
+	 */
+	public ByteRange(long start, long end, long length){
+		_start = start;
+		_end = end;
+		_length = length;
+	}
+
+	/**
+	 * Parses {@code rangeHeader}
+	 * @param rangeHeader value of {@code Range} header, can be {@code null}
+	 * @param length length in bytes of resource
+	 * @return range or {@code null} if header is {@code null}, malformed,
+	 *         has multiple ranges, or uses a unit other than bytes
+	 */
+	public static ByteRange parse(final String rangeHeader, long length){
+		if (rangeHeader == null){
+			return null;
+		}
+		String val = rangeHeader.trim();
+		if (val.startsWith(BYTES_UNIT + "=") == false){
+			return null;
+		}
+		val = val.substring(BYTES_UNIT.length() + 1).trim();
+		if (val.contains(",")){
+			return null;
+		}
+		int dash = val.indexOf('-');
+		if (dash < 0){
+			return null;
+		}
+		try {
+			String startStr = val.substring(0, dash).trim();
+			String endStr = val.substring(dash + 1).trim();
+			if (startStr.isEmpty()){
+				// suffix range ie bytes=-500 for last 500 bytes
+				long suffix = Long.parseLong(endStr);
+				if (suffix <= 0){
+					return new ByteRange(length, length - 1, length);
+				}
+				return new ByteRange(Math.max(0, length - suffix), length - 1, length);
+			}
+			long start = Long.parseLong(startStr);
+			long end = endStr.isEmpty() ? Long.MAX_VALUE : Long.parseLong(endStr);
+			if (start < 0 || end < start){
+				return null;
+			}
+			return new ByteRange(start, Math.min(end, length - 1), length);
+		} catch(NumberFormatException nfe){
+			return null;
+		}
+	}
+
+	/**
+	 * Denotes if any part of range lies within the resource
+	 * @return {@code true} if range can be satisfied
+	 */
+	public boolean isSatisfiable(){
+		return _start < _length && _start <= _end;
+	}
+
+	/**
+	 * Gets first byte of range
+	 * @return offset of first byte, inclusive
+	 */
+	public long getStart(){
+		return _start;
+	}
+
+	/**
+	 * Gets last byte of range
+	 * @return offset of last byte, inclusive
+	 */
+	public long getEnd(){
+		return _end;
+	}
+
+	/**
+	 * Gets number of bytes in range
+	 * @return number of bytes
+	 */
+	public long getContentLength(){
+		return _end - _start + 1;
+	}
+
+	/**
+	 * Gets value for {@code Content-Range} header
+	 * @return value ie {@code bytes 0-99/1000} or {@code bytes *}{@code /1000}
+	 *         if range cannot be satisfied
+	 */
+	public String getContentRange(){
+		if (isSatisfiable() == false){
+			return BYTES_UNIT + " */" + _length;
+		}
+		return BYTES_UNIT + " " + _start + "-" + _end + "/" + _length;
+	}
+}
@@ -0,0 +1,152 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+
+/**
+ * Gzip compresses everything written to it once at least {@code minSize}
+ * bytes have been written. Until then bytes are held in a buffer so
+ * responses smaller than {@code minSize} are written as is. When compression
+ * starts the {@code Content-Encoding} header is set and {@code Content-Length}
+ * is removed from the response headers passed in via the constructor, which
+ * is safe since nothing has been written to the underlying stream yet.
+ *
+ * @author churas
+ */
+public class CompressingOutputStream extends OutputStream {
+
+	/**
+	 * Value of {@code Content-Encoding} header for gzip
+	 */
+	public static final String GZIP = "gzip";
+
+	/**
+	 * Size in bytes of buffer used by gzip
+	 */
+	public static final int GZIP_BUFFER_SIZE = 8192;
+
+	private final CountingOutputStream _out;
+	private final MultivaluedMap<String, Object> _headers;
+	private final int _minSize;
+	private final int _level;
+	private ByteArrayOutputStream _buffer;
+	private GZIPOutputStream _gzip;
+	private long _bytesIn;
+	private boolean _finished;
+
+	/**
+	 * Constructor
+	 * @param out stream to write to
+	 * @param headers response headers, updated when compression starts
+	 * @param minSize number of bytes that must be written before compression
+	 *                starts
+	 * @param level gzip compression level 1-9
+	 */
+	public CompressingOutputStream(final OutputStream out,
+			MultivaluedMap<String, Object> headers, int minSize, int level){
+		_out = new CountingOutputStream(out);
+		_headers = headers;
+		_minSize = Math.max(0, minSize);
+		_level = level;
+		_buffer = new ByteArrayOutputStream(Math.min(_minSize, GZIP_BUFFER_SIZE));
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] {(byte)b}, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (len <= 0){
+			return;
+		}
+		_bytesIn += len;
+		if (_gzip != null){
+			_gzip.write(b, off, len);
+			return;
+		}
+		_buffer.write(b, off, len);
+		if (_buffer.size() >= _minSize){
+			startCompressing();
+		}
+	}
+
+	/**
+	 * Flushes compressed data. If compression has not started the
+	 * buffered bytes are held since they may still need to be compressed
+	 * @throws IOException if flush fails
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (_gzip != null){
+			_gzip.flush();
+		}
+	}
+
+	/**
+	 * Writes any remaining data, compressed or not, without closing the
+	 * underlying stream
+	 * @throws IOException if write fails
+	 */
+	public void finish() throws IOException {
+		if (_finished){
+			return;
+		}
+		_finished = true;
+		if (_gzip != null){
+			_gzip.finish();
+		} else if (_buffer.size() > 0){
+			_buffer.writeTo(_out);
+			_buffer = null;
+		}
+		_out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		finish();
+		_out.close();
+	}
+
+	/**
+	 * Denotes if data written was compressed
+	 * @return {@code true} if compressed
+	 */
+	public boolean isCompressed(){
+		return _gzip != null;
+	}
+
+	/**
+	 * Gets number of bytes written to this stream
+	 * @return number of bytes before compression
+	 */
+	public long getBytesIn(){
+		return _bytesIn;
+	}
+
+	/**
+	 * Gets number of bytes written to the underlying stream
+	 * @return number of bytes after compression
+	 */
+	public long getBytesOut(){
+		return _out.getByteCount();
+	}
+
+	private void startCompressing() throws IOException {
+		_headers.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+		_headers.remove(HttpHeaders.CONTENT_LENGTH);
+		_gzip = new GZIPOutputStream(_out, GZIP_BUFFER_SIZE, true){
+			{
+				def.setLevel(_level);
+			}
+		};
+		_buffer.writeTo(_gzip);
+		_buffer = null;
+	}
+}
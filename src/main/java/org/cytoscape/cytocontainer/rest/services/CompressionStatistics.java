@@ -0,0 +1,77 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts compressed responses and decompressed requests handled by
+ * {@link ContentEncodingInterceptor} along with bytes saved by
+ * compression
+ *
+ * @author churas
+ */
+public class CompressionStatistics {
+
+	private final AtomicLong _compressedResponses = new AtomicLong(0);
+	private final AtomicLong _bytesIn = new AtomicLong(0);
+	private final AtomicLong _bytesOut = new AtomicLong(0);
+	private final AtomicLong _decompressedRequests = new AtomicLong(0);
+
+	/**
+	 * Records a compressed response
+	 * @param bytesIn size of response before compression
+	 * @param bytesOut size of response after compression
+	 */
+	public void responseCompressed(long bytesIn, long bytesOut){
+		_compressedResponses.incrementAndGet();
+		_bytesIn.addAndGet(bytesIn);
+		_bytesOut.addAndGet(bytesOut);
+	}
+
+	/**
+	 * Records a compressed request
+	 */
+	public void requestDecompressed(){
+		_decompressedRequests.incrementAndGet();
+	}
+
+	/**
+	 * Gets number of responses compressed
+	 * @return number of responses
+	 */
+	public long getCompressedResponses(){
+		return _compressedResponses.get();
+	}
+
+	/**
+	 * Gets total size of compressed responses before compression
+	 * @return size in bytes
+	 */
+	public long getBytesIn(){
+		return _bytesIn.get();
+	}
+
+	/**
+	 * Gets total size of compressed responses after compression
+	 * @return size in bytes
+	 */
+	public long getBytesOut(){
+		return _bytesOut.get();
+	}
+
+	/**
+	 * Gets bytes not sent due to compression
+	 * @return size in bytes, can be negative if compression made
+	 *         responses larger
+	 */
+	public long getBytesSaved(){
+		return _bytesIn.get() - _bytesOut.get();
+	}
+
+	/**
+	 * Gets number of compressed requests received
+	 * @return number of requests
+	 */
+	public long getDecompressedRequests(){
+		return _decompressedRequests.get();
+	}
+}
@@ -1,11 +1,19 @@
 package org.cytoscape.cytocontainer.rest.services;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.nio.file.Paths;
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
+import java.util.Map;
 
 import java.util.Properties;
 import javax.naming.InitialContext;
@@ -18,6 +26,9 @@ import org.slf4j.LoggerFactory;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
 import org.cytoscape.cytocontainer.rest.engine.CytoContainerEngine;
+import org.cytoscape.cytocontainer.rest.engine.util.DaemonSettings;
+import org.cytoscape.cytocontainer.rest.engine.util.OutputSettings;
+import org.cytoscape.cytocontainer.rest.engine.util.ResourceSettings;
 
 /**
  * Contains configuration for Enrichment. The configuration
@@ -40,7 +51,29 @@ public class Configuration {
     public static final String TASK_DIR = "cytocontainer.task.dir";
     public static final String HOST_URL = "cytocontainer.host.url";    
     public static final String NUM_WORKERS = "cytocontainer.number.workers";
+    public static final String MAX_QUEUE_SIZE = "cytocontainer.max.queue.size";
+    public static final String RESULT_CACHE_SIZE = "cytocontainer.result.cache.size";
+    public static final String RESULT_CACHE_TTL = "cytocontainer.result.cache.ttl";
+    public static final String COALESCE_REQUESTS = "cytocontainer.coalesce.requests";
+    public static final String COMPLETED_RESULT_CACHE_BYTES = "cytocontainer.completed.result.cache.bytes";
+    public static final String COMPLETED_STATUS_CACHE_SIZE = "cytocontainer.completed.status.cache.size";
+    public static final String EVENTS_POLL_INTERVAL = "cytocontainer.events.poll.interval";
+    public static final String LONG_POLL_MAX_WAIT = "cytocontainer.long.poll.max.wait";
+    public static final String RESULT_DATA_MAX_WAIT = "cytocontainer.result.data.max.wait";
+    public static final String COMPRESSION_ENABLED = "cytocontainer.compression.enabled";
+    public static final String COMPRESSION_LEVEL = "cytocontainer.compression.level";
+    public static final String COMPRESSION_MIN_SIZE = "cytocontainer.compression.min.size";
+    public static final String TASK_COMPRESSION = "cytocontainer.task.compression";
+    public static final String TASK_COMPRESSION_DELAY = "cytocontainer.task.compression.delay";
     public static final String DOCKER_CMD = "cytocontainer.docker.cmd";
+    public static final String DOCKER_SOCKET = "cytocontainer.docker.socket";
+    public static final String REAP_ORPHANED_CONTAINERS = "cytocontainer.reap.orphaned.containers";
+    public static final String INSTANCE_ID = "cytocontainer.instance.id";
+    public static final String SCHEDULER_ENABLED = "cytocontainer.scheduler.enabled";
+    public static final String SCHEDULER_CPUS = "cytocontainer.scheduler.cpus";
+    public static final String SCHEDULER_MEMORY = "cytocontainer.scheduler.memory";
+    public static final String CPUSET_ENABLED = "cytocontainer.cpuset.enabled";
+    public static final String CPUSET_CPUS = "cytocontainer.cpuset.cpus";
     public static final String ALGORITHM_CONF_DIR = "cytocontainer.algorithm.conf.dir";
     public static final String ALGORITHM_TIMEOUT = "cytocontainer.algorithm.timeout";
 
@@ -48,6 +81,18 @@ public class Configuration {
     public static final String DIFFUSION_ALGO = "cytocontainer.diffusion.algorithm";
     public static final String DIFFUSION_POLLDELAY = "cytocontainer.diffusion.polldelay";
 	public static final String BYTES_OF_STDERR_TO_PARSE = "cytocontainer.bytes.of.stderr.toparse";
+	
+	/**
+	 * Prefix for per algorithm settings which take the form of
+	 * {@code cytocontainer.algo.<algorithm name><suffix>}
+	 */
+	public static final String ALGORITHM_PREFIX = "cytocontainer.algo.";
+	public static final String ALGORITHM_NUM_WORKERS_SUFFIX = ".number.workers";
+	public static final String ALGORITHM_QUEUE_SIZE_SUFFIX = ".queue.size";
+	public static final String ALGORITHM_CACHE_ENABLED_SUFFIX = ".cache.enabled";
+	public static final String ALGORITHM_COALESCE_ENABLED_SUFFIX = ".coalesce.enabled";
+	public static final String ALGORITHM_WARM_POOL_MIN_SUFFIX = ".warm.pool.min";
+	public static final String ALGORITHM_WARM_POOL_MAX_SUFFIX = ".warm.pool.max";
     public static final String SWAGGER_TITLE = "swagger.title";
     public static final String SWAGGER_DESC = "swagger.description";
 
@@ -62,12 +107,37 @@ public class Configuration {
     private static String _taskDir;
     private static String _hostURL;
     private static String _dockerCmd;
+    private String _dockerSocket;
+    private boolean _reapOrphanedContainers;
+    private String _instanceId;
+    private boolean _schedulerEnabled;
+    private double _schedulerCpus;
+    private long _schedulerMemory;
+    private boolean _cpuSetEnabled;
+    private String _cpuSetCpus;
     private static int _numWorkers;
+    private int _maxQueueSize;
+    private int _resultCacheSize;
+    private long _resultCacheTTL;
+    private boolean _coalesceRequests;
+    private long _completedResultCacheBytes;
+    private int _completedStatusCacheSize;
+    private long _eventsPollInterval;
+    private long _longPollMaxWait;
+    private long _resultDataMaxWait;
+    private boolean _compressionEnabled;
+    private int _compressionLevel;
+    private int _compressionMinSize;
+    private String _taskCompression;
+    private long _taskCompressionDelay;
 	private static String _name;
 	private static String _description;
 	private static String _inputDataFormat;
 	private static String _outputDataFormat;
     private static CytoContainerAlgorithms _algorithms;
+    private final Map<String, DaemonSettings> _algorithmDaemonSettings = new LinkedHashMap<>();
+    private final Map<String, ResourceSettings> _algorithmResourceSettings = new LinkedHashMap<>();
+    private final Map<String, OutputSettings> _algorithmOutputSettings = new LinkedHashMap<>();
     private static long _diffusionPollingDelay;
     private static long _timeOut;
     private String _mountOptions;
@@ -76,6 +146,7 @@ public class Configuration {
     private String _contextPath;
     private String _applicationPath;
 	private long _bytesOfStdErrToParse;
+	private Properties _props;
     
     /**
      * Constructor that attempts to get configuration from properties file
@@ -103,8 +174,36 @@ public class Configuration {
         _taskDir = Paths.get(props.getProperty(Configuration.TASK_DIR, "/tmp")).toAbsolutePath().normalize().toString();
         
         _numWorkers = Integer.parseInt(props.getProperty(Configuration.NUM_WORKERS, "1"));
+        _maxQueueSize = Integer.parseInt(props.getProperty(Configuration.MAX_QUEUE_SIZE, "0"));
+        _resultCacheSize = Integer.parseInt(props.getProperty(Configuration.RESULT_CACHE_SIZE, "0"));
+        _resultCacheTTL = Long.parseLong(props.getProperty(Configuration.RESULT_CACHE_TTL, "3600"));
+        _coalesceRequests = Boolean.parseBoolean(props.getProperty(Configuration.COALESCE_REQUESTS, "false").trim());
+        _completedResultCacheBytes = Long.parseLong(props.getProperty(Configuration.COMPLETED_RESULT_CACHE_BYTES, "67108864"));
+        _completedStatusCacheSize = Integer.parseInt(props.getProperty(Configuration.COMPLETED_STATUS_CACHE_SIZE, "10000"));
+        _eventsPollInterval = Long.parseLong(props.getProperty(Configuration.EVENTS_POLL_INTERVAL, "1000"));
+        _longPollMaxWait = Long.parseLong(props.getProperty(Configuration.LONG_POLL_MAX_WAIT, "60000"));
+        _resultDataMaxWait = Long.parseLong(props.getProperty(Configuration.RESULT_DATA_MAX_WAIT, "60000"));
+        _compressionEnabled = Boolean.parseBoolean(props.getProperty(Configuration.COMPRESSION_ENABLED, "true").trim());
+        _compressionLevel = Integer.parseInt(props.getProperty(Configuration.COMPRESSION_LEVEL, "6"));
+        _compressionMinSize = Integer.parseInt(props.getProperty(Configuration.COMPRESSION_MIN_SIZE, "1024"));
+        _taskCompression = props.getProperty(Configuration.TASK_COMPRESSION, "none").trim();
+        _taskCompressionDelay = Long.parseLong(props.getProperty(Configuration.TASK_COMPRESSION_DELAY, "60000"));
         _hostURL = props.getProperty(Configuration.HOST_URL, "");
         _dockerCmd = props.getProperty(Configuration.DOCKER_CMD, "docker");
+        _dockerSocket = props.getProperty(Configuration.DOCKER_SOCKET, "").trim();
+        _reapOrphanedContainers = Boolean.parseBoolean(props.getProperty(Configuration.REAP_ORPHANED_CONTAINERS, "true").trim());
+        _instanceId = props.getProperty(Configuration.INSTANCE_ID, "").trim();
+        if (_instanceId.isEmpty()){
+            _instanceId = getDefaultInstanceId(_taskDir);
+        }
+        _schedulerEnabled = Boolean.parseBoolean(props.getProperty(Configuration.SCHEDULER_ENABLED, "false").trim());
+        _schedulerCpus = Double.parseDouble(props.getProperty(Configuration.SCHEDULER_CPUS,
+                Integer.toString(Runtime.getRuntime().availableProcessors())).trim());
+        _schedulerMemory = ResourceSettings.parseMemory(props.getProperty(Configuration.SCHEDULER_MEMORY,
+                Long.toString(getTotalPhysicalMemory())));
+        _cpuSetEnabled = Boolean.parseBoolean(props.getProperty(Configuration.CPUSET_ENABLED, "false").trim());
+        _cpuSetCpus = props.getProperty(Configuration.CPUSET_CPUS,
+                "0-" + Integer.toString(Runtime.getRuntime().availableProcessors() - 1)).trim();
         _algorithms = getAlgorithms(props.getProperty(Configuration.ALGORITHM_CONF_DIR, null));
         _timeOut = Long.parseLong(props.getProperty(Configuration.ALGORITHM_TIMEOUT, "180"));
         _mountOptions = props.getProperty(Configuration.MOUNT_OPTIONS, ":ro");
@@ -120,6 +219,7 @@ public class Configuration {
             _hostURL =_hostURL + "/";
         }
 		_bytesOfStdErrToParse = Long.parseLong(props.getProperty(Configuration.BYTES_OF_STDERR_TO_PARSE, Long.toString(1024*1024*10)));
+		_props = props;
     }
     
     protected CytoContainerAlgorithms getAlgorithms(final String algoConfDir){
@@ -144,10 +244,26 @@ public class Configuration {
 		String[] extensions = new String[] { "json" };
 		CytoContainerAlgorithm algo = null;
 		String algoName = null;
+		DaemonSettings daemon = null;
+		ResourceSettings resources = null;
+		OutputSettings output = null;
 		for (File f : FileUtils.listFiles(algoFileDir, extensions, true)){
 	        ObjectMapper mapper = new ObjectMapper();
 			try {
-				algo =  mapper.readValue(f, CytoContainerAlgorithm.class);
+				JsonNode algoNode = mapper.readTree(f);
+				// daemon, resource, and output settings are not part of the algorithm model
+				JsonNode daemonNode = null;
+				JsonNode resourcesNode = null;
+				JsonNode outputNode = null;
+				if (algoNode instanceof ObjectNode){
+					daemonNode = ((ObjectNode)algoNode).remove(DaemonSettings.ALGORITHM_JSON_FIELD);
+					resourcesNode = ((ObjectNode)algoNode).remove(ResourceSettings.ALGORITHM_JSON_FIELD);
+					outputNode = ((ObjectNode)algoNode).remove(OutputSettings.ALGORITHM_JSON_FIELD);
+				}
+				algo =  mapper.treeToValue(algoNode, CytoContainerAlgorithm.class);
+				daemon = daemonNode == null ? null : mapper.treeToValue(daemonNode, DaemonSettings.class);
+				resources = resourcesNode == null ? null : mapper.treeToValue(resourcesNode, ResourceSettings.class);
+				output = outputNode == null ? null : mapper.treeToValue(outputNode, OutputSettings.class);
 				algoName = FilenameUtils.removeExtension(f.getName());
 			}
 			catch(IOException io){
@@ -159,6 +275,20 @@ public class Configuration {
 				continue;
 			}
 			algoMap.put(algoName, algo);
+			if (daemon != null){
+				_algorithmDaemonSettings.put(algoName, daemon);
+			}
+			if (output != null){
+				_algorithmOutputSettings.put(algoName, output);
+			}
+			if (resources != null){
+				try {
+					resources.getDockerOptions();
+					_algorithmResourceSettings.put(algoName, resources);
+				} catch(IllegalArgumentException iae){
+					_logger.error("Ignoring resources of " + algoName + ": " + iae.getMessage());
+				}
+			}
 		}
         cca.setAlgorithms(algoMap);
         return cca;
@@ -196,6 +326,125 @@ public class Configuration {
         return _numWorkers;
     }
     
+    /**
+     * Gets max number of tasks, across all algorithms, that can be
+     * waiting to run before new tasks are rejected
+     * @return max queue size or {@code 0} if unbounded
+     */
+    public int getMaxQueueSize(){
+        return _maxQueueSize;
+    }
+    
+    /**
+     * Gets max number of entries in cache of completed results
+     * reused for identical requests
+     * @return max entries or {@code 0} if caching is disabled
+     */
+    public int getResultCacheSize(){
+        return _resultCacheSize;
+    }
+    
+    /**
+     * Gets how long a result stays in the result cache
+     * @return seconds, {@code 0} or less means entries never expire
+     */
+    public long getResultCacheTTL(){
+        return _resultCacheTTL;
+    }
+    
+    /**
+     * Denotes if identical requests should be attached to a task
+     * already queued or running instead of running again
+     * @return {@code true} if requests should be coalesced
+     */
+    public boolean isCoalesceRequests(){
+        return _coalesceRequests;
+    }
+    
+    /**
+     * Gets max total size of finished results kept in memory
+     * @return size in bytes, {@code 0} or less disables the cache
+     */
+    public long getCompletedResultCacheBytes(){
+        return _completedResultCacheBytes;
+    }
+    
+    /**
+     * Gets max number of status records of finished tasks kept in memory
+     * @return number of entries, {@code 0} or less disables the cache
+     */
+    public int getCompletedStatusCacheSize(){
+        return _completedStatusCacheSize;
+    }
+    
+    /**
+     * Gets time between checks of task status for clients subscribed
+     * to the events endpoint
+     * @return milliseconds
+     */
+    public long getEventsPollInterval(){
+        return _eventsPollInterval;
+    }
+    
+    /**
+     * Gets max time a request to the result or status endpoint can
+     * be held via the {@code waitMs} parameter
+     * @return milliseconds
+     */
+    public long getLongPollMaxWait(){
+        return _longPollMaxWait;
+    }
+    
+    /**
+     * Gets max time a request for result data is held waiting for
+     * the task to finish before a {@code 202} is returned
+     * @return milliseconds
+     */
+    public long getResultDataMaxWait(){
+        return _resultDataMaxWait;
+    }
+    
+    /**
+     * Denotes if responses should be compressed for clients that
+     * accept it and compressed requests should be accepted
+     * @return {@code true} if compression is enabled
+     */
+    public boolean isCompressionEnabled(){
+        return _compressionEnabled;
+    }
+    
+    /**
+     * Gets level used to compress responses and files of finished tasks
+     * @return level from 1 (fastest) to 9 (smallest)
+     */
+    public int getCompressionLevel(){
+        return _compressionLevel;
+    }
+    
+    /**
+     * Gets size of responses below which they are not compressed
+     * @return size in bytes
+     */
+    public int getCompressionMinSize(){
+        return _compressionMinSize;
+    }
+    
+    /**
+     * Gets how files of finished tasks are compressed
+     * @return {@code gzip} or {@code none}
+     */
+    public String getTaskCompression(){
+        return _taskCompression;
+    }
+    
+    /**
+     * Gets time after a task finishes to wait before compressing its files
+     * @return milliseconds
+     */
+    public long getTaskCompressionDelay(){
+        return _taskCompressionDelay;
+    }
+    
     /**
      * Algorithm timeout
      * @return seconds
@@ -212,6 +461,54 @@ public class Configuration {
         return _dockerCmd;
     }
     
+    /**
+     * Path to Unix socket of Docker or Podman Engine API. If set, containers
+     * are run by talking to the API directly instead of invoking
+     * {@link #getDockerCommand() }
+     * @return path to socket or empty string if not set
+     */
+    public String getDockerSocket(){
+        return _dockerSocket;
+    }
+    
+    /**
+     * Whether containers left behind by a previous run of this service
+     * should be removed on startup. Only containers with the
+     * {@link #getInstanceId() } of this instance in their name are removed
+     * @return {@code true} if orphaned containers should be removed
+     */
+    public boolean isReapOrphanedContainers(){
+        return _reapOrphanedContainers;
+    }
+    
+    /**
+     * Id of this instance of the service put in names of containers so
+     * instances sharing a docker host only remove their own containers
+     * @return id set via {@link #INSTANCE_ID} or, if not set, the first
+     *         8 hex digits of the SHA-256 digest of the task directory
+     */
+    public String getInstanceId(){
+        return _instanceId;
+    }
+    
+    /**
+     * Derives an instance id from {@code taskDir} which stays the same
+     * across restarts and differs between instances with their own
+     * task directories
+     * @param taskDir task directory
+     * @return first 8 hex digits of SHA-256 digest of {@code taskDir}
+     */
+    public static String getDefaultInstanceId(final String taskDir){
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(taskDir.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 4);
+        } catch(NoSuchAlgorithmException nsae){
+            // every JVM is required to support SHA-256
+            throw new IllegalStateException(nsae);
+        }
+    }
+    
     /**
      * Algorithms available from this service
      * @return algorithms
@@ -220,6 +517,88 @@ public class Configuration {
         return _algorithms;
     }
     
+    /**
+     * Daemon settings of algorithms whose JSON file has a
+     * {@link DaemonSettings#ALGORITHM_JSON_FIELD} field
+     * @return map of algorithm name => settings, empty if there are none
+     */
+    public Map<String, DaemonSettings> getAlgorithmDaemonSettings(){
+        return _algorithmDaemonSettings;
+    }
+    
+    /**
+     * Resources of algorithms whose JSON file has a
+     * {@link ResourceSettings#ALGORITHM_JSON_FIELD} field
+     * @return map of algorithm name => settings, empty if there are none
+     */
+    public Map<String, ResourceSettings> getAlgorithmResourceSettings(){
+        return _algorithmResourceSettings;
+    }
+    
+    /**
+     * Output settings of algorithms whose JSON file has a
+     * {@link OutputSettings#ALGORITHM_JSON_FIELD} field
+     * @return map of algorithm name => settings, empty if there are none
+     */
+    public Map<String, OutputSettings> getAlgorithmOutputSettings(){
+        return _algorithmOutputSettings;
+    }
+    
+    /**
+     * Whether tasks only start once the CPU and memory their algorithm
+     * declares are free on the host
+     * @return {@code true} if enabled
+     */
+    public boolean isSchedulerEnabled(){
+        return _schedulerEnabled;
+    }
+    
+    /**
+     * CPUs of host the scheduler hands out to tasks
+     * @return CPUs, defaults to number of processors
+     */
+    public double getSchedulerCpus(){
+        return _schedulerCpus;
+    }
+    
+    /**
+     * Memory in bytes of host the scheduler hands out to tasks
+     * @return memory, defaults to physical memory of host, {@code 0} if unknown
+     */
+    public long getSchedulerMemory(){
+        return _schedulerMemory;
+    }
+    
+    /**
+     * Whether containers of running tasks are pinned to disjoint sets
+     * of cores
+     * @return {@code true} if enabled
+     */
+    public boolean isCpuSetEnabled(){
+        return _cpuSetEnabled;
+    }
+    
+    /**
+     * Cores containers can be pinned to in format accepted by
+     * {@code docker run --cpuset-cpus}
+     * @return cores, defaults to all processors ie {@code 0-7}
+     */
+    public String getCpuSetCpus(){
+        return _cpuSetCpus;
+    }
+    
+    /**
+     * Gets physical memory of host
+     * @return memory in bytes or {@code 0} if it could not be determined
+     */
+    private static long getTotalPhysicalMemory(){
+        java.lang.management.OperatingSystemMXBean omb = ManagementFactory.getOperatingSystemMXBean();
+        if (omb instanceof com.sun.management.OperatingSystemMXBean){
+            return ((com.sun.management.OperatingSystemMXBean)omb).getTotalMemorySize();
+        }
+        return 0;
+    }
+    
     /**
      * Mount options needed by containers such as docker or pod
      * @return usually :ro or :ro,z
@@ -320,6 +699,108 @@ public class Configuration {
 	public long getNumberOfBytesToParseFromStdErrorFile(){
 		return this._bytesOfStdErrToParse;
 	}
+	
+	/**
+	 * Gets value of per algorithm setting from configuration. The key
+	 * looked up is {@link #ALGORITHM_PREFIX} + {@code algorithm} + {@code suffix}
+	 * @param algorithm name of algorithm
+	 * @param suffix setting suffix ie {@link #ALGORITHM_NUM_WORKERS_SUFFIX}
+	 * @param defaultValue value to return if setting is not found
+	 * @return value of setting or {@code defaultValue} if not found
+	 */
+	public String getAlgorithmProperty(final String algorithm, final String suffix,
+			final String defaultValue){
+		if (_props == null || algorithm == null || suffix == null){
+			return defaultValue;
+		}
+		return _props.getProperty(ALGORITHM_PREFIX + algorithm + suffix, defaultValue);
+	}
+	
+	/**
+	 * Gets number of workers dedicated to running {@code algorithm}
+	 * set via {@code cytocontainer.algo.<algorithm>.number.workers}
+	 * @param algorithm name of algorithm
+	 * @return number of dedicated workers or {@code 0} if algorithm should
+	 *         share the common pool of {@link #getNumberWorkers()} workers
+	 */
+	public int getAlgorithmNumberWorkers(final String algorithm){
+		return getAlgorithmIntProperty(algorithm, ALGORITHM_NUM_WORKERS_SUFFIX, 0);
+	}
+	
+	/**
+	 * Gets maximum number of tasks that can wait in queue for {@code algorithm}
+	 * set via {@code cytocontainer.algo.<algorithm>.queue.size}
+	 * @param algorithm name of algorithm
+	 * @return maximum queue size or {@code 0} if unbounded
+	 */
+	public int getAlgorithmQueueSize(final String algorithm){
+		return getAlgorithmIntProperty(algorithm, ALGORITHM_QUEUE_SIZE_SUFFIX, 0);
+	}
+	
+	/**
+	 * Denotes if results of {@code algorithm} can be reused for identical
+	 * requests. Non deterministic algorithms should disable this via
+	 * {@code cytocontainer.algo.<algorithm>.cache.enabled = false}
+	 * @param algorithm name of algorithm
+	 * @return {@code false} if disabled for algorithm otherwise {@code true}
+	 */
+	public boolean isAlgorithmResultCacheEnabled(final String algorithm){
+		return Boolean.parseBoolean(getAlgorithmProperty(algorithm,
+				ALGORITHM_CACHE_ENABLED_SUFFIX, "true").trim());
+	}
+	
+	/**
+	 * Denotes if identical requests for {@code algorithm} can share a single
+	 * run. Non deterministic algorithms should disable this via
+	 * {@code cytocontainer.algo.<algorithm>.coalesce.enabled = false}
+	 * @param algorithm name of algorithm
+	 * @return {@code false} if disabled for algorithm otherwise {@code true}
+	 */
+	public boolean isAlgorithmCoalesceEnabled(final String algorithm){
+		return Boolean.parseBoolean(getAlgorithmProperty(algorithm,
+				ALGORITHM_COALESCE_ENABLED_SUFFIX, "true").trim());
+	}
+	
+	/**
+	 * Gets number of idle pre-created containers below which the warm
+	 * container pool for {@code algorithm} is refilled, set via
+	 * {@code cytocontainer.algo.<algorithm>.warm.pool.min}. Requires
+	 * {@link #getDockerSocket() } to be set
+	 * @param algorithm name of algorithm
+	 * @return minimum idle containers or {@code 0} if algorithm has no pool
+	 */
+	public int getAlgorithmWarmPoolMinIdle(final String algorithm){
+		return getAlgorithmIntProperty(algorithm, ALGORITHM_WARM_POOL_MIN_SUFFIX, 0);
+	}
+	
+	/**
+	 * Gets number of idle pre-created containers the warm container pool
+	 * for {@code algorithm} is filled to, set via
+	 * {@code cytocontainer.algo.<algorithm>.warm.pool.max}
+	 * @param algorithm name of algorithm
+	 * @return maximum idle containers, never less than
+	 *         {@link #getAlgorithmWarmPoolMinIdle(java.lang.String) }
+	 */
+	public int getAlgorithmWarmPoolMaxIdle(final String algorithm){
+		int minIdle = getAlgorithmWarmPoolMinIdle(algorithm);
+		return Math.max(minIdle, getAlgorithmIntProperty(algorithm,
+				ALGORITHM_WARM_POOL_MAX_SUFFIX, minIdle));
+	}
+	
+	private int getAlgorithmIntProperty(final String algorithm, final String suffix,
+			int defaultValue){
+		String val = getAlgorithmProperty(algorithm, suffix, null);
+		if (val == null){
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(val.trim());
+		} catch(NumberFormatException nfe){
+			_logger.error("Invalid value for " + ALGORITHM_PREFIX + algorithm
+					+ suffix + " : " + val + " using default: " + defaultValue);
+		}
+		return defaultValue;
+	}
     
     /**
      * Gets singleton instance of configuration
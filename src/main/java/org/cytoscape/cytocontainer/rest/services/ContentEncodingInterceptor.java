@@ -0,0 +1,246 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import jakarta.ws.rs.NotSupportedException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Gzip compresses responses for clients that send {@code Accept-Encoding: gzip}
+ * and decompresses request bodies sent with {@code Content-Encoding: gzip}.
+ * Responses smaller than {@link Configuration#getCompressionMinSize() } bytes,
+ * responses that already have a {@code Content-Encoding}, partial content
+ * responses, responses that advertise {@code Accept-Ranges}, and server
+ * sent events are sent as is. Counts of compressed
+ * responses and bytes saved are available via {@link #getStatistics() }
+ *
+ * @author churas
+ */
+@Provider
+public class ContentEncodingInterceptor implements ReaderInterceptor, WriterInterceptor {
+
+	static Logger _logger = LoggerFactory.getLogger(ContentEncodingInterceptor.class);
+
+	/**
+	 * Alternate name for gzip encoding
+	 */
+	public static final String X_GZIP = "x-gzip";
+
+	/**
+	 * Encoding denoting no compression
+	 */
+	public static final String IDENTITY = "identity";
+
+	/**
+	 * Response header listing request headers that changed the response
+	 */
+	public static final String VARY = "Vary";
+
+	private static final CompressionStatistics STATISTICS = new CompressionStatistics();
+
+	private final boolean _enabled;
+	private final int _level;
+	private final int _minSize;
+
+	@Context
+	private HttpHeaders _requestHeaders;
+
+	/**
+	 * Constructor that gets settings from {@link Configuration}
+	 */
+	public ContentEncodingInterceptor(){
+		boolean enabled = true;
+		int level = 6;
+		int minSize = 1024;
+		try {
+			Configuration config = Configuration.getInstance();
+			enabled = config.isCompressionEnabled();
+			level = config.getCompressionLevel();
+			minSize = config.getCompressionMinSize();
+		} catch(Exception ex){
+			_logger.error("Unable to get compression settings, using defaults", ex);
+		}
+		_enabled = enabled;
+		_level = level;
+		_minSize = minSize;
+	}
+
+	/**
+	 * Constructor
+	 * @param enabled if {@code false} requests and responses are passed
+	 *                through as is
+	 * @param level gzip compression level 1-9
+	 * @param minSize responses smaller than this many bytes are not compressed
+	 */
+	public ContentEncodingInterceptor(boolean enabled, int level, int minSize){
+		_enabled = enabled;
+		_level = level;
+		_minSize = minSize;
+	}
+
+	/**
+	 * Gets counts of compressed responses and requests
+	 * @return statistics shared by all instances of this class
+	 */
+	public static CompressionStatistics getStatistics(){
+		return STATISTICS;
+	}
+
+	/**
+	 * Decompresses request body if {@code Content-Encoding} is gzip
+	 * @param context the context
+	 * @return the request entity
+	 * @throws IOException if the body is not valid gzip
+	 * @throws WebApplicationException if {@code Content-Encoding} is not
+	 *         supported
+	 */
+	@Override
+	public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException, WebApplicationException {
+		if (_enabled == false){
+			return context.proceed();
+		}
+		String encoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+		if (encoding == null || encoding.trim().isEmpty()
+				|| encoding.trim().equalsIgnoreCase(IDENTITY)){
+			return context.proceed();
+		}
+		if (isGzip(encoding.trim()) == false){
+			throw new NotSupportedException("Content-Encoding " + encoding
+					+ " is not supported, only " + CompressingOutputStream.GZIP + " is");
+		}
+		context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+		context.setInputStream(new GZIPInputStream(context.getInputStream(),
+				CompressingOutputStream.GZIP_BUFFER_SIZE));
+		STATISTICS.requestDecompressed();
+		return context.proceed();
+	}
+
+	/**
+	 * Compresses response if client accepts gzip and the response
+	 * is large enough
+	 * @param context the context
+	 * @throws IOException if write fails
+	 * @throws WebApplicationException if raised by writer
+	 */
+	@Override
+	public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+		if (_enabled == false || isCompressible(context) == false){
+			context.proceed();
+			return;
+		}
+		MultivaluedMap<String, Object> headers = context.getHeaders();
+		headers.add(VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (isGzipAccepted(getAcceptEncoding()) == false){
+			context.proceed();
+			return;
+		}
+		Object contentLength = headers.getFirst(HttpHeaders.CONTENT_LENGTH);
+		if (contentLength != null){
+			try {
+				if (Long.parseLong(contentLength.toString()) < _minSize){
+					context.proceed();
+					return;
+				}
+			} catch(NumberFormatException nfe){
+				_logger.debug("Unable to parse " + HttpHeaders.CONTENT_LENGTH
+						+ ": " + contentLength);
+			}
+		}
+		OutputStream origOut = context.getOutputStream();
+		CompressingOutputStream compressOut = new CompressingOutputStream(origOut,
+				headers, _minSize, _level);
+		context.setOutputStream(compressOut);
+		try {
+			context.proceed();
+			compressOut.finish();
+		} finally {
+			context.setOutputStream(origOut);
+		}
+		if (compressOut.isCompressed()){
+			STATISTICS.responseCompressed(compressOut.getBytesIn(),
+					compressOut.getBytesOut());
+		}
+	}
+
+	/**
+	 * Parses value of {@code Accept-Encoding} header
+	 * @param acceptEncoding value of header, can be {@code null}
+	 * @return {@code true} if gzip is listed, or {@code *} is listed and
+	 *         gzip is not, with a non zero quality value
+	 */
+	public static boolean isGzipAccepted(final String acceptEncoding){
+		if (acceptEncoding == null){
+			return false;
+		}
+		Double gzipQuality = null;
+		Double wildcardQuality = null;
+		for (String coding : acceptEncoding.split(",")){
+			String[] parts = coding.split(";");
+			String name = parts[0].trim();
+			double quality = 1.0;
+			for (int i = 1; i < parts.length; i++){
+				String param = parts[i].trim();
+				if (param.startsWith("q=")){
+					try {
+						quality = Double.parseDouble(param.substring(2).trim());
+					} catch(NumberFormatException nfe){
+						quality = 0.0;
+					}
+				}
+			}
+			if (isGzip(name)){
+				gzipQuality = quality;
+			} else if (name.equals("*")){
+				wildcardQuality = quality;
+			}
+		}
+		if (gzipQuality != null){
+			return gzipQuality > 0.0;
+		}
+		return wildcardQuality != null && wildcardQuality > 0.0;
+	}
+
+	private static boolean isGzip(final String encoding){
+		return encoding.equalsIgnoreCase(CompressingOutputStream.GZIP)
+				|| encoding.equalsIgnoreCase(X_GZIP);
+	}
+
+	private String getAcceptEncoding(){
+		if (_requestHeaders == null){
+			return null;
+		}
+		return _requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+	}
+
+	/**
+	 * Responses already encoded, partial content, and event streams
+	 * are not compressed. Neither are responses that advertise
+	 * {@code Accept-Ranges} since ranges refer to the unencoded body
+	 * and those responses stream files that are sent as is
+	 * @param context the context
+	 * @return {@code true} if response can be compressed
+	 */
+	private boolean isCompressible(WriterInterceptorContext context){
+		MultivaluedMap<String, Object> headers = context.getHeaders();
+		if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+				|| headers.containsKey(CytoContainer.CONTENT_RANGE)
+				|| headers.containsKey(CytoContainer.ACCEPT_RANGES)){
+			return false;
+		}
+		MediaType mediaType = context.getMediaType();
+		return mediaType == null
+				|| MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(mediaType) == false;
+	}
+}
@@ -1,14 +1,19 @@
 package org.cytoscape.cytocontainer.rest.services; // Note your package will be {{ groupId }}.rest
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.NoSuchFileException;
+import java.util.function.Supplier;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,9 +24,17 @@ import io.swagger.v3.oas.annotations.servers.Server;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
@@ -30,6 +43,11 @@ import org.cytoscape.cytocontainer.rest.model.CytoContainerRequestId;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerBadRequestException;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
 import org.cytoscape.cytocontainer.rest.engine.CytoContainerEngine;
+import org.cytoscape.cytocontainer.rest.engine.CytoContainerQueueFullException;
+import org.cytoscape.cytocontainer.rest.engine.ResultDataFile;
+import org.cytoscape.cytocontainer.rest.engine.TaskFileCompressor;
+import org.cytoscape.cytocontainer.rest.engine.util.CytoContainerRequestSpooler;
+import org.cytoscape.cytocontainer.rest.engine.util.SpooledCytoContainerRequest;
 import org.cytoscape.cytocontainer.rest.model.Algorithm;
 import org.cytoscape.cytocontainer.rest.model.Algorithms;
 
@@ -56,6 +74,21 @@ public class CytoContainer {
     
     static Logger _logger = LoggerFactory.getLogger(CytoContainer.class);
     
+    /**
+     * Request header denoting range of bytes wanted
+     */
+    public static final String RANGE = "Range";
+    
+    /**
+     * Response header denoting range units supported
+     */
+    public static final String ACCEPT_RANGES = "Accept-Ranges";
+    
+    /**
+     * Response header denoting range of bytes returned
+     */
+    public static final String CONTENT_RANGE = "Content-Range";
+    
     /**
      * Handles requests to run CytoContainer
      * @param query The task to run
@@ -84,23 +117,37 @@ public class CytoContainer {
                    @ApiResponse(responseCode = "400", description = "Bad Request",
                                 content = @Content(mediaType = MediaType.APPLICATION_JSON,
                                 schema = @Schema(implementation = ErrorResponse.class))),
+                   @ApiResponse(responseCode = "429", description = "Too many tasks are queued. "
+                           + "Resubmit after number of seconds set in Retry-After header",
+                                headers = @Header(name = "Retry-After", description = "Seconds to wait before resubmitting"),
+                                content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                                schema = @Schema(implementation = ErrorResponse.class))),
                    @ApiResponse(responseCode = "500", description = "Server Error",
                                 content = @Content(mediaType = MediaType.APPLICATION_JSON,
                                 schema = @Schema(implementation = ErrorResponse.class)))
                })
     public Response request(@PathParam("algorithm") final String algorithm, @RequestBody(description="Request as json", required = true,
-                                                   content = @Content(schema = @Schema(implementation = CytoContainerRequest.class))) final CytoContainerRequest query) {
-        ObjectMapper omappy = new ObjectMapper();
-
+                                                   content = @Content(schema = @Schema(implementation = CytoContainerRequest.class))) final InputStream query) {
+        SpooledCytoContainerRequest spooledQuery = null;
         try {
-            // not sure why but I cannot get resteasy and jackson to worktogether to
-            // automatically translate json to Query class so I'm doing it after the
-            // fact
-            CytoContainerEngine engine = Configuration.getInstance().getCytoContainerEngine();
+            // request is parsed as it streams in with data written straight
+            // to disk so large data is never held in memory
+            Configuration config = Configuration.getInstance();
+            CytoContainerEngine engine = config.getCytoContainerEngine();
             if (engine == null){
                 throw new NullPointerException("CytoContainer Engine not loaded");
             }
-            String id = engine.request(algorithm, query);
+            // reject unknown algorithms and full queues before the
+            // body is read
+            engine.reserve(algorithm);
+            try {
+                CytoContainerRequestSpooler spooler = new CytoContainerRequestSpooler(new File(config.getTaskDirectory()));
+                spooledQuery = spooler.spool(query);
+            } catch(Exception ex){
+                engine.releaseReservation(algorithm);
+                throw ex;
+            }
+            String id = engine.request(algorithm, spooledQuery, true);
             if (id == null){
                 throw new CytoContainerException("No id returned from CytoContainer engine");
             }
@@ -114,9 +161,17 @@ public class CytoContainer {
                 er = new ErrorResponse("Bad request received", breq);
             }
             return Response.status(400).type(MediaType.APPLICATION_JSON).entity(er).build();
+        } catch(CytoContainerQueueFullException qfe){
+            ErrorResponse er = new ErrorResponse("Too many tasks queued, try again later", qfe);
+            return Response.status(429).header("Retry-After", Long.toString(qfe.getRetryAfter()))
+                    .type(MediaType.APPLICATION_JSON).entity(er).build();
         }catch(Exception ex){
             ErrorResponse er = new ErrorResponse("Error requesting CytoContainer", ex);
             return Response.serverError().type(MediaType.APPLICATION_JSON).entity(er).build();
+        } finally {
+            if (spooledQuery != null){
+                spooledQuery.deleteSpooledData();
+            }
         }
     }
 
@@ -125,7 +180,9 @@ public class CytoContainer {
     @Produces(MediaType.APPLICATION_JSON)
     @Operation(summary = "Gets result of task",
                description="NOTE: For incomplete/failed jobs only Status, message, progress, and walltime will\n" +
-"be returned in JSON",
+"be returned in JSON\n\n" +
+"If waitMs is set, the request is held until status or progress of the task changes, the task\n" +
+"finishes, or waitMs elapses, whichever comes first",
                responses = {
                    @ApiResponse(responseCode = "200",
                            description = "Success",
@@ -137,14 +194,51 @@ public class CytoContainer {
                                 content = @Content(mediaType = MediaType.APPLICATION_JSON,
                                 schema = @Schema(implementation = ErrorResponse.class)))
                })
-    public Response getResult(@PathParam("algorithm") final String algorithm, @PathParam("id") final String id) {
-
+    public void getResult(@PathParam("algorithm") final String algorithm, @PathParam("id") final String id,
+            @Parameter(description = "If set, holds request for up to this many milliseconds until "
+                    + "status or progress of task changes")
+            @QueryParam("waitMs") final long waitMs,
+            @HeaderParam(HttpHeaders.ACCEPT_ENCODING) final String acceptEncoding,
+            @Suspended final AsyncResponse asyncResponse) {
+        longPoll(algorithm, id, waitMs, false, asyncResponse,
+                () -> getResultResponse(algorithm, id, acceptEncoding));
+    }
+    
+    /**
+     * Builds response containing result of task. For finished tasks
+     * the result file is streamed as is, otherwise the result is
+     * obtained from the engine and serialized
+     * @param algorithm name of algorithm
+     * @param id id of task
+     * @param acceptEncoding value of {@code Accept-Encoding} header, can be {@code null}
+     * @return response
+     */
+    private Response getResultResponse(final String algorithm, final String id,
+            final String acceptEncoding){
         try {
             CytoContainerEngine engine = Configuration.getInstance().getCytoContainerEngine();
             if (engine == null){
                 throw new NullPointerException("CytoContainer Engine not loaded");
             }
             
+            File resultFile = engine.getResultFile(algorithm, id);
+            if (resultFile != null){
+                if (TaskFileCompressor.isCompressed(resultFile)){
+                    return getCompressedFileResponse(resultFile, MediaType.APPLICATION_JSON,
+                            acceptEncoding);
+                }
+                FileStreamingOutput resultOut;
+                try {
+                    resultOut = new FileStreamingOutput(resultFile);
+                } catch(NoSuchFileException nsfe){
+                    // compressed since it was looked up
+                    return getCompressedFileResponse(TaskFileCompressor.getCompressedFile(resultFile),
+                            MediaType.APPLICATION_JSON, acceptEncoding);
+                }
+                return Response.ok(resultOut, MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_LENGTH, resultOut.getLength()).build();
+            }
+            
             CytoContainerResult eqr = engine.getResult(algorithm, id);
             if (eqr == null){
                 return Response.status(400).build();
@@ -161,6 +255,203 @@ public class CytoContainer {
             return Response.status(500).type(MediaType.APPLICATION_JSON).entity(er).build();
         }
     }
+    
+    @GET 
+    @Path(Configuration.V_ONE_PATH + "/{algorithm}/{id}/data")
+    @Produces({MediaType.WILDCARD})
+    @Operation(summary = "Gets raw data output by algorithm for task",
+               description="If the task has not finished, the request is held until the task finishes or\n" +
+"waitMs elapses. If the task is still running after that, 202 is returned along with the\n" +
+"status of the task in JSON and the caller should try again later.\n\n" +
+"Once complete, data is returned with the media type output by the algorithm. A single\n" +
+"byte range can be requested via the Range header",
+               responses = {
+                   @ApiResponse(responseCode = "200",
+                           description = "Success",
+                           content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM)),
+                   @ApiResponse(responseCode = "206",
+                           description = "Requested range of data",
+                           content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM)),
+                   @ApiResponse(responseCode = "202",
+                           description = "Task has not finished",
+                           content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                                schema = @Schema(implementation = CytoContainerResultStatus.class))),
+                   @ApiResponse(responseCode = "204",
+                           description = "Task completed, but output no data"),
+                   @ApiResponse(responseCode = "400",
+                           description = "Task not found"),
+                   @ApiResponse(responseCode = "416",
+                           description = "Requested range is beyond end of data"),
+                   @ApiResponse(responseCode = "500", description = "Server Error or task failed",
+                                content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                                schema = @Schema(implementation = ErrorResponse.class)))
+               })
+    public void getResultData(@PathParam("algorithm") final String algorithm, @PathParam("id") final String id,
+            @Parameter(description = "Max milliseconds to wait for task to finish. If unset, or larger "
+                    + "than the server limit, the server limit is used")
+            @QueryParam("waitMs") final Long waitMs,
+            @HeaderParam(RANGE) final String range,
+            @HeaderParam(HttpHeaders.ACCEPT_ENCODING) final String acceptEncoding,
+            @Suspended final AsyncResponse asyncResponse) {
+        longPoll(algorithm, id, waitMs == null ? Long.MAX_VALUE : waitMs, true, asyncResponse,
+                () -> getResultDataResponse(algorithm, id, range, acceptEncoding));
+    }
+    
+    /**
+     * Builds response containing raw data output by algorithm for task. If
+     * task has not finished a {@code 202} response with status of task is
+     * built instead. Data is streamed from file and never loaded into memory.
+     * If the data file was compressed it is sent as is to clients accepting
+     * gzip, in which case ranges refer to the compressed bytes, otherwise it
+     * is decompressed as it is sent and any range is ignored
+     * @param algorithm name of algorithm
+     * @param id id of task
+     * @param range value of {@code Range} header, can be {@code null}
+     * @param acceptEncoding value of {@code Accept-Encoding} header, can be {@code null}
+     * @return response
+     */
+    private Response getResultDataResponse(final String algorithm, final String id,
+            final String range, final String acceptEncoding){
+        try {
+            CytoContainerEngine engine = Configuration.getInstance().getCytoContainerEngine();
+            if (engine == null){
+                throw new NullPointerException("CytoContainer Engine not loaded");
+            }
+            CytoContainerResultStatus eqs = engine.getStatus(algorithm, id);
+            if (eqs == null){
+                return Response.status(400).build();
+            }
+            if (CytoContainerResult.FAILED_STATUS.equals(eqs.getStatus())){
+                ErrorResponse er = new ErrorResponse("Task " + id + " failed",
+                        new CytoContainerException(eqs.getMessage()));
+                return Response.serverError().type(MediaType.APPLICATION_JSON).entity(er).build();
+            }
+            if (CytoContainerResult.COMPLETE_STATUS.equals(eqs.getStatus()) == false){
+                return Response.accepted().type(MediaType.APPLICATION_JSON).entity(eqs).build();
+            }
+            ResultDataFile data = engine.getResultDataFile(algorithm, id);
+            if (data == null){
+                return Response.noContent().build();
+            }
+            File dataFile = data.getFile();
+            String encoding = data.getContentEncoding();
+            FileStreamingOutput dataOut = null;
+            if (encoding == null){
+                try {
+                    dataOut = new FileStreamingOutput(dataFile);
+                } catch(NoSuchFileException nsfe){
+                    // compressed since it was looked up
+                    dataFile = TaskFileCompressor.getCompressedFile(dataFile);
+                    encoding = TaskFileCompressor.GZIP_ENCODING;
+                }
+            }
+            if (encoding != null && ContentEncodingInterceptor.isGzipAccepted(acceptEncoding) == false){
+                return getCompressedFileResponse(dataFile, data.getContentType(), acceptEncoding);
+            }
+            if (dataOut == null){
+                dataOut = new FileStreamingOutput(dataFile);
+            }
+            String vary = encoding == null ? null : HttpHeaders.ACCEPT_ENCODING;
+            long length = dataOut.getLength();
+            ByteRange byteRange = ByteRange.parse(range, length);
+            if (byteRange == null){
+                return Response.ok(dataOut, data.getContentType())
+                        .header(HttpHeaders.CONTENT_LENGTH, length)
+                        .header(HttpHeaders.CONTENT_ENCODING, encoding)
+                        .header(ContentEncodingInterceptor.VARY, vary)
+                        .header(ACCEPT_RANGES, ByteRange.BYTES_UNIT).build();
+            }
+            if (byteRange.isSatisfiable() == false){
+                dataOut.close();
+                return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(ContentEncodingInterceptor.VARY, vary)
+                        .header(CONTENT_RANGE, byteRange.getContentRange()).build();
+            }
+            return Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(dataOut.getRange(byteRange.getStart(),
+                            byteRange.getContentLength()))
+                    .type(data.getContentType())
+                    .header(HttpHeaders.CONTENT_LENGTH, byteRange.getContentLength())
+                    .header(HttpHeaders.CONTENT_ENCODING, encoding)
+                    .header(ContentEncodingInterceptor.VARY, vary)
+                    .header(CONTENT_RANGE, byteRange.getContentRange())
+                    .header(ACCEPT_RANGES, ByteRange.BYTES_UNIT).build();
+        }
+		catch(CytoContainerBadRequestException cbre){
+			ErrorResponse er = new ErrorResponse("Error getting data for id: " + id, cbre);
+            return Response.status(400).type(MediaType.APPLICATION_JSON).entity(er).build();
+		}
+        catch(Exception ex){
+            ErrorResponse er = new ErrorResponse("Error getting data for id: " + id, ex);
+            return Response.serverError().type(MediaType.APPLICATION_JSON).entity(er).build();
+        }
+    }
+    
+    /**
+     * Builds response for gzip compressed {@code file}. Clients accepting gzip
+     * get the file as is with {@code Content-Encoding} set, otherwise the
+     * file is decompressed as it is sent. Since the size of decompressed data
+     * is not known without reading it, ranges are not supported in that case
+     * @param file gzip compressed file
+     * @param contentType media type of decompressed data
+     * @param acceptEncoding value of {@code Accept-Encoding} header, can be {@code null}
+     * @return response
+     * @throws IOException if {@code file} cannot be opened
+     */
+    private Response getCompressedFileResponse(final File file, final String contentType,
+            final String acceptEncoding) throws IOException {
+        if (ContentEncodingInterceptor.isGzipAccepted(acceptEncoding)){
+            FileStreamingOutput fileOut = new FileStreamingOutput(file);
+            return Response.ok(fileOut, contentType)
+                    .header(HttpHeaders.CONTENT_LENGTH, fileOut.getLength())
+                    .header(HttpHeaders.CONTENT_ENCODING, TaskFileCompressor.GZIP_ENCODING)
+                    .header(ContentEncodingInterceptor.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        return Response.ok(new GunzipStreamingOutput(file), contentType)
+                .header(ACCEPT_RANGES, "none")
+                .header(ContentEncodingInterceptor.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+    }
+    
+    /**
+     * If {@code waitMs} is greater than {@code 0} the request is suspended, without
+     * holding a request thread, until status of task changes or {@code waitMs}
+     * elapses. Otherwise, or if task is already finished, the request is resumed right away.
+     * In all cases the request is resumed with response from {@code responseBuilder}
+     * @param algorithm name of algorithm
+     * @param id id of task
+     * @param waitMs max milliseconds to wait, capped at {@link Configuration#getResultDataMaxWait() }
+     *               if {@code waitForFinish} is {@code true} otherwise
+     *               {@link Configuration#getLongPollMaxWait() }
+     * @param waitForFinish if {@code true} ignore changes in progress or message
+     *                      and only resume once task finishes
+     * @param asyncResponse the suspended request
+     * @param responseBuilder builds the response
+     */
+    private void longPoll(final String algorithm, final String id, final long waitMs,
+            final boolean waitForFinish, AsyncResponse asyncResponse,
+            Supplier<Response> responseBuilder){
+        if (waitMs <= 0){
+            asyncResponse.resume(responseBuilder.get());
+            return;
+        }
+        try {
+            Configuration config = Configuration.getInstance();
+            CytoContainerEngine engine = config.getCytoContainerEngine();
+            long maxWait = Math.min(waitMs, waitForFinish ? config.getResultDataMaxWait()
+                    : config.getLongPollMaxWait());
+            if (engine == null || maxWait <= 0){
+                asyncResponse.resume(responseBuilder.get());
+                return;
+            }
+            engine.subscribe(algorithm, id, new LongPollTaskStatusSubscriber(asyncResponse,
+                    responseBuilder, maxWait, waitForFinish));
+        } catch(Exception ex){
+            _logger.debug("Unable to wait on task " + id + " : " + ex.getMessage());
+            if (asyncResponse.isDone() == false){
+                asyncResponse.resume(responseBuilder.get());
+            }
+        }
+    }
 
 	@GET
 	@Path(Configuration.V_ONE_PATH + "/{algorithm}")
@@ -236,7 +527,9 @@ public class CytoContainer {
     @Path(Configuration.V_ONE_PATH + "/{algorithm}/{id}/status")
     @Produces(MediaType.APPLICATION_JSON)
     @Operation(summary = "Gets status of task",
-               description="This lets caller get status without getting the full result back",
+               description="This lets caller get status without getting the full result back.\n\n" +
+"If waitMs is set, the request is held until status or progress of the task changes, the task\n" +
+"finishes, or waitMs elapses, whichever comes first",
                responses = {
                    @ApiResponse(responseCode = "200",
                            description = "Success",
@@ -248,7 +541,21 @@ public class CytoContainer {
                                 content = @Content(mediaType = MediaType.APPLICATION_JSON,
                                 schema = @Schema(implementation = ErrorResponse.class)))
                })
-    public Response getRequestStatus(@PathParam("algorithm") final String algorithm, @PathParam("id") final String id) {
+    public void getRequestStatus(@PathParam("algorithm") final String algorithm, @PathParam("id") final String id,
+            @Parameter(description = "If set, holds request for up to this many milliseconds until "
+                    + "status or progress of task changes")
+            @QueryParam("waitMs") final long waitMs,
+            @Suspended final AsyncResponse asyncResponse) {
+        longPoll(algorithm, id, waitMs, false, asyncResponse, () -> getRequestStatusResponse(algorithm, id));
+    }
+    
+    /**
+     * Builds response containing status of task
+     * @param algorithm name of algorithm
+     * @param id id of task
+     * @return response
+     */
+    private Response getRequestStatusResponse(final String algorithm, final String id) {
 
         try {
             CytoContainerEngine engine = Configuration.getInstance().getCytoContainerEngine();
@@ -271,6 +578,37 @@ public class CytoContainer {
         }
     }
 
+    @GET 
+    @Path(Configuration.V_ONE_PATH + "/{algorithm}/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Streams status of task as server sent events",
+               description="Sends a '" + SseTaskStatusSubscriber.STATUS_EVENT + "' event containing the "
+                       + "status of the task in JSON right away and again each time progress, message, "
+                       + "or status changes. The stream is closed once the task completes, fails, or is "
+                       + "deleted. If the task is not found an '" + SseTaskStatusSubscriber.ERROR_EVENT
+                       + "' event is sent and the stream is closed",
+               responses = {
+                   @ApiResponse(responseCode = "200",
+                           description = "Success",
+                           content = @Content(mediaType = MediaType.SERVER_SENT_EVENTS,
+                                schema = @Schema(implementation = CytoContainerResultStatus.class)))
+               })
+    public void getRequestEvents(@PathParam("algorithm") final String algorithm, @PathParam("id") final String id,
+            @Context SseEventSink eventSink, @Context Sse sse) {
+        SseTaskStatusSubscriber subscriber = new SseTaskStatusSubscriber(eventSink, sse);
+        try {
+            CytoContainerEngine engine = Configuration.getInstance().getCytoContainerEngine();
+            if (engine == null){
+                throw new NullPointerException("CytoContainer Engine not loaded");
+            }
+            engine.subscribe(algorithm, id, subscriber);
+        }
+        catch(Exception ex){
+            subscriber.error(new ErrorResponse("Error getting events for id: " + id, ex));
+            subscriber.close();
+        }
+    }
+
     @DELETE 
     @Path(Configuration.V_ONE_PATH + "/{algorithm}/{id}")
     @Operation(summary = "Deletes task associated with {id} passed in",
@@ -0,0 +1,106 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes part or all of a file to the response via
+ * {@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel) }
+ * so the contents never pass through the heap as a single buffer.
+ * The file is opened when this object is created, so the response can
+ * still be written if the file is removed, ie after being compressed by
+ * {@link org.cytoscape.cytocontainer.rest.engine.TaskFileCompressor},
+ * once the response headers are set. The file is closed by
+ * {@link #write(java.io.OutputStream) } or {@link #close() }.
+ *
+ * @author churas
+ */
+public class FileStreamingOutput implements StreamingOutput, Closeable {
+
+	private final File _file;
+	private final FileChannel _channel;
+	private final long _offset;
+	private final long _length;
+
+	/**
+	 * Opens {@code file} to write all of it
+	 * @param file file to write
+	 * @throws java.nio.file.NoSuchFileException if {@code file} does not exist
+	 * @throws IOException if {@code file} cannot be opened
+	 */
+	public FileStreamingOutput(final File file) throws IOException {
+		_file = file;
+		_channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		_offset = 0;
+		try {
+			_length = _channel.size();
+		} catch(IOException io){
+			_channel.close();
+			throw io;
+		}
+	}
+
+	private FileStreamingOutput(final File file, FileChannel channel, long offset, long length){
+		_file = file;
+		_channel = channel;
+		_offset = offset;
+		_length = length;
+	}
+
+	/**
+	 * Gets object that writes part of the same open file instead.
+	 * Only one of the two objects should be written
+	 * @param offset first byte to write
+	 * @param length number of bytes to write
+	 * @return object writing {@code length} bytes starting at {@code offset}
+	 */
+	public FileStreamingOutput getRange(long offset, long length){
+		return new FileStreamingOutput(_file, _channel, offset, length);
+	}
+
+	/**
+	 * Gets number of bytes that will be written
+	 * @return number of bytes
+	 */
+	public long getLength(){
+		return _length;
+	}
+
+	/**
+	 * Closes file without writing it
+	 * @throws IOException if close fails
+	 */
+	@Override
+	public void close() throws IOException {
+		_channel.close();
+	}
+
+	@Override
+	public void write(OutputStream output) throws IOException {
+		try (FileChannel channel = _channel){
+			WritableByteChannel out = Channels.newChannel(output);
+			long position = _offset;
+			long remaining = _length;
+			while (remaining > 0){
+				long transferred = channel.transferTo(position, remaining, out);
+				if (transferred <= 0){
+					if (position >= channel.size()){
+						throw new IOException(_file.getAbsolutePath()
+								+ " truncated at " + position + " bytes");
+					}
+					continue;
+				}
+				position += transferred;
+				remaining -= transferred;
+			}
+		}
+		output.flush();
+	}
+}
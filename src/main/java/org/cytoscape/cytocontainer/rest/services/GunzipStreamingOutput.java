@@ -0,0 +1,42 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Writes decompressed contents of a gzip compressed file to the response
+ * as it is read so the contents never pass through the heap as a single
+ * buffer.
+ *
+ * @author churas
+ */
+public class GunzipStreamingOutput implements StreamingOutput {
+
+	/**
+	 * Size in bytes of buffer used when decompressing
+	 */
+	public static final int BUFFER_SIZE = 65536;
+
+	private final File _file;
+
+	/**
+	 * Constructor
+	 * @param file gzip compressed file to write
+	 */
+	public GunzipStreamingOutput(final File file){
+		_file = file;
+	}
+
+	@Override
+	public void write(OutputStream output) throws IOException {
+		try (InputStream in = new GZIPInputStream(new FileInputStream(_file), BUFFER_SIZE)){
+			in.transferTo(output);
+		}
+		output.flush();
+	}
+}
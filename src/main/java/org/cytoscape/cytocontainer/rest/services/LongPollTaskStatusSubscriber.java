@@ -0,0 +1,114 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.Response;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.cytoscape.cytocontainer.rest.engine.TaskStatusSubscriber;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+
+/**
+ * Holds a suspended request until status of a task changes, the task
+ * finishes, or the wait expires and then resumes it with the
+ * {@link jakarta.ws.rs.core.Response} built by the {@link java.util.function.Supplier}
+ * passed into the constructor. No request thread is held while waiting.
+ * <p>
+ * The first status received is the status of the task at the time the
+ * request came in and is only used as the baseline for detecting a change.
+ * If constructed to wait for the task to finish, changes in progress or
+ * message are ignored and the request is only resumed once the task
+ * completes, fails, or the wait expires.
+ * </p>
+ * @author churas
+ */
+public class LongPollTaskStatusSubscriber implements TaskStatusSubscriber {
+
+	private final AsyncResponse _asyncResponse;
+	private final Supplier<Response> _responseBuilder;
+	private final boolean _waitForFinish;
+	private CytoContainerResultStatus _baseline;
+
+	/**
+	 * Constructor that resumes request on any change in status
+	 * @param asyncResponse suspended request
+	 * @param responseBuilder builds response used to resume request
+	 * @param waitMillis max time in milliseconds to hold the request
+	 */
+	public LongPollTaskStatusSubscriber(AsyncResponse asyncResponse,
+			Supplier<Response> responseBuilder, long waitMillis){
+		this(asyncResponse, responseBuilder, waitMillis, false);
+	}
+
+	/**
+	 * Constructor that also sets the timeout on {@code asyncResponse} so
+	 * it is resumed once {@code waitMillis} has elapsed
+	 * @param asyncResponse suspended request
+	 * @param responseBuilder builds response used to resume request
+	 * @param waitMillis max time in milliseconds to hold the request
+	 * @param waitForFinish if {@code true} only resume request once task
+	 *                      completes or fails
+	 */
+	public LongPollTaskStatusSubscriber(AsyncResponse asyncResponse,
+			Supplier<Response> responseBuilder, long waitMillis,
+			boolean waitForFinish){
+		_asyncResponse = asyncResponse;
+		_responseBuilder = responseBuilder;
+		_waitForFinish = waitForFinish;
+		_baseline = null;
+		_asyncResponse.setTimeoutHandler((ar) -> resume());
+		_asyncResponse.setTimeout(waitMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public boolean isOpen() {
+		return _asyncResponse.isDone() == false;
+	}
+
+	@Override
+	public synchronized boolean statusUpdated(CytoContainerResultStatus status) {
+		if (_waitForFinish){
+			if (isFinished(status) == false){
+				return isOpen();
+			}
+			resume();
+			return false;
+		}
+		if (_baseline == null){
+			_baseline = status;
+			return isOpen();
+		}
+		if (isSameStatus(_baseline, status)){
+			return isOpen();
+		}
+		resume();
+		return false;
+	}
+
+	@Override
+	public void close() {
+		resume();
+	}
+
+	private boolean isSameStatus(CytoContainerResultStatus a, CytoContainerResultStatus b){
+		return a.getProgress() == b.getProgress()
+				&& Objects.equals(a.getStatus(), b.getStatus())
+				&& Objects.equals(a.getMessage(), b.getMessage());
+	}
+
+	private boolean isFinished(CytoContainerResultStatus status){
+		return CytoContainerResult.COMPLETE_STATUS.equals(status.getStatus())
+				|| CytoContainerResult.FAILED_STATUS.equals(status.getStatus());
+	}
+
+	/**
+	 * Resumes request with response from builder unless already resumed
+	 */
+	protected synchronized void resume(){
+		if (_asyncResponse.isDone() || _asyncResponse.isCancelled()){
+			return;
+		}
+		_asyncResponse.resume(_responseBuilder.get());
+	}
+}
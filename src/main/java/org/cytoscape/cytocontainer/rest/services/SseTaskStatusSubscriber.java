@@ -0,0 +1,92 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.cytoscape.cytocontainer.rest.engine.TaskStatusSubscriber;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+import org.cytoscape.cytocontainer.rest.model.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends task status updates to a client as server sent events
+ *
+ * @author churas
+ */
+public class SseTaskStatusSubscriber implements TaskStatusSubscriber {
+
+	static Logger _logger = LoggerFactory.getLogger(SseTaskStatusSubscriber.class);
+
+	/**
+	 * Name of event containing {@link org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus}
+	 */
+	public static final String STATUS_EVENT = "status";
+
+	/**
+	 * Name of event containing {@link org.cytoscape.cytocontainer.rest.model.ErrorResponse}
+	 */
+	public static final String ERROR_EVENT = "error";
+
+	private final SseEventSink _eventSink;
+	private final Sse _sse;
+	private long _eventId;
+
+	/**
+	 * Constructor
+	 * @param eventSink sink to send events to
+	 * @param sse used to build events
+	 */
+	public SseTaskStatusSubscriber(SseEventSink eventSink, Sse sse){
+		_eventSink = eventSink;
+		_sse = sse;
+		_eventId = 0;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return _eventSink.isClosed() == false;
+	}
+
+	@Override
+	public boolean statusUpdated(CytoContainerResultStatus status) {
+		return send(STATUS_EVENT, CytoContainerResultStatus.class, status);
+	}
+
+	/**
+	 * Sends {@code er} as an error event
+	 * @param er error to send
+	 * @return {@code false} if event could not be sent
+	 */
+	public boolean error(ErrorResponse er){
+		return send(ERROR_EVENT, ErrorResponse.class, er);
+	}
+
+	@Override
+	public void close() {
+		try {
+			_eventSink.close();
+		} catch(Exception ex){
+			_logger.debug("Error closing event sink: " + ex.getMessage());
+		}
+	}
+
+	private synchronized <T> boolean send(final String name, Class<T> type, T data){
+		if (_eventSink.isClosed()){
+			return false;
+		}
+		OutboundSseEvent event = _sse.newEventBuilder()
+				.name(name)
+				.id(Long.toString(_eventId++))
+				.mediaType(MediaType.APPLICATION_JSON_TYPE)
+				.data(type, data)
+				.build();
+		_eventSink.send(event).exceptionally((ex) -> {
+			_logger.debug("Unable to send " + name + " event, closing: " + ex.getMessage());
+			close();
+			return null;
+		});
+		return true;
+	}
+}
@@ -0,0 +1,92 @@
+#!/bin/sh
+#
+# Stands in for docker when load testing the Cytoscape Container REST
+# service so real throughput of the server can be measured without
+# running any containers. It is invoked the same way docker is:
+#
+#   fakecontainer.sh run --rm -v <dir>:<dir><mount options> <image> <input file> [args]
+#
+# and behaves like a container would: it reads the input file, writes
+# @@PROGRESS and @@MESSAGE lines to standard error while it sleeps, and
+# then writes a JSON result to standard out. Supported args:
+#
+#   --sleep=<milliseconds>      total time to run (default 500)
+#   --outputsize=<bytes>        approximate size of result (default 1024)
+#   --steps=<number>            number of progress updates (default 5)
+#   --exitcode=<number>         exit code to return (default 0)
+#
+# ps and rm are accepted so killing and reaping containers is a no-op
+#
+
+case "$1" in
+  run) ;;
+  ps|rm) exit 0 ;;
+  *)
+    echo "Only run, ps and rm are supported" >&2
+    exit 1
+    ;;
+esac
+shift
+
+# skip docker options up to and including the volume mapping
+while [ $# -gt 0 ] ; do
+  case "$1" in
+    -v)
+      shift 2
+      break
+      ;;
+    *)
+      shift
+      ;;
+  esac
+done
+
+image="$1"
+inputfile="$2"
+shift 2
+
+sleepms=500
+outputsize=1024
+steps=5
+exitcode=0
+
+for arg in "$@" ; do
+  case "$arg" in
+    --sleep=*) sleepms="${arg#*=}" ;;
+    --outputsize=*) outputsize="${arg#*=}" ;;
+    --steps=*) steps="${arg#*=}" ;;
+    --exitcode=*) exitcode="${arg#*=}" ;;
+  esac
+done
+
+if [ ! -f "$inputfile" ] ; then
+  echo "Input file $inputfile not found" >&2
+  exit 2
+fi
+
+inputsize=`wc -c < "$inputfile" | tr -d ' '`
+echo "@@MESSAGE $image read $inputsize bytes of input" >&2
+
+if [ "$steps" -lt 1 ] ; then
+  steps=1
+fi
+stepsleep=`awk -v ms="$sleepms" -v s="$steps" 'BEGIN { printf "%.3f", ms / 1000 / s }'`
+
+step=1
+while [ $step -le $steps ] ; do
+  sleep "$stepsleep"
+  echo "@@PROGRESS `expr $step \* 100 / $steps`" >&2
+  echo "@@MESSAGE finished step $step of $steps" >&2
+  step=`expr $step + 1`
+done
+
+# result is {"result": "xxx...x"} padded to roughly outputsize bytes
+padsize=`expr $outputsize - 15`
+if [ "$padsize" -lt 0 ] ; then
+  padsize=0
+fi
+printf '{"result": "'
+head -c "$padsize" /dev/zero | tr '\0' 'x'
+printf '"}\n'
+
+exit $exitcode
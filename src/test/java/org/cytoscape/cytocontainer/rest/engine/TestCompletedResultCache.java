@@ -0,0 +1,85 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestCompletedResultCache {
+
+	private CytoContainerResult createResult(final String id){
+		CytoContainerResult res = new CytoContainerResult(1L);
+		res.setId(id);
+		res.setStatus(CytoContainerResult.COMPLETE_STATUS);
+		res.setProgress(100);
+		res.setMessage("msg " + id);
+		return res;
+	}
+
+	@Test
+	public void testPutGetAndRemove(){
+		CompletedResultCache cache = new CompletedResultCache(100, 10);
+		assertNull(cache.get(null));
+		assertNull(cache.getStatus(null));
+		assertNull(cache.get("1"));
+		CytoContainerResult res = createResult("1");
+		cache.put(res, 40);
+		assertSame(res, cache.get("1"));
+		CytoContainerResultStatus status = cache.getStatus("1");
+		assertEquals("1", status.getId());
+		assertEquals(CytoContainerResult.COMPLETE_STATUS, status.getStatus());
+		assertEquals(100, status.getProgress());
+		assertEquals("msg 1", status.getMessage());
+		assertEquals(1, cache.size());
+		assertEquals(40L, cache.getSizeInBytes());
+
+		// replacing entry does not double count its size
+		cache.put(res, 50);
+		assertEquals(50L, cache.getSizeInBytes());
+
+		cache.remove("1");
+		assertNull(cache.get("1"));
+		assertNull(cache.getStatus("1"));
+		assertEquals(0L, cache.getSizeInBytes());
+		assertEquals(2L, cache.getHits());
+		assertEquals(5L, cache.getMisses());
+	}
+
+	@Test
+	public void testEvictionBySize(){
+		CompletedResultCache cache = new CompletedResultCache(100, 10);
+		cache.put(createResult("1"), 40);
+		cache.put(createResult("2"), 40);
+		// access 1 so 2 is least recently used
+		cache.get("1");
+		cache.put(createResult("3"), 40);
+		assertEquals(2, cache.size());
+		assertEquals(80L, cache.getSizeInBytes());
+		assertNull(cache.get("2"));
+		// status record outlives the full result
+		assertEquals("2", cache.getStatus("2").getId());
+
+		// too large to cache, but status is kept
+		cache.put(createResult("4"), 101);
+		assertNull(cache.get("4"));
+		assertEquals("4", cache.getStatus("4").getId());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testStatusEviction(){
+		CompletedResultCache cache = new CompletedResultCache(0, 2);
+		cache.put(createResult("1"), 1);
+		cache.put(createResult("2"), 1);
+		cache.put(createResult("3"), 1);
+		assertEquals(0, cache.size());
+		assertNull(cache.getStatus("1"));
+		assertEquals("3", cache.getStatus("3").getId());
+	}
+}
@@ -4,12 +4,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Properties;
 import static org.junit.Assert.*;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.engine.util.DaemonSettings;
+import org.cytoscape.cytocontainer.rest.engine.util.OutputSettings;
+import org.cytoscape.cytocontainer.rest.engine.util.ResourceSettings;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
@@ -84,7 +90,28 @@ public class TestConfiguration {
             assertEquals("/tmp", config.getTaskDirectory());
             assertNull(config.getCytoContainerEngine());
             assertEquals(1, config.getNumberWorkers());
+            assertEquals(0, config.getMaxQueueSize());
+            assertFalse(config.isCoalesceRequests());
+            assertEquals(67108864L, config.getCompletedResultCacheBytes());
+            assertEquals(10000, config.getCompletedStatusCacheSize());
+            assertEquals(60000L, config.getLongPollMaxWait());
+            assertEquals(60000L, config.getResultDataMaxWait());
+            assertTrue(config.isCompressionEnabled());
+            assertEquals(6, config.getCompressionLevel());
+            assertEquals(1024, config.getCompressionMinSize());
+            assertEquals("none", config.getTaskCompression());
+            assertEquals(60000L, config.getTaskCompressionDelay());
             assertEquals("docker", config.getDockerCommand());
+            assertEquals("", config.getDockerSocket());
+            assertTrue(config.isReapOrphanedContainers());
+            assertEquals(Configuration.getDefaultInstanceId(config.getTaskDirectory()),
+                    config.getInstanceId());
+            assertEquals(8, config.getInstanceId().length());
+            assertFalse(config.isSchedulerEnabled());
+            assertEquals(Runtime.getRuntime().availableProcessors(), config.getSchedulerCpus(), 0.0);
+            assertFalse(config.isCpuSetEnabled());
+            assertEquals("0-" + Integer.toString(Runtime.getRuntime().availableProcessors() - 1),
+                    config.getCpuSetCpus());
             assertEquals(":ro", config.getMountOptions());
             assertNull(config.getSwaggerTitle());
             assertNull(config.getSwaggerDescription());
@@ -143,4 +170,158 @@ public class TestConfiguration {
             _folder.delete();
         }
     }
+    
+    @Test
+    public void testAlgorithmWorkerSettings() throws CytoContainerException, IOException {
+        File tempDir = _folder.newFolder();
+        try {
+            File configFile = new File(tempDir.getAbsolutePath() + File.separator + "conf");
+            Properties props = new Properties();
+            props.setProperty(Configuration.ALGORITHM_PREFIX + "foo"
+                    + Configuration.ALGORITHM_NUM_WORKERS_SUFFIX, "3");
+            props.setProperty(Configuration.ALGORITHM_PREFIX + "foo"
+                    + Configuration.ALGORITHM_QUEUE_SIZE_SUFFIX, "10");
+            props.setProperty(Configuration.ALGORITHM_PREFIX + "bad"
+                    + Configuration.ALGORITHM_NUM_WORKERS_SUFFIX, "notanumber");
+            props.setProperty(Configuration.ALGORITHM_PREFIX + "foo"
+                    + Configuration.ALGORITHM_WARM_POOL_MIN_SUFFIX, "2");
+            props.setProperty(Configuration.ALGORITHM_PREFIX + "foo"
+                    + Configuration.ALGORITHM_WARM_POOL_MAX_SUFFIX, "4");
+            props.setProperty(Configuration.ALGORITHM_PREFIX + "bad"
+                    + Configuration.ALGORITHM_WARM_POOL_MIN_SUFFIX, "3");
+            props.setProperty(Configuration.ALGORITHM_PREFIX + "bad"
+                    + Configuration.ALGORITHM_WARM_POOL_MAX_SUFFIX, "1");
+            FileOutputStream fos = new FileOutputStream(configFile);
+            props.store(fos, "hello");
+            fos.flush();
+            fos.close();
+            Configuration.setAlternateConfigurationFile(configFile.getAbsolutePath());
+            Configuration config = Configuration.reloadConfiguration();
+            assertEquals(3, config.getAlgorithmNumberWorkers("foo"));
+            assertEquals(10, config.getAlgorithmQueueSize("foo"));
+            assertEquals(0, config.getAlgorithmNumberWorkers("bad"));
+            assertEquals(0, config.getAlgorithmQueueSize("bad"));
+            assertEquals(0, config.getAlgorithmNumberWorkers("other"));
+            assertEquals(0, config.getAlgorithmNumberWorkers(null));
+            assertEquals(2, config.getAlgorithmWarmPoolMinIdle("foo"));
+            assertEquals(4, config.getAlgorithmWarmPoolMaxIdle("foo"));
+            assertEquals(3, config.getAlgorithmWarmPoolMinIdle("bad"));
+            assertEquals(3, config.getAlgorithmWarmPoolMaxIdle("bad"));
+            assertEquals(0, config.getAlgorithmWarmPoolMinIdle("other"));
+            assertEquals(0, config.getAlgorithmWarmPoolMaxIdle("other"));
+            assertEquals("3", config.getAlgorithmProperty("foo",
+                    Configuration.ALGORITHM_NUM_WORKERS_SUFFIX, null));
+            assertEquals("x", config.getAlgorithmProperty("foo", ".nope", "x"));
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testAlgorithmDaemonSettings() throws CytoContainerException, IOException {
+        File tempDir = _folder.newFolder();
+        try {
+            File algoDir = new File(tempDir, "algorithms");
+            algoDir.mkdirs();
+            FileUtils.writeStringToFile(new File(algoDir, "foo.json"),
+                    "{\"name\": \"foo\", \"dockerImage\": \"foo:1.0\", \"daemon\": "
+                    + "{\"containers\": 2, \"maxTasks\": 50, \"arguments\": [\"--daemon\"]}}",
+                    StandardCharsets.UTF_8);
+            FileUtils.writeStringToFile(new File(algoDir, "bar.json"),
+                    "{\"name\": \"bar\", \"dockerImage\": \"bar:1.0\"}", StandardCharsets.UTF_8);
+            FileUtils.writeStringToFile(new File(algoDir, "bad.json"),
+                    "{\"name\": \"bad\", \"daemon\": {\"nope\": 1}}", StandardCharsets.UTF_8);
+            File configFile = new File(tempDir.getAbsolutePath() + File.separator + "conf");
+            Properties props = new Properties();
+            props.setProperty(Configuration.ALGORITHM_CONF_DIR, algoDir.getAbsolutePath());
+            FileOutputStream fos = new FileOutputStream(configFile);
+            props.store(fos, "hello");
+            fos.flush();
+            fos.close();
+            Configuration.setAlternateConfigurationFile(configFile.getAbsolutePath());
+            Configuration config = Configuration.reloadConfiguration();
+            assertEquals(2, config.getAlgorithms().getAlgorithms().size());
+            assertEquals("foo:1.0", config.getAlgorithms().getAlgorithms().get("foo").getDockerImage());
+            assertEquals(1, config.getAlgorithmDaemonSettings().size());
+            DaemonSettings daemon = config.getAlgorithmDaemonSettings().get("foo");
+            assertEquals(2, daemon.getContainers());
+            assertEquals(50, daemon.getMaxTasks());
+            assertEquals(30, daemon.getHealthCheckInterval());
+            assertEquals(10, daemon.getHealthCheckTimeout());
+            assertEquals(Arrays.asList("--daemon"), daemon.getArguments());
+        } finally {
+            _folder.delete();
+        }
+    }
+
+    @Test
+    public void testAlgorithmResourceSettingsAndScheduler() throws CytoContainerException, IOException {
+        File tempDir = _folder.newFolder();
+        try {
+            File algoDir = new File(tempDir, "algorithms");
+            algoDir.mkdirs();
+            FileUtils.writeStringToFile(new File(algoDir, "foo.json"),
+                    "{\"name\": \"foo\", \"dockerImage\": \"foo:1.0\", \"resources\": "
+                    + "{\"cpus\": 2.5, \"memory\": \"4g\"}}",
+                    StandardCharsets.UTF_8);
+            FileUtils.writeStringToFile(new File(algoDir, "bar.json"),
+                    "{\"name\": \"bar\", \"dockerImage\": \"bar:1.0\", \"resources\": "
+                    + "{\"memory\": \"lots\"}}", StandardCharsets.UTF_8);
+            File configFile = new File(tempDir.getAbsolutePath() + File.separator + "conf");
+            Properties props = new Properties();
+            props.setProperty(Configuration.ALGORITHM_CONF_DIR, algoDir.getAbsolutePath());
+            props.setProperty(Configuration.SCHEDULER_ENABLED, "true");
+            props.setProperty(Configuration.SCHEDULER_CPUS, "6");
+            props.setProperty(Configuration.SCHEDULER_MEMORY, "16g");
+            FileOutputStream fos = new FileOutputStream(configFile);
+            props.store(fos, "hello");
+            fos.flush();
+            fos.close();
+            Configuration.setAlternateConfigurationFile(configFile.getAbsolutePath());
+            Configuration config = Configuration.reloadConfiguration();
+            assertEquals(2, config.getAlgorithms().getAlgorithms().size());
+            assertEquals(1, config.getAlgorithmResourceSettings().size());
+            ResourceSettings resources = config.getAlgorithmResourceSettings().get("foo");
+            assertEquals(2.5, resources.getCpus(), 0.0);
+            assertEquals("4g", resources.getMemory());
+            assertEquals(Arrays.asList("--cpus", "2.5", "--memory", "4294967296"),
+                    resources.getDockerOptions());
+            assertTrue(config.isSchedulerEnabled());
+            assertEquals(6.0, config.getSchedulerCpus(), 0.0);
+            assertEquals(16L * 1024L * 1024L * 1024L, config.getSchedulerMemory());
+        } finally {
+            _folder.delete();
+        }
+    }
+
+    @Test
+    public void testAlgorithmOutputSettings() throws CytoContainerException, IOException {
+        File tempDir = _folder.newFolder();
+        try {
+            File algoDir = new File(tempDir, "algorithms");
+            algoDir.mkdirs();
+            FileUtils.writeStringToFile(new File(algoDir, "foo.json"),
+                    "{\"name\": \"foo\", \"dockerImage\": \"foo:1.0\", \"output\": "
+                    + "{\"binary\": true, \"contentType\": \"image/png\"}}",
+                    StandardCharsets.UTF_8);
+            FileUtils.writeStringToFile(new File(algoDir, "bar.json"),
+                    "{\"name\": \"bar\", \"dockerImage\": \"bar:1.0\"}", StandardCharsets.UTF_8);
+            File configFile = new File(tempDir.getAbsolutePath() + File.separator + "conf");
+            Properties props = new Properties();
+            props.setProperty(Configuration.ALGORITHM_CONF_DIR, algoDir.getAbsolutePath());
+            FileOutputStream fos = new FileOutputStream(configFile);
+            props.store(fos, "hello");
+            fos.flush();
+            fos.close();
+            Configuration.setAlternateConfigurationFile(configFile.getAbsolutePath());
+            Configuration config = Configuration.reloadConfiguration();
+            assertEquals(2, config.getAlgorithms().getAlgorithms().size());
+            assertEquals(1, config.getAlgorithmOutputSettings().size());
+            OutputSettings output = config.getAlgorithmOutputSettings().get("foo");
+            assertTrue(output.isBinary());
+            assertEquals("image/png", output.getContentType());
+        } finally {
+            _folder.delete();
+        }
+    }
 }
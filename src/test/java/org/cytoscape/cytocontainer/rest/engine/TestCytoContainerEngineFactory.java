@@ -7,9 +7,13 @@ import static org.easymock.EasyMock.mock;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.LinkedHashMap;
 import org.junit.Rule;
 import org.junit.rules.TemporaryFolder;
 import org.junit.Test;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
 import org.cytoscape.cytocontainer.rest.model.ServerStatus;
 import org.cytoscape.cytocontainer.rest.services.Configuration;
@@ -29,11 +33,33 @@ public class TestCytoContainerEngineFactory {
 
         Configuration mockConfig = mock(Configuration.class);
         expect(mockConfig.getNumberWorkers()).andReturn(5);
+        expect(mockConfig.getMaxQueueSize()).andReturn(0);
+        expect(mockConfig.getResultCacheSize()).andReturn(0);
+        expect(mockConfig.getResultCacheTTL()).andReturn(0L);
+        expect(mockConfig.isCoalesceRequests()).andReturn(false);
+        expect(mockConfig.getCompletedResultCacheBytes()).andReturn(0L);
+        expect(mockConfig.getCompletedStatusCacheSize()).andReturn(0);
+        expect(mockConfig.getEventsPollInterval()).andReturn(1000L);
+        expect(mockConfig.getTaskCompression()).andReturn("none");
+        expect(mockConfig.getCompressionLevel()).andReturn(6);
+        expect(mockConfig.getTaskCompressionDelay()).andReturn(60000L);
         expect(mockConfig.getTaskDirectory()).andReturn("/task");
         expect(mockConfig.getDockerCommand()).andReturn("/bin/docker");
+        expect(mockConfig.getDockerSocket()).andReturn("");
+        expect(mockConfig.isReapOrphanedContainers()).andReturn(false);
+        expect(mockConfig.getInstanceId()).andReturn("cy1");
+        expect(mockConfig.getMountOptions()).andReturn(":ro");
         CytoContainerAlgorithms cdas = new CytoContainerAlgorithms();
 
         expect(mockConfig.getAlgorithms()).andReturn(cdas);
+        expect(mockConfig.getAlgorithmDaemonSettings()).andReturn(new LinkedHashMap<>());
+        expect(mockConfig.getAlgorithmResourceSettings()).andReturn(new LinkedHashMap<>());
+        expect(mockConfig.getAlgorithmOutputSettings()).andReturn(new LinkedHashMap<>());
+        expect(mockConfig.isSchedulerEnabled()).andReturn(false);
+        expect(mockConfig.getSchedulerCpus()).andReturn(8.0);
+        expect(mockConfig.getSchedulerMemory()).andReturn(0L);
+        expect(mockConfig.isCpuSetEnabled()).andReturn(false);
+        expect(mockConfig.getCpuSetCpus()).andReturn("0-7");
         replay(mockConfig);
         CytoContainerEngineFactory factory = new CytoContainerEngineFactory(mockConfig);
         CytoContainerEngine cde = factory.getCytoContainerEngine();
@@ -42,4 +68,83 @@ public class TestCytoContainerEngineFactory {
         ServerStatus ss = cde.getServerStatus("");
         assertEquals(ServerStatus.OK_STATUS, ss.getStatus());
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void testGetCytoContainerEngineWithDedicatedWorkers() throws Exception {
+
+        Configuration mockConfig = mock(Configuration.class);
+        expect(mockConfig.getNumberWorkers()).andReturn(2);
+        expect(mockConfig.getMaxQueueSize()).andReturn(10);
+        expect(mockConfig.getResultCacheSize()).andReturn(100);
+        expect(mockConfig.getResultCacheTTL()).andReturn(60L);
+        expect(mockConfig.isAlgorithmResultCacheEnabled("slow")).andReturn(false);
+        expect(mockConfig.isAlgorithmResultCacheEnabled("fast")).andReturn(true);
+        expect(mockConfig.isCoalesceRequests()).andReturn(true);
+        expect(mockConfig.getCompletedResultCacheBytes()).andReturn(1024L);
+        expect(mockConfig.getCompletedStatusCacheSize()).andReturn(10);
+        expect(mockConfig.getEventsPollInterval()).andReturn(500L);
+        expect(mockConfig.getTaskCompression()).andReturn("gzip");
+        expect(mockConfig.getCompressionLevel()).andReturn(6);
+        expect(mockConfig.getTaskCompressionDelay()).andReturn(60000L);
+        expect(mockConfig.isAlgorithmCoalesceEnabled("slow")).andReturn(false);
+        expect(mockConfig.isAlgorithmCoalesceEnabled("fast")).andReturn(true);
+        expect(mockConfig.getTaskDirectory()).andReturn("/task");
+        expect(mockConfig.getDockerCommand()).andReturn("/bin/docker");
+        expect(mockConfig.getDockerSocket()).andReturn("/var/run/docker.sock");
+        expect(mockConfig.isReapOrphanedContainers()).andReturn(false);
+        expect(mockConfig.getInstanceId()).andReturn("cy1");
+        expect(mockConfig.getMountOptions()).andReturn(":ro");
+        CytoContainerAlgorithms cdas = new CytoContainerAlgorithms();
+        LinkedHashMap<String, CytoContainerAlgorithm> aMap = new LinkedHashMap<>();
+        CytoContainerAlgorithm slow = new CytoContainerAlgorithm();
+        slow.setName("slow");
+        aMap.put("slow", slow);
+        CytoContainerAlgorithm fast = new CytoContainerAlgorithm();
+        fast.setName("fast");
+        aMap.put("fast", fast);
+        cdas.setAlgorithms(aMap);
+        expect(mockConfig.getAlgorithms()).andReturn(cdas);
+        expect(mockConfig.getAlgorithmDaemonSettings()).andReturn(new LinkedHashMap<>());
+        expect(mockConfig.getAlgorithmResourceSettings()).andReturn(new LinkedHashMap<>());
+        expect(mockConfig.getAlgorithmOutputSettings()).andReturn(new LinkedHashMap<>());
+        expect(mockConfig.isSchedulerEnabled()).andReturn(true);
+        expect(mockConfig.getSchedulerCpus()).andReturn(4.0);
+        expect(mockConfig.getSchedulerMemory()).andReturn(0L);
+        expect(mockConfig.isCpuSetEnabled()).andReturn(true);
+        expect(mockConfig.getCpuSetCpus()).andReturn("0-3,8");
+        expect(mockConfig.getAlgorithmNumberWorkers("slow")).andReturn(3);
+        expect(mockConfig.getAlgorithmQueueSize("slow")).andReturn(5);
+        expect(mockConfig.getAlgorithmNumberWorkers("fast")).andReturn(0);
+        expect(mockConfig.getAlgorithmQueueSize("fast")).andReturn(0);
+        expect(mockConfig.getAlgorithmWarmPoolMinIdle("slow")).andReturn(0);
+        expect(mockConfig.getAlgorithmWarmPoolMaxIdle("slow")).andReturn(0);
+        expect(mockConfig.getAlgorithmWarmPoolMinIdle("fast")).andReturn(0);
+        expect(mockConfig.getAlgorithmWarmPoolMaxIdle("fast")).andReturn(0);
+        replay(mockConfig);
+        CytoContainerEngineFactory factory = new CytoContainerEngineFactory(mockConfig);
+        CytoContainerEngine cde = factory.getCytoContainerEngine();
+
+        verify(mockConfig);
+        CytoContainerServerStatus ss = (CytoContainerServerStatus)cde.getServerStatus("");
+        assertEquals(2, ss.getAlgorithms().size());
+        AlgorithmStatus slowStatus = ss.getAlgorithms().get("slow");
+        assertTrue(slowStatus.isDedicatedWorkers());
+        assertEquals(3, slowStatus.getNumberWorkers());
+        assertEquals(5, slowStatus.getQueueSize());
+        AlgorithmStatus fastStatus = ss.getAlgorithms().get("fast");
+        assertFalse(fastStatus.isDedicatedWorkers());
+        assertEquals(2, fastStatus.getNumberWorkers());
+        assertEquals(0, fastStatus.getQueueSize());
+        assertEquals(0, ss.getResultCacheEntries());
+        assertEquals(0L, ss.getResultCacheHits());
+        assertEquals(0L, ss.getCoalescedRequests());
+        assertEquals(0, ss.getCompletedResultCacheEntries());
+        assertEquals(0L, ss.getCompressedTaskFiles());
+        assertEquals(4.0, ss.getSchedulerCpus(), 0.0);
+        assertEquals(0.0, ss.getSchedulerUsedCpus(), 0.0);
+        assertEquals(0, ss.getSchedulerWaitingTasks());
+        assertEquals("0-3,8", ss.getCpuSetCpus());
+        assertTrue(ss.getCpuSetAssignments().isEmpty());
+        cde.shutdown();
+    }
+}
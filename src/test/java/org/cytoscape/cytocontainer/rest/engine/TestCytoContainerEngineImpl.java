@@ -1,19 +1,33 @@
 package org.cytoscape.cytocontainer.rest.engine;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.TextNode;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.apache.commons.io.FileUtils;
+import java.util.concurrent.TimeUnit;
 import org.easymock.Capture;
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.easymock.EasyMock.mock;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
@@ -26,9 +40,9 @@ import static org.junit.Assert.fail;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
-import org.cytoscape.cytocontainer.rest.engine.util.DockerCytoContainerRunner;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
+import org.cytoscape.cytocontainer.rest.model.BinaryData;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
@@ -37,7 +51,11 @@ import org.cytoscape.cytocontainer.rest.model.ServerStatus;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerBadRequestException;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
 import org.cytoscape.cytocontainer.rest.services.Configuration;
+import org.cytoscape.cytocontainer.rest.engine.util.ContainerReaper;
+import org.cytoscape.cytocontainer.rest.engine.util.CytoContainerRequestHasher;
 import org.cytoscape.cytocontainer.rest.engine.util.CytoContainerRequestValidator;
+import org.cytoscape.cytocontainer.rest.engine.util.DaemonContainerPool;
+import org.cytoscape.cytocontainer.rest.engine.util.DockerCytoContainerRunner;
 import org.cytoscape.cytocontainer.rest.model.Algorithm;
 import org.cytoscape.cytocontainer.rest.model.Algorithms;
 
@@ -56,19 +74,183 @@ public class TestCytoContainerEngineImpl {
     }
    
     @Test
-    public void testthreadSleep() throws Exception {
+    public void testRunWithShutDownTrue(){
         CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null, "task",
                 "docker", null, null);
-        engine.updateThreadSleepTime(1);
-        engine.threadSleep();
+        engine.shutdown();
+        engine.run();
     }
     
     @Test
-    public void testRunWithShutDownTrue(){
+    public void testRunReturnsWhenShutdownInvokedFromAnotherThread() throws Exception {
         CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null, "task",
                 "docker", null, null);
+        Thread t = new Thread(engine);
+        t.start();
+        engine.shutdown();
+        t.join(10000);
+        assertFalse(t.isAlive());
+    }
+    
+    @Test
+    public void testRunShutsDownExecutorServices() throws Exception {
+        ExecutorService es = Executors.newSingleThreadExecutor();
+        ExecutorService dedicatedEs = Executors.newSingleThreadExecutor();
+        Map<String, AlgorithmWorkerPool> pools = new HashMap<>();
+        pools.put("algo", new AlgorithmWorkerPool("algo", dedicatedEs, 1, 0, true));
+        CytoContainerEngineImpl engine = new CytoContainerEngineImpl(es, pools, "task",
+                "docker", null, null);
         engine.shutdown();
         engine.run();
+        assertTrue(es.isShutdown());
+        assertTrue(dedicatedEs.isShutdown());
+    }
+    
+    @Test
+    public void testTaskDoneNullTask(){
+        CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null, "task",
+                "docker", null, null);
+        engine.taskDone(null);
+    }
+    
+    @Test
+    public void testTaskDoneSavesResultAndUpdatesCounters() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            File taskDir = new File(tempDir.getAbsolutePath() + File.separator + "1");
+            assertTrue(taskDir.mkdirs());
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            CytoContainerResult cdr = new CytoContainerResult();
+            cdr.setId("1");
+            cdr.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            CytoContainerTask task = new CytoContainerTask("1", "algo",
+                    () -> cdr, engine);
+            task.run();
+            assertTrue(new File(engine.getCytoContainerResultFilePath("1")).isFile());
+            assertEquals(CytoContainerResult.COMPLETE_STATUS,
+                    engine.getResult("algo", "1").getStatus());
+            ServerStatus ss = engine.getServerStatus(null);
+            assertEquals(1, ss.getCompletedTasks());
+            assertEquals(0, ss.getCanceledTasks());
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testTaskDoneFailedTaskSavesFailedResult() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            File taskDir = new File(tempDir.getAbsolutePath() + File.separator + "1");
+            assertTrue(taskDir.mkdirs());
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            CytoContainerTask task = new CytoContainerTask("1", "algo",
+                    () -> { throw new IOException("some error"); }, engine);
+            task.run();
+            assertTrue(new File(engine.getCytoContainerResultFilePath("1")).isFile());
+            CytoContainerResult res = engine.getResult("algo", "1");
+            assertEquals("1", res.getId());
+            assertEquals(CytoContainerResult.FAILED_STATUS, res.getStatus());
+            assertEquals(100, res.getProgress());
+            assertTrue(res.getMessage().startsWith("Received error trying to run task: "));
+            assertTrue(res.getMessage().contains("some error"));
+            assertEquals(1, engine.getServerStatus(null).getCompletedTasks());
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testTaskDoneInterruptedRestoresInterruptFlag() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            CytoContainerTask task = new CytoContainerTask("1", "algo",
+                    () -> new CytoContainerResult(), null){
+                @Override
+                public CytoContainerResult get() throws InterruptedException {
+                    throw new InterruptedException("interrupted");
+                }
+            };
+            engine.taskDone(task);
+            assertTrue(Thread.interrupted());
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testTaskDoneCanceledTaskUpdatesCounters() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            CytoContainerTask task = new CytoContainerTask("1", "algo",
+                    () -> new CytoContainerResult(), engine);
+            assertTrue(task.cancel(true));
+            ServerStatus ss = engine.getServerStatus(null);
+            assertEquals(0, ss.getCompletedTasks());
+            assertEquals(1, ss.getCanceledTasks());
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testPerAlgorithmWorkerPoolCounts() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            ExecutorService es = Executors.newSingleThreadExecutor();
+            ExecutorService dedicatedES = Executors.newSingleThreadExecutor();
+            try {
+                Map<String, AlgorithmWorkerPool> pools = new HashMap<>();
+                pools.put("slow", new AlgorithmWorkerPool("slow", dedicatedES, 1, 0, true));
+                CytoContainerEngineImpl engine = new CytoContainerEngineImpl(es, pools,
+                        tempDir.getAbsolutePath(), "docker", null, null);
+                CountDownLatch started = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                CytoContainerTask slowTask = new CytoContainerTask("1", "slow", () -> {
+                    started.countDown();
+                    release.await();
+                    return null;
+                }, engine);
+                CytoContainerTask queuedTask = new CytoContainerTask("2", "slow",
+                        () -> null, engine);
+                engine.getWorkerPool("slow").taskSubmitted();
+                engine.getWorkerPool("slow").taskSubmitted();
+                dedicatedES.execute(slowTask);
+                dedicatedES.execute(queuedTask);
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+                
+                CytoContainerServerStatus ss = (CytoContainerServerStatus)engine.getServerStatus(null);
+                assertEquals(1, ss.getRunningTasks());
+                AlgorithmStatus aStat = ss.getAlgorithms().get("slow");
+                assertEquals(1, aStat.getRunningTasks());
+                assertEquals(1, aStat.getQueuedTasks());
+                assertTrue(aStat.isDedicatedWorkers());
+                
+                // the shared pool should be unaffected
+                assertEquals(0, engine.getWorkerPool("fast").getRunningTasks());
+                assertFalse(engine.getWorkerPool("fast").isDedicated());
+                
+                release.countDown();
+                
+                // done() is invoked on the worker thread so wait for it to exit
+                dedicatedES.shutdown();
+                assertTrue(dedicatedES.awaitTermination(10, TimeUnit.SECONDS));
+                aStat = new AlgorithmStatus(engine.getWorkerPool("slow"));
+                assertEquals(0, aStat.getQueuedTasks());
+                assertEquals(2, aStat.getCompletedTasks());
+            } finally {
+                es.shutdownNow();
+                dedicatedES.shutdownNow();
+            }
+        } finally {
+            _folder.delete();
+        }
     }
     
     @Test
@@ -594,7 +776,7 @@ public class TestCytoContainerEngineImpl {
     }
     
     @Test
-    public void testRequestTaskCreationFails() throws IOException {
+    public void testRequestTaskCreationFails() throws Exception {
         try {
             File tempDir = _folder.newFolder();
             
@@ -621,8 +803,9 @@ public class TestCytoContainerEngineImpl {
             expect(mockValidator.validateRequest(cda, cdr)).andReturn(null);
 
             ExecutorService mockES = mock(ExecutorService.class);
-            Capture<DockerCytoContainerRunner> cappy = Capture.newInstance();
-            expect(mockES.submit(capture(cappy))).andThrow(new RejectedExecutionException("failed"));
+            Capture<CytoContainerTask> cappy = Capture.newInstance();
+            mockES.execute(capture(cappy));
+            expectLastCall().andThrow(new RejectedExecutionException("failed"));
             replay(mockES);
             replay(mockValidator);
             CytoContainerEngineImpl engine = new CytoContainerEngineImpl(mockES,
@@ -637,6 +820,7 @@ public class TestCytoContainerEngineImpl {
             }
             
             assertNotNull(cappy.getValue());
+            assertEquals(0, engine.getServerStatus(null).getQueuedTasks());
             verify(mockValidator);
         } finally {
             _folder.delete();
@@ -674,10 +858,8 @@ public class TestCytoContainerEngineImpl {
             expect(mockValidator.validateRequest(cda, cdr)).andReturn(null);
 
             ExecutorService mockES = mock(ExecutorService.class);
-            Capture<DockerCytoContainerRunner> cappy = Capture.newInstance();
-            FutureTask<CytoContainerResult> mockFT = mock(FutureTask.class);
-            expect(mockES.submit(capture(cappy))).andReturn(mockFT);
-            replay(mockFT);
+            Capture<CytoContainerTask> cappy = Capture.newInstance();
+            mockES.execute(capture(cappy));
             replay(mockES);
             replay(mockValidator);
             CytoContainerEngineImpl engine = new CytoContainerEngineImpl(mockES,
@@ -695,6 +877,7 @@ public class TestCytoContainerEngineImpl {
 				ccr = engine.getResult("algo", resId);
 				assertEquals(55, ccr.getProgress());
 				assertEquals("a message", ccr.getMessage());
+				assertEquals(1, engine.getServerStatus(null).getQueuedTasks());
             } catch(CytoContainerBadRequestException cdbe){
                 fail("Unexpected exception: " + cdbe.getMessage());
             } catch(CytoContainerException cde){
@@ -702,9 +885,869 @@ public class TestCytoContainerEngineImpl {
             }
             
             assertNotNull(cappy.getValue());
+            assertEquals("algo", cappy.getValue().getAlgorithm());
             verify(mockValidator);
             verify(mockES);
-            verify(mockFT);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    private CytoContainerEngineImpl createEngineForQueueTests(File tempDir, ExecutorService es,
+            Map<String, AlgorithmWorkerPool> pools) throws IOException {
+        return new CytoContainerEngineImpl(es, pools,
+                tempDir.getAbsolutePath(), "docker", createAlgorithmsForQueueTests(tempDir),
+                createValidatorForQueueTests());
+    }
+    
+    private CytoContainerRequestValidator createValidatorForQueueTests(){
+        CytoContainerRequestValidator mockValidator = mock(CytoContainerRequestValidator.class);
+        expect(mockValidator.validateRequest(anyObject(), anyObject())).andReturn(null).anyTimes();
+        replay(mockValidator);
+        return mockValidator;
+    }
+    
+    private CytoContainerAlgorithms createAlgorithmsForQueueTests(File tempDir) throws IOException {
+        File confFile = new File(tempDir.getAbsolutePath() + File.separator + "foo.conf");
+        try (FileWriter fw = new FileWriter(confFile)) {
+            fw.write(Configuration.TASK_DIR + " = " + tempDir.getAbsolutePath() + "\n");
+            fw.write(Configuration.ALGORITHM_TIMEOUT + " = 20\n");
+            fw.flush();
+        }
+        Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+        CytoContainerAlgorithms algos = new CytoContainerAlgorithms();
+        LinkedHashMap<String, CytoContainerAlgorithm> aMap = new LinkedHashMap<>();
+        for (String name : new String[]{"algo", "other"}){
+            CytoContainerAlgorithm cda = new CytoContainerAlgorithm();
+            cda.setName(name);
+            aMap.put(name, cda);
+        }
+        algos.setAlgorithms(aMap);
+        return algos;
+    }
+    
+    private CytoContainerRequest createQueueTestRequest(){
+        CytoContainerRequest cdr = new CytoContainerRequest();
+        cdr.setData(TextNode.valueOf("hi"));
+        return cdr;
+    }
+    
+    @Test
+    public void testRequestGlobalQueueFull() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            ExecutorService mockES = mock(ExecutorService.class);
+            mockES.execute(anyObject());
+            expectLastCall().times(2);
+            replay(mockES);
+            CytoContainerEngineImpl engine = createEngineForQueueTests(tempDir, mockES, null);
+            engine.setMaxQueueSize(2);
+            assertNotNull(engine.request("algo", createQueueTestRequest()));
+            assertNotNull(engine.request("other", createQueueTestRequest()));
+            try {
+                engine.request("algo", createQueueTestRequest());
+                fail("Expected CytoContainerQueueFullException");
+            } catch(CytoContainerQueueFullException qfe){
+                assertTrue(qfe.getMessage().startsWith("Server queue is full with 2 tasks"));
+                // no tasks have finished so timeout is used
+                assertEquals(20L, qfe.getRetryAfter());
+            }
+            assertEquals(2, engine.getServerStatus(null).getQueuedTasks());
+            verify(mockES);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testRequestAlgorithmQueueFull() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            ExecutorService mockES = mock(ExecutorService.class);
+            mockES.execute(anyObject());
+            expectLastCall().times(2);
+            replay(mockES);
+            ExecutorService mockDedicatedES = mock(ExecutorService.class);
+            mockDedicatedES.execute(anyObject());
+            replay(mockDedicatedES);
+            Map<String, AlgorithmWorkerPool> pools = new HashMap<>();
+            pools.put("algo", new AlgorithmWorkerPool("algo", mockDedicatedES, 1, 1, true));
+            CytoContainerEngineImpl engine = createEngineForQueueTests(tempDir, mockES, pools);
+            assertNotNull(engine.request("algo", createQueueTestRequest()));
+            try {
+                engine.request("algo", createQueueTestRequest());
+                fail("Expected CytoContainerQueueFullException");
+            } catch(CytoContainerQueueFullException qfe){
+                assertTrue(qfe.getMessage().startsWith("Queue for algo is full"));
+                assertTrue(qfe.getRetryAfter() >= 1L);
+            }
+            // other algorithm is unaffected
+            assertNotNull(engine.request("other", createQueueTestRequest()));
+            assertNotNull(engine.request("other", createQueueTestRequest()));
+            verify(mockES);
+            verify(mockDedicatedES);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testReserveAndRequestWithReservation() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            ExecutorService mockES = mock(ExecutorService.class);
+            mockES.execute(anyObject());
+            replay(mockES);
+            CytoContainerEngineImpl engine = createEngineForQueueTests(tempDir, mockES, null);
+            engine.setMaxQueueSize(1);
+            try {
+                engine.reserve("doesnotexist");
+                fail("Expected CytoContainerBadRequestException");
+            } catch(CytoContainerBadRequestException cbre){
+                assertEquals("doesnotexist is not a valid algorithm", cbre.getMessage());
+            }
+            engine.reserve("algo");
+            try {
+                engine.reserve("other");
+                fail("Expected CytoContainerQueueFullException");
+            } catch(CytoContainerQueueFullException qfe){
+                assertTrue(qfe.getMessage().startsWith("Server queue is full with 1 tasks"));
+            }
+            
+            // failed request releases reservation
+            try {
+                engine.request("algo", null, true);
+                fail("Expected CytoContainerBadRequestException");
+            } catch(CytoContainerBadRequestException cbre){
+                assertEquals("Request is null", cbre.getMessage());
+            }
+            assertEquals(0, engine.getServerStatus(null).getQueuedTasks());
+            
+            engine.reserve("algo");
+            engine.releaseReservation("algo");
+            assertEquals(0, engine.getServerStatus(null).getQueuedTasks());
+            
+            // reservation is used by request instead of taking another spot
+            engine.reserve("algo");
+            assertNotNull(engine.request("algo", createQueueTestRequest(), true));
+            assertEquals(1, engine.getServerStatus(null).getQueuedTasks());
+            verify(mockES);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testRequestResultCacheHit() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            // no tasks should be submitted
+            ExecutorService mockES = mock(ExecutorService.class);
+            replay(mockES);
+            CytoContainerEngineImpl engine = createEngineForQueueTests(tempDir, mockES, null);
+            engine.setResultCache(new ResultCache(10, 0, null));
+            
+            // simulate completion of a task for the same request
+            CytoContainerRequest cdr = createQueueTestRequest();
+            File srcTaskDir = new File(tempDir, "src");
+            assertTrue(srcTaskDir.mkdirs());
+            try (FileWriter fw = new FileWriter(new File(srcTaskDir, CytoContainerEngineImpl.RESULT_DATA_FILE))){
+                fw.write("some result");
+            }
+            CytoContainerResult srcRes = new CytoContainerResult(1L);
+            srcRes.setId("src");
+            srcRes.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            srcRes.setProgress(100);
+            srcRes.setResult(TextNode.valueOf("some result"));
+            CytoContainerTask srcTask = new CytoContainerTask("src", "algo", () -> srcRes, engine);
+            srcTask.setRequestKey(new CytoContainerRequestHasher().getDigest("algo",
+                    null, null, cdr.getData()));
+            srcTask.run();
+            
+            String resId = engine.request("algo", cdr);
+            assertNotNull(resId);
+            assertFalse("src".equals(resId));
+            CytoContainerResult res = engine.getResult("algo", resId);
+            assertEquals(resId, res.getId());
+            assertEquals(CytoContainerResult.COMPLETE_STATUS, res.getStatus());
+            assertEquals("some result", res.getResult().asText());
+            assertEquals("some result", FileUtils.readFileToString(
+                    new File(engine.getCytoContainerResultDataFilePath(resId)), "UTF-8"));
+            
+            CytoContainerServerStatus ss = (CytoContainerServerStatus)engine.getServerStatus(null);
+            assertEquals(1L, ss.getResultCacheHits());
+            assertEquals(0L, ss.getResultCacheMisses());
+            assertEquals(1, ss.getResultCacheEntries());
+            
+            // deleting the source task removes it from the cache
+            engine.delete("algo", "src");
+            assertEquals(0, ((CytoContainerServerStatus)engine.getServerStatus(null)).getResultCacheEntries());
+            verify(mockES);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testRequestResultCacheHitRewritesDownloadUrl() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            ExecutorService mockES = mock(ExecutorService.class);
+            replay(mockES);
+            CytoContainerEngineImpl engine = createEngineForQueueTests(tempDir, mockES, null);
+            engine.setResultCache(new ResultCache(10, 0, null));
+            
+            CytoContainerRequest cdr = createQueueTestRequest();
+            assertTrue(new File(tempDir, "src").mkdirs());
+            BinaryData bData = new BinaryData();
+            bData.setContentType("image/png");
+            bData.setSizeInBytes(5);
+            bData.setDownloadUrl(engine.getResultDataDownloadUrl("algo", "src"));
+            CytoContainerResult srcRes = new CytoContainerResult(1L);
+            srcRes.setId("src");
+            srcRes.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            srcRes.setResult(new ObjectMapper().valueToTree(bData));
+            CytoContainerTask srcTask = new CytoContainerTask("src", "algo", () -> srcRes, engine);
+            srcTask.setRequestKey(new CytoContainerRequestHasher().getDigest("algo",
+                    null, null, cdr.getData()));
+            srcTask.run();
+            
+            String resId = engine.request("algo", cdr);
+            CytoContainerResult res = engine.getResult("algo", resId);
+            assertEquals(engine.getResultDataDownloadUrl("algo", resId),
+                    res.getResult().get("downloadUrl").asText());
+            assertEquals("image/png", res.getResult().get("contentType").asText());
+            // source task is unchanged
+            assertEquals(engine.getResultDataDownloadUrl("algo", "src"),
+                    engine.getResult("algo", "src").getResult().get("downloadUrl").asText());
+            verify(mockES);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testRequestResultCacheMissWhenSourceTaskGone() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            ExecutorService mockES = mock(ExecutorService.class);
+            Capture<CytoContainerTask> cappy = Capture.newInstance();
+            mockES.execute(capture(cappy));
+            replay(mockES);
+            CytoContainerEngineImpl engine = createEngineForQueueTests(tempDir, mockES, null);
+            ResultCache cache = new ResultCache(10, 0, null);
+            engine.setResultCache(cache);
+            CytoContainerRequest cdr = createQueueTestRequest();
+            String key = new CytoContainerRequestHasher().getDigest("algo",
+                    null, null, cdr.getData());
+            cache.put(key, "doesnotexist");
+            
+            String resId = engine.request("algo", cdr);
+            assertEquals(resId, cappy.getValue().getId());
+            assertEquals(key, cappy.getValue().getRequestKey());
+            assertEquals(0L, cache.getHits());
+            assertEquals(1L, cache.getMisses());
+            assertEquals(0, cache.size());
+            verify(mockES);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testRequestCoalescedWithTaskInFlight() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            // only one task should be submitted
+            ExecutorService mockES = mock(ExecutorService.class);
+            Capture<CytoContainerTask> cappy = Capture.newInstance();
+            mockES.execute(capture(cappy));
+            replay(mockES);
+            CytoContainerEngineImpl engine = createEngineForQueueTests(tempDir, mockES, null);
+            engine.setInFlightRequests(new InFlightRequests(null));
+            
+            String primaryId = engine.request("algo", createQueueTestRequest());
+            String aliasId = engine.request("algo", createQueueTestRequest());
+            assertEquals(primaryId, cappy.getValue().getId());
+            assertFalse(primaryId.equals(aliasId));
+            assertEquals(1, engine.getServerStatus(null).getQueuedTasks());
+            
+            CytoContainerResultStatus aliasStatus = engine.getStatus("algo", aliasId);
+            assertEquals(aliasId, aliasStatus.getId());
+            assertEquals(CytoContainerResult.SUBMITTED_STATUS, aliasStatus.getStatus());
+            
+            // deleting primary must not cancel task alias still needs
+            engine.delete("algo", primaryId);
+            assertFalse(cappy.getValue().isCancelled());
+            assertNull(engine.getCytoContainerResultFromDbOrFilesystem(primaryId));
+            assertNotNull(engine.getStatus("algo", aliasId));
+            
+            // simulate completion of the task
+            assertTrue(new File(tempDir, primaryId).isDirectory());
+            try (FileWriter fw = new FileWriter(new File(engine.getCytoContainerResultDataFilePath(primaryId)))){
+                fw.write("some result");
+            }
+            CytoContainerResult primaryRes = new CytoContainerResult(1L);
+            primaryRes.setId(primaryId);
+            primaryRes.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            primaryRes.setProgress(100);
+            primaryRes.setResult(TextNode.valueOf("some result"));
+            new CytoContainerTask(primaryId, "algo", () -> primaryRes, engine).run();
+            
+            CytoContainerResult aliasRes = engine.getResult("algo", aliasId);
+            assertEquals(aliasId, aliasRes.getId());
+            assertEquals(CytoContainerResult.COMPLETE_STATUS, aliasRes.getStatus());
+            assertEquals("some result", aliasRes.getResult().asText());
+            assertEquals("some result", FileUtils.readFileToString(
+                    new File(engine.getCytoContainerResultDataFilePath(aliasId)), "UTF-8"));
+            
+            // primary was deleted so its directory is renamed once task is done
+            assertFalse(new File(tempDir, primaryId).exists());
+            assertTrue(new File(tempDir, primaryId + ".deleted").isDirectory());
+            
+            CytoContainerServerStatus ss = (CytoContainerServerStatus)engine.getServerStatus(null);
+            assertEquals(1L, ss.getCoalescedRequests());
+            verify(mockES);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testRequestCoalescedTaskCanceledWhenAllRequestsDeleted() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            ExecutorService mockES = mock(ExecutorService.class);
+            Capture<CytoContainerTask> cappy = Capture.newInstance();
+            mockES.execute(capture(cappy));
+            replay(mockES);
+            CytoContainerEngineImpl engine = createEngineForQueueTests(tempDir, mockES, null);
+            engine.setInFlightRequests(new InFlightRequests(null));
+            
+            String primaryId = engine.request("algo", createQueueTestRequest());
+            String aliasId = engine.request("algo", createQueueTestRequest());
+            String otherAliasId = engine.request("algo", createQueueTestRequest());
+            
+            engine.delete("algo", aliasId);
+            assertNull(engine.getCytoContainerResultFromDbOrFilesystem(aliasId));
+            engine.delete("algo", primaryId);
+            assertFalse(cappy.getValue().isCancelled());
+            
+            // last request attached is deleted so task is canceled
+            engine.delete("algo", otherAliasId);
+            assertTrue(cappy.getValue().isCancelled());
+            assertNull(engine.getCytoContainerResultFromDbOrFilesystem(otherAliasId));
+            assertEquals(0, engine.getServerStatus(null).getQueuedTasks());
+            verify(mockES);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testRequestDedicatedPoolFullWhileTaskSavesResult() throws Exception {
+        ExecutorService es = Executors.newFixedThreadPool(1);
+        try {
+            File tempDir = _folder.newFolder();
+            Map<String, AlgorithmWorkerPool> pools = new HashMap<>();
+            pools.put("algo", new AlgorithmWorkerPool("algo", es, 1, 1, true));
+            final CountDownLatch saving = new CountDownLatch(1);
+            final CountDownLatch saved = new CountDownLatch(1);
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(es, pools,
+                    tempDir.getAbsolutePath(), "docker", createAlgorithmsForQueueTests(tempDir),
+                    createValidatorForQueueTests()){
+                @Override
+                protected DockerCytoContainerRunner createDockerCytoContainerRunner(final String id,
+                        final String algorithm, CytoContainerRequest request, final long startTime,
+                        final String dockerImage, Map<String, String> combinedParams) throws Exception {
+                    return new DockerCytoContainerRunner(id, request, startTime,
+                            tempDir.getAbsolutePath(), "docker", dockerImage, combinedParams,
+                            20, TimeUnit.SECONDS, null){
+                        @Override
+                        public CytoContainerResult call() throws Exception {
+                            CytoContainerResult res = new CytoContainerResult(startTime);
+                            res.setId(id);
+                            res.setStatus(CytoContainerResult.COMPLETE_STATUS);
+                            return res;
+                        }
+                    };
+                }
+                
+                @Override
+                protected void saveCytoContainerResultToFilesystem(final CytoContainerResult cdr){
+                    if (saving.getCount() > 0){
+                        saving.countDown();
+                        try {
+                            saved.await(10, TimeUnit.SECONDS);
+                        } catch(InterruptedException ie){
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    super.saveCytoContainerResultToFilesystem(cdr);
+                }
+            };
+            
+            assertNotNull(engine.request("algo", createQueueTestRequest()));
+            assertTrue(saving.await(10, TimeUnit.SECONDS));
+            
+            // first task is done, but its worker is still saving the result
+            // so it counts as running and these wait in the executor queue
+            assertNotNull(engine.request("algo", createQueueTestRequest()));
+            assertNotNull(engine.request("algo", createQueueTestRequest()));
+            try {
+                engine.request("algo", createQueueTestRequest());
+                fail("Expected CytoContainerQueueFullException");
+            } catch(CytoContainerQueueFullException qfe){
+                assertTrue(qfe.getMessage().startsWith("Queue for algo is full"));
+            }
+            
+            saved.countDown();
+            es.shutdown();
+            assertTrue(es.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(0, engine.getServerStatus(null).getQueuedTasks());
+            assertEquals(3, pools.get("algo").getCompletedTasks());
+            engine.shutdown();
+        } finally {
+            es.shutdownNow();
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testDeleteTaskWaitingOnResourceScheduler() throws Exception {
+        ExecutorService es = Executors.newFixedThreadPool(2);
+        try {
+            File tempDir = _folder.newFolder();
+            final CountDownLatch running = new CountDownLatch(1);
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(es, null,
+                    tempDir.getAbsolutePath(), "docker", createAlgorithmsForQueueTests(tempDir),
+                    createValidatorForQueueTests()){
+                @Override
+                protected DockerCytoContainerRunner createDockerCytoContainerRunner(final String id,
+                        final String algorithm, CytoContainerRequest request, final long startTime,
+                        final String dockerImage, Map<String, String> combinedParams) throws Exception {
+                    return new DockerCytoContainerRunner(id, request, startTime,
+                            tempDir.getAbsolutePath(), "docker", dockerImage, combinedParams,
+                            20, TimeUnit.SECONDS, null){
+                        @Override
+                        public CytoContainerResult call() throws Exception {
+                            running.countDown();
+                            Thread.sleep(60000);
+                            return null;
+                        }
+                    };
+                }
+            };
+            ResourceScheduler scheduler = new ResourceScheduler(1, 0);
+            engine.setResourceScheduler(scheduler);
+            
+            String runningId = engine.request("algo", createQueueTestRequest());
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            
+            // waits on scheduler, not on the free worker
+            String waitingId = engine.request("other", createQueueTestRequest());
+            assertEquals(1, scheduler.getWaitingTasks());
+            assertEquals(1, ((ThreadPoolExecutor)es).getActiveCount());
+            
+            engine.delete("other", waitingId);
+            assertEquals(0, scheduler.getWaitingTasks());
+            engine.delete("algo", runningId);
+            for (int i = 0; i < 500 && scheduler.getRunningTasks() > 0; i++){
+                Thread.sleep(10);
+            }
+            assertEquals(0, scheduler.getRunningTasks());
+            engine.shutdown();
+        } finally {
+            es.shutdownNow();
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testDeleteOnlyReapsContainersOfStartedTasks() throws Exception {
+        ExecutorService es = Executors.newSingleThreadExecutor();
+        try {
+            File tempDir = _folder.newFolder();
+            final CountDownLatch running = new CountDownLatch(1);
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(es, null,
+                    tempDir.getAbsolutePath(), "docker", createAlgorithmsForQueueTests(tempDir),
+                    createValidatorForQueueTests()){
+                @Override
+                protected DockerCytoContainerRunner createDockerCytoContainerRunner(final String id,
+                        final String algorithm, CytoContainerRequest request, final long startTime,
+                        final String dockerImage, Map<String, String> combinedParams) throws Exception {
+                    return new DockerCytoContainerRunner(id, request, startTime,
+                            tempDir.getAbsolutePath(), "docker", dockerImage, combinedParams,
+                            20, TimeUnit.SECONDS, null){
+                        @Override
+                        public CytoContainerResult call() throws Exception {
+                            running.countDown();
+                            Thread.sleep(60000);
+                            return null;
+                        }
+                    };
+                }
+            };
+            final List<String> reaped = new ArrayList<>();
+            final CountDownLatch reapedLatch = new CountDownLatch(1);
+            ContainerReaper mockReaper = mock(ContainerReaper.class);
+            expect(mockReaper.removeContainer(anyObject())).andAnswer(() -> {
+                reaped.add((String)getCurrentArguments()[0]);
+                reapedLatch.countDown();
+                return true;
+            }).anyTimes();
+            replay(mockReaper);
+            engine.setContainerReaper(mockReaper);
+            
+            String startedId = engine.request("algo", createQueueTestRequest());
+            String queuedId = engine.request("other", createQueueTestRequest());
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            
+            // queued task is deleted first so its container, if it were
+            // reaped, would be removed before the one of the started task
+            engine.delete("other", queuedId);
+            engine.delete("algo", startedId);
+            assertTrue(reapedLatch.await(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(DockerCytoContainerRunner.getContainerName(startedId)),
+                    reaped);
+            engine.shutdown();
+        } finally {
+            es.shutdownNow();
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testDeleteDaemonTaskStopsContainerOffRequestThread() throws Exception {
+        ExecutorService es = Executors.newSingleThreadExecutor();
+        try {
+            File tempDir = _folder.newFolder();
+            final CountDownLatch running = new CountDownLatch(1);
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(es, null,
+                    tempDir.getAbsolutePath(), "docker", createAlgorithmsForQueueTests(tempDir),
+                    createValidatorForQueueTests()){
+                @Override
+                protected DockerCytoContainerRunner createDockerCytoContainerRunner(final String id,
+                        final String algorithm, CytoContainerRequest request, final long startTime,
+                        final String dockerImage, Map<String, String> combinedParams) throws Exception {
+                    return new DockerCytoContainerRunner(id, request, startTime,
+                            tempDir.getAbsolutePath(), "docker", dockerImage, combinedParams,
+                            20, TimeUnit.SECONDS, null){
+                        @Override
+                        public CytoContainerResult call() throws Exception {
+                            running.countDown();
+                            Thread.sleep(60000);
+                            return null;
+                        }
+                    };
+                }
+            };
+            final CountDownLatch canceled = new CountDownLatch(1);
+            final List<Thread> cancelThreads = new ArrayList<>();
+            DaemonContainerPool mockPool = mock(DaemonContainerPool.class);
+            expect(mockPool.cancelTask(anyObject())).andAnswer(() -> {
+                cancelThreads.add(Thread.currentThread());
+                canceled.countDown();
+                return true;
+            });
+            mockPool.shutdown();
+            replay(mockPool);
+            Map<String, DaemonContainerPool> daemonPools = new HashMap<>();
+            daemonPools.put("algo", mockPool);
+            engine.setDaemonContainerPools(daemonPools);
+            
+            String id = engine.request("algo", createQueueTestRequest());
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            engine.delete("algo", id);
+            assertTrue(canceled.await(10, TimeUnit.SECONDS));
+            // stopping a daemon container can take up to 30 seconds
+            assertEquals(1, cancelThreads.size());
+            assertFalse(cancelThreads.get(0) == Thread.currentThread());
+            engine.shutdown();
+            verify(mockPool);
+        } finally {
+            es.shutdownNow();
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testRequestNotCoalescedWhenAlgorithmDisabled() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            ExecutorService mockES = mock(ExecutorService.class);
+            mockES.execute(anyObject());
+            expectLastCall().times(2);
+            replay(mockES);
+            CytoContainerEngineImpl engine = createEngineForQueueTests(tempDir, mockES, null);
+            engine.setInFlightRequests(new InFlightRequests(new HashSet<>(Arrays.asList("algo"))));
+            String firstId = engine.request("algo", createQueueTestRequest());
+            String secondId = engine.request("algo", createQueueTestRequest());
+            assertFalse(firstId.equals(secondId));
+            assertEquals(2, engine.getServerStatus(null).getQueuedTasks());
+            verify(mockES);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testCompletedResultCacheFilledOnSaveAndEvictedOnDelete() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            CompletedResultCache cache = new CompletedResultCache(1024*1024, 10);
+            engine.setCompletedResultCache(cache);
+            CytoContainerResult res = new CytoContainerResult(1L);
+            res.setId("1");
+            res.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            res.setProgress(100);
+            res.setResult(TextNode.valueOf("some result"));
+            assertTrue(new File(tempDir, "1").mkdirs());
+            engine.saveCytoContainerResultToFilesystem(res);
+            File resFile = new File(engine.getCytoContainerResultFilePath("1"));
+            assertEquals(resFile.length(), cache.getSizeInBytes());
+            
+            // remove file to verify results come from memory
+            assertTrue(resFile.delete());
+            assertEquals("some result", engine.getResult("algo", "1").getResult().asText());
+            CytoContainerResultStatus status = engine.getStatus("algo", "1");
+            assertEquals(CytoContainerResult.COMPLETE_STATUS, status.getStatus());
+            assertEquals(100, status.getProgress());
+            
+            engine.delete("algo", "1");
+            assertEquals(0, cache.size());
+            assertNull(engine.getCytoContainerResultFromDbOrFilesystem("1"));
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultDataDoesNotWaitForTask() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            try {
+                engine.getResultData("algo", null);
+                fail("Expected exception");
+            } catch(CytoContainerBadRequestException cbre){
+                assertEquals("Id is null", cbre.getMessage());
+            }
+            try {
+                engine.getResultData("algo", "1");
+                fail("Expected exception");
+            } catch(CytoContainerBadRequestException cbre){
+                assertEquals("No task with id of 1 found", cbre.getMessage());
+            }
+            CytoContainerResult res = new CytoContainerResult(1L);
+            res.setId("1");
+            res.setStatus(CytoContainerResult.PROCESSING_STATUS);
+            res.setProgress(50);
+            assertTrue(new File(tempDir, "1").mkdirs());
+            engine.saveCytoContainerResultToFilesystem(res);
+            File dataFile = new File(engine.getCytoContainerResultDataFilePath("1"));
+            try (FileWriter fw = new FileWriter(dataFile)){
+                fw.write("hello");
+            }
+            assertNull(engine.getResultData("algo", "1"));
+            
+            res.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            res.setProgress(100);
+            engine.saveCytoContainerResultToFilesystem(res);
+            try (InputStream in = engine.getResultData("algo", "1")){
+                assertEquals("hello", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            
+            assertTrue(dataFile.delete());
+            assertNull(engine.getResultData("algo", "1"));
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultFile() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            try {
+                engine.getResultFile("algo", null);
+                fail("Expected exception");
+            } catch(CytoContainerBadRequestException cbre){
+                assertEquals("Id is null", cbre.getMessage());
+            }
+            assertNull(engine.getResultFile("algo", "1"));
+            
+            CytoContainerResult res = new CytoContainerResult(1L);
+            res.setId("1");
+            res.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            res.setProgress(100);
+            assertTrue(new File(tempDir, "1").mkdirs());
+            engine.saveCytoContainerResultToFilesystem(res);
+            File resultFile = engine.getResultFile("algo", "1");
+            assertEquals(engine.getCytoContainerResultFilePath("1"), resultFile.getAbsolutePath());
+            assertFalse(new File(resultFile.getAbsolutePath() + ".tmp").exists());
+            ObjectMapper mapper = new ObjectMapper();
+            assertEquals("1", mapper.readValue(resultFile, CytoContainerResult.class).getId());
+            
+            engine.delete("algo", "1");
+            assertNull(engine.getResultFile("algo", "1"));
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultDataFileContentType() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            CytoContainerResult res = new CytoContainerResult(1L);
+            res.setId("1");
+            res.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            res.setProgress(100);
+            res.setResult(TextNode.valueOf("hello"));
+            assertTrue(new File(tempDir, "1").mkdirs());
+            engine.saveCytoContainerResultToFilesystem(res);
+            File dataFile = new File(engine.getCytoContainerResultDataFilePath("1"));
+            try (FileWriter fw = new FileWriter(dataFile)){
+                fw.write("hello");
+            }
+            ResultDataFile rdf = engine.getResultDataFile("algo", "1");
+            assertEquals(dataFile.getAbsolutePath(), rdf.getFile().getAbsolutePath());
+            assertEquals("text/plain", rdf.getContentType());
+            
+            ObjectMapper mapper = new ObjectMapper();
+            assertEquals("application/json",
+                    engine.getResultDataContentType(mapper.readTree("[1, 2]")));
+            assertEquals(CytoContainerEngineImpl.RESULT_DATA_DEFAULT_CONTENT_TYPE,
+                    engine.getResultDataContentType(null));
+            assertEquals("image/png",
+                    engine.getResultDataContentType(mapper.readTree("{\"contentType\": \"image/png\", "
+                            + "\"sizeInBytes\": 5, \"downloadUrl\": \"/v1/algo/1/data\"}")));
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testCopyCompletedTaskSchedulesCompression() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            List<File> scheduled = new ArrayList<>();
+            TaskFileCompressor compressor = new TaskFileCompressor(Arrays.asList(
+                    CytoContainerEngineImpl.RESULT_DATA_FILE), 6, 60000){
+                @Override
+                public void compressTask(final File taskDir){
+                    scheduled.add(taskDir);
+                }
+            };
+            engine.setTaskFileCompressor(compressor);
+            try {
+                CytoContainerResult res = new CytoContainerResult(1L);
+                res.setId("1");
+                res.setStatus(CytoContainerResult.COMPLETE_STATUS);
+                assertTrue(new File(tempDir, "1").mkdirs());
+                engine.saveCytoContainerResultToFilesystem(res);
+                String id = engine.copyCompletedTask("algo", "1");
+                assertNotNull(id);
+                assertEquals(Arrays.asList(new File(tempDir, "1"),
+                        new File(tempDir, id)), scheduled);
+            } finally {
+                compressor.shutdown();
+            }
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testReadCompressedTaskFiles() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            TaskFileCompressor compressor = new TaskFileCompressor(Arrays.asList(
+                    CytoContainerEngineImpl.RESULT_DATA_FILE,
+                    CytoContainerEngineImpl.CDRESULT_JSON_FILE), 6, 60000);
+            engine.setTaskFileCompressor(compressor);
+            try {
+                CytoContainerResult res = new CytoContainerResult(1L);
+                res.setId("1");
+                res.setStatus(CytoContainerResult.COMPLETE_STATUS);
+                res.setProgress(100);
+                res.setResult(TextNode.valueOf("hello"));
+                File taskDir = new File(tempDir, "1");
+                assertTrue(taskDir.mkdirs());
+                File dataFile = new File(engine.getCytoContainerResultDataFilePath("1"));
+                try (FileWriter fw = new FileWriter(dataFile)){
+                    fw.write("hello");
+                }
+                engine.saveCytoContainerResultToFilesystem(res);
+                // compression is delayed so files are still as is
+                assertFalse(TaskFileCompressor.isCompressed(engine.getResultFile("algo", "1")));
+                compressor.compressFiles(taskDir);
+                
+                File resultFile = engine.getResultFile("algo", "1");
+                assertTrue(TaskFileCompressor.isCompressed(resultFile));
+                assertEquals("1", engine.getCytoContainerResultFromDbOrFilesystem("1").getId());
+                
+                ResultDataFile rdf = engine.getResultDataFile("algo", "1");
+                assertTrue(TaskFileCompressor.isCompressed(rdf.getFile()));
+                assertEquals(TaskFileCompressor.GZIP_ENCODING, rdf.getContentEncoding());
+                assertEquals("text/plain", rdf.getContentType());
+                try (InputStream in = engine.getResultData("algo", "1")){
+                    assertEquals("hello", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                CytoContainerServerStatus status = (CytoContainerServerStatus)engine.getServerStatus(null);
+                assertEquals(2L, status.getCompressedTaskFiles());
+            } finally {
+                compressor.shutdown();
+            }
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultDataDownloadUrl() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = new File(tempDir.getAbsolutePath() + File.separator + "conf");
+            try (FileWriter fw = new FileWriter(confFile)){
+                fw.write(Configuration.HOST_URL + " = http://localhost:8081\n");
+            }
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            Configuration.reloadConfiguration();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            assertEquals("http://localhost:8081/v1/algo/1/data",
+                    engine.getResultDataDownloadUrl("algo", "1"));
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testCopyCompletedTaskNotComplete() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            CytoContainerEngineImpl engine = new CytoContainerEngineImpl(null,
+                    tempDir.getAbsolutePath(), "docker", null, null);
+            assertNull(engine.copyCompletedTask("algo", "1"));
+            CytoContainerResult res = new CytoContainerResult();
+            res.setId("1");
+            res.setStatus(CytoContainerResult.FAILED_STATUS);
+            assertTrue(new File(tempDir, "1").mkdirs());
+            engine.saveCytoContainerResultToFilesystem(res);
+            assertNull(engine.copyCompletedTask("algo", "1"));
         } finally {
             _folder.delete();
         }
@@ -0,0 +1,82 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestInFlightRequests {
+
+	@Test
+	public void testIsEnabled(){
+		InFlightRequests ifr = new InFlightRequests(null);
+		assertTrue(ifr.isEnabled("foo"));
+		ifr = new InFlightRequests(new HashSet<>(Arrays.asList("foo")));
+		assertFalse(ifr.isEnabled("foo"));
+		assertTrue(ifr.isEnabled("bar"));
+	}
+
+	@Test
+	public void testJoinAndDone(){
+		InFlightRequests ifr = new InFlightRequests(null);
+		InFlightRequests.Group group = ifr.join("key", "1", "algo");
+		assertEquals("1", group.getPrimaryId());
+		assertEquals("key", group.getKey());
+		assertEquals("algo", group.getAlgorithm());
+		assertEquals(1, ifr.size());
+		assertEquals(0L, ifr.getCoalescedRequests());
+
+		assertSame(group, ifr.join("key", "2", "algo"));
+		assertSame(group, ifr.join("key", "3", "algo"));
+		assertEquals(Arrays.asList("2", "3"), group.getAliases());
+		assertEquals(3, group.getMemberCount());
+		assertEquals(2L, ifr.getCoalescedRequests());
+		assertSame(group, ifr.getGroup("2"));
+
+		// different key gets its own group
+		InFlightRequests.Group other = ifr.join("otherkey", "4", "algo");
+		assertNotSame(group, other);
+		assertEquals(2, ifr.size());
+
+		synchronized(group){
+			ifr.done(group);
+		}
+		assertTrue(group.isDone());
+		assertNull(ifr.getGroup("1"));
+		// aliases remain mapped until their results are written
+		assertSame(group, ifr.getGroup("2"));
+		ifr.removeAlias(group, "2");
+		assertNull(ifr.getGroup("2"));
+
+		// group that is done cannot be joined
+		InFlightRequests.Group newGroup = ifr.join("key", "5", "algo");
+		assertNotSame(group, newGroup);
+		assertEquals("5", newGroup.getPrimaryId());
+	}
+
+	@Test
+	public void testLeave(){
+		InFlightRequests ifr = new InFlightRequests(null);
+		InFlightRequests.Group group = ifr.join("key", "1", "algo");
+		ifr.join("key", "2", "algo");
+		synchronized(group){
+			assertFalse(ifr.leave(group, "1"));
+			assertTrue(group.isPrimaryDeleted());
+			// primary stays mapped so the running task can be found
+			assertSame(group, ifr.getGroup("1"));
+			assertTrue(ifr.leave(group, "2"));
+			assertNull(ifr.getGroup("2"));
+		}
+		assertTrue(group.getAliases().isEmpty());
+		assertNull(ifr.getGroup(null));
+	}
+}
@@ -0,0 +1,210 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestResourceScheduler {
+
+	/**
+	 * Executor that just records tasks handed to it
+	 */
+	private static class RecordingExecutor implements Executor {
+		private final List<Runnable> _tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable command) {
+			_tasks.add(command);
+		}
+	}
+
+	private static ResourceScheduler.Allocation submit(ResourceScheduler rs, final String line,
+			Runnable task, double cpus, long memory, Executor executor, int workers){
+		ResourceScheduler.Allocation allocation = new ResourceScheduler.Allocation(cpus, memory);
+		rs.submit(line, task, allocation, executor, workers);
+		return allocation;
+	}
+
+	@Test
+	public void testAdmitAndRelease() throws Exception {
+		ResourceScheduler rs = new ResourceScheduler(4, 1000);
+		RecordingExecutor executor = new RecordingExecutor();
+		Runnable a = () -> {};
+		Runnable b = () -> {};
+		Runnable c = () -> {};
+		ResourceScheduler.Allocation aAlloc = submit(rs, "algo", a, 2, 400, executor, 0);
+		ResourceScheduler.Allocation bAlloc = submit(rs, "algo", b, 1.5, 600, executor, 0);
+		assertEquals(3.5, rs.getUsedCpus(), 0.0001);
+		assertEquals(1000L, rs.getUsedMemory());
+		assertEquals(2, rs.getRunningTasks());
+
+		// out of memory even though a cpu is free
+		ResourceScheduler.Allocation cAlloc = submit(rs, "algo", c, 0.5, 1, executor, 0);
+		assertEquals(1, rs.getWaitingTasks());
+		assertFalse(executor._tasks.contains(c));
+
+		rs.release(bAlloc);
+		assertTrue(executor._tasks.contains(c));
+		assertEquals(2.5, rs.getUsedCpus(), 0.0001);
+		assertEquals(401L, rs.getUsedMemory());
+		assertEquals(0, rs.getWaitingTasks());
+
+		rs.release(aAlloc);
+		rs.release(cAlloc);
+		// releasing again has no effect
+		rs.release(cAlloc);
+		rs.release(null);
+		assertEquals(0.0, rs.getUsedCpus(), 0.0001);
+		assertEquals(0L, rs.getUsedMemory());
+		assertEquals(0, rs.getRunningTasks());
+		assertEquals(3, executor._tasks.size());
+	}
+
+	@Test
+	public void testRequestLargerThanHostIsReduced() throws Exception {
+		ResourceScheduler rs = new ResourceScheduler(2, 0);
+		RecordingExecutor executor = new RecordingExecutor();
+		ResourceScheduler.Allocation a = submit(rs, "algo", () -> {}, 16, 1000, executor, 0);
+		assertEquals(1, executor._tasks.size());
+		assertEquals(2.0, a.getCpus(), 0.0001);
+		// memory is ignored if total is not set
+		assertEquals(0L, a.getMemory());
+		rs.release(a);
+		assertEquals(0, rs.getRunningTasks());
+	}
+
+	@Test
+	public void testTasksOfSameAlgorithmAdmittedInOrder() throws Exception {
+		ResourceScheduler rs = new ResourceScheduler(4, 0);
+		RecordingExecutor executor = new RecordingExecutor();
+		Runnable big = () -> {};
+		Runnable small = () -> {};
+		ResourceScheduler.Allocation a = submit(rs, "algo", () -> {}, 3, 0, executor, 0);
+
+		// big task waits for all cpus, small task behind it must not skip ahead
+		ResourceScheduler.Allocation bigAlloc = submit(rs, "algo", big, 4, 0, executor, 0);
+		ResourceScheduler.Allocation smallAlloc = submit(rs, "algo", small, 1, 0, executor, 0);
+		assertEquals(2, rs.getWaitingTasks());
+		assertEquals(1, executor._tasks.size());
+
+		rs.release(a);
+		assertEquals(big, executor._tasks.get(1));
+		assertEquals(1, rs.getWaitingTasks());
+		rs.release(bigAlloc);
+		assertEquals(small, executor._tasks.get(2));
+		rs.release(smallAlloc);
+		assertEquals(0, rs.getRunningTasks());
+	}
+
+	@Test
+	public void testHeavyTaskOnlyHoldsBackItsOwnAlgorithm() throws Exception {
+		ResourceScheduler rs = new ResourceScheduler(4, 0);
+		RecordingExecutor heavyPool = new RecordingExecutor();
+		RecordingExecutor lightPool = new RecordingExecutor();
+		ResourceScheduler.Allocation a = submit(rs, "heavy", () -> {}, 3, 0, heavyPool, 2);
+
+		// heavy task at head of the line waits for all cpus
+		Runnable big = () -> {};
+		ResourceScheduler.Allocation bigAlloc = submit(rs, "heavy", big, 4, 0, heavyPool, 2);
+		Runnable light = () -> {};
+		ResourceScheduler.Allocation lightAlloc = submit(rs, "light", light, 1, 0, lightPool, 2);
+		assertEquals(1, lightPool._tasks.size());
+		assertEquals(light, lightPool._tasks.get(0));
+		assertEquals(1, heavyPool._tasks.size());
+		assertEquals(1, rs.getWaitingTasks());
+
+		rs.release(a);
+		rs.release(lightAlloc);
+		assertEquals(big, heavyPool._tasks.get(1));
+		rs.release(bigAlloc);
+		assertEquals(0, rs.getRunningTasks());
+	}
+
+	@Test
+	public void testOldestTaskNotPassedMoreThanMaxBypasses() throws Exception {
+		ResourceScheduler rs = new ResourceScheduler(4, 0, 2);
+		RecordingExecutor executor = new RecordingExecutor();
+		ResourceScheduler.Allocation a = submit(rs, "light", () -> {}, 3, 0, executor, 0);
+		Runnable big = () -> {};
+		ResourceScheduler.Allocation bigAlloc = submit(rs, "heavy", big, 4, 0, executor, 0);
+
+		// passes big task twice
+		ResourceScheduler.Allocation first = submit(rs, "light", () -> {}, 1, 0, executor, 0);
+		assertEquals(2, executor._tasks.size());
+		rs.release(first);
+		ResourceScheduler.Allocation second = submit(rs, "light", () -> {}, 1, 0, executor, 0);
+		assertEquals(3, executor._tasks.size());
+		rs.release(second);
+
+		// big task has waited long enough
+		Runnable third = () -> {};
+		ResourceScheduler.Allocation thirdAlloc = submit(rs, "light", third, 1, 0, executor, 0);
+		assertEquals(3, executor._tasks.size());
+		assertEquals(2, rs.getWaitingTasks());
+
+		rs.release(a);
+		assertEquals(big, executor._tasks.get(3));
+		rs.release(bigAlloc);
+		assertEquals(third, executor._tasks.get(4));
+		rs.release(thirdAlloc);
+		assertEquals(0, rs.getRunningTasks());
+		assertEquals(0, rs.getWaitingTasks());
+	}
+
+	@Test
+	public void testTaskWaitsForFreeWorker() throws Exception {
+		ResourceScheduler rs = new ResourceScheduler(4, 0, 0);
+		RecordingExecutor onePool = new RecordingExecutor();
+		RecordingExecutor otherPool = new RecordingExecutor();
+		ResourceScheduler.Allocation a = submit(rs, "one", () -> {}, 1, 0, onePool, 1);
+		ResourceScheduler.Allocation b = submit(rs, "one", () -> {}, 1, 0, onePool, 1);
+		assertEquals(1, onePool._tasks.size());
+
+		// a task waiting on a worker does not hold back other algorithms
+		ResourceScheduler.Allocation c = submit(rs, "other", () -> {}, 1, 0, otherPool, 1);
+		assertEquals(1, otherPool._tasks.size());
+
+		rs.release(a);
+		assertEquals(2, onePool._tasks.size());
+		rs.release(b);
+		rs.release(c);
+		assertEquals(0, rs.getRunningTasks());
+	}
+
+	@Test
+	public void testCanceledWhileWaiting() throws Exception {
+		ResourceScheduler rs = new ResourceScheduler(1, 0);
+		RecordingExecutor executor = new RecordingExecutor();
+		ResourceScheduler.Allocation a = submit(rs, "algo", () -> {}, 1, 0, executor, 0);
+		ResourceScheduler.Allocation waiter = submit(rs, "algo", () -> {}, 1, 0, executor, 0);
+		assertEquals(1, rs.getWaitingTasks());
+		rs.release(waiter);
+		assertEquals(0, rs.getWaitingTasks());
+		assertEquals(1, rs.getRunningTasks());
+		rs.release(a);
+		assertEquals(1, executor._tasks.size());
+		assertTrue(rs.getUsedCpus() < 0.0001);
+	}
+
+	@Test
+	public void testRejectedTaskIsCanceled() throws Exception {
+		ResourceScheduler rs = new ResourceScheduler(1, 0);
+		FutureTask<String> task = new FutureTask<>(() -> "hi");
+		submit(rs, "algo", task, 1, 0, (r) -> {
+			throw new RejectedExecutionException("shut down");
+		}, 0);
+		assertTrue(task.isCancelled());
+		assertEquals(0, rs.getRunningTasks());
+		assertTrue(rs.getUsedCpus() < 0.0001);
+	}
+}
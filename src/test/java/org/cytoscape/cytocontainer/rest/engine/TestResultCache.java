@@ -0,0 +1,72 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestResultCache {
+
+	@Test
+	public void testDisabled(){
+		ResultCache cache = new ResultCache(0, 0, null);
+		assertFalse(cache.isEnabled("algo"));
+		cache.put("key", "1");
+		assertEquals(0, cache.size());
+		assertNull(cache.get("key"));
+	}
+
+	@Test
+	public void testAlgorithmOptOut(){
+		ResultCache cache = new ResultCache(10, 0, Collections.singleton("random"));
+		assertTrue(cache.isEnabled("algo"));
+		assertFalse(cache.isEnabled("random"));
+	}
+
+	@Test
+	public void testHitMissAndLRUEviction(){
+		ResultCache cache = new ResultCache(2, 0, null);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		assertEquals("1", cache.get("a"));
+		// b is least recently used so it gets evicted
+		cache.put("c", "3");
+		assertEquals(2, cache.size());
+		assertNull(cache.get("b"));
+		assertEquals("1", cache.get("a"));
+		assertEquals("3", cache.get("c"));
+		assertEquals(3L, cache.getHits());
+		assertEquals(1L, cache.getMisses());
+	}
+
+	@Test
+	public void testTTL(){
+		ResultCache cache = new ResultCache(10, 1000, null);
+		cache.put("a", "1", 5000);
+		assertEquals("1", cache.get("a", 6000));
+		assertNull(cache.get("a", 6001));
+		assertEquals(0, cache.size());
+		assertEquals(1L, cache.getHits());
+		assertEquals(1L, cache.getMisses());
+	}
+
+	@Test
+	public void testInvalidateAndRemoveTask(){
+		ResultCache cache = new ResultCache(10, 0, null);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		assertEquals("1", cache.get("a"));
+		cache.invalidate("a");
+		assertEquals(0L, cache.getHits());
+		assertEquals(1L, cache.getMisses());
+		cache.removeTask("2");
+		assertEquals(0, cache.size());
+		cache.removeTask(null);
+	}
+}
@@ -0,0 +1,99 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestStdErrProgressTracker {
+
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+
+	private void append(File file, final String data) throws IOException {
+		try (FileWriter fw = new FileWriter(file, true)){
+			fw.write(data);
+		}
+	}
+
+	@Test
+	public void testNoFile() throws IOException {
+		File tempDir = _folder.newFolder();
+		StdErrProgressTracker tracker = new StdErrProgressTracker(new File(tempDir, "stderr.txt"), 1000);
+		CytoContainerResultStatus ccrs = tracker.update();
+		assertEquals(0, ccrs.getProgress());
+		assertNull(ccrs.getMessage());
+		assertEquals(0L, tracker.getOffset());
+	}
+
+	@Test
+	public void testIncrementalUpdates() throws IOException {
+		File tempDir = _folder.newFolder();
+		File stdErr = new File(tempDir, "stderr.txt");
+		StdErrProgressTracker tracker = new StdErrProgressTracker(stdErr, 1000);
+		append(stdErr, "@@MESSAGE hello\n@@PROGRESS 10\n");
+		CytoContainerResultStatus ccrs = tracker.update();
+		assertEquals(10, ccrs.getProgress());
+		assertEquals("hello", ccrs.getMessage());
+		assertEquals(stdErr.length(), tracker.getOffset());
+
+		// nothing new
+		ccrs = tracker.update();
+		assertEquals(10, ccrs.getProgress());
+		assertEquals("hello", ccrs.getMessage());
+
+		// line split across writes is only parsed once complete
+		append(stdErr, "blah\n@@PROGRE");
+		ccrs = tracker.update();
+		assertEquals(10, ccrs.getProgress());
+		append(stdErr, "SS 50\n");
+		ccrs = tracker.update();
+		assertEquals(50, ccrs.getProgress());
+		assertEquals("hello", ccrs.getMessage());
+
+		append(stdErr, "@@MESSAGE bye\n@@PROGRESS xx\n");
+		ccrs = tracker.update();
+		assertEquals(0, ccrs.getProgress());
+		assertEquals("bye", ccrs.getMessage());
+		assertEquals(stdErr.length(), tracker.getOffset());
+	}
+
+	@Test
+	public void testFirstReadLimitedToTailOfFile() throws IOException {
+		File tempDir = _folder.newFolder();
+		File stdErr = new File(tempDir, "stderr.txt");
+		append(stdErr, "@@MESSAGE old\n@@PROGRESS 5\n");
+		for (int i = 0; i < 10; i++){
+			append(stdErr, "some other output\n");
+		}
+		append(stdErr, "@@PROGRESS 30\n");
+		StdErrProgressTracker tracker = new StdErrProgressTracker(stdErr, 40);
+		CytoContainerResultStatus ccrs = tracker.update();
+		assertEquals(30, ccrs.getProgress());
+		assertNull(ccrs.getMessage());
+	}
+
+	@Test
+	public void testFileReplaced() throws IOException {
+		File tempDir = _folder.newFolder();
+		File stdErr = new File(tempDir, "stderr.txt");
+		append(stdErr, "@@MESSAGE first run\n@@PROGRESS 80\n");
+		StdErrProgressTracker tracker = new StdErrProgressTracker(stdErr, 1000);
+		assertEquals(80, tracker.update().getProgress());
+		try (FileWriter fw = new FileWriter(stdErr)){
+			fw.write("@@PROGRESS 1\n");
+		}
+		CytoContainerResultStatus ccrs = tracker.update();
+		assertEquals(1, ccrs.getProgress());
+		assertNull(ccrs.getMessage());
+	}
+}
@@ -0,0 +1,50 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestTaskDrainRate {
+
+	@Test
+	public void testNoTasksFinished(){
+		TaskDrainRate dr = new TaskDrainRate();
+		assertEquals(0.0, dr.getTasksPerSecond(System.currentTimeMillis()), 0.0001);
+		assertEquals(30L, dr.estimateSecondsToDrain(5, 30, 60));
+		assertEquals(60L, dr.estimateSecondsToDrain(5, 90, 60));
+		assertEquals(1L, dr.estimateSecondsToDrain(5, 0, 60));
+	}
+
+	@Test
+	public void testTasksPerSecond(){
+		TaskDrainRate dr = new TaskDrainRate(4);
+		dr.taskFinished(1000);
+		dr.taskFinished(2000);
+		assertEquals(1.0, dr.getTasksPerSecond(3000), 0.0001);
+
+		// fill window so oldest entry is dropped
+		dr.taskFinished(3000);
+		dr.taskFinished(4000);
+		dr.taskFinished(5000);
+		assertEquals(4.0 / 4.0, dr.getTasksPerSecond(6000), 0.0001);
+
+		// rate decays if nothing finishes
+		assertEquals(4.0 / 18.0, dr.getTasksPerSecond(20000), 0.0001);
+	}
+
+	@Test
+	public void testEstimateSecondsToDrain(){
+		TaskDrainRate dr = new TaskDrainRate();
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 10; i++){
+			dr.taskFinished(now - 10000);
+		}
+		// ~1 task per second
+		long est = dr.estimateSecondsToDrain(5, 100, 1000);
+		assertEquals(5.0, (double)est, 1.0);
+		assertEquals(3L, dr.estimateSecondsToDrain(5, 100, 3));
+	}
+}
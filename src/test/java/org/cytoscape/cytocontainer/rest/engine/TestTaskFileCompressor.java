@@ -0,0 +1,129 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestTaskFileCompressor {
+
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+
+	private File writeFile(File dir, final String name, final String data) throws Exception {
+		File f = new File(dir, name);
+		try (FileWriter fw = new FileWriter(f)){
+			fw.write(data);
+		}
+		return f;
+	}
+
+	@Test
+	public void testCompressFile() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 1000; i++){
+				sb.append("{\"node\": ").append(i).append("}\n");
+			}
+			File f = writeFile(tempDir, "stdout.txt", sb.toString());
+			long origLength = f.length();
+			TaskFileCompressor compressor = new TaskFileCompressor(Arrays.asList("stdout.txt"), 9, 0);
+			try {
+				assertTrue(compressor.compressFile(f));
+				assertFalse(f.exists());
+				File gzFile = TaskFileCompressor.getCompressedFile(f);
+				assertTrue(gzFile.isFile());
+				assertFalse(new File(gzFile.getAbsolutePath() + ".tmp").exists());
+				assertTrue(gzFile.length() < origLength);
+				assertEquals(gzFile.getAbsolutePath(),
+						TaskFileCompressor.getExistingFile(f).getAbsolutePath());
+				assertTrue(TaskFileCompressor.isCompressed(gzFile));
+				try (InputStream in = new GZIPInputStream(new FileInputStream(gzFile))){
+					assertEquals(sb.toString(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+				}
+				try (InputStream in = TaskFileCompressor.open(f)){
+					assertEquals(sb.toString(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+				}
+				assertEquals(1L, compressor.getCompressedFiles());
+				assertEquals(origLength - gzFile.length(), compressor.getBytesSaved());
+			} finally {
+				compressor.shutdown();
+			}
+		} finally {
+			_folder.delete();
+		}
+	}
+
+	@Test
+	public void testCompressFileMissingOrEmpty() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			File emptyFile = writeFile(tempDir, "stdout.txt", "");
+			File missingFile = new File(tempDir, "input.txt");
+			TaskFileCompressor compressor = new TaskFileCompressor(Arrays.asList("stdout.txt"), 6, 0);
+			try {
+				assertFalse(compressor.compressFile(emptyFile));
+				assertFalse(compressor.compressFile(missingFile));
+				assertTrue(emptyFile.isFile());
+				assertEquals(emptyFile.getAbsolutePath(),
+						TaskFileCompressor.getExistingFile(emptyFile).getAbsolutePath());
+				assertNull(TaskFileCompressor.getExistingFile(missingFile));
+				assertFalse(TaskFileCompressor.isCompressed(emptyFile));
+				try {
+					TaskFileCompressor.open(missingFile);
+					fail("Expected exception");
+				} catch(java.io.FileNotFoundException fne){
+					assertTrue(fne.getMessage().contains("input.txt"));
+				}
+				assertEquals(0L, compressor.getCompressedFiles());
+			} finally {
+				compressor.shutdown();
+			}
+		} finally {
+			_folder.delete();
+		}
+	}
+
+	@Test
+	public void testCompressTask() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			File inputFile = writeFile(tempDir, "input.txt", "input");
+			File outFile = writeFile(tempDir, "stdout.txt", "output");
+			File errFile = writeFile(tempDir, "stderr.txt", "error");
+			TaskFileCompressor compressor = new TaskFileCompressor(
+					Arrays.asList("input.txt", "stdout.txt"), 6, 0);
+			try {
+				compressor.compressTask(tempDir);
+				for (int i = 0; i < 500 && compressor.getCompressedFiles() < 2; i++){
+					Thread.sleep(10);
+				}
+				assertEquals(2L, compressor.getCompressedFiles());
+				assertFalse(inputFile.exists());
+				assertFalse(outFile.exists());
+				assertTrue(errFile.isFile());
+				try (InputStream in = TaskFileCompressor.open(outFile)){
+					assertEquals("output", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+				}
+			} finally {
+				compressor.shutdown();
+			}
+			// no error if compressor is shut down
+			compressor.compressTask(tempDir);
+		} finally {
+			_folder.delete();
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package org.cytoscape.cytocontainer.rest.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.mock;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerBadRequestException;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestTaskStatusDispatcher {
+
+	/**
+	 * Subscriber that records updates it receives
+	 */
+	private static class RecordingSubscriber implements TaskStatusSubscriber {
+		final List<CytoContainerResultStatus> _updates = new ArrayList<>();
+		boolean _open = true;
+		boolean _closed = false;
+
+		@Override
+		public boolean isOpen() {
+			return _open;
+		}
+
+		@Override
+		public boolean statusUpdated(CytoContainerResultStatus status) {
+			_updates.add(status);
+			return true;
+		}
+
+		@Override
+		public void close() {
+			_closed = true;
+			_open = false;
+		}
+	}
+
+	private CytoContainerResultStatus createStatus(final String status, int progress, final String message){
+		CytoContainerResultStatus ccrs = new CytoContainerResultStatus();
+		ccrs.setId("1");
+		ccrs.setStatus(status);
+		ccrs.setProgress(progress);
+		ccrs.setMessage(message);
+		return ccrs;
+	}
+
+	@Test
+	public void testSubscribeTaskNotFound() throws Exception {
+		CytoContainerEngine mockEngine = mock(CytoContainerEngine.class);
+		expect(mockEngine.getStatus("algo", "1")).andThrow(new CytoContainerBadRequestException("not found"));
+		replay(mockEngine);
+		TaskStatusDispatcher dispatcher = new TaskStatusDispatcher(mockEngine, 60000);
+		RecordingSubscriber sub = new RecordingSubscriber();
+		try {
+			dispatcher.subscribe("algo", "1", sub);
+			fail("Expected CytoContainerException");
+		} catch(CytoContainerException cce){
+			assertEquals("not found", cce.getMessage());
+		}
+		assertEquals(0, dispatcher.getTaskCount());
+		verify(mockEngine);
+	}
+
+	@Test
+	public void testSubscribeTaskAlreadyFinished() throws Exception {
+		CytoContainerEngine mockEngine = mock(CytoContainerEngine.class);
+		expect(mockEngine.getStatus("algo", "1")).andReturn(createStatus(CytoContainerResult.COMPLETE_STATUS, 100, null));
+		replay(mockEngine);
+		TaskStatusDispatcher dispatcher = new TaskStatusDispatcher(mockEngine, 60000);
+		RecordingSubscriber sub = new RecordingSubscriber();
+		dispatcher.subscribe("algo", "1", sub);
+		assertEquals(1, sub._updates.size());
+		assertTrue(sub._closed);
+		assertEquals(0, dispatcher.getTaskCount());
+		verify(mockEngine);
+	}
+
+	@Test
+	public void testUpdatesSharedAcrossSubscribers() throws Exception {
+		CytoContainerEngine mockEngine = mock(CytoContainerEngine.class);
+		expect(mockEngine.getStatus("algo", "1")).andReturn(createStatus(CytoContainerResult.SUBMITTED_STATUS, 0, null)).times(2);
+		// one status check per refresh regardless of number of subscribers
+		expect(mockEngine.getStatus("algo", "1")).andReturn(createStatus(CytoContainerResult.SUBMITTED_STATUS, 0, null));
+		expect(mockEngine.getStatus("algo", "1")).andReturn(createStatus(CytoContainerResult.PROCESSING_STATUS, 50, "half"));
+		expect(mockEngine.getStatus("algo", "1")).andReturn(createStatus(CytoContainerResult.COMPLETE_STATUS, 100, "done"));
+		replay(mockEngine);
+		TaskStatusDispatcher dispatcher = new TaskStatusDispatcher(mockEngine, 60000);
+		try {
+			RecordingSubscriber subOne = new RecordingSubscriber();
+			RecordingSubscriber subTwo = new RecordingSubscriber();
+			dispatcher.subscribe("algo", "1", subOne);
+			dispatcher.subscribe("algo", "1", subTwo);
+			assertEquals(1, dispatcher.getTaskCount());
+			assertEquals(2, dispatcher.getSubscriberCount());
+
+			// no change so nothing is sent
+			dispatcher.refresh("1");
+			assertEquals(1, subOne._updates.size());
+
+			dispatcher.refresh("1");
+			assertEquals(2, subOne._updates.size());
+			assertEquals(50, subTwo._updates.get(1).getProgress());
+			assertEquals("half", subTwo._updates.get(1).getMessage());
+
+			dispatcher.refresh("1");
+			assertEquals(3, subOne._updates.size());
+			assertEquals(3, subTwo._updates.size());
+			assertTrue(subOne._closed);
+			assertTrue(subTwo._closed);
+			assertEquals(0, dispatcher.getTaskCount());
+			verify(mockEngine);
+		} finally {
+			dispatcher.shutdown();
+		}
+	}
+
+	@Test
+	public void testClosedSubscribersDroppedAndTaskDeleted() throws Exception {
+		CytoContainerEngine mockEngine = mock(CytoContainerEngine.class);
+		expect(mockEngine.getStatus("algo", "1")).andReturn(createStatus(CytoContainerResult.SUBMITTED_STATUS, 0, null)).times(3);
+		expect(mockEngine.getStatus("algo", "1")).andThrow(new CytoContainerBadRequestException("not found"));
+		replay(mockEngine);
+		TaskStatusDispatcher dispatcher = new TaskStatusDispatcher(mockEngine, 60000);
+		try {
+			RecordingSubscriber subOne = new RecordingSubscriber();
+			RecordingSubscriber subTwo = new RecordingSubscriber();
+			dispatcher.subscribe("algo", "1", subOne);
+			dispatcher.subscribe("algo", "1", subTwo);
+			// client disconnected
+			subOne._open = false;
+			dispatcher.refresh("1");
+			assertEquals(1, dispatcher.getSubscriberCount());
+			assertFalse(subTwo._closed);
+			
+			// task was deleted
+			dispatcher.refresh("1");
+			assertTrue(subTwo._closed);
+			assertEquals(0, dispatcher.getTaskCount());
+			verify(mockEngine);
+		} finally {
+			dispatcher.shutdown();
+		}
+	}
+
+	@Test
+	public void testShutdownClosesSubscribers() throws Exception {
+		CytoContainerEngine mockEngine = mock(CytoContainerEngine.class);
+		expect(mockEngine.getStatus("algo", "1")).andReturn(createStatus(CytoContainerResult.SUBMITTED_STATUS, 0, null));
+		replay(mockEngine);
+		TaskStatusDispatcher dispatcher = new TaskStatusDispatcher(mockEngine, 60000);
+		RecordingSubscriber sub = new RecordingSubscriber();
+		dispatcher.subscribe("algo", "1", sub);
+		dispatcher.shutdown();
+		assertTrue(sub._closed);
+		assertEquals(0, dispatcher.getTaskCount());
+	}
+}
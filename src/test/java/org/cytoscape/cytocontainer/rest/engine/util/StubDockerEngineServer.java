@@ -0,0 +1,202 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Small HTTP/1.1 server listening on a Unix domain socket that stands in
+ * for the Docker Engine API in tests. Every request is recorded and
+ * answered by a {@link Handler}, each connection on its own thread so
+ * handlers can block
+ *
+ * @author churas
+ */
+public class StubDockerEngineServer implements Closeable {
+
+	/**
+	 * Request received by server
+	 */
+	public static class Request {
+		public final String method;
+		public final String path;
+		public final String body;
+
+		Request(final String method, final String path, final String body){
+			this.method = method;
+			this.path = path;
+			this.body = body;
+		}
+
+		@Override
+		public String toString(){
+			return method + " " + path;
+		}
+	}
+
+	/**
+	 * Reply to send, body is sent with {@code Transfer-Encoding: chunked}
+	 * if {@code chunked} is {@code true}
+	 */
+	public static class Reply {
+		public final int status;
+		public final byte[] body;
+		public final boolean chunked;
+
+		public Reply(int status, final String body){
+			this(status, body.getBytes(StandardCharsets.UTF_8), false);
+		}
+
+		public Reply(int status, byte[] body, boolean chunked){
+			this.status = status;
+			this.body = body;
+			this.chunked = chunked;
+		}
+	}
+
+	/**
+	 * Answers requests
+	 */
+	public interface Handler {
+		Reply handle(Request req) throws Exception;
+	}
+
+	/**
+	 * Creates frame of multiplexed log output
+	 * @param stream {@link DockerEngineClient#STDOUT_STREAM} or {@link DockerEngineClient#STDERR_STREAM}
+	 * @param data payload of frame
+	 * @return frame
+	 */
+	public static byte[] frame(int stream, final String data){
+		byte[] payload = data.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buf = ByteBuffer.allocate(8 + payload.length);
+		buf.put((byte)stream).put((byte)0).put((byte)0).put((byte)0);
+		buf.putInt(payload.length);
+		buf.put(payload);
+		return buf.array();
+	}
+
+	private final ServerSocketChannel _server;
+	private final Handler _handler;
+	private final List<Request> _requests;
+
+	/**
+	 * Starts server
+	 * @param socketPath where to create socket
+	 * @param handler answers requests
+	 * @throws IOException if socket could not be created
+	 */
+	public StubDockerEngineServer(Path socketPath, Handler handler) throws IOException {
+		_handler = handler;
+		_requests = new CopyOnWriteArrayList<>();
+		_server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		_server.bind(UnixDomainSocketAddress.of(socketPath));
+		Thread t = new Thread(this::acceptConnections, "stub-docker-engine");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	/**
+	 * Gets requests received so far
+	 * @return requests in order received
+	 */
+	public List<Request> getRequests(){
+		return new ArrayList<>(_requests);
+	}
+
+	/**
+	 * Gets {@code method path} of requests received so far
+	 * @return requests in order received
+	 */
+	public List<String> getRequestLines(){
+		List<String> lines = new ArrayList<>();
+		for (Request r : _requests){
+			lines.add(r.toString());
+		}
+		return lines;
+	}
+
+	@Override
+	public void close() throws IOException {
+		_server.close();
+	}
+
+	private void acceptConnections(){
+		while (_server.isOpen()){
+			try {
+				SocketChannel channel = _server.accept();
+				Thread t = new Thread(() -> handleConnection(channel));
+				t.setDaemon(true);
+				t.start();
+			} catch(IOException io){
+				return;
+			}
+		}
+	}
+
+	private void handleConnection(SocketChannel channel){
+		try (channel){
+			InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+			String[] requestLine = DockerEngineClient.readLine(in).split(" ");
+			int contentLength = 0;
+			String line = DockerEngineClient.readLine(in);
+			while (line != null && line.isEmpty() == false){
+				if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")){
+					contentLength = Integer.parseInt(line.substring(15).trim());
+				}
+				line = DockerEngineClient.readLine(in);
+			}
+			String body = new String(in.readNBytes(contentLength), StandardCharsets.UTF_8);
+			Request req = new Request(requestLine[0], requestLine[1], body);
+			_requests.add(req);
+			Reply reply = _handler.handle(req);
+			writeReply(Channels.newOutputStream(channel), reply);
+		} catch(Exception ex){
+			// client went away
+		}
+	}
+
+	private void writeReply(OutputStream out, Reply reply) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		String head = "HTTP/1.1 " + reply.status + " Stub\r\nContent-Type: application/json\r\n";
+		if (reply.chunked){
+			head += "Transfer-Encoding: chunked\r\n\r\n";
+			bos.write(head.getBytes(StandardCharsets.US_ASCII));
+			// split body into two chunks to exercise decoding across chunks
+			int half = reply.body.length / 2;
+			writeChunk(bos, reply.body, 0, half);
+			writeChunk(bos, reply.body, half, reply.body.length - half);
+			bos.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+		} else {
+			head += "Content-Length: " + reply.body.length + "\r\n\r\n";
+			bos.write(head.getBytes(StandardCharsets.US_ASCII));
+			bos.write(reply.body);
+		}
+		out.write(bos.toByteArray());
+		out.flush();
+	}
+
+	private void writeChunk(ByteArrayOutputStream bos, byte[] data, int off, int len) throws IOException {
+		if (len == 0){
+			return;
+		}
+		bos.write((Integer.toHexString(len) + ";ext=1\r\n").getBytes(StandardCharsets.US_ASCII));
+		bos.write(data, off, len);
+		bos.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+	}
+}
@@ -0,0 +1,68 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestCommandLineContainerReaper {
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private File createScript(final String body) throws IOException {
+        File script = new File(_folder.newFolder(), "fakedocker.sh");
+        Files.writeString(script.toPath(), "#!/bin/sh\n" + body + "\n", StandardCharsets.UTF_8);
+        assertTrue(script.setExecutable(true));
+        return script;
+    }
+
+    @Test
+    public void testListContainers() throws Exception {
+        File script = createScript("echo cytocontainer-task-1\n"
+                + "echo other-cytocontainer-task-2\n"
+                + "echo cytocontainer-task-3");
+        CommandLineContainerReaper reaper = new CommandLineContainerReaper(script.getAbsolutePath());
+        assertEquals(Arrays.asList("cytocontainer-task-1", "cytocontainer-task-3"),
+                reaper.listContainers("cytocontainer-task-"));
+    }
+
+    @Test
+    public void testListContainersFails() throws Exception {
+        File script = createScript("exit 3");
+        CommandLineContainerReaper reaper = new CommandLineContainerReaper(script.getAbsolutePath());
+        try {
+            reaper.listContainers("cytocontainer-");
+            fail("Expected Exception");
+        } catch(Exception ex){
+            assertEquals(script.getAbsolutePath() + " ps exited with 3", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testListContainersTimesOut() throws Exception {
+        // writes output and then hangs
+        File script = createScript("echo cytocontainer-task-1\nsleep 30");
+        CommandLineContainerReaper reaper = new CommandLineContainerReaper(script.getAbsolutePath(), 1);
+        long start = System.currentTimeMillis();
+        try {
+            reaper.listContainers("cytocontainer-");
+            fail("Expected IOException");
+        } catch(IOException io){
+            assertEquals(script.getAbsolutePath() + " did not finish within 1 seconds",
+                    io.getMessage());
+        }
+        assertTrue(System.currentTimeMillis() - start < 20000);
+    }
+}
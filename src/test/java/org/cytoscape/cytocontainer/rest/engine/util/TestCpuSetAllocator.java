@@ -0,0 +1,62 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestCpuSetAllocator {
+
+    @Test
+    public void testParseAndFormatCpuList(){
+        assertEquals(Collections.emptyList(), CpuSetAllocator.parseCpuList(null));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 8, 10, 11),
+                CpuSetAllocator.parseCpuList("8, 0-3,10-11,2"));
+        assertEquals("0-3,8,10-11", CpuSetAllocator.formatCpuList(
+                Arrays.asList(0, 1, 2, 3, 8, 10, 11)));
+        assertEquals("", CpuSetAllocator.formatCpuList(Collections.emptyList()));
+        for (String bad : new String[]{"a", "3-1", "1-2-3", "-1"}){
+            try {
+                CpuSetAllocator.parseCpuList(bad);
+                fail("Expected IllegalArgumentException for " + bad);
+            } catch(IllegalArgumentException iae){
+                assertEquals("Invalid cpu list: " + bad, iae.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testAllocateAndRelease(){
+        CpuSetAllocator allocator = new CpuSetAllocator(CpuSetAllocator.parseCpuList("0-5"));
+        assertEquals("0-5", allocator.getCpus());
+        assertEquals("0-1", allocator.allocate("a", 2));
+        assertEquals("2-4", allocator.allocate("b", 3));
+        // already has cores
+        assertNull(allocator.allocate("a", 1));
+        // not enough free cores
+        assertNull(allocator.allocate("c", 2));
+        assertEquals(1, allocator.getFreeCpus());
+        assertEquals("0-1", allocator.getAssignments().get("a"));
+        assertEquals("2-4", allocator.getAssignments().get("b"));
+
+        allocator.release("a");
+        allocator.release("doesnotexist");
+        assertEquals(3, allocator.getFreeCpus());
+        assertEquals(1, allocator.getAssignments().size());
+
+        // no contiguous range of 3 so any free cores are used
+        assertEquals("0-1,5", allocator.allocate("c", 3));
+        allocator.release("b");
+        allocator.release("c");
+        assertEquals(6, allocator.getFreeCpus());
+        assertTrue(allocator.getAssignments().isEmpty());
+        assertNull(allocator.allocate("d", 0));
+    }
+}
@@ -0,0 +1,89 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestCytoContainerRequestHasher {
+
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+
+	@Test
+	public void testDigestAllNull() throws Exception {
+		CytoContainerRequestHasher hasher = new CytoContainerRequestHasher();
+		String digest = hasher.getDigest(null, null, null, null);
+		assertEquals(64, digest.length());
+		assertEquals(digest, hasher.getDigest(null, null, null, null));
+	}
+
+	@Test
+	public void testDigestIgnoresParameterAndFieldOrder() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		JsonNode dataOne = mapper.readTree("{\"a\": 1, \"b\": [true, \"x\", null], \"c\": {\"y\": 2, \"z\": 3}}");
+		JsonNode dataTwo = mapper.readTree("{\"c\": {\"z\": 3, \"y\": 2}, \"b\": [true, \"x\", null], \"a\": 1}");
+
+		Map<String, String> pOne = new LinkedHashMap<>();
+		pOne.put("--foo", "1");
+		pOne.put("--bar", null);
+		Map<String, String> pTwo = new LinkedHashMap<>();
+		pTwo.put("--bar", null);
+		pTwo.put("--foo", "1");
+
+		CytoContainerRequestHasher hasher = new CytoContainerRequestHasher();
+		assertEquals(hasher.getDigest("algo", "1.0", pOne, dataOne),
+				hasher.getDigest("algo", "1.0", pTwo, dataTwo));
+	}
+
+	@Test
+	public void testDigestDiffers() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		JsonNode data = mapper.readTree("{\"a\": 1}");
+		Map<String, String> params = new LinkedHashMap<>();
+		params.put("--foo", "1");
+
+		CytoContainerRequestHasher hasher = new CytoContainerRequestHasher();
+		String base = hasher.getDigest("algo", "1.0", params, data);
+		assertNotEquals(base, hasher.getDigest("algo2", "1.0", params, data));
+		assertNotEquals(base, hasher.getDigest("algo", "1.1", params, data));
+		assertNotEquals(base, hasher.getDigest("algo", "1.0", null, data));
+		assertNotEquals(base, hasher.getDigest("algo", "1.0", params, mapper.readTree("{\"a\": 2}")));
+
+		// text data is written as is, so it must not match equivalent json
+		assertNotEquals(base, hasher.getDigest("algo", "1.0", params, TextNode.valueOf("{\"a\": 1}")));
+
+		// values must not collide by concatenation
+		Map<String, String> pOne = new LinkedHashMap<>();
+		pOne.put("--ab", "c");
+		Map<String, String> pTwo = new LinkedHashMap<>();
+		pTwo.put("--a", "bc");
+		assertNotEquals(hasher.getDigest("algo", null, pOne, null),
+				hasher.getDigest("algo", null, pTwo, null));
+	}
+
+	@Test
+	public void testUpdateFileMatchesUpdateString() throws Exception {
+		String text = "some text \u00e9\n";
+		File textFile = _folder.newFile();
+		Files.write(textFile.toPath(), text.getBytes(StandardCharsets.UTF_8));
+		CytoContainerRequestHasher hasher = new CytoContainerRequestHasher();
+		hasher.updateString('S', text);
+		String expected = hasher.digest();
+		hasher.updateFile('S', textFile);
+		assertEquals(expected, hasher.digest());
+	}
+}
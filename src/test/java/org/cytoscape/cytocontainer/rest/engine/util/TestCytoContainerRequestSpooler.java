@@ -0,0 +1,148 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerBadRequestException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestCytoContainerRequestSpooler {
+	
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+	
+	private InputStream toStream(final String val){
+		return new ByteArrayInputStream(val.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void testSpoolJsonData() throws Exception {
+		File tempDir = _folder.newFolder();
+		try {
+			CytoContainerRequestSpooler spooler = new CytoContainerRequestSpooler(tempDir);
+			String data = "[{\"a\": 1, \"b\": [true, false, null, 2.5]}, {\"c\": \"x\"}]";
+			SpooledCytoContainerRequest req = spooler.spool(toStream("{\"parameters\": {\"--foo\": \"1\", \"--bar\": 2},"
+					+ " \"other\": {\"skip\": [1, 2]}, \"data\": " + data + "}"));
+			assertNull(req.getData());
+			assertTrue(req.hasData());
+			assertEquals(JsonNodeType.ARRAY, req.getDataType());
+			assertEquals("1", req.getParameters().get("--foo"));
+			assertEquals("2", req.getParameters().get("--bar"));
+			assertEquals(2, req.getParameters().size());
+			
+			ObjectMapper mapper = new ObjectMapper();
+			assertEquals(mapper.writeValueAsString(mapper.readTree(data)),
+					Files.readString(req.getDataFile().toPath()));
+			assertEquals(64, req.getDataDigest().length());
+			
+			// same data gives same digest, different data does not
+			SpooledCytoContainerRequest sameReq = spooler.spool(toStream("{\"data\": " + data + "}"));
+			assertEquals(req.getDataDigest(), sameReq.getDataDigest());
+			SpooledCytoContainerRequest diffReq = spooler.spool(toStream("{\"data\": [{\"a\": 2}]}"));
+			assertNotEquals(req.getDataDigest(), diffReq.getDataDigest());
+			
+			File dest = new File(tempDir, "input.txt");
+			req.moveDataTo(dest);
+			assertEquals(dest, req.getDataFile());
+			req.deleteSpooledData();
+			assertTrue(dest.isFile());
+			
+			sameReq.deleteSpooledData();
+			diffReq.deleteSpooledData();
+			assertEquals(1, tempDir.listFiles().length);
+		} finally {
+			_folder.delete();
+		}
+	}
+	
+	@Test
+	public void testSpoolTextData() throws Exception {
+		File tempDir = _folder.newFolder();
+		try {
+			CytoContainerRequestSpooler spooler = new CytoContainerRequestSpooler(tempDir);
+			SpooledCytoContainerRequest req = spooler.spool(toStream("{\"data\": \"line1\\nline2\"}"));
+			assertTrue(req.hasData());
+			assertEquals(JsonNodeType.STRING, req.getDataType());
+			assertNull(req.getParameters());
+			assertEquals("line1\nline2", Files.readString(req.getDataFile().toPath()));
+			req.deleteSpooledData();
+			assertFalse(req.getDataFile().exists());
+		} finally {
+			_folder.delete();
+		}
+	}
+	
+	@Test
+	public void testSpoolNoData() throws Exception {
+		File tempDir = _folder.newFolder();
+		try {
+			CytoContainerRequestSpooler spooler = new CytoContainerRequestSpooler(tempDir);
+			SpooledCytoContainerRequest req = spooler.spool(toStream("{\"data\": null, \"parameters\": null}"));
+			assertFalse(req.hasData());
+			assertNull(req.getDataFile());
+			assertNull(req.getParameters());
+			req.deleteSpooledData();
+			assertEquals(0, tempDir.listFiles().length);
+		} finally {
+			_folder.delete();
+		}
+	}
+	
+	@Test
+	public void testSpoolInvalidRequests() throws Exception {
+		File tempDir = _folder.newFolder();
+		try {
+			CytoContainerRequestSpooler spooler = new CytoContainerRequestSpooler(tempDir);
+			try {
+				spooler.spool(null);
+				fail("Expected exception");
+			} catch(CytoContainerBadRequestException cbre){
+				assertEquals("Request is null", cbre.getMessage());
+			}
+			try {
+				spooler.spool(toStream(""));
+				fail("Expected exception");
+			} catch(CytoContainerBadRequestException cbre){
+				assertEquals("Request is empty", cbre.getMessage());
+			}
+			try {
+				spooler.spool(toStream("[1, 2]"));
+				fail("Expected exception");
+			} catch(CytoContainerBadRequestException cbre){
+				assertEquals("Request must be a JSON object", cbre.getMessage());
+			}
+			try {
+				spooler.spool(toStream("{\"data\": [1, 2], \"data\": [3]}"));
+				fail("Expected exception");
+			} catch(CytoContainerBadRequestException cbre){
+				assertEquals("Request has more than one data field", cbre.getMessage());
+			}
+			try {
+				spooler.spool(toStream("{\"data\": {\"a\": [1, 2"));
+				fail("Expected exception");
+			} catch(CytoContainerBadRequestException cbre){
+				assertTrue(cbre.getMessage().startsWith("Unable to parse request: "));
+			}
+			// partially spooled data should be removed
+			assertEquals(0, tempDir.listFiles().length);
+		} finally {
+			_folder.delete();
+		}
+	}
+}
@@ -2,11 +2,16 @@ package org.cytoscape.cytocontainer.rest.engine.util;
 
 import com.fasterxml.jackson.databind.node.TextNode;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithms;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerRequest;
 import org.cytoscape.cytocontainer.rest.model.AlgorithmParameter;
 import org.cytoscape.cytocontainer.rest.model.CytoContainerParameter;
@@ -765,4 +770,142 @@ public class TestCytoContainerRequestValidatorImpl {
         assertEquals("8.3 is greater then maximum value: 7.2 allowed for this parameter", er.getDescription());
     }
     
+    private CytoContainerAlgorithms getAlgorithms(CytoContainerAlgorithm... algos){
+        LinkedHashMap<String, CytoContainerAlgorithm> algoMap = new LinkedHashMap<>();
+        for (CytoContainerAlgorithm cda : algos){
+            algoMap.put(cda.getName(), cda);
+        }
+        CytoContainerAlgorithms cdAlgos = new CytoContainerAlgorithms();
+        cdAlgos.setAlgorithms(algoMap);
+        return cdAlgos;
+    }
+    
+    @Test
+    public void testPrecompiledPlanNullAlgorithms(){
+        CytoContainerRequestValidatorImpl validator = new CytoContainerRequestValidatorImpl(null);
+        assertNull(validator.getValidationPlan("somealgo"));
+        assertNull(validator.getValidationPlan(null));
+        validator = new CytoContainerRequestValidatorImpl(new CytoContainerAlgorithms());
+        assertNull(validator.getValidationPlan("somealgo"));
+    }
+    
+    @Test
+    public void testPrecompiledPlanInvalidRegex() throws CytoContainerException{
+        CytoContainerAlgorithm cda = new CytoContainerAlgorithm();
+        cda.setName("somealgo");
+        LinkedHashSet<AlgorithmParameter> aParams = new LinkedHashSet<>();
+        CytoContainerParameter cp = new CytoContainerParameter();
+        cp.setFlag("--somearg");
+		cp.setDisplayName("somearg");
+        cp.setType(AlgorithmParameter.TEXT_TYPE);
+        cp.setValidationType(AlgorithmParameter.STRING_VALIDATION);
+        cp.setValidationRegex("[");
+        aParams.add(cp);
+        cda.setParameters(aParams);
+        
+        CytoContainerRequestValidatorImpl validator = new CytoContainerRequestValidatorImpl(getAlgorithms(cda));
+        ValidationPlan plan = validator.getValidationPlan("somealgo");
+        assertNotNull(plan);
+        assertEquals(1, plan.getMalformedRegexes().size());
+        assertEquals("[", plan.getMalformedRegexes().get(0));
+        assertTrue(plan.getRules().get("somearg").isMalformedRegex());
+        
+        CytoContainerRequest cdr = new CytoContainerRequest();
+        HashMap<String, String> cParams = new HashMap<>();
+        cParams.put("somearg", "foo");
+        cdr.setParameters(cParams);
+        cdr.setData(new TextNode("hi"));
+        ErrorResponse er = validator.validateRequest(cda, cdr);
+        assertEquals("Malformed validation expression", er.getMessage());
+        assertEquals("[ is not a valid regular expression.Cannot validate", er.getDescription());
+    }
+    
+    @Test
+    public void testPrecompiledPlanMultipleParameters() throws CytoContainerException{
+        CytoContainerAlgorithm cda = new CytoContainerAlgorithm();
+        cda.setName("somealgo");
+        LinkedHashSet<AlgorithmParameter> aParams = new LinkedHashSet<>();
+        CytoContainerParameter cp = new CytoContainerParameter();
+        cp.setFlag("--strarg");
+		cp.setDisplayName("strarg");
+        cp.setType(AlgorithmParameter.TEXT_TYPE);
+        cp.setValidationType(AlgorithmParameter.STRING_VALIDATION);
+        cp.setValidationRegex("foo|bar");
+        aParams.add(cp);
+        cp = new CytoContainerParameter();
+        cp.setFlag("--digitarg");
+		cp.setDisplayName("digitarg");
+        cp.setType(AlgorithmParameter.TEXT_TYPE);
+        cp.setValidationType(AlgorithmParameter.DIGITS_VALIDATION);
+        cp.setMinValue(1);
+        cp.setMaxValue(10);
+        aParams.add(cp);
+        cp = new CytoContainerParameter();
+        cp.setFlag("--checkarg");
+		cp.setDisplayName("checkarg");
+        cp.setType(AlgorithmParameter.CHECKBOX_TYPE);
+        aParams.add(cp);
+        cda.setParameters(aParams);
+        
+        CytoContainerRequestValidatorImpl validator = new CytoContainerRequestValidatorImpl(getAlgorithms(cda));
+        ValidationPlan plan = validator.getValidationPlan("somealgo");
+        assertEquals(0, plan.getMalformedRegexes().size());
+        assertEquals(ValidationPlan.Kind.STRING, plan.getRules().get("strarg").getKind());
+        assertEquals(ValidationPlan.Kind.DIGITS, plan.getRules().get("digitarg").getKind());
+        assertEquals(ValidationPlan.Kind.CHECKBOX, plan.getRules().get("checkarg").getKind());
+        
+        CytoContainerRequest cdr = new CytoContainerRequest();
+        HashMap<String, String> cParams = new HashMap<>();
+        cParams.put("strarg", "bar");
+        cParams.put("digitarg", "5");
+        cParams.put("checkarg", "true");
+        cdr.setParameters(cParams);
+        cdr.setData(new TextNode("hi"));
+        assertNull(validator.validateRequest(cda, cdr));
+        
+        cParams.put("strarg", "baz");
+        ErrorResponse er = validator.validateRequest(cda, cdr);
+        assertEquals("baz did not match regular expression ", er.getDescription());
+        
+        cParams.put("strarg", "foo");
+        cParams.put("digitarg", "11");
+        er = validator.validateRequest(cda, cdr);
+        assertEquals("11 is greater then maximum value: 10 allowed for this parameter", er.getDescription());
+        
+        cParams.put("digitarg", "1.5");
+        er = validator.validateRequest(cda, cdr);
+        assertEquals("1.5 does not appear to be a whole number", er.getDescription());
+        
+        cParams.put("digitarg", "3");
+        cParams.put("unknown", "3");
+        er = validator.validateRequest(cda, cdr);
+        assertEquals("Invalid custom parameter", er.getMessage());
+    }
+    
+    @Test
+    public void testPrecompiledPlanNotUsedForDifferentAlgorithmWithSameName() throws CytoContainerException{
+        CytoContainerAlgorithm cda = new CytoContainerAlgorithm();
+        cda.setName("somealgo");
+        CytoContainerRequestValidatorImpl validator = new CytoContainerRequestValidatorImpl(getAlgorithms(cda));
+        
+        CytoContainerAlgorithm otherCda = new CytoContainerAlgorithm();
+        otherCda.setName("somealgo");
+        LinkedHashSet<AlgorithmParameter> aParams = new LinkedHashSet<>();
+        CytoContainerParameter cp = new CytoContainerParameter();
+        cp.setFlag("--somearg");
+		cp.setDisplayName("somearg");
+        cp.setType(AlgorithmParameter.TEXT_TYPE);
+        cp.setValidationType(AlgorithmParameter.STRING_VALIDATION);
+        aParams.add(cp);
+        otherCda.setParameters(aParams);
+        
+        CytoContainerRequest cdr = new CytoContainerRequest();
+        HashMap<String, String> cParams = new HashMap<>();
+        cParams.put("somearg", "foo");
+        cdr.setParameters(cParams);
+        cdr.setData(new TextNode("hi"));
+        assertNull(validator.validateRequest(otherCda, cdr));
+        assertEquals("Invalid custom parameter", validator.validateRequest(cda, cdr).getMessage());
+    }
+    
 }
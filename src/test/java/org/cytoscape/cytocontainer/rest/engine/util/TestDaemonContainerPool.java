@@ -0,0 +1,194 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestDaemonContainerPool {
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private File extractScript() throws IOException {
+        File script = new File(_folder.newFolder(), "fakedaemon.sh");
+        try (InputStream in = getClass().getResourceAsStream("/daemon/fakedaemon.sh")){
+            Files.copy(in, script.toPath());
+        }
+        assertTrue(script.setExecutable(true));
+        return script;
+    }
+
+    private File writeInput(File taskDir, final String id) throws IOException {
+        File input = new File(new File(taskDir, id), DockerCytoContainerRunner.INPUT_FILE);
+        FileUtils.writeStringToFile(input, "hello", StandardCharsets.UTF_8);
+        return input;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && condition.getAsBoolean() == false; i++){
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private JsonNode runTask(DaemonContainerPool pool, File taskDir, final String id,
+            Map<String, String> params, int expectedExitCode) throws Exception {
+        File input = writeInput(taskDir, id);
+        File stdOut = new File(input.getParentFile(), DockerCytoContainerRunner.STD_OUT_FILE);
+        File stdErr = new File(input.getParentFile(), DockerCytoContainerRunner.STD_ERR_FILE);
+        DaemonCommandLineRunner runner = new DaemonCommandLineRunner(pool, id,
+                input.getAbsolutePath(), params);
+        assertEquals(expectedExitCode, runner.runCommandLineProcess(10, TimeUnit.SECONDS,
+                stdOut, stdErr, "ignored"));
+        JsonNode envelope = new ObjectMapper().readTree(runner.getLastCommand());
+        assertEquals(DaemonContainer.TASK_TYPE, envelope.get("type").asText());
+        assertEquals(input.getAbsolutePath(), envelope.get("input").asText());
+        assertEquals("@@MESSAGE foo:1.0 read 5 bytes of input\n@@PROGRESS 50\n",
+                FileUtils.readFileToString(stdErr, StandardCharsets.UTF_8));
+        JsonNode result = new ObjectMapper().readTree(stdOut);
+        assertEquals(id, result.get("id").asText());
+        return result;
+    }
+
+    @Test
+    public void testRunTasksRecyclesAfterMaxTasks() throws Exception {
+        File taskDir = _folder.newFolder();
+        DaemonSettings settings = new DaemonSettings();
+        settings.setMaxTasks(2);
+        settings.setArguments(Arrays.asList("--daemon"));
+        DaemonContainerPool pool = new DaemonContainerPool("foo",
+                extractScript().getAbsolutePath(), "foo:1.0", taskDir.getAbsolutePath(),
+                ":ro", settings);
+        try {
+            pool.start();
+            assertEquals(1, pool.getContainers());
+            assertEquals(1, pool.getIdleContainers());
+
+            JsonNode first = runTask(pool, taskDir, "1", null, 0);
+            assertEquals(1, first.get("count").asInt());
+            JsonNode second = runTask(pool, taskDir, "2", new LinkedHashMap<>(), 0);
+            assertEquals(2, second.get("count").asInt());
+            assertEquals(first.get("pid").asInt(), second.get("pid").asInt());
+
+            // container is replaced after max tasks
+            waitFor(() -> pool.getIdleContainers() == 1);
+            assertEquals(1, pool.getRecycledContainers());
+            JsonNode third = runTask(pool, taskDir, "3", null, 0);
+            assertEquals(1, third.get("count").asInt());
+            assertNotEquals(first.get("pid").asInt(), third.get("pid").asInt());
+            assertEquals(3, pool.getTasksRun());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(0, pool.getContainers());
+    }
+
+    @Test
+    public void testErrorsRecycleContainer() throws Exception {
+        File taskDir = _folder.newFolder();
+        DaemonContainerPool pool = new DaemonContainerPool("foo",
+                extractScript().getAbsolutePath(), "foo:1.0", taskDir.getAbsolutePath(),
+                ":ro", new DaemonSettings());
+        try {
+            pool.start();
+            Map<String, String> params = new LinkedHashMap<>();
+            params.put("--exitcode", "2");
+            runTask(pool, taskDir, "1", params, 2);
+            waitFor(() -> pool.getIdleContainers() == 1);
+            assertEquals(1, pool.getRecycledContainers());
+
+            File input = writeInput(taskDir, "2");
+            params.clear();
+            params.put("--crash", null);
+            try {
+                pool.runTask("2", DaemonContainer.getTaskEnvelope("2", input.getAbsolutePath(), params),
+                        10, TimeUnit.SECONDS, new File(taskDir, "out"), new File(taskDir, "err"));
+                fail("Expected IOException");
+            } catch(IOException io){
+                assertTrue(io.getMessage(), io.getMessage().contains("exited before returning a result"));
+            }
+            waitFor(() -> pool.getIdleContainers() == 1);
+            assertEquals(2, pool.getRecycledContainers());
+
+            // task exceeding timeout gets 500
+            input = writeInput(taskDir, "3");
+            params.clear();
+            params.put("--sleep", "5");
+            assertEquals(500, pool.runTask("3", DaemonContainer.getTaskEnvelope("3",
+                    input.getAbsolutePath(), params), 200, TimeUnit.MILLISECONDS,
+                    new File(taskDir, "out"), new File(taskDir, "err")));
+            waitFor(() -> pool.getIdleContainers() == 1);
+            assertEquals(3, pool.getRecycledContainers());
+
+            runTask(pool, taskDir, "4", null, 0);
+            assertEquals(2, pool.getTasksRun());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedHealthCheckRecyclesContainer() throws Exception {
+        File taskDir = _folder.newFolder();
+        DaemonSettings settings = new DaemonSettings();
+        settings.setHealthCheckInterval(1);
+        settings.setHealthCheckTimeout(1);
+        settings.setArguments(Arrays.asList("--noping"));
+        DaemonContainerPool pool = new DaemonContainerPool("foo",
+                extractScript().getAbsolutePath(), "foo:1.0", taskDir.getAbsolutePath(),
+                ":ro", settings);
+        try {
+            pool.start();
+            for (int i = 0; i < 500 && pool.getFailedHealthChecks() == 0; i++){
+                Thread.sleep(10);
+            }
+            assertTrue(pool.getFailedHealthChecks() >= 1);
+            waitFor(() -> pool.getIdleContainers() == 1);
+            assertEquals(1, pool.getContainers());
+            assertTrue(pool.getRecycledContainers() >= 1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testNoContainerAvailable() throws Exception {
+        File taskDir = _folder.newFolder();
+        DaemonContainerPool pool = new DaemonContainerPool("foo",
+                new File(taskDir, "nodocker").getAbsolutePath(), "foo:1.0",
+                taskDir.getAbsolutePath(), ":ro", new DaemonSettings());
+        try {
+            pool.start();
+            assertEquals(0, pool.getContainers());
+            pool.runTask("1", "{}", 100, TimeUnit.MILLISECONDS, new File(taskDir, "out"),
+                    new File(taskDir, "err"));
+            fail("Expected CytoContainerException");
+        } catch(CytoContainerException cce){
+            assertEquals("No foo container became available within timeout", cce.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
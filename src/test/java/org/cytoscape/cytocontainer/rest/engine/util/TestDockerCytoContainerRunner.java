@@ -3,16 +3,20 @@ package org.cytoscape.cytocontainer.rest.engine.util;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.TextNode;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.mock;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
@@ -109,6 +113,49 @@ public class TestDockerCytoContainerRunner {
         } 
     }
     
+    @Test
+    public void testConstructorSuccessfulSpooledData() throws Exception {
+        File tempDir = _folder.newFolder();
+        try {
+            CytoContainerRequestSpooler spooler = new CytoContainerRequestSpooler(tempDir);
+            SpooledCytoContainerRequest cdr = spooler.spool(new ByteArrayInputStream(
+                    "{\"data\": {\"blah\": \"data\"}}".getBytes(StandardCharsets.UTF_8)));
+            File spoolFile = cdr.getDataFile();
+            DockerCytoContainerRunner runner = new DockerCytoContainerRunner("someid", cdr,
+                    0, tempDir.getAbsolutePath(), "docker", "hello-world", null, 1,
+                    TimeUnit.SECONDS, ":ro");
+            
+            assertFalse(spoolFile.exists());
+            try (BufferedReader br = new BufferedReader(new FileReader(runner.getInputFile()))){
+                assertEquals("{\"blah\":\"data\"}", br.readLine());
+            }
+        }finally {
+            _folder.delete();
+        } 
+    }
+    
+    @Test
+    public void testConstructorDoesNotRetainRequest() throws Exception {
+        File tempDir = _folder.newFolder();
+        try {
+            CytoContainerRequest cdr = new CytoContainerRequest();
+            cdr.setData(new TextNode("blah"));
+            WeakReference<CytoContainerRequest> requestRef = new WeakReference<>(cdr);
+            DockerCytoContainerRunner runner = new DockerCytoContainerRunner("someid", cdr,
+                    0, tempDir.getAbsolutePath(), "docker", "hello-world", null, 1,
+                    TimeUnit.SECONDS, ":ro");
+            cdr = null;
+            for (int i = 0; i < 50 && requestRef.get() != null; i++){
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(requestRef.get());
+            assertTrue(runner.getInputFile().isFile());
+        }finally {
+            _folder.delete();
+        } 
+    }
+    
     @Test
     public void testUpdateCytoContainerResultWithFileContentsOutFileDoesNotExist() throws Exception {
         File tempDir = _folder.newFolder();
@@ -381,7 +428,7 @@ public class TestDockerCytoContainerRunner {
             File inputFile = runner.getInputFile();
             File stdErrFile = runner.getStandardErrorFile();
             expect(mockCLR.runCommandLineProcess(1, TimeUnit.SECONDS, stdOutFile, stdErrFile,
-                    "docker", "run", "--rm", "-v", wDir + ":" + wDir + ":ro", "hello-world", inputFile.getAbsolutePath())).andReturn(0);
+                    "docker", "run", "--rm", "--name", "cytocontainer-task-someid", "-v", wDir + ":" + wDir + ":ro", "hello-world", inputFile.getAbsolutePath())).andReturn(0);
             expect(mockCLR.getLastCommand()).andReturn("lastcommand");
             runner.setAlternateCommandLineRunner(mockCLR);
             replay(mockCLR);
@@ -431,7 +478,7 @@ public class TestDockerCytoContainerRunner {
             File inputFile = runner.getInputFile();
             File stdErrFile = runner.getStandardErrorFile();
             expect(mockCLR.runCommandLineProcess(1, TimeUnit.SECONDS, stdOutFile, stdErrFile,
-                    "docker", "run", "--rm", "-v", wDir + ":" + wDir + ":ro", "hello-world",
+                    "docker", "run", "--rm", "--name", "cytocontainer-task-someid", "-v", wDir + ":" + wDir + ":ro", "hello-world",
                     inputFile.getAbsolutePath(),"flagonly", "somearg", "argvalue")).andReturn(0);
             expect(mockCLR.getLastCommand()).andReturn("lastcommand");
             runner.setAlternateCommandLineRunner(mockCLR);
@@ -452,4 +499,117 @@ public class TestDockerCytoContainerRunner {
             _folder.delete();
         }
     }
+    
+    @Test
+    public void testCallTimeOutAndErrorRemoveContainer() throws Exception {
+        File tempDir = _folder.newFolder();
+        try {
+            CytoContainerRequest cdr = new CytoContainerRequest();
+            ObjectMapper mapper = new ObjectMapper();
+            cdr.setData(mapper.readTree("{\"blah\": \"data\"}"));
+            String workingDir = tempDir.getAbsolutePath() 
+                    + File.separator + "task";
+            DockerCytoContainerRunner runner = new DockerCytoContainerRunner("someid", cdr,
+                    0, workingDir, "docker", "hello-world", null, 1,
+                    TimeUnit.SECONDS, ":ro");
+            
+            CommandLineRunner mockCLR = mock(CommandLineRunner.class);
+            ContainerReaper mockReaper = mock(ContainerReaper.class);
+            String wDir = workingDir + File.separator + "someid";
+            mockCLR.setWorkingDirectory(wDir);
+            expectLastCall().times(2);
+            File inputFile = runner.getInputFile();
+            File stdOutFile = runner.getStandardOutFile();
+            File stdErrFile = runner.getStandardErrorFile();
+            String[] cmd = new String[]{"docker", "run", "--rm", "--name",
+                "cytocontainer-task-someid", "-v", wDir + ":" + wDir + ":ro",
+                "hello-world", inputFile.getAbsolutePath()};
+            expect(mockCLR.runCommandLineProcess(1, TimeUnit.SECONDS, stdOutFile,
+                    stdErrFile, cmd)).andReturn(500);
+            expect(mockCLR.getLastCommand()).andReturn("lastcommand");
+            expect(mockCLR.runCommandLineProcess(1, TimeUnit.SECONDS, stdOutFile,
+                    stdErrFile, cmd)).andThrow(new InterruptedException("canceled"));
+            expect(mockReaper.removeContainer("cytocontainer-task-someid")).andReturn(true);
+            expect(mockReaper.removeContainer("cytocontainer-task-someid")).andThrow(new Exception("gone"));
+            runner.setAlternateCommandLineRunner(mockCLR);
+            runner.setContainerReaper(mockReaper);
+            replay(mockCLR, mockReaper);
+            
+            CytoContainerResult res = runner.call();
+            assertEquals(CytoContainerResult.FAILED_STATUS, res.getStatus());
+            assertEquals("Runtime limit exceeded", res.getMessage());
+            
+            res = runner.call();
+            assertEquals(CytoContainerResult.FAILED_STATUS, res.getStatus());
+            assertEquals("Received error trying to run task: canceled", res.getMessage());
+            verify(mockCLR, mockReaper);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testCallWithResourcesAndCpuSet() throws Exception {
+        File tempDir = _folder.newFolder();
+        try {
+            CytoContainerRequest cdr = new CytoContainerRequest();
+            ObjectMapper mapper = new ObjectMapper();
+            cdr.setData(mapper.readTree("{\"blah\": \"data\"}"));
+            String workingDir = tempDir.getAbsolutePath() 
+                    + File.separator + "task";
+            DockerCytoContainerRunner runner = new DockerCytoContainerRunner("someid", cdr,
+                    0, workingDir, "docker", "hello-world", null, 1,
+                    TimeUnit.SECONDS, ":ro");
+            ResourceSettings resources = new ResourceSettings();
+            resources.setCpus(2);
+            resources.setMemory("1g");
+            runner.setResourceSettings(resources);
+            CpuSetAllocator allocator = new CpuSetAllocator(CpuSetAllocator.parseCpuList("4-7"));
+            runner.setCpuSetAllocator(allocator, 2);
+            
+            CommandLineRunner mockCLR = mock(CommandLineRunner.class);
+            String wDir = workingDir + File.separator + "someid";
+            mockCLR.setWorkingDirectory(wDir);
+            File stdOutFile = runner.getStandardOutFile();
+            try (BufferedWriter bw = new BufferedWriter(new FileWriter(stdOutFile))){
+                bw.write("hello");
+                bw.flush();
+            } 
+            File inputFile = runner.getInputFile();
+            File stdErrFile = runner.getStandardErrorFile();
+            expect(mockCLR.runCommandLineProcess(1, TimeUnit.SECONDS, stdOutFile, stdErrFile,
+                    "docker", "run", "--rm", "--name", "cytocontainer-task-someid",
+                    "--cpus", "2", "--memory", "1073741824", "--cpuset-cpus", "4-5",
+                    "-v", wDir + ":" + wDir + ":ro", "hello-world",
+                    inputFile.getAbsolutePath())).andAnswer(() -> {
+                        // cores are held while container runs
+                        assertEquals("4-5", allocator.getAssignments().get("someid"));
+                        return 0;
+                    });
+            expect(mockCLR.getLastCommand()).andReturn("lastcommand");
+            runner.setAlternateCommandLineRunner(mockCLR);
+            replay(mockCLR);
+            CytoContainerResult res = runner.call();
+            assertEquals(CytoContainerResult.COMPLETE_STATUS, res.getStatus());
+            verify(mockCLR);
+            assertEquals(4, allocator.getFreeCpus());
+            assertTrue(allocator.getAssignments().isEmpty());
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetContainerName(){
+        assertEquals("cytocontainer-task-someid",
+                DockerCytoContainerRunner.getContainerName("someid"));
+        assertEquals("cytocontainer-task-someid",
+                DockerCytoContainerRunner.getContainerName("", "someid"));
+        assertEquals("cytocontainer-cy1-task-someid",
+                DockerCytoContainerRunner.getContainerName("cy1", "someid"));
+        // dash would let prefix of one instance match another
+        assertEquals("cytocontainer-cy_1-", ContainerReaper.getNamePrefix("cy-1"));
+        assertFalse(DockerCytoContainerRunner.getContainerName("cy-1", "someid")
+                .startsWith(ContainerReaper.getNamePrefix("cy")));
+    }
 }
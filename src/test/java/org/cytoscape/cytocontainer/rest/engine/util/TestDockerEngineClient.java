@@ -0,0 +1,232 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestDockerEngineClient {
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private File getSocket() throws IOException {
+        return new File(_folder.newFolder(), "d.sock");
+    }
+
+    @Test
+    public void testCreateContainer() throws Exception {
+        File socket = getSocket();
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(),
+                (req) -> new StubDockerEngineServer.Reply(201, "{\"Id\": \"abc123\", \"Warnings\": []}"))){
+            DockerEngineClient client = new DockerEngineClient(socket.getAbsolutePath());
+            ObjectNode spec = new ObjectMapper().createObjectNode();
+            spec.put("Image", "foo:1.0");
+            assertEquals("abc123", client.createContainer("my task", spec));
+            assertEquals("abc123", client.createContainer(null, spec));
+
+            assertEquals(Arrays.asList("POST /v1.41/containers/create?name=my+task",
+                    "POST /v1.41/containers/create"), server.getRequestLines());
+            JsonNode body = new ObjectMapper().readTree(server.getRequests().get(0).body);
+            assertEquals("foo:1.0", body.get("Image").asText());
+        }
+    }
+
+    @Test
+    public void testCreateContainerNoSuchImage() throws Exception {
+        File socket = getSocket();
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(),
+                (req) -> new StubDockerEngineServer.Reply(404, "{\"message\": \"No such image: foo:1.0\"}"))){
+            DockerEngineClient client = new DockerEngineClient(socket.getAbsolutePath());
+            try {
+                client.createContainer(null, new ObjectMapper().createObjectNode());
+                fail("Expected DockerEngineException");
+            } catch(DockerEngineException dee){
+                assertEquals(404, dee.getStatusCode());
+                assertEquals("No such image: foo:1.0", dee.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testStartWaitInspectKillRemove() throws Exception {
+        File socket = getSocket();
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(), (req) -> {
+            if (req.path.endsWith("/wait")){
+                return new StubDockerEngineServer.Reply(200, "{\"StatusCode\": 3}");
+            }
+            if (req.path.endsWith("/json")){
+                return new StubDockerEngineServer.Reply(200,
+                        "{\"Id\": \"abc\", \"State\": {\"Status\": \"exited\", \"ExitCode\": 3}}");
+            }
+            return new StubDockerEngineServer.Reply(204, "");
+        })){
+            DockerEngineClient client = new DockerEngineClient(socket.getAbsolutePath(), "v1.40");
+            client.startContainer("abc");
+            assertEquals(3, client.waitContainer("abc"));
+            JsonNode info = client.inspectContainer("abc");
+            assertEquals("exited", info.get("State").get("Status").asText());
+            assertTrue(client.killContainer("abc"));
+            assertTrue(client.removeContainer("abc"));
+            assertEquals(Arrays.asList("POST /v1.40/containers/abc/start",
+                    "POST /v1.40/containers/abc/wait",
+                    "GET /v1.40/containers/abc/json",
+                    "POST /v1.40/containers/abc/kill",
+                    "DELETE /v1.40/containers/abc?force=1"), server.getRequestLines());
+        }
+    }
+
+    @Test
+    public void testMissingOrStoppedContainer() throws Exception {
+        File socket = getSocket();
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(), (req) -> {
+            if (req.path.endsWith("/kill")){
+                return new StubDockerEngineServer.Reply(409, "{\"message\": \"is not running\"}");
+            }
+            if (req.path.endsWith("/start")){
+                return new StubDockerEngineServer.Reply(500, "boom");
+            }
+            return new StubDockerEngineServer.Reply(404, "{\"message\": \"No such container\"}");
+        })){
+            DockerEngineClient client = new DockerEngineClient(socket.getAbsolutePath());
+            assertNull(client.inspectContainer("abc"));
+            assertFalse(client.killContainer("abc"));
+            assertFalse(client.removeContainer("abc"));
+            try {
+                client.startContainer("abc");
+                fail("Expected DockerEngineException");
+            } catch(DockerEngineException dee){
+                assertEquals(500, dee.getStatusCode());
+                assertEquals("boom", dee.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testRenameAndListContainerNames() throws Exception {
+        File socket = getSocket();
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(), (req) -> {
+            if (req.path.startsWith("/v1.41/containers/json")){
+                return new StubDockerEngineServer.Reply(200, "[{\"Id\": \"a\", \"Names\": [\"/cytocontainer-task-1\"]},"
+                        + "{\"Id\": \"b\", \"Names\": [\"/other-cytocontainer-x\"]},"
+                        + "{\"Id\": \"c\"}]");
+            }
+            return new StubDockerEngineServer.Reply(204, "");
+        })){
+            DockerEngineClient client = new DockerEngineClient(socket.getAbsolutePath());
+            client.renameContainer("abc", "cytocontainer-task-1");
+            assertEquals(Arrays.asList("cytocontainer-task-1"),
+                    client.listContainerNames("cytocontainer-"));
+            assertEquals(Arrays.asList("POST /v1.41/containers/abc/rename?name=cytocontainer-task-1",
+                    "GET /v1.41/containers/json?all=1&filters=%7B%22name%22%3A%5B%22cytocontainer-%22%5D%7D"),
+                    server.getRequestLines());
+        }
+    }
+
+    @Test
+    public void testPullImage() throws Exception {
+        File socket = getSocket();
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(), (req) -> {
+            if (req.path.contains("bad")){
+                return new StubDockerEngineServer.Reply(200,
+                        "{\"status\": \"Pulling\"}\n{\"error\": \"manifest unknown\"}\n".getBytes(StandardCharsets.UTF_8), true);
+            }
+            return new StubDockerEngineServer.Reply(200,
+                    "{\"status\": \"Pulling\"}\n{\"status\": \"Done\"}\n".getBytes(StandardCharsets.UTF_8), true);
+        })){
+            DockerEngineClient client = new DockerEngineClient(socket.getAbsolutePath());
+            client.pullImage("foo:1.0");
+            try {
+                client.pullImage("bad:1.0");
+                fail("Expected DockerEngineException");
+            } catch(DockerEngineException dee){
+                assertTrue(dee.getMessage(), dee.getMessage().contains("manifest unknown"));
+            }
+            client.pullImage("localhost:5000/foo");
+            client.pullImage("foo@sha256:abc");
+            assertEquals(Arrays.asList("POST /v1.41/images/create?fromImage=foo%3A1.0",
+                    "POST /v1.41/images/create?fromImage=bad%3A1.0",
+                    "POST /v1.41/images/create?fromImage=localhost%3A5000%2Ffoo&tag=latest",
+                    "POST /v1.41/images/create?fromImage=foo%40sha256%3Aabc"), server.getRequestLines());
+        }
+    }
+
+    @Test
+    public void testHasTagOrDigest(){
+        assertFalse(DockerEngineClient.hasTagOrDigest("foo"));
+        assertFalse(DockerEngineClient.hasTagOrDigest("cytoscape/foo"));
+        assertFalse(DockerEngineClient.hasTagOrDigest("localhost:5000/foo"));
+        assertTrue(DockerEngineClient.hasTagOrDigest("foo:1.0"));
+        assertTrue(DockerEngineClient.hasTagOrDigest("localhost:5000/foo:1.0"));
+        assertTrue(DockerEngineClient.hasTagOrDigest("foo@sha256:abc"));
+    }
+
+    @Test
+    public void testStreamLogs() throws Exception {
+        File socket = getSocket();
+        ByteArrayOutputStream logs = new ByteArrayOutputStream();
+        logs.write(StubDockerEngineServer.frame(DockerEngineClient.STDERR_STREAM, "@@PROGRESS 50\n"));
+        logs.write(StubDockerEngineServer.frame(DockerEngineClient.STDOUT_STREAM, "{\"a\": "));
+        logs.write(StubDockerEngineServer.frame(DockerEngineClient.STDERR_STREAM, "@@PROGRESS 100\n"));
+        logs.write(StubDockerEngineServer.frame(DockerEngineClient.STDOUT_STREAM, "1}"));
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(),
+                (req) -> new StubDockerEngineServer.Reply(200, logs.toByteArray(), true))){
+            DockerEngineClient client = new DockerEngineClient(socket.getAbsolutePath());
+            ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+            ByteArrayOutputStream stdErr = new ByteArrayOutputStream();
+            client.streamLogs("abc", true, stdOut, stdErr);
+            assertEquals("{\"a\": 1}", stdOut.toString(StandardCharsets.UTF_8));
+            assertEquals("@@PROGRESS 50\n@@PROGRESS 100\n", stdErr.toString(StandardCharsets.UTF_8));
+            assertEquals(Arrays.asList("GET /v1.41/containers/abc/logs?stdout=1&stderr=1&follow=1"),
+                    server.getRequestLines());
+        }
+    }
+
+    @Test
+    public void testDemultiplexTruncated() throws Exception {
+        byte[] frame = StubDockerEngineServer.frame(DockerEngineClient.STDOUT_STREAM, "hello");
+        try {
+            DockerEngineClient.demultiplex(new ByteArrayInputStream(Arrays.copyOf(frame, 4)),
+                    new ByteArrayOutputStream(), new ByteArrayOutputStream());
+            fail("Expected EOFException");
+        } catch(EOFException eofe){
+            assertEquals("Truncated log frame header", eofe.getMessage());
+        }
+        try {
+            DockerEngineClient.demultiplex(new ByteArrayInputStream(Arrays.copyOf(frame, 10)),
+                    new ByteArrayOutputStream(), new ByteArrayOutputStream());
+            fail("Expected EOFException");
+        } catch(EOFException eofe){
+            assertEquals("Truncated log frame", eofe.getMessage());
+        }
+    }
+
+    @Test
+    public void testNoSocket() throws Exception {
+        DockerEngineClient client = new DockerEngineClient(getSocket().getAbsolutePath());
+        try {
+            client.startContainer("abc");
+            fail("Expected IOException");
+        } catch(IOException io){
+            // expected
+        }
+    }
+}
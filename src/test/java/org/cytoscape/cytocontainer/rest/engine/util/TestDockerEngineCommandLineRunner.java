@@ -0,0 +1,260 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestDockerEngineCommandLineRunner {
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private static byte[] getLogs() throws IOException {
+        ByteArrayOutputStream logs = new ByteArrayOutputStream();
+        logs.write(StubDockerEngineServer.frame(DockerEngineClient.STDERR_STREAM, "@@PROGRESS 50\n"));
+        logs.write(StubDockerEngineServer.frame(DockerEngineClient.STDOUT_STREAM, "{\"result\": 1}"));
+        return logs.toByteArray();
+    }
+
+    @Test
+    public void testRunCommandLineProcessSuccess() throws Exception {
+        File tempDir = _folder.newFolder();
+        File socket = new File(tempDir, "d.sock");
+        byte[] logs = getLogs();
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(), (req) -> {
+            if (req.path.contains("/containers/create")){
+                return new StubDockerEngineServer.Reply(201, "{\"Id\": \"c1\"}");
+            }
+            if (req.path.contains("/logs")){
+                return new StubDockerEngineServer.Reply(200, logs, true);
+            }
+            if (req.path.endsWith("/wait")){
+                return new StubDockerEngineServer.Reply(200, "{\"StatusCode\": 0}");
+            }
+            return new StubDockerEngineServer.Reply(204, "");
+        })){
+            DockerEngineCommandLineRunner runner = new DockerEngineCommandLineRunner(
+                    new DockerEngineClient(socket.getAbsolutePath()));
+            File stdOut = new File(tempDir, "stdout.txt");
+            File stdErr = new File(tempDir, "stderr.txt");
+            int eCode = runner.runCommandLineProcess(10, TimeUnit.SECONDS, stdOut, stdErr,
+                    "docker", "run", "--rm", "-v", "/task/1:/task/1:ro", "", "foo:1.0",
+                    "/task/1/input.txt", "--flag", "val");
+            assertEquals(0, eCode);
+            assertEquals("c1", runner.getContainerId());
+            assertEquals("docker run --rm -v /task/1:/task/1:ro foo:1.0 /task/1/input.txt --flag val",
+                    runner.getLastCommand());
+            assertEquals("{\"result\": 1}", FileUtils.readFileToString(stdOut, StandardCharsets.UTF_8));
+            assertEquals("@@PROGRESS 50\n", FileUtils.readFileToString(stdErr, StandardCharsets.UTF_8));
+            assertEquals(Arrays.asList("POST /v1.41/containers/create",
+                    "POST /v1.41/containers/c1/start",
+                    "GET /v1.41/containers/c1/logs?stdout=1&stderr=1&follow=1",
+                    "POST /v1.41/containers/c1/wait",
+                    "DELETE /v1.41/containers/c1?force=1"), server.getRequestLines());
+
+            JsonNode spec = new ObjectMapper().readTree(server.getRequests().get(0).body);
+            assertEquals("foo:1.0", spec.get("Image").asText());
+            assertEquals(3, spec.get("Cmd").size());
+            assertEquals("/task/1/input.txt", spec.get("Cmd").get(0).asText());
+            assertEquals("/task/1:/task/1:ro", spec.get("HostConfig").get("Binds").get(0).asText());
+            assertEquals(false, spec.get("Tty").asBoolean());
+        }
+    }
+
+    @Test
+    public void testRunCommandLineProcessPullsImageNonZeroExitNoRemove() throws Exception {
+        File tempDir = _folder.newFolder();
+        File socket = new File(tempDir, "d.sock");
+        byte[] logs = getLogs();
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(), (req) -> {
+            if (req.path.contains("/containers/create")){
+                return new StubDockerEngineServer.Reply(201, "{\"Id\": \"c2\"}");
+            }
+            if (req.path.contains("/images/create")){
+                return new StubDockerEngineServer.Reply(200, "{\"status\": \"Done\"}");
+            }
+            if (req.path.contains("/logs")){
+                return new StubDockerEngineServer.Reply(200, logs, true);
+            }
+            if (req.path.endsWith("/wait")){
+                return new StubDockerEngineServer.Reply(200, "{\"StatusCode\": 2}");
+            }
+            return new StubDockerEngineServer.Reply(204, "");
+        })){
+            // first create fails since image is not local
+            DockerEngineClient client = new DockerEngineClient(socket.getAbsolutePath()) {
+                private boolean _failed = false;
+                @Override
+                public String createContainer(String name, ObjectNode spec) throws DockerEngineException, IOException {
+                    if (_failed == false){
+                        _failed = true;
+                        throw new DockerEngineException(404, "No such image: foo:1.0");
+                    }
+                    return super.createContainer(name, spec);
+                }
+            };
+            DockerEngineCommandLineRunner runner = new DockerEngineCommandLineRunner(client);
+            int eCode = runner.runCommandLineProcess(10, TimeUnit.SECONDS,
+                    new File(tempDir, "stdout.txt"), new File(tempDir, "stderr.txt"),
+                    "docker", "run", "--name", "task1", "--volume", "/a:/a", "foo:1.0");
+            assertEquals(2, eCode);
+            assertEquals(Arrays.asList("POST /v1.41/images/create?fromImage=foo%3A1.0",
+                    "POST /v1.41/containers/create?name=task1",
+                    "POST /v1.41/containers/c2/start",
+                    "GET /v1.41/containers/c2/logs?stdout=1&stderr=1&follow=1",
+                    "POST /v1.41/containers/c2/wait"), server.getRequestLines());
+        }
+    }
+
+    @Test
+    public void testRunCommandLineProcessTimeout() throws Exception {
+        File tempDir = _folder.newFolder();
+        File socket = new File(tempDir, "d.sock");
+        CountDownLatch killed = new CountDownLatch(1);
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(), (req) -> {
+            if (req.path.contains("/containers/create")){
+                return new StubDockerEngineServer.Reply(201, "{\"Id\": \"c3\"}");
+            }
+            if (req.path.contains("/logs")){
+                // log stream ends when container is killed
+                killed.await(30, TimeUnit.SECONDS);
+                return new StubDockerEngineServer.Reply(200, new byte[0], true);
+            }
+            if (req.path.endsWith("/kill")){
+                killed.countDown();
+                return new StubDockerEngineServer.Reply(204, "");
+            }
+            if (req.path.endsWith("/wait")){
+                return new StubDockerEngineServer.Reply(200, "{\"StatusCode\": 137}");
+            }
+            return new StubDockerEngineServer.Reply(204, "");
+        })){
+            DockerEngineCommandLineRunner runner = new DockerEngineCommandLineRunner(
+                    new DockerEngineClient(socket.getAbsolutePath()));
+            int eCode = runner.runCommandLineProcess(100, TimeUnit.MILLISECONDS,
+                    new File(tempDir, "stdout.txt"), new File(tempDir, "stderr.txt"),
+                    "docker", "run", "--rm", "foo:1.0");
+            assertEquals(500, eCode);
+            assertTrue(server.getRequestLines().contains("POST /v1.41/containers/c3/kill"));
+            assertTrue(server.getRequestLines().contains("DELETE /v1.41/containers/c3?force=1"));
+        }
+    }
+
+    @Test
+    public void testRunCommandLineProcessWarmContainer() throws Exception {
+        File tempDir = _folder.newFolder();
+        File socket = new File(tempDir, "d.sock");
+        File taskDir = _folder.newFolder();
+        byte[] logs = getLogs();
+        AtomicInteger ids = new AtomicInteger(0);
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(), (req) -> {
+            if (req.path.contains("/images/")){
+                return new StubDockerEngineServer.Reply(200, "{\"Config\": {\"Entrypoint\": null}}");
+            }
+            if (req.path.contains("/containers/create")){
+                return new StubDockerEngineServer.Reply(201, "{\"Id\": \"w" + ids.incrementAndGet() + "\"}");
+            }
+            if (req.path.contains("/logs")){
+                return new StubDockerEngineServer.Reply(200, logs, true);
+            }
+            if (req.path.endsWith("/wait")){
+                return new StubDockerEngineServer.Reply(200, "{\"StatusCode\": 0}");
+            }
+            return new StubDockerEngineServer.Reply(204, "");
+        })){
+            DockerEngineClient client = new DockerEngineClient(socket.getAbsolutePath());
+            WarmContainerPool pool = new WarmContainerPool(client, "foo", "foo:1.0",
+                    taskDir.getAbsolutePath(), ":ro", 1, 1);
+            pool.start();
+            for (int i = 0; i < 500 && pool.getIdleContainers() == 0; i++){
+                Thread.sleep(10);
+            }
+            assertEquals(1, pool.getIdleContainers());
+            DockerEngineCommandLineRunner runner = new DockerEngineCommandLineRunner(client);
+            runner.setWarmContainerPool(pool);
+            File stdOut = new File(tempDir, "stdout.txt");
+            int eCode = runner.runCommandLineProcess(10, TimeUnit.SECONDS, stdOut,
+                    new File(tempDir, "stderr.txt"),
+                    "docker", "run", "--name", "task1", "-v", taskDir.getAbsolutePath() + ":/task/1:ro", "foo:1.0",
+                    "/task/1/input.txt");
+            assertEquals(0, eCode);
+            assertEquals("w1", runner.getContainerId());
+            assertEquals("{\"result\": 1}", FileUtils.readFileToString(stdOut, StandardCharsets.UTF_8));
+            assertEquals(1, pool.getHits());
+            // warm container is started, not created, and removed even without --rm
+            List<String> lines = server.getRequestLines().stream()
+                    .filter((l) -> l.contains("/containers/w1")).collect(Collectors.toList());
+            assertEquals(Arrays.asList("POST /v1.41/containers/w1/rename?name=task1",
+                    "POST /v1.41/containers/w1/start",
+                    "GET /v1.41/containers/w1/logs?stdout=1&stderr=1&follow=1",
+                    "POST /v1.41/containers/w1/wait",
+                    "DELETE /v1.41/containers/w1?force=1"), lines);
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetContainerSpecWithResources() throws Exception {
+        DockerEngineCommandLineRunner runner = new DockerEngineCommandLineRunner(
+                new DockerEngineClient(new File(_folder.newFolder(), "d.sock").getAbsolutePath()));
+        DockerEngineCommandLineRunner.ContainerRun run = runner.parseCommand(Arrays.asList(
+                "docker", "run", "--rm", "--name", "task1", "--cpus", "1.5",
+                "--memory", "512m", "--cpuset-cpus", "2-3", "-v", "/task/1:/task/1:ro",
+                "foo:1.0", "/task/1/input.txt"));
+        assertEquals(1500000000L, run.getNanoCpus());
+        assertEquals(512L * 1024L * 1024L, run.getMemory());
+        ObjectNode spec = runner.getContainerSpec(run);
+        assertEquals(1500000000L, spec.get("HostConfig").get("NanoCpus").asLong());
+        assertEquals(512L * 1024L * 1024L, spec.get("HostConfig").get("Memory").asLong());
+        assertEquals("2-3", spec.get("HostConfig").get("CpusetCpus").asText());
+
+        run = runner.parseCommand(Arrays.asList("docker", "run", "foo:1.0"));
+        spec = runner.getContainerSpec(run);
+        assertTrue(spec.get("HostConfig").has("NanoCpus") == false);
+        assertTrue(spec.get("HostConfig").has("Memory") == false);
+        assertTrue(spec.get("HostConfig").has("CpusetCpus") == false);
+    }
+
+    @Test
+    public void testRunCommandLineProcessInvalidCommands() throws Exception {
+        DockerEngineCommandLineRunner runner = new DockerEngineCommandLineRunner(
+                new DockerEngineClient(new File(_folder.newFolder(), "d.sock").getAbsolutePath()));
+        File stdOut = new File(_folder.getRoot(), "stdout.txt");
+        File stdErr = new File(_folder.getRoot(), "stderr.txt");
+        String[][] cmds = {{"docker", "ps"}, {"docker", "run", "--privileged", "foo"},
+            {"docker", "run", "--rm"}, {"docker", "run", "-v"}};
+        String[] errors = {"Only docker run is supported: docker ps",
+            "Unsupported docker run option: --privileged",
+            "No image in command: docker run --rm", "No value for -v"};
+        for (int i = 0; i < cmds.length; i++){
+            try {
+                runner.runCommandLineProcess(1, TimeUnit.SECONDS, stdOut, stdErr, cmds[i]);
+                fail("Expected CytoContainerException");
+            } catch(CytoContainerException cce){
+                assertEquals(errors[i], cce.getMessage());
+            }
+        }
+    }
+}
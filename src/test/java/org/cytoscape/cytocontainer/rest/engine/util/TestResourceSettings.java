@@ -0,0 +1,44 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestResourceSettings {
+
+    @Test
+    public void testParseMemory(){
+        assertEquals(0L, ResourceSettings.parseMemory(null));
+        assertEquals(0L, ResourceSettings.parseMemory(" "));
+        assertEquals(100L, ResourceSettings.parseMemory("100"));
+        assertEquals(100L, ResourceSettings.parseMemory("100b"));
+        assertEquals(2048L, ResourceSettings.parseMemory("2k"));
+        assertEquals(3L * 1024L * 1024L, ResourceSettings.parseMemory("3M"));
+        assertEquals(4L * 1024L * 1024L * 1024L, ResourceSettings.parseMemory(" 4g "));
+        for (String bad : new String[]{"lots", "g", "1.5g", "4t"}){
+            try {
+                ResourceSettings.parseMemory(bad);
+                fail("Expected IllegalArgumentException for " + bad);
+            } catch(IllegalArgumentException iae){
+                assertEquals("Invalid memory: " + bad, iae.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testGetDockerOptions(){
+        ResourceSettings rs = new ResourceSettings();
+        assertEquals(Collections.emptyList(), rs.getDockerOptions());
+        rs.setCpus(2);
+        assertEquals(Arrays.asList("--cpus", "2"), rs.getDockerOptions());
+        rs.setCpus(0.5);
+        rs.setMemory("1k");
+        assertEquals(Arrays.asList("--cpus", "0.5", "--memory", "1024"), rs.getDockerOptions());
+    }
+}
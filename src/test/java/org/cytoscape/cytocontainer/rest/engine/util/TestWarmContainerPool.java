@@ -0,0 +1,171 @@
+package org.cytoscape.cytocontainer.rest.engine.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestWarmContainerPool {
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private static StubDockerEngineServer.Handler getHandler(AtomicInteger counter){
+        return (req) -> {
+            if (req.path.endsWith("/images/foo:1.0/json")){
+                return new StubDockerEngineServer.Reply(200,
+                        "{\"Config\": {\"Entrypoint\": [\"/entry.sh\"]}}");
+            }
+            if (req.path.contains("/containers/create")){
+                return new StubDockerEngineServer.Reply(201,
+                        "{\"Id\": \"w" + counter.incrementAndGet() + "\"}");
+            }
+            return new StubDockerEngineServer.Reply(204, "");
+        };
+    }
+
+    private static void waitForIdle(WarmContainerPool pool, int idle) throws InterruptedException {
+        for (int i = 0; i < 500 && pool.getIdleContainers() != idle; i++){
+            Thread.sleep(10);
+        }
+        assertEquals(idle, pool.getIdleContainers());
+    }
+
+    @Test
+    public void testFillTakeRefillAndShutdown() throws Exception {
+        File tempDir = _folder.newFolder();
+        File socket = new File(tempDir, "d.sock");
+        File taskDir = _folder.newFolder();
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(),
+                getHandler(new AtomicInteger(0)))){
+            WarmContainerPool pool = new WarmContainerPool(
+                    new DockerEngineClient(socket.getAbsolutePath()), "my algo",
+                    "foo:1.0", taskDir.getAbsolutePath(), ":ro", 1, 2);
+            assertEquals("my algo", pool.getAlgorithm());
+            assertEquals(1, pool.getMinIdle());
+            assertEquals(2, pool.getMaxIdle());
+            assertEquals(0, pool.getIdleContainers());
+            pool.start();
+            waitForIdle(pool, 2);
+
+            // image is only inspected once
+            assertEquals(Arrays.asList("GET /v1.41/images/foo:1.0/json"),
+                    server.getRequestLines().subList(0, 1));
+            JsonNode spec = new ObjectMapper().readTree(server.getRequests().get(1).body);
+            assertEquals("foo:1.0", spec.get("Image").asText());
+            assertEquals("/bin/sh", spec.get("Entrypoint").get(0).asText());
+            File script = new File(spec.get("Entrypoint").get(1).asText());
+            assertEquals(WarmContainerPool.START_SCRIPT, script.getName());
+            assertEquals(new File(taskDir, WarmContainerPool.WARM_DIR),
+                    script.getParentFile().getParentFile());
+            assertTrue(script.getParentFile().getName().startsWith(
+                    WarmContainerPool.CONTAINER_NAME_PREFIX + "my_algo-"));
+            assertTrue(script.isFile());
+            assertEquals(0, spec.get("Cmd").size());
+            String dir = script.getParent();
+            assertEquals(dir + ":" + dir + ":ro",
+                    spec.get("HostConfig").get("Binds").get(0).asText());
+
+            // dropping below min refills to max
+            WarmContainerPool.WarmContainer wc = pool.take();
+            assertEquals("w1", wc.getId());
+            assertEquals(1, pool.getIdleContainers());
+            wc = pool.take();
+            assertEquals("w2", wc.getId());
+            waitForIdle(pool, 2);
+            assertEquals(2, pool.getHits());
+            assertEquals(0, pool.getMisses());
+
+            pool.release(wc);
+            assertFalse(wc.getDirectory().exists());
+
+            pool.shutdown();
+            assertEquals(0, pool.getIdleContainers());
+            assertNull(pool.take());
+            assertEquals(1, pool.getMisses());
+            assertTrue(server.getRequestLines().contains("DELETE /v1.41/containers/w3?force=1"));
+            assertTrue(server.getRequestLines().contains("DELETE /v1.41/containers/w4?force=1"));
+            assertEquals(1, new File(taskDir, WarmContainerPool.WARM_DIR).list().length);
+        }
+    }
+
+    @Test
+    public void testPrepareAndStartScript() throws Exception {
+        File tempDir = _folder.newFolder();
+        File socket = new File(tempDir, "d.sock");
+        File taskDir = _folder.newFolder();
+        File inputDir = _folder.newFolder();
+        FileUtils.writeStringToFile(new File(inputDir, "input.txt"), "hi", StandardCharsets.UTF_8);
+        try (StubDockerEngineServer server = new StubDockerEngineServer(socket.toPath(),
+                getHandler(new AtomicInteger(0)))){
+            WarmContainerPool pool = new WarmContainerPool(
+                    new DockerEngineClient(socket.getAbsolutePath()), "foo",
+                    "foo:1.0", taskDir.getAbsolutePath(), ":ro", 1, 1);
+            pool.start();
+            waitForIdle(pool, 1);
+            WarmContainerPool.WarmContainer wc = pool.take();
+            String bindDest = "/task/1";
+            pool.prepare(wc, Arrays.asList(inputDir.getAbsolutePath() + ":" + bindDest + ":ro"),
+                    Arrays.asList(bindDest + "/input.txt", "--flag", "a b", "/task/10"));
+            assertEquals("hi", FileUtils.readFileToString(new File(wc.getDirectory(), "input.txt"),
+                    StandardCharsets.UTF_8));
+            String dir = wc.getDirectory().getAbsolutePath();
+            assertEquals("/entry.sh\n" + dir + "/input.txt\n--flag\na b\n/task/10\n",
+                    FileUtils.readFileToString(new File(wc.getDirectory(), WarmContainerPool.ARGS_FILE),
+                            StandardCharsets.UTF_8));
+
+            try {
+                pool.prepare(wc, Arrays.asList("/a:/a"), Arrays.asList("x\ny"));
+                fail("Expected IOException");
+            } catch(IOException io){
+                assertEquals("Argument contains a newline: x\ny", io.getMessage());
+            }
+
+            // run start script the way the container would
+            FileUtils.writeLines(new File(wc.getDirectory(), WarmContainerPool.ARGS_FILE),
+                    StandardCharsets.UTF_8.name(), Arrays.asList("printf", "%s|", "a b", " c"), "\n");
+            Process p = new ProcessBuilder("/bin/sh", new File(wc.getDirectory(),
+                    WarmContainerPool.START_SCRIPT).getAbsolutePath()).start();
+            assertEquals("a b| c|", new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(0, p.waitFor());
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testStartupStatistics() throws Exception {
+        WarmContainerPool pool = new WarmContainerPool(
+                new DockerEngineClient(new File(_folder.newFolder(), "d.sock").getAbsolutePath()),
+                "foo", "foo:1.0", _folder.getRoot().getAbsolutePath(), null, 3, 1);
+        assertEquals(3, pool.getMaxIdle());
+        assertEquals(0, pool.getMeanWarmStartMillis());
+        assertEquals(0, pool.getMeanColdStartMillis());
+        assertEquals(0, pool.getStartupMillisSaved());
+        pool.recordStartup(true, 2000000L);
+        pool.recordStartup(true, 4000000L);
+        pool.recordStartup(false, 50000000L);
+        assertEquals(3, pool.getMeanWarmStartMillis());
+        assertEquals(50, pool.getMeanColdStartMillis());
+        // no socket so filling fails and pool stays empty
+        assertNull(pool.take());
+        assertNotNull(pool.getImage());
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,90 @@
+package org.cytoscape.cytocontainer.rest.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.cytoscape.cytocontainer.rest.engine.util.CommandLineRunnerImpl;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerAlgorithm;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestFakeContainer {
+    
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+    
+    @Test
+    public void testGetAlgorithm(){
+        CytoContainerAlgorithm cda = FakeContainer.getAlgorithm(100, 2048, 3);
+        assertEquals(FakeContainer.ALGORITHM_NAME, cda.getName());
+        assertEquals(FakeContainer.ALGORITHM_NAME, cda.getDockerImage());
+        assertEquals(3, cda.getHiddenParameters().size());
+        assertTrue(cda.getHiddenParameters().contains(FakeContainer.SLEEP_FLAG + "100"));
+        assertTrue(cda.getHiddenParameters().contains(FakeContainer.OUTPUT_SIZE_FLAG + "2048"));
+        assertTrue(cda.getHiddenParameters().contains(FakeContainer.STEPS_FLAG + "3"));
+    }
+    
+    @Test
+    public void testWriteAlgorithm() throws Exception {
+        File tempDir = _folder.newFolder();
+        File algoFile = FakeContainer.writeAlgorithm(tempDir, 10, 20, 2);
+        assertEquals(new File(tempDir, FakeContainer.ALGORITHM_NAME + ".json"), algoFile);
+        CytoContainerAlgorithm cda = new ObjectMapper().readValue(algoFile,
+                CytoContainerAlgorithm.class);
+        assertEquals(FakeContainer.ALGORITHM_NAME, cda.getName());
+        assertTrue(cda.getHiddenParameters().contains(FakeContainer.SLEEP_FLAG + "10"));
+    }
+    
+    @Test
+    public void testScriptRunLikeDocker() throws Exception {
+        File tempDir = _folder.newFolder();
+        File script = FakeContainer.extractScript(tempDir);
+        assertTrue(script.canExecute());
+        File inputFile = new File(tempDir, "input.txt");
+        FileUtils.writeStringToFile(inputFile, "hello", StandardCharsets.UTF_8);
+        File stdOut = new File(tempDir, "stdout.txt");
+        File stdErr = new File(tempDir, "stderr.txt");
+        
+        CommandLineRunnerImpl runner = new CommandLineRunnerImpl();
+        int eCode = runner.runCommandLineProcess(30, TimeUnit.SECONDS, stdOut, stdErr,
+                script.getAbsolutePath(), "run", "--rm", "-v",
+                tempDir.getAbsolutePath() + ":" + tempDir.getAbsolutePath() + ":ro",
+                FakeContainer.ALGORITHM_NAME, inputFile.getAbsolutePath(),
+                FakeContainer.SLEEP_FLAG + "20", FakeContainer.OUTPUT_SIZE_FLAG + "500",
+                FakeContainer.STEPS_FLAG + "2");
+        assertEquals(0, eCode);
+        assertEquals(500, stdOut.length());
+        JsonNode result = new ObjectMapper().readTree(stdOut);
+        assertTrue(result.get("result").asText().startsWith("xxx"));
+        
+        String stdErrStr = FileUtils.readFileToString(stdErr, StandardCharsets.UTF_8);
+        assertTrue(stdErrStr, stdErrStr.contains("read 5 bytes of input"));
+        assertTrue(stdErrStr, stdErrStr.contains("@@PROGRESS 50\n"));
+        assertTrue(stdErrStr, stdErrStr.contains("@@PROGRESS 100\n"));
+    }
+    
+    @Test
+    public void testScriptMissingInputFile() throws Exception {
+        File tempDir = _folder.newFolder();
+        File script = FakeContainer.extractScript(tempDir);
+        File stdOut = new File(tempDir, "stdout.txt");
+        File stdErr = new File(tempDir, "stderr.txt");
+        
+        CommandLineRunnerImpl runner = new CommandLineRunnerImpl();
+        int eCode = runner.runCommandLineProcess(30, TimeUnit.SECONDS, stdOut, stdErr,
+                script.getAbsolutePath(), "run", "--rm", "-v", "/foo:/foo",
+                FakeContainer.ALGORITHM_NAME, new File(tempDir, "nope").getAbsolutePath());
+        assertEquals(2, eCode);
+        assertEquals(0, stdOut.length());
+    }
+}
@@ -0,0 +1,51 @@
+package org.cytoscape.cytocontainer.rest.loadtest;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestLatencyRecorder {
+    
+    @Test
+    public void testNothingRecorded(){
+        LatencyRecorder lr = new LatencyRecorder();
+        assertEquals(0, lr.getCount());
+        assertEquals(0, lr.getErrors());
+        assertEquals(0, lr.getPercentile(50));
+        assertEquals(0, lr.getPercentile(99));
+        assertEquals(0, lr.getMax());
+        assertEquals(0, lr.getMean());
+    }
+    
+    @Test
+    public void testSingleSample(){
+        LatencyRecorder lr = new LatencyRecorder();
+        lr.record(5);
+        assertEquals(1, lr.getCount());
+        assertEquals(5, lr.getPercentile(0));
+        assertEquals(5, lr.getPercentile(50));
+        assertEquals(5, lr.getPercentile(100));
+        assertEquals(5, lr.getMax());
+        assertEquals(5, lr.getMean());
+    }
+    
+    @Test
+    public void testPercentilesUnorderedSamplesBeyondInitialCapacity(){
+        LatencyRecorder lr = new LatencyRecorder();
+        for (int i = 2000; i >= 1; i--){
+            lr.record(i);
+        }
+        lr.recordError();
+        lr.recordError();
+        assertEquals(2000, lr.getCount());
+        assertEquals(2, lr.getErrors());
+        assertEquals(1000, lr.getPercentile(50));
+        assertEquals(1980, lr.getPercentile(99));
+        assertEquals(2000, lr.getPercentile(100));
+        assertEquals(2000, lr.getMax());
+        assertEquals(1000, lr.getMean());
+    }
+}
@@ -0,0 +1,71 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author churas
+ */
+public class TestByteRange {
+    
+    @Test
+    public void testParseIgnoredValues(){
+        assertNull(ByteRange.parse(null, 10));
+        assertNull(ByteRange.parse("", 10));
+        assertNull(ByteRange.parse("items=0-5", 10));
+        assertNull(ByteRange.parse("bytes=0-1,4-5", 10));
+        assertNull(ByteRange.parse("bytes=abc", 10));
+        assertNull(ByteRange.parse("bytes=a-5", 10));
+        assertNull(ByteRange.parse("bytes=5-2", 10));
+    }
+    
+    @Test
+    public void testParseStartAndEnd(){
+        ByteRange br = ByteRange.parse("bytes=2-5", 10);
+        assertTrue(br.isSatisfiable());
+        assertEquals(2, br.getStart());
+        assertEquals(5, br.getEnd());
+        assertEquals(4, br.getContentLength());
+        assertEquals("bytes 2-5/10", br.getContentRange());
+        
+        // end past end of resource is truncated
+        br = ByteRange.parse("bytes=8-100", 10);
+        assertEquals(8, br.getStart());
+        assertEquals(9, br.getEnd());
+        assertEquals(2, br.getContentLength());
+    }
+    
+    @Test
+    public void testParseOpenEnded(){
+        ByteRange br = ByteRange.parse("bytes=3-", 10);
+        assertTrue(br.isSatisfiable());
+        assertEquals(3, br.getStart());
+        assertEquals(9, br.getEnd());
+        assertEquals(7, br.getContentLength());
+    }
+    
+    @Test
+    public void testParseSuffix(){
+        ByteRange br = ByteRange.parse("bytes=-4", 10);
+        assertEquals(6, br.getStart());
+        assertEquals(9, br.getEnd());
+        
+        br = ByteRange.parse("bytes=-40", 10);
+        assertEquals(0, br.getStart());
+        assertEquals(9, br.getEnd());
+        
+        br = ByteRange.parse("bytes=-0", 10);
+        assertFalse(br.isSatisfiable());
+    }
+    
+    @Test
+    public void testParseNotSatisfiable(){
+        ByteRange br = ByteRange.parse("bytes=10-", 10);
+        assertFalse(br.isSatisfiable());
+        assertEquals("bytes */10", br.getContentRange());
+    }
+}
@@ -0,0 +1,317 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.notNull;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import org.jboss.resteasy.core.SynchronousDispatcher;
+import org.jboss.resteasy.core.SynchronousExecutionContext;
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.cytoscape.cytocontainer.rest.engine.CytoContainerEngine;
+import org.cytoscape.cytocontainer.rest.engine.ResultDataFile;
+import org.cytoscape.cytocontainer.rest.engine.util.SpooledCytoContainerRequest;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResult;
+import org.cytoscape.cytocontainer.rest.model.CytoContainerResultStatus;
+import org.cytoscape.cytocontainer.rest.model.ServerStatus;
+
+/**
+ *
+ * @author churas
+ */
+public class TestContentEncodingInterceptor {
+
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+
+	@After
+	public void tearDown(){
+		try {
+			Configuration.getInstance().setCytoContainerEngine(null);
+		} catch(Exception ex){
+			ex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Creates Dispatcher with Status and CytoContainer services and
+	 * interceptor passed in
+	 * @param interceptor the interceptor
+	 * @return dispatcher
+	 */
+	public Dispatcher getDispatcher(ContentEncodingInterceptor interceptor){
+		Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+		dispatcher.getProviderFactory().registerProviderInstance(interceptor);
+		dispatcher.getRegistry().addSingletonResource(new Status());
+		dispatcher.getRegistry().addSingletonResource(new CytoContainer());
+		return dispatcher;
+	}
+
+	/**
+	 * Writes configuration with task directory set to {@code tempDir}
+	 * and sets mock engine returning a status
+	 * @param tempDir the temp directory
+	 * @return mock engine
+	 */
+	private CytoContainerEngine setupStatusEngine(File tempDir) throws Exception {
+		File confFile = new File(tempDir.getAbsolutePath() + File.separator + "foo.conf");
+		try (FileWriter fw = new FileWriter(confFile)){
+			fw.write(Configuration.TASK_DIR + " = " + tempDir.getAbsolutePath() + "\n");
+		}
+		Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+		ServerStatus sObj = new ServerStatus();
+		sObj.setStatus(ServerStatus.OK_STATUS);
+		sObj.setVersion("1.0.0");
+		CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+		expect(mockEngine.getServerStatus("")).andReturn(sObj);
+		replay(mockEngine);
+		Configuration.getInstance().setCytoContainerEngine(mockEngine);
+		return mockEngine;
+	}
+
+	@Test
+	public void testIsGzipAccepted(){
+		assertFalse(ContentEncodingInterceptor.isGzipAccepted(null));
+		assertFalse(ContentEncodingInterceptor.isGzipAccepted(""));
+		assertFalse(ContentEncodingInterceptor.isGzipAccepted("br, deflate"));
+		assertFalse(ContentEncodingInterceptor.isGzipAccepted("gzip;q=0"));
+		assertFalse(ContentEncodingInterceptor.isGzipAccepted("*, gzip;q=0"));
+		assertFalse(ContentEncodingInterceptor.isGzipAccepted("*;q=0"));
+		assertTrue(ContentEncodingInterceptor.isGzipAccepted("gzip"));
+		assertTrue(ContentEncodingInterceptor.isGzipAccepted("GZIP"));
+		assertTrue(ContentEncodingInterceptor.isGzipAccepted("x-gzip"));
+		assertTrue(ContentEncodingInterceptor.isGzipAccepted("deflate, gzip;q=0.5"));
+		assertTrue(ContentEncodingInterceptor.isGzipAccepted("br;q=1.0, *;q=0.1"));
+	}
+
+	@Test
+	public void testResponseCompressed() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			CytoContainerEngine mockEngine = setupStatusEngine(tempDir);
+			Dispatcher dispatcher = getDispatcher(new ContentEncodingInterceptor(true, 9, 10));
+			long compressedResponses = ContentEncodingInterceptor.getStatistics().getCompressedResponses();
+
+			MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH + Status.STATUS_PATH);
+			request.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+			MockHttpResponse response = new MockHttpResponse();
+			dispatcher.invoke(request, response);
+
+			assertEquals(200, response.getStatus());
+			assertEquals(CompressingOutputStream.GZIP,
+					response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+			assertEquals(HttpHeaders.ACCEPT_ENCODING,
+					response.getOutputHeaders().getFirst(ContentEncodingInterceptor.VARY));
+			try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getOutput()))){
+				ObjectMapper mapper = new ObjectMapper();
+				ServerStatus res = mapper.readValue(in, ServerStatus.class);
+				assertEquals("1.0.0", res.getVersion());
+			}
+			assertEquals(compressedResponses + 1,
+					ContentEncodingInterceptor.getStatistics().getCompressedResponses());
+			verify(mockEngine);
+		} finally {
+			_folder.delete();
+		}
+	}
+
+	@Test
+	public void testResponseBelowMinSizeNotCompressed() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			CytoContainerEngine mockEngine = setupStatusEngine(tempDir);
+			Dispatcher dispatcher = getDispatcher(new ContentEncodingInterceptor(true, 6, 1000000));
+
+			MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH + Status.STATUS_PATH);
+			request.header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+			MockHttpResponse response = new MockHttpResponse();
+			dispatcher.invoke(request, response);
+
+			assertEquals(200, response.getStatus());
+			assertNull(response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+			assertEquals(HttpHeaders.ACCEPT_ENCODING,
+					response.getOutputHeaders().getFirst(ContentEncodingInterceptor.VARY));
+			ObjectMapper mapper = new ObjectMapper();
+			ServerStatus res = mapper.readValue(response.getOutput(), ServerStatus.class);
+			assertEquals("1.0.0", res.getVersion());
+			verify(mockEngine);
+		} finally {
+			_folder.delete();
+		}
+	}
+
+	@Test
+	public void testResultDataWithAcceptRangesNotCompressed() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			File confFile = new File(tempDir.getAbsolutePath() + File.separator + "foo.conf");
+			try (FileWriter fw = new FileWriter(confFile)){
+				fw.write(Configuration.TASK_DIR + " = " + tempDir.getAbsolutePath() + "\n");
+			}
+			Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+			File dataFile = new File(tempDir, "stdout.txt");
+			String data = "x".repeat(4096);
+			Files.write(dataFile.toPath(), data.getBytes(StandardCharsets.UTF_8));
+			CytoContainerResultStatus eqs = new CytoContainerResultStatus();
+			eqs.setStatus(CytoContainerResult.COMPLETE_STATUS);
+			CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+			expect(mockEngine.getStatus("algo", "12345")).andReturn(eqs);
+			expect(mockEngine.getResultDataFile("algo", "12345"))
+					.andReturn(new ResultDataFile(dataFile, MediaType.TEXT_PLAIN));
+			replay(mockEngine);
+			Configuration.getInstance().setCytoContainerEngine(mockEngine);
+			Dispatcher dispatcher = getDispatcher(new ContentEncodingInterceptor(true, 6, 10));
+
+			MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH
+					+ "/algo/12345/data?waitMs=0");
+			request.header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+			MockHttpResponse response = new MockHttpResponse();
+			request.setAsynchronousContext(new SynchronousExecutionContext(
+					(SynchronousDispatcher)dispatcher, request, response));
+			dispatcher.invoke(request, response);
+
+			assertEquals(200, response.getStatus());
+			assertNull(response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+			assertEquals("bytes", response.getOutputHeaders().getFirst(CytoContainer.ACCEPT_RANGES));
+			assertEquals(data, response.getContentAsString());
+			verify(mockEngine);
+		} finally {
+			_folder.delete();
+		}
+	}
+
+	@Test
+	public void testResponseNotCompressedWhenNotAccepted() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			CytoContainerEngine mockEngine = setupStatusEngine(tempDir);
+			Dispatcher dispatcher = getDispatcher(new ContentEncodingInterceptor(true, 6, 0));
+
+			MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH + Status.STATUS_PATH);
+			MockHttpResponse response = new MockHttpResponse();
+			dispatcher.invoke(request, response);
+
+			assertEquals(200, response.getStatus());
+			assertNull(response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+			ObjectMapper mapper = new ObjectMapper();
+			ServerStatus res = mapper.readValue(response.getOutput(), ServerStatus.class);
+			assertEquals("1.0.0", res.getVersion());
+			verify(mockEngine);
+		} finally {
+			_folder.delete();
+		}
+	}
+
+	@Test
+	public void testResponseNotCompressedWhenDisabled() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			CytoContainerEngine mockEngine = setupStatusEngine(tempDir);
+			Dispatcher dispatcher = getDispatcher(new ContentEncodingInterceptor(false, 6, 0));
+
+			MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH + Status.STATUS_PATH);
+			request.header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+			MockHttpResponse response = new MockHttpResponse();
+			dispatcher.invoke(request, response);
+
+			assertEquals(200, response.getStatus());
+			assertNull(response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+			assertNull(response.getOutputHeaders().getFirst(ContentEncodingInterceptor.VARY));
+			verify(mockEngine);
+		} finally {
+			_folder.delete();
+		}
+	}
+
+	@Test
+	public void testCompressedRequest() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			File confFile = new File(tempDir.getAbsolutePath() + File.separator + "foo.conf");
+			try (FileWriter fw = new FileWriter(confFile)){
+				fw.write(Configuration.TASK_DIR + " = " + tempDir.getAbsolutePath() + "\n");
+			}
+			Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+			Dispatcher dispatcher = getDispatcher(new ContentEncodingInterceptor(true, 6, 1024));
+			long decompressedRequests = ContentEncodingInterceptor.getStatistics().getDecompressedRequests();
+
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			try (GZIPOutputStream gzip = new GZIPOutputStream(bos)){
+				gzip.write("{\"data\": {\"a\": [1, 2]}}".getBytes(StandardCharsets.UTF_8));
+			}
+			MockHttpRequest request = MockHttpRequest.post(Configuration.V_ONE_PATH + "/algo");
+			request.contentType(MediaType.APPLICATION_JSON);
+			request.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+			request.content(bos.toByteArray());
+
+			CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+			mockEngine.reserve(eq("algo"));
+			expect(mockEngine.request(eq("algo"), notNull(), eq(true))).andAnswer(() -> {
+				SpooledCytoContainerRequest req = (SpooledCytoContainerRequest)getCurrentArguments()[1];
+				assertEquals("{\"a\":[1,2]}", Files.readString(req.getDataFile().toPath()));
+				return "12345";
+			});
+			replay(mockEngine);
+			Configuration.getInstance().setCytoContainerEngine(mockEngine);
+
+			MockHttpResponse response = new MockHttpResponse();
+			dispatcher.invoke(request, response);
+			assertEquals(202, response.getStatus());
+			assertEquals(decompressedRequests + 1,
+					ContentEncodingInterceptor.getStatistics().getDecompressedRequests());
+			verify(mockEngine);
+		} finally {
+			_folder.delete();
+		}
+	}
+
+	@Test
+	public void testRequestWithUnsupportedEncoding() throws Exception {
+		try {
+			File tempDir = _folder.newFolder();
+			File confFile = new File(tempDir.getAbsolutePath() + File.separator + "foo.conf");
+			try (FileWriter fw = new FileWriter(confFile)){
+				fw.write(Configuration.TASK_DIR + " = " + tempDir.getAbsolutePath() + "\n");
+			}
+			Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+			Dispatcher dispatcher = getDispatcher(new ContentEncodingInterceptor(true, 6, 1024));
+
+			MockHttpRequest request = MockHttpRequest.post(Configuration.V_ONE_PATH + "/algo");
+			request.contentType(MediaType.APPLICATION_JSON);
+			request.header(HttpHeaders.CONTENT_ENCODING, "br");
+			request.content("{\"data\": 1}".getBytes(StandardCharsets.UTF_8));
+
+			CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+			replay(mockEngine);
+			Configuration.getInstance().setCytoContainerEngine(mockEngine);
+
+			MockHttpResponse response = new MockHttpResponse();
+			dispatcher.invoke(request, response);
+			assertEquals(415, response.getStatus());
+			verify(mockEngine);
+		} finally {
+			_folder.delete();
+		}
+	}
+}
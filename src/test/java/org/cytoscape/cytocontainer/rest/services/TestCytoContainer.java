@@ -2,23 +2,39 @@ package org.cytoscape.cytocontainer.rest.services;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.MultivaluedMap;
 import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.notNull;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import org.jboss.resteasy.core.SynchronousDispatcher;
+import org.jboss.resteasy.core.SynchronousExecutionContext;
 import org.jboss.resteasy.spi.Dispatcher;
 import org.jboss.resteasy.mock.MockDispatcherFactory;
 import org.jboss.resteasy.mock.MockHttpRequest;
 import org.jboss.resteasy.mock.MockHttpResponse;
 import org.junit.After;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -30,6 +46,12 @@ import org.cytoscape.cytocontainer.rest.model.CytoContainerRequestId;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerBadRequestException;
 import org.cytoscape.cytocontainer.rest.model.exceptions.CytoContainerException;
 import org.cytoscape.cytocontainer.rest.engine.CytoContainerEngine;
+import org.cytoscape.cytocontainer.rest.engine.CytoContainerQueueFullException;
+import org.cytoscape.cytocontainer.rest.engine.ResultDataFile;
+import org.cytoscape.cytocontainer.rest.engine.TaskFileCompressor;
+import org.cytoscape.cytocontainer.rest.engine.TaskStatusSubscriber;
+import org.cytoscape.cytocontainer.rest.engine.util.CytoContainerRequestSpooler;
+import org.cytoscape.cytocontainer.rest.engine.util.SpooledCytoContainerRequest;
 
 /**
  *
@@ -59,6 +81,20 @@ public class TestCytoContainer {
 		return dispatcher;
 	}
 	
+	/**
+	 * Invokes request on endpoints that suspend the request via
+	 * {@link jakarta.ws.rs.container.AsyncResponse}
+	 * @param dispatcher the dispatcher
+	 * @param request the request
+	 * @param response the response
+	 */
+	public void invokeAsync(Dispatcher dispatcher, MockHttpRequest request,
+			MockHttpResponse response){
+		request.setAsynchronousContext(new SynchronousExecutionContext(
+				(SynchronousDispatcher)dispatcher, request, response));
+		dispatcher.invoke(request, response);
+	}
+	
 	/**
 	 * Creates basic configuration with task directory set to full path
 	 * of tempDir passed in
@@ -129,7 +165,8 @@ public class TestCytoContainer {
             
             // create mock enrichment engine that returns null
             CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
-            expect(mockEngine.request(notNull(), notNull())).andThrow(new CytoContainerException("some error"));
+            mockEngine.reserve(notNull());
+            expect(mockEngine.request(notNull(), notNull(), eq(true))).andThrow(new CytoContainerException("some error"));
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
@@ -167,7 +204,8 @@ public class TestCytoContainer {
             
             // create mock enrichment engine that returns null
             CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
-            expect(mockEngine.request(notNull(), notNull())).andThrow(new CytoContainerBadRequestException("some error"));
+            mockEngine.reserve(notNull());
+            expect(mockEngine.request(notNull(), notNull(), eq(true))).andThrow(new CytoContainerBadRequestException("some error"));
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
@@ -207,7 +245,8 @@ public class TestCytoContainer {
             CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
             ErrorResponse xer = new ErrorResponse();
             xer.setMessage("hello");
-            expect(mockEngine.request(notNull(), notNull())).andThrow(new CytoContainerBadRequestException("some error", xer));
+            mockEngine.reserve(notNull());
+            expect(mockEngine.request(notNull(), notNull(), eq(true))).andThrow(new CytoContainerBadRequestException("some error", xer));
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
@@ -225,6 +264,44 @@ public class TestCytoContainer {
         }
     }
     
+    @Test
+    public void testRequestWhereQueueIsFull() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+
+            MockHttpRequest request = MockHttpRequest.post(Configuration.V_ONE_PATH + "/algo");
+            CytoContainerRequest query = new CytoContainerRequest();
+            ObjectMapper omappy = new ObjectMapper();
+            request.contentType(MediaType.APPLICATION_JSON);
+            
+            request.content(omappy.writeValueAsBytes(query));
+
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            mockEngine.reserve("algo");
+            expectLastCall().andThrow(new CytoContainerQueueFullException("queue full", 42));
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            dispatcher.invoke(request, response);
+            assertEquals(429, response.getStatus());
+            assertEquals("42", response.getOutputHeaders().getFirst("Retry-After"));
+            ObjectMapper mapper = new ObjectMapper();
+            ErrorResponse er = mapper.readValue(response.getOutput(),
+                    ErrorResponse.class);
+            assertEquals("Too many tasks queued, try again later", er.getMessage());
+            assertEquals("queue full", er.getDescription());
+            verify(mockEngine);
+
+        } finally {
+            _folder.delete();
+        }
+    }
+    
     @Test
     public void testRequestWhereQueryReturnsNull() throws Exception {
         try {
@@ -245,7 +322,8 @@ public class TestCytoContainer {
             
             // create mock enrichment engine that returns null
             CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
-            expect(mockEngine.request(notNull(), notNull())).andReturn(null);
+            mockEngine.reserve(notNull());
+            expect(mockEngine.request(notNull(), notNull(), eq(true))).andReturn(null);
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
@@ -283,7 +361,8 @@ public class TestCytoContainer {
             
             // create mock enrichment engine that returns null
             CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
-            expect(mockEngine.request(notNull(), notNull())).andReturn("12345");
+            mockEngine.reserve(notNull());
+            expect(mockEngine.request(notNull(), notNull(), eq(true))).andReturn("12345");
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
@@ -303,6 +382,80 @@ public class TestCytoContainer {
         }
     }
     
+    @Test
+    public void testRequestWhereQuerySuccessDataSpooled() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+
+            MockHttpRequest request = MockHttpRequest.post(Configuration.V_ONE_PATH + "/algo");
+            request.contentType(MediaType.APPLICATION_JSON);
+            request.content("{\"parameters\": {\"--foo\": \"1\"}, \"data\": {\"a\": [1, 2]}}"
+                    .getBytes(StandardCharsets.UTF_8));
+
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            mockEngine.reserve(eq("algo"));
+            expect(mockEngine.request(eq("algo"), notNull(), eq(true))).andAnswer(() -> {
+                SpooledCytoContainerRequest req = (SpooledCytoContainerRequest)getCurrentArguments()[1];
+                assertEquals("1", req.getParameters().get("--foo"));
+                assertTrue(req.hasData());
+                assertEquals("{\"a\":[1,2]}", Files.readString(req.getDataFile().toPath()));
+                return "12345";
+            });
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            dispatcher.invoke(request, response);
+            assertEquals(202, response.getStatus());
+            verify(mockEngine);
+            
+            // spooled data not used by engine should be removed
+            File[] spoolFiles = tempDir.listFiles((dir, name) -> 
+                    name.startsWith(CytoContainerRequestSpooler.SPOOL_FILE_PREFIX));
+            assertEquals(0, spoolFiles.length);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testRequestWhereQueryIsNotJson() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+
+            MockHttpRequest request = MockHttpRequest.post(Configuration.V_ONE_PATH + "/algo");
+            request.contentType(MediaType.APPLICATION_JSON);
+            request.content("{\"data\": [1, ".getBytes(StandardCharsets.UTF_8));
+
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            // spot reserved before body is read is released
+            mockEngine.reserve("algo");
+            mockEngine.releaseReservation("algo");
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            dispatcher.invoke(request, response);
+            assertEquals(400, response.getStatus());
+            ObjectMapper mapper = new ObjectMapper();
+            ErrorResponse er = mapper.readValue(response.getOutput(),
+                    ErrorResponse.class);
+            assertEquals("Bad request received", er.getMessage());
+            assertTrue(er.getDescription().startsWith("Unable to parse request: "));
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
         @Test
     public void testRequestWhereQuerySuccessAndHostURLSet() throws Exception {
         try {
@@ -327,7 +480,8 @@ public class TestCytoContainer {
             
             // create mock enrichment engine that returns null
             CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
-            expect(mockEngine.request(notNull(), notNull())).andReturn("12345");
+            mockEngine.reserve(notNull());
+            expect(mockEngine.request(notNull(), notNull(), eq(true))).andReturn("12345");
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
@@ -360,7 +514,7 @@ public class TestCytoContainer {
             MockHttpResponse response = new MockHttpResponse();
             Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
             Configuration.getInstance().setCytoContainerEngine(null);
-            dispatcher.invoke(request, response);
+            invokeAsync(dispatcher, request, response);
             assertEquals(500, response.getStatus());
             ObjectMapper mapper = new ObjectMapper();
             ErrorResponse er = mapper.readValue(response.getOutput(),
@@ -387,11 +541,12 @@ public class TestCytoContainer {
             
             // create mock enrichment engine that returns null
             CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            expect(mockEngine.getResultFile("algo","12345")).andReturn(null);
             expect(mockEngine.getResult("algo","12345")).andReturn(null);
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
-            dispatcher.invoke(request, response);
+            invokeAsync(dispatcher, request, response);
             assertEquals(400, response.getStatus());
             verify(mockEngine);
         } finally {
@@ -417,11 +572,12 @@ public class TestCytoContainer {
             CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
             CytoContainerResult eqr = new CytoContainerResult();
             eqr.setMessage("hi");
+            expect(mockEngine.getResultFile("algo","12345")).andReturn(null);
             expect(mockEngine.getResult("algo","12345")).andReturn(eqr);
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
-            dispatcher.invoke(request, response);
+            invokeAsync(dispatcher, request, response);
             assertEquals(200, response.getStatus());
             ObjectMapper mapper = new ObjectMapper();
             CytoContainerResult res = mapper.readValue(response.getOutput(),
@@ -433,6 +589,48 @@ public class TestCytoContainer {
         }
     }
     
+    @Test
+    public void testGetWhereResultFileExists() throws Exception {
+
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345");
+
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerResult eqr = new CytoContainerResult();
+            eqr.setId("12345");
+            eqr.setMessage("from file");
+            eqr.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            ObjectMapper mapper = new ObjectMapper();
+            File resultFile = new File(tempDir, "cdresult.json");
+            mapper.writeValue(resultFile, eqr);
+            
+            // getResult() should not be called
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            expect(mockEngine.getResultFile("algo","12345")).andReturn(resultFile);
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            invokeAsync(dispatcher, request, response);
+            assertEquals(200, response.getStatus());
+            assertEquals(Long.toString(resultFile.length()),
+                    response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_LENGTH).toString());
+            CytoContainerResult res = mapper.readValue(response.getOutput(),
+                    CytoContainerResult.class);
+            assertEquals("12345", res.getId());
+            assertEquals("from file", res.getMessage());
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
     @Test
     public void testGetAlgorithmsWhereCytoContainerEngineNotLoaded() throws Exception {
 
@@ -474,7 +672,7 @@ public class TestCytoContainer {
             Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
             Configuration.getInstance().setCytoContainerEngine(null);
 
-            dispatcher.invoke(request, response);
+            invokeAsync(dispatcher, request, response);
             assertEquals(500, response.getStatus());
             ObjectMapper mapper = new ObjectMapper();
             ErrorResponse er = mapper.readValue(response.getOutput(),
@@ -505,7 +703,7 @@ public class TestCytoContainer {
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
-            dispatcher.invoke(request, response);
+            invokeAsync(dispatcher, request, response);
             assertEquals(400, response.getStatus());
             verify(mockEngine);
         } finally {
@@ -535,7 +733,51 @@ public class TestCytoContainer {
             replay(mockEngine);
             Configuration.getInstance().setCytoContainerEngine(mockEngine);
             
-            dispatcher.invoke(request, response);
+            invokeAsync(dispatcher, request, response);
+            assertEquals(200, response.getStatus());
+            ObjectMapper mapper = new ObjectMapper();
+            CytoContainerResultStatus res = mapper.readValue(response.getOutput(),
+                    CytoContainerResultStatus.class);
+            assertEquals(55, res.getProgress());
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetStatusWithWaitMsResumedOnStatusChange() throws Exception {
+
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/status?waitMs=5000");
+
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            CytoContainerResultStatus initial = new CytoContainerResultStatus();
+            initial.setProgress(10);
+            CytoContainerResultStatus updated = new CytoContainerResultStatus();
+            updated.setProgress(55);
+            mockEngine.subscribe(eq("algo"), eq("12345"), notNull());
+            expectLastCall().andAnswer(() -> {
+                TaskStatusSubscriber sub = (TaskStatusSubscriber)getCurrentArguments()[2];
+                assertTrue(sub.statusUpdated(initial));
+                assertTrue(sub.statusUpdated(initial));
+                assertFalse(sub.statusUpdated(updated));
+                assertFalse(sub.isOpen());
+                return null;
+            });
+            expect(mockEngine.getStatus("algo","12345")).andReturn(updated);
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            invokeAsync(dispatcher, request, response);
             assertEquals(200, response.getStatus());
             ObjectMapper mapper = new ObjectMapper();
             CytoContainerResultStatus res = mapper.readValue(response.getOutput(),
@@ -547,6 +789,305 @@ public class TestCytoContainer {
         }
     }
     
+    @Test
+    public void testGetStatusWithWaitMsTaskNotFound() throws Exception {
+
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/status?waitMs=5000");
+
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            mockEngine.subscribe(eq("algo"), eq("12345"), notNull());
+            expectLastCall().andThrow(new CytoContainerBadRequestException("No task with id of 12345 found"));
+            expect(mockEngine.getStatus("algo","12345"))
+                    .andThrow(new CytoContainerBadRequestException("No task with id of 12345 found"));
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            invokeAsync(dispatcher, request, response);
+            assertEquals(400, response.getStatus());
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultDataTaskComplete() throws Exception {
+
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/data");
+
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            CytoContainerResultStatus eqs = new CytoContainerResultStatus();
+            eqs.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            eqs.setProgress(100);
+            mockEngine.subscribe(eq("algo"), eq("12345"), notNull());
+            expectLastCall().andAnswer(() -> {
+                TaskStatusSubscriber sub = (TaskStatusSubscriber)getCurrentArguments()[2];
+                assertFalse(sub.statusUpdated(eqs));
+                sub.close();
+                return null;
+            });
+            expect(mockEngine.getStatus("algo","12345")).andReturn(eqs);
+            File dataFile = new File(tempDir, "stdout.txt");
+            try (FileWriter fw = new FileWriter(dataFile)){
+                fw.write("hello");
+            }
+            expect(mockEngine.getResultDataFile("algo", "12345"))
+                    .andReturn(new ResultDataFile(dataFile, MediaType.TEXT_PLAIN));
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            invokeAsync(dispatcher, request, response);
+            assertEquals(200, response.getStatus());
+            assertEquals("hello", response.getContentAsString());
+            assertEquals("5", response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_LENGTH).toString());
+            assertEquals("bytes", response.getOutputHeaders().getFirst(CytoContainer.ACCEPT_RANGES));
+            assertTrue(response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_TYPE)
+                    .toString().startsWith(MediaType.TEXT_PLAIN));
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultDataWithRange() throws Exception {
+
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            File dataFile = new File(tempDir, "stdout.txt");
+            try (FileWriter fw = new FileWriter(dataFile)){
+                fw.write("0123456789");
+            }
+            CytoContainerResultStatus eqs = new CytoContainerResultStatus();
+            eqs.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            eqs.setProgress(100);
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            expect(mockEngine.getStatus("algo","12345")).andReturn(eqs).times(2);
+            expect(mockEngine.getResultDataFile("algo", "12345"))
+                    .andReturn(new ResultDataFile(dataFile, MediaType.APPLICATION_OCTET_STREAM)).times(2);
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/data?waitMs=0");
+            request.header(CytoContainer.RANGE, "bytes=2-5");
+            MockHttpResponse response = new MockHttpResponse();
+            invokeAsync(dispatcher, request, response);
+            assertEquals(206, response.getStatus());
+            assertEquals("2345", response.getContentAsString());
+            assertEquals("bytes 2-5/10", response.getOutputHeaders().getFirst(CytoContainer.CONTENT_RANGE));
+            assertEquals("4", response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_LENGTH).toString());
+            
+            request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/data?waitMs=0");
+            request.header(CytoContainer.RANGE, "bytes=20-");
+            response = new MockHttpResponse();
+            invokeAsync(dispatcher, request, response);
+            assertEquals(416, response.getStatus());
+            assertEquals("bytes */10", response.getOutputHeaders().getFirst(CytoContainer.CONTENT_RANGE));
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultDataCompressed() throws Exception {
+
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            File dataFile = new File(tempDir, "stdout.txt.gz");
+            try (GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(dataFile))){
+                out.write("0123456789".getBytes(StandardCharsets.UTF_8));
+            }
+            CytoContainerResultStatus eqs = new CytoContainerResultStatus();
+            eqs.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            eqs.setProgress(100);
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            expect(mockEngine.getStatus("algo","12345")).andReturn(eqs).times(2);
+            expect(mockEngine.getResultDataFile("algo", "12345"))
+                    .andReturn(new ResultDataFile(dataFile, MediaType.TEXT_PLAIN,
+                            TaskFileCompressor.GZIP_ENCODING)).times(2);
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            // client accepting gzip gets file as is
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/data?waitMs=0");
+            request.header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            MockHttpResponse response = new MockHttpResponse();
+            invokeAsync(dispatcher, request, response);
+            assertEquals(200, response.getStatus());
+            assertEquals("gzip", response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            assertEquals(Long.toString(dataFile.length()),
+                    response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_LENGTH).toString());
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getOutput()))){
+                assertEquals("0123456789", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            
+            // range ignored and data decompressed for other clients
+            request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/data?waitMs=0");
+            request.header(CytoContainer.RANGE, "bytes=2-5");
+            response = new MockHttpResponse();
+            invokeAsync(dispatcher, request, response);
+            assertEquals(200, response.getStatus());
+            assertEquals("0123456789", response.getContentAsString());
+            assertNull(response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            assertEquals("none", response.getOutputHeaders().getFirst(CytoContainer.ACCEPT_RANGES));
+            assertEquals(HttpHeaders.ACCEPT_ENCODING,
+                    response.getOutputHeaders().getFirst(ContentEncodingInterceptor.VARY));
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultDataCompressedAfterLookup() throws Exception {
+
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            // engine found the uncompressed file, but it was compressed
+            // and removed before the response was built
+            File dataFile = new File(tempDir, "stdout.txt");
+            try (GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(
+                    TaskFileCompressor.getCompressedFile(dataFile)))){
+                out.write("0123456789".getBytes(StandardCharsets.UTF_8));
+            }
+            CytoContainerResultStatus eqs = new CytoContainerResultStatus();
+            eqs.setStatus(CytoContainerResult.COMPLETE_STATUS);
+            eqs.setProgress(100);
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            expect(mockEngine.getStatus("algo","12345")).andReturn(eqs).times(2);
+            expect(mockEngine.getResultDataFile("algo", "12345"))
+                    .andReturn(new ResultDataFile(dataFile, MediaType.TEXT_PLAIN)).times(2);
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/data?waitMs=0");
+            request.header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            MockHttpResponse response = new MockHttpResponse();
+            invokeAsync(dispatcher, request, response);
+            assertEquals(200, response.getStatus());
+            assertEquals("gzip", response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getOutput()))){
+                assertEquals("0123456789", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            
+            request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/data?waitMs=0");
+            response = new MockHttpResponse();
+            invokeAsync(dispatcher, request, response);
+            assertEquals(200, response.getStatus());
+            assertEquals("0123456789", response.getContentAsString());
+            assertNull(response.getOutputHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultDataTaskNotFinished() throws Exception {
+
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/data?waitMs=0");
+
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            CytoContainerResultStatus eqs = new CytoContainerResultStatus();
+            eqs.setStatus(CytoContainerResult.PROCESSING_STATUS);
+            eqs.setProgress(20);
+            expect(mockEngine.getStatus("algo","12345")).andReturn(eqs);
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            invokeAsync(dispatcher, request, response);
+            assertEquals(202, response.getStatus());
+            ObjectMapper mapper = new ObjectMapper();
+            CytoContainerResultStatus res = mapper.readValue(response.getOutput(),
+                    CytoContainerResultStatus.class);
+            assertEquals(20, res.getProgress());
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetResultDataTaskFailed() throws Exception {
+
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH +
+                                                          "/algo/12345/data?waitMs=0");
+
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            CytoContainerResultStatus eqs = new CytoContainerResultStatus();
+            eqs.setStatus(CytoContainerResult.FAILED_STATUS);
+            eqs.setMessage("out of memory");
+            expect(mockEngine.getStatus("algo","12345")).andReturn(eqs);
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            
+            invokeAsync(dispatcher, request, response);
+            assertEquals(500, response.getStatus());
+            ObjectMapper mapper = new ObjectMapper();
+            ErrorResponse er = mapper.readValue(response.getOutput(),
+                    ErrorResponse.class);
+            assertEquals("Task 12345 failed", er.getMessage());
+            assertEquals("out of memory", er.getDescription());
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
     @Test
     public void testDeleteWhereEnrichmentEngineNotLoaded() throws Exception {
 
@@ -600,4 +1141,66 @@ public class TestCytoContainer {
             _folder.delete();
         }
     }
+    
+    @Test
+    public void testGetRequestEventsSuccess() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH + "/algo/12345/events");
+            request.accept(MediaType.SERVER_SENT_EVENTS);
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            mockEngine.subscribe(eq("algo"), eq("12345"), notNull());
+            expectLastCall().andAnswer(() -> {
+                TaskStatusSubscriber sub = (TaskStatusSubscriber)getCurrentArguments()[2];
+                CytoContainerResultStatus status = new CytoContainerResultStatus();
+                status.setId("12345");
+                status.setStatus(CytoContainerResult.COMPLETE_STATUS);
+                status.setProgress(100);
+                assertTrue(sub.isOpen());
+                assertTrue(sub.statusUpdated(status));
+                sub.close();
+                return null;
+            });
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            dispatcher.invoke(request, response);
+            String output = response.getContentAsString();
+            assertTrue(output, output.contains("event: " + SseTaskStatusSubscriber.STATUS_EVENT));
+            assertTrue(output, output.contains("\"progress\":100"));
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
+    
+    @Test
+    public void testGetRequestEventsTaskNotFound() throws Exception {
+        try {
+            File tempDir = _folder.newFolder();
+            File confFile = createBasicConfigurationFile(tempDir);
+            Dispatcher dispatcher = getDispatcher();
+            MockHttpRequest request = MockHttpRequest.get(Configuration.V_ONE_PATH + "/algo/12345/events");
+            request.accept(MediaType.SERVER_SENT_EVENTS);
+            MockHttpResponse response = new MockHttpResponse();
+            Configuration.setAlternateConfigurationFile(confFile.getAbsolutePath());
+            
+            CytoContainerEngine mockEngine = createMock(CytoContainerEngine.class);
+            mockEngine.subscribe(eq("algo"), eq("12345"), notNull());
+            expectLastCall().andThrow(new CytoContainerBadRequestException("No task with id of 12345 found"));
+            replay(mockEngine);
+            Configuration.getInstance().setCytoContainerEngine(mockEngine);
+            dispatcher.invoke(request, response);
+            String output = response.getContentAsString();
+            assertTrue(output, output.contains("event: " + SseTaskStatusSubscriber.ERROR_EVENT));
+            assertTrue(output, output.contains("No task with id of 12345 found"));
+            verify(mockEngine);
+        } finally {
+            _folder.delete();
+        }
+    }
 }
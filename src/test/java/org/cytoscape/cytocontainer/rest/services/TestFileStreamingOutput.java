@@ -0,0 +1,53 @@
+package org.cytoscape.cytocontainer.rest.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author churas
+ */
+public class TestFileStreamingOutput {
+
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+
+	@Test
+	public void testFileDoesNotExist() throws Exception {
+		try {
+			new FileStreamingOutput(new File(_folder.getRoot(), "doesnotexist"));
+			fail("Expected NoSuchFileException");
+		} catch(NoSuchFileException nsfe){
+			assertTrue(nsfe.getMessage().endsWith("doesnotexist"));
+		}
+	}
+
+	@Test
+	public void testWriteAfterFileRemoved() throws Exception {
+		File file = _folder.newFile();
+		try (FileWriter fw = new FileWriter(file)){
+			fw.write("0123456789");
+		}
+		FileStreamingOutput fullOut = new FileStreamingOutput(file);
+		FileStreamingOutput rangeOut = new FileStreamingOutput(file).getRange(2, 4);
+		assertEquals(10L, fullOut.getLength());
+		assertEquals(4L, rangeOut.getLength());
+		assertTrue(file.delete());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		fullOut.write(out);
+		assertEquals("0123456789", out.toString(StandardCharsets.UTF_8));
+		out = new ByteArrayOutputStream();
+		rangeOut.write(out);
+		assertEquals("2345", out.toString(StandardCharsets.UTF_8));
+	}
+}
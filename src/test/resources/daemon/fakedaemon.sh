@@ -0,0 +1,88 @@
+#!/bin/sh
+#
+# Stands in for docker when testing algorithms run in daemon mode. It is
+# invoked the same way docker is:
+#
+#   fakedaemon.sh run -i --rm --name <name> -v <dir>:<dir><mount options> <image> [args]
+#   fakedaemon.sh rm -f <name>
+#
+# and behaves like a daemon mode container would: it reads one JSON
+# envelope per line from standard input, answers {"type":"ping"} with
+# @@PONG, and for each task writes @@PROGRESS and @@MESSAGE lines
+# followed by @@RESULT <exit code> <number of bytes> and a JSON result
+# to standard out. Supported args:
+#
+#   --noping                    do not answer pings
+#
+# Supported task parameters:
+#
+#   --exitcode <number>         exit code to return (default 0)
+#   --sleep <seconds>           time to sleep before returning result
+#   --crash                     exit without returning a result
+#
+
+if [ "$1" = "rm" ] ; then
+  exit 0
+fi
+
+if [ "$1" != "run" ] ; then
+  echo "Only run and rm are supported" >&2
+  exit 1
+fi
+shift
+
+# skip docker options up to and including the volume mapping
+while [ $# -gt 0 ] ; do
+  case "$1" in
+    -v)
+      shift 2
+      break
+      ;;
+    *)
+      shift
+      ;;
+  esac
+done
+
+image="$1"
+shift
+
+noping=0
+for arg in "$@" ; do
+  case "$arg" in
+    --noping) noping=1 ;;
+  esac
+done
+
+# gets value of string field $1 from envelope $2
+field() {
+  echo "$2" | sed -n "s/.*\"$1\":\"\([^\"]*\)\".*/\1/p"
+}
+
+echo "$image started" >&2
+count=0
+while IFS= read -r line ; do
+  if [ "`field type "$line"`" = "ping" ] ; then
+    if [ $noping -eq 0 ] ; then
+      echo "@@PONG"
+    fi
+    continue
+  fi
+  count=`expr $count + 1`
+  id=`field id "$line"`
+  inputfile=`field input "$line"`
+  exitcode=`field "--exitcode" "$line"`
+  sleepsecs=`field "--sleep" "$line"`
+  case "$line" in
+    *'"--crash"'*) exit 3 ;;
+  esac
+  inputsize=`wc -c < "$inputfile" | tr -d ' '`
+  echo "@@MESSAGE $image read $inputsize bytes of input"
+  echo "@@PROGRESS 50"
+  if [ -n "$sleepsecs" ] ; then
+    sleep "$sleepsecs"
+  fi
+  result="{\"id\": \"$id\", \"pid\": $$, \"count\": $count}"
+  echo "@@RESULT ${exitcode:-0} `printf '%s' "$result" | wc -c | tr -d ' '`"
+  printf '%s' "$result"
+done